@@ -0,0 +1,71 @@
+package com.offerverdict.config;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The canonical-host decision for a direct hit, a request behind a proxy that forwards
+ * scheme and host, and a www request that gets redirected. Run with -prof gc to see that
+ * the first two allocate nothing once the decision is cached.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CanonicalHostRedirectFilterBenchmark {
+
+    @Param({"canonical", "proxied", "redirect"})
+    public String scenario;
+
+    private CanonicalHostRedirectFilter filter;
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        AppProperties props = new AppProperties();
+        props.setPublicBaseUrl("https://livingcostcheck.com");
+        props.setEnforceCanonicalHostRedirect(true);
+        filter = new CanonicalHostRedirectFilter(props);
+
+        request = new MockHttpServletRequest("GET", "/salary-check/austin-tx/120000");
+        switch (scenario) {
+            case "canonical" -> {
+                request.setServerName("livingcostcheck.com");
+                request.setServerPort(443);
+                request.setScheme("https");
+                request.addHeader("Host", "livingcostcheck.com");
+            }
+            case "proxied" -> {
+                request.setServerName("10.0.3.7");
+                request.setServerPort(8080);
+                request.setScheme("http");
+                request.addHeader("Host", "offer-verdict:8080");
+                request.addHeader("X-Forwarded-Host", "livingcostcheck.com");
+                request.addHeader("X-Forwarded-Proto", "https");
+                request.addHeader("X-Forwarded-Port", "443");
+                request.addHeader("CF-Visitor", "{\"scheme\":\"https\"}");
+            }
+            case "redirect" -> {
+                request.setServerName("www.livingcostcheck.com");
+                request.setServerPort(443);
+                request.setScheme("https");
+                request.addHeader("Host", "www.livingcostcheck.com");
+                request.setQueryString("ref=abc");
+            }
+            default -> throw new IllegalArgumentException(scenario);
+        }
+    }
+
+    @Benchmark
+    public String decide() {
+        return filter.redirectLocation(request);
+    }
+}
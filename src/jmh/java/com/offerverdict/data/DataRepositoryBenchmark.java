@@ -0,0 +1,40 @@
+package com.offerverdict.data;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.model.CityCostEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DataRepositoryBenchmark {
+
+    // Exact slug, display-style name, prefix match, substring match, and a miss.
+    @Param({"austin-tx", "San Francisco, CA", "seattle", "york", "nowhere-zz"})
+    public String query;
+
+    private DataRepository repository;
+
+    @Setup
+    public void setUp() {
+        repository = new DataRepository(new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+        repository.reload();
+    }
+
+    @Benchmark
+    public Optional<CityCostEntry> findCityLoosely() {
+        return repository.findCityLoosely(query);
+    }
+}
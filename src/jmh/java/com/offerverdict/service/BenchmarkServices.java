@@ -0,0 +1,44 @@
+package com.offerverdict.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
+import com.offerverdict.config.AppProperties;
+import com.offerverdict.data.DataRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Wires the calculation services by hand, as Spring would, so benchmarks measure the
+ * services rather than context startup.
+ */
+final class BenchmarkServices {
+
+    final DataRepository repository;
+    final TaxCalculatorService taxCalculatorService;
+    final FinancialEngine financialEngine;
+    final AppProperties appProperties;
+    final SingleCityAnalysisService singleCityAnalysisService;
+    final ComparisonService comparisonService;
+    final OfferTextParserService offerTextParserService;
+
+    BenchmarkServices() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        repository = new DataRepository(objectMapper);
+        repository.reload();
+
+        appProperties = new AppProperties();
+        // Mirrors application.yml; the rest of the decision-model defaults live on AppProperties.
+        appProperties.setBaselineLivingCost(1800);
+
+        AppMetrics metrics = new AppMetrics(new SimpleMeterRegistry());
+        taxCalculatorService = new TaxCalculatorService(repository);
+        taxCalculatorService.init();
+        financialEngine = new FinancialEngine(repository);
+        singleCityAnalysisService = new SingleCityAnalysisService(taxCalculatorService, financialEngine, appProperties,
+                metrics);
+        comparisonService = new ComparisonService(repository, taxCalculatorService, appProperties, financialEngine,
+                new VerdictAdviser(), singleCityAnalysisService, metrics);
+        offerTextParserService = new OfferTextParserService(repository, metrics);
+    }
+}
@@ -0,0 +1,58 @@
+package com.offerverdict.service;
+
+import com.offerverdict.model.CityCostEntry;
+import com.offerverdict.model.ComparisonBreakdown;
+import com.offerverdict.model.ComparisonResult;
+import com.offerverdict.model.HouseholdType;
+import com.offerverdict.model.HousingType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CalculationBenchmark {
+
+    @Param({"95000", "185000"})
+    public double salary;
+
+    private BenchmarkServices services;
+    private CityCostEntry austin;
+
+    @Setup
+    public void setUp() {
+        services = new BenchmarkServices();
+        austin = services.repository.getCity("austin-tx");
+    }
+
+    @Benchmark
+    public TaxCalculatorService.TaxResult calculateTax() {
+        return services.taxCalculatorService.calculateTax(salary, "CA", false, 0.06, 250.0, 0.0, 12000.0);
+    }
+
+    @Benchmark
+    public double estimateNetIncome() {
+        return services.taxCalculatorService.estimateNetIncome(salary, "CA", false, null, null);
+    }
+
+    @Benchmark
+    public ComparisonBreakdown analyzeSingleCity() {
+        return services.singleCityAnalysisService.analyze(salary, austin, null,
+                HouseholdType.SINGLE, HousingType.RENT, false, 0.06, 250.0,
+                0.0, 150.0, 0.0, false, true, 10000.0, 15000.0, 1.0, 25.0);
+    }
+
+    @Benchmark
+    public ComparisonResult compareCities() {
+        return services.comparisonService.compare("austin-tx", "san-francisco-ca", salary, salary * 1.25,
+                HouseholdType.SINGLE, HousingType.RENT, false, 0.0, 0.0, 0.0, 0.0, false, true);
+    }
+}
@@ -0,0 +1,79 @@
+package com.offerverdict.service;
+
+import com.offerverdict.config.AppMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One small, clean offer screenshot through the full image OCR path. Each call takes
+ * seconds, so this runs far fewer iterations than the in-memory benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OfferDocumentOcrBenchmark {
+
+    private OfferDocumentOcrService ocrService;
+    private byte[] smallImage;
+
+    @Setup
+    public void setUp() throws IOException {
+        ocrService = new OfferDocumentOcrService(new AppMetrics(new SimpleMeterRegistry()));
+        smallImage = pngBytes(
+                "REGISTERED NURSE",
+                "SEATTLE WA TELEMETRY",
+                "BASE PAY $58.00 HOURLY",
+                "3X12 NIGHT SHIFT");
+    }
+
+    @Benchmark
+    public String extractSmallImage() throws IOException {
+        return ocrService.extractImageText(smallImage);
+    }
+
+    private static byte[] pngBytes(String... lines) throws IOException {
+        BufferedImage image = new BufferedImage(900, 120 + lines.length * 70, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.setColor(Color.BLACK);
+            graphics.setFont(new Font("SansSerif", Font.BOLD, 36));
+            graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            int y = 80;
+            for (String line : lines) {
+                graphics.drawString(line, 40, y);
+                y += 70;
+            }
+        } finally {
+            graphics.dispose();
+        }
+
+        try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+            ImageIO.write(image, "png", output);
+            return output.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.offerverdict.service;
+
+import com.offerverdict.model.OfferTextParseResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses the scale-test corpora one input per invocation, cycling through the corpus so
+ * the score is the mean cost of a realistic input mix.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OfferTextParserBenchmark {
+
+    @Param({"all", "agent1", "agent7", "naturalLanguage"})
+    public String corpus;
+
+    private OfferTextParserService parser;
+    private ParserCorpora.Input[] inputs;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        parser = new BenchmarkServices().offerTextParserService;
+        List<ParserCorpora.Input> selected = "all".equals(corpus) ? ParserCorpora.all() : ParserCorpora.named(corpus);
+        inputs = selected.toArray(ParserCorpora.Input[]::new);
+    }
+
+    @Benchmark
+    public OfferTextParseResult parse() {
+        ParserCorpora.Input input = inputs[next];
+        next = next + 1 == inputs.length ? 0 : next + 1;
+        return parser.parse(input.text(), input.analysisMode());
+    }
+}
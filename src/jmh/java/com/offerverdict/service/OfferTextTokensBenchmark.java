@@ -0,0 +1,125 @@
+package com.offerverdict.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenizes the scale-test corpora with the single-pass lexer and with the regex extractor it
+ * replaced: an anchored {@code lookingAt} per grammar at every candidate offset, then one
+ * {@code find} loop per keyword. Both return their span count so neither is dead code.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OfferTextTokensBenchmark {
+
+    private static final OfferKeyword[] KEYWORDS = OfferKeyword.values();
+    private static final Pattern[] KEYWORD_PATTERNS = new Pattern[KEYWORDS.length];
+
+    static {
+        for (OfferKeyword keyword : KEYWORDS) {
+            KEYWORD_PATTERNS[keyword.ordinal()] = Pattern.compile(
+                    "(?<![A-Za-z0-9])" + Pattern.quote(keyword.phrase()) + "(?![A-Za-z0-9])",
+                    Pattern.CASE_INSENSITIVE);
+        }
+    }
+
+    @Param({"all", "agent7", "naturalLanguage"})
+    public String corpus;
+
+    private String[] texts;
+    private String[] lowerTexts;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<ParserCorpora.Input> selected = "all".equals(corpus) ? ParserCorpora.all() : ParserCorpora.named(corpus);
+        texts = selected.stream().map(ParserCorpora.Input::text).toArray(String[]::new);
+        lowerTexts = selected.stream().map(input -> input.text().toLowerCase(Locale.US)).toArray(String[]::new);
+    }
+
+    @Benchmark
+    public int singlePass() {
+        int index = advance();
+        OfferTextTokens tokens = OfferTextTokens.lex(texts[index], lowerTexts[index]);
+        int count = 0;
+        for (OfferTextTokens.Kind kind : OfferTextTokens.LEXED) {
+            count += tokens.all(kind).size();
+        }
+        for (OfferKeyword keyword : KEYWORDS) {
+            count += tokens.keywordHits(keyword).size();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int regexPerGrammarAndKeyword() {
+        String text = texts[advance()];
+        OfferTextTokens.Kind[] lexed = OfferTextTokens.LEXED;
+        Matcher[] matchers = new Matcher[lexed.length];
+        int[] resumeAt = new int[lexed.length];
+        for (int k = 0; k < lexed.length; k++) {
+            matchers[k] = lexed[k].pattern().matcher(text).useTransparentBounds(true).useAnchoringBounds(false);
+        }
+        int count = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            boolean digit = c >= '0' && c <= '9';
+            boolean spaceBeforeDigit = !digit && c != '$' && isRegexSpace(c) && digitAfterSpaces(text, i);
+            if (!digit && c != '$' && !spaceBeforeDigit) {
+                continue;
+            }
+            for (int k = 0; k < lexed.length; k++) {
+                boolean mayStartWithSpace = lexed[k] == OfferTextTokens.Kind.HOURLY_RATE
+                        || lexed[k] == OfferTextTokens.Kind.HOURLY_RANGE;
+                if (i < resumeAt[k] || (spaceBeforeDigit && !mayStartWithSpace)) {
+                    continue;
+                }
+                Matcher matcher = matchers[k];
+                matcher.region(i, length);
+                if (matcher.lookingAt()) {
+                    resumeAt[k] = Math.max(i + 1, matcher.end());
+                    count++;
+                }
+            }
+        }
+        for (Pattern keyword : KEYWORD_PATTERNS) {
+            Matcher matcher = keyword.matcher(text);
+            while (matcher.find()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean digitAfterSpaces(String text, int index) {
+        int i = index;
+        while (i < text.length() && isRegexSpace(text.charAt(i))) {
+            i++;
+        }
+        return i < text.length() && text.charAt(i) >= '0' && text.charAt(i) <= '9';
+    }
+
+    private int advance() {
+        int index = next;
+        next = next + 1 == texts.length ? 0 : next + 1;
+        return index;
+    }
+}
@@ -0,0 +1,66 @@
+package com.offerverdict.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * Requires {@code Authorization: Bearer <app.adminToken>} on the operator endpoints that
+ * expose visitor data or touch the disk. Their own enable flags still apply on top.
+ *
+ * Registered by {@link AdminWebConfig} as a handler interceptor, so it matches the same
+ * decoded path, without {@code ;} parameters, that picks the controller; percent-encoded or
+ * parameterized spellings of a protected path cannot reach it unchecked.
+ *
+ * Without a configured token the endpoints answer 404, so a deployment that never set one
+ * cannot expose them by flipping a flag. Tokens are compared by digest in constant time.
+ */
+class AdminTokenInterceptor implements HandlerInterceptor {
+
+    static final List<String> PROTECTED_PATTERNS = List.of("/admin/lead-events/**", "/admin/jfr/**");
+    private static final String BEARER = "Bearer ";
+
+    private final AppProperties appProperties;
+
+    AdminTokenInterceptor(AppProperties appProperties) {
+        this.appProperties = appProperties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        String expected = appProperties.getAdminToken();
+        if (expected == null || expected.isBlank()) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return false;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())
+                || !matches(expected.trim(), authorization.substring(BEARER.length()).trim())) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.sendError(HttpStatus.UNAUTHORIZED.value());
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean matches(String expected, String presented) {
+        return MessageDigest.isEqual(sha256(expected), sha256(presented));
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
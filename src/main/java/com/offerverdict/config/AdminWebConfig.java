@@ -0,0 +1,24 @@
+package com.offerverdict.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Puts the operator endpoints behind the admin token.
+ */
+@Configuration
+public class AdminWebConfig implements WebMvcConfigurer {
+
+    private final AppProperties appProperties;
+
+    public AdminWebConfig(AppProperties appProperties) {
+        this.appProperties = appProperties;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new AdminTokenInterceptor(appProperties))
+                .addPathPatterns(AdminTokenInterceptor.PROTECTED_PATTERNS);
+    }
+}
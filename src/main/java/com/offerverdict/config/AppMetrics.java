@@ -0,0 +1,74 @@
+package com.offerverdict.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Names and helpers for the application's own meters, so services record timings and
+ * fallback/cache counters the same way. Everything is exported through the actuator
+ * Prometheus endpoint.
+ */
+@Component
+public class AppMetrics {
+
+    public static final String DOCUMENT_EXTRACT = "offerverdict.document.extract";
+    public static final String OCR_CANDIDATES = "offerverdict.ocr.candidates";
+    public static final String OCR_TIMEOUTS = "offerverdict.ocr.timeouts";
+    public static final String PARSE = "offerverdict.parse";
+    public static final String PARSE_BATCH = "offerverdict.parse.batch";
+    public static final String RISK_ASSESS = "offerverdict.risk.assess";
+    public static final String COMPARISON_COMPUTE = "offerverdict.comparison.compute";
+    public static final String VIEW_RENDER = "offerverdict.view.render";
+    public static final String LEAD_WRITE = "offerverdict.lead.write";
+    public static final String FALLBACK = "offerverdict.fallback";
+    public static final String CACHE_REQUESTS = "offerverdict.cache.requests";
+
+    private final MeterRegistry registry;
+
+    public AppMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Metrics backed by a private in-memory registry, for services built outside Spring.
+     */
+    public MeterRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Records the time since {@code startNanos} (a {@link System#nanoTime()} reading).
+     */
+    public void recordSince(String timer, long startNanos, String... tags) {
+        registry.timer(timer, tags).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordOcrCandidates(String source, int candidates) {
+        DistributionSummary.builder(OCR_CANDIDATES)
+                .baseUnit("candidates")
+                .tag("source", source)
+                .register(registry)
+                .record(candidates);
+    }
+
+    /**
+     * Counts an OCR run cut short by its time budget on {@code path} (image_ocr or pdf_ocr).
+     */
+    public void ocrTimeout(String path) {
+        registry.counter(OCR_TIMEOUTS, "path", path).increment();
+    }
+
+    /**
+     * Counts a degraded code path, e.g. a default used because a lookup or a load failed.
+     */
+    public void fallback(String branch) {
+        registry.counter(FALLBACK, "branch", branch).increment();
+    }
+
+    public void cacheLookup(String cache, boolean hit) {
+        registry.counter(CACHE_REQUESTS, "cache", cache, "result", hit ? "hit" : "miss").increment();
+    }
+}
@@ -8,7 +8,7 @@ import org.springframework.stereotype.Component;
 public class AppProperties {
     private String publicBaseUrl;
     private double baselineLivingCost;
-    private int sitemapChunkSize = 25;
+    private int sitemapChunkSize = 5000;
     private boolean devReloadEnabled = false;
 
     // SEO / Salary Bucket Config
@@ -25,6 +25,26 @@ public class AppProperties {
     private boolean enforceCanonicalHostRedirect = true;
     private boolean enforceCanonicalSchemeRedirect = false;
 
+    // Per-client rate limits (burst = bucket size, perMinute = refill rate)
+    private boolean rateLimitEnabled = true;
+    private int rateLimitOcrBurst = 6;
+    private double rateLimitOcrPerMinute = 6;
+    private int rateLimitApiBurst = 60;
+    private double rateLimitApiPerMinute = 120;
+    private int rateLimitLeadBurst = 20;
+    private double rateLimitLeadPerMinute = 30;
+    private int rateLimitBatchBurst = 500;
+    private double rateLimitBatchPerMinute = 500;
+    private int rateLimitMaxTrackedClients = 50000;
+
+    // Per-request stage tracing (Server-Timing header, slow-request log; 0 disables the log)
+    private boolean requestTraceEnabled = false;
+    private boolean requestTraceAllocations = true;
+    private long requestTraceSlowMillis = 0;
+
+    // Bearer token for the operator endpoints guarded by AdminTokenInterceptor; blank disables them
+    private String adminToken = "";
+
     public String getPublicBaseUrl() {
         return publicBaseUrl;
     }
@@ -136,4 +156,116 @@ public class AppProperties {
     public void setEnforceCanonicalSchemeRedirect(boolean enforceCanonicalSchemeRedirect) {
         this.enforceCanonicalSchemeRedirect = enforceCanonicalSchemeRedirect;
     }
+
+    public boolean isRateLimitEnabled() {
+        return rateLimitEnabled;
+    }
+
+    public void setRateLimitEnabled(boolean rateLimitEnabled) {
+        this.rateLimitEnabled = rateLimitEnabled;
+    }
+
+    public int getRateLimitOcrBurst() {
+        return rateLimitOcrBurst;
+    }
+
+    public void setRateLimitOcrBurst(int rateLimitOcrBurst) {
+        this.rateLimitOcrBurst = rateLimitOcrBurst;
+    }
+
+    public double getRateLimitOcrPerMinute() {
+        return rateLimitOcrPerMinute;
+    }
+
+    public void setRateLimitOcrPerMinute(double rateLimitOcrPerMinute) {
+        this.rateLimitOcrPerMinute = rateLimitOcrPerMinute;
+    }
+
+    public int getRateLimitApiBurst() {
+        return rateLimitApiBurst;
+    }
+
+    public void setRateLimitApiBurst(int rateLimitApiBurst) {
+        this.rateLimitApiBurst = rateLimitApiBurst;
+    }
+
+    public double getRateLimitApiPerMinute() {
+        return rateLimitApiPerMinute;
+    }
+
+    public void setRateLimitApiPerMinute(double rateLimitApiPerMinute) {
+        this.rateLimitApiPerMinute = rateLimitApiPerMinute;
+    }
+
+    public int getRateLimitLeadBurst() {
+        return rateLimitLeadBurst;
+    }
+
+    public void setRateLimitLeadBurst(int rateLimitLeadBurst) {
+        this.rateLimitLeadBurst = rateLimitLeadBurst;
+    }
+
+    public double getRateLimitLeadPerMinute() {
+        return rateLimitLeadPerMinute;
+    }
+
+    public void setRateLimitLeadPerMinute(double rateLimitLeadPerMinute) {
+        this.rateLimitLeadPerMinute = rateLimitLeadPerMinute;
+    }
+
+    public int getRateLimitBatchBurst() {
+        return rateLimitBatchBurst;
+    }
+
+    public void setRateLimitBatchBurst(int rateLimitBatchBurst) {
+        this.rateLimitBatchBurst = rateLimitBatchBurst;
+    }
+
+    public double getRateLimitBatchPerMinute() {
+        return rateLimitBatchPerMinute;
+    }
+
+    public void setRateLimitBatchPerMinute(double rateLimitBatchPerMinute) {
+        this.rateLimitBatchPerMinute = rateLimitBatchPerMinute;
+    }
+
+    public int getRateLimitMaxTrackedClients() {
+        return rateLimitMaxTrackedClients;
+    }
+
+    public void setRateLimitMaxTrackedClients(int rateLimitMaxTrackedClients) {
+        this.rateLimitMaxTrackedClients = rateLimitMaxTrackedClients;
+    }
+
+    public boolean isRequestTraceEnabled() {
+        return requestTraceEnabled;
+    }
+
+    public void setRequestTraceEnabled(boolean requestTraceEnabled) {
+        this.requestTraceEnabled = requestTraceEnabled;
+    }
+
+    public boolean isRequestTraceAllocations() {
+        return requestTraceAllocations;
+    }
+
+    public void setRequestTraceAllocations(boolean requestTraceAllocations) {
+        this.requestTraceAllocations = requestTraceAllocations;
+    }
+
+    public long getRequestTraceSlowMillis() {
+        return requestTraceSlowMillis;
+    }
+
+    public void setRequestTraceSlowMillis(long requestTraceSlowMillis) {
+        this.requestTraceSlowMillis = requestTraceSlowMillis;
+    }
+
+    public String getAdminToken() {
+        return adminToken;
+    }
+
+    public void setAdminToken(String adminToken) {
+        this.adminToken = adminToken;
+    }
 }
@@ -13,14 +13,30 @@ import org.springframework.web.util.UriComponentsBuilder;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.Set;
 
+/**
+ * Sends GET/HEAD requests for a public, non-canonical host (or, when enabled, scheme) to the
+ * configured public base URL with a 301.
+ *
+ * The base URL is parsed once per configuration change. Proxy headers are read through
+ * {@link HeaderTokens} without copying, and decisions for recently seen (host, port, scheme
+ * signals) tuples are kept in a small direct-mapped table, so a request that is already
+ * canonical costs a few header reads and one table probe.
+ */
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE + 20)
 public class CanonicalHostRedirectFilter extends OncePerRequestFilter {
 
     private static final Set<String> LOCAL_HOSTS = Set.of("localhost", "127.0.0.1", "::1", "[::1]");
+    private static final int DECISION_SLOTS = 64;
+    private static final int SAME_SCHEME = 1;
+    private static final int EXPLICIT_SCHEME = 2;
+    private static final int EXPLICIT_PORT = 4;
+
     private final AppProperties appProperties;
+    private volatile Canonical canonical;
 
     public CanonicalHostRedirectFilter(AppProperties appProperties) {
         this.appProperties = appProperties;
@@ -31,6 +47,11 @@ public class CanonicalHostRedirectFilter extends OncePerRequestFilter {
         if (!appProperties.isEnforceCanonicalHostRedirect()) {
             return true;
         }
+        // Scrapers and health checks reach the app by internal host names.
+        String path = request.getRequestURI();
+        if (path != null && path.startsWith("/actuator/")) {
+            return true;
+        }
         String method = request.getMethod();
         return !("GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method));
     }
@@ -38,264 +59,249 @@ public class CanonicalHostRedirectFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        URI canonicalBase = resolveCanonicalBaseUri();
-        if (canonicalBase == null || canonicalBase.getHost() == null || canonicalBase.getScheme() == null) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        String requestScheme = resolveRequestScheme(request);
-        String requestHost = resolveRequestHost(request);
-        int requestPort = resolveRequestPort(request, requestScheme);
-
-        if (requestHost == null || isInternalHost(requestHost)) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        String canonicalScheme = canonicalBase.getScheme();
-        String canonicalHost = canonicalBase.getHost();
-        int canonicalPort = normalizePort(canonicalBase.getPort(), canonicalScheme);
-        int normalizedRequestPort = normalizePort(requestPort, requestScheme);
-
-        boolean sameScheme = canonicalScheme.equalsIgnoreCase(requestScheme);
-        boolean sameHost = canonicalHost.equalsIgnoreCase(requestHost);
-        boolean samePort = canonicalPort == normalizedRequestPort;
-
-        if (sameHost && !appProperties.isEnforceCanonicalSchemeRedirect()) {
+        String redirectUrl = redirectLocation(request);
+        if (redirectUrl == null) {
             filterChain.doFilter(request, response);
             return;
         }
-
-        // Some reverse proxies preserve Host but do not forward the external scheme/port.
-        // In that case redirecting to the same canonical URL causes an infinite loop.
-        if (sameHost && (!sameScheme || !samePort) && !hasExplicitSchemeSignal(request) && !hasExplicitPortSignal(request)) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        if (sameScheme && sameHost && samePort) {
-            filterChain.doFilter(request, response);
-            return;
-        }
-
-        String redirectUrl = UriComponentsBuilder
-                .fromUri(canonicalBase)
-                .replacePath(request.getRequestURI())
-                .replaceQuery(request.getQueryString())
-                .build(true)
-                .toUriString();
-
         response.setStatus(HttpServletResponse.SC_MOVED_PERMANENTLY);
         response.setHeader("Location", redirectUrl);
     }
 
-    private URI resolveCanonicalBaseUri() {
-        String baseUrl = appProperties.getPublicBaseUrl();
-        if (baseUrl == null || baseUrl.isBlank()) {
+    /**
+     * The canonical URL to send this request to, or null to serve it as is.
+     */
+    String redirectLocation(HttpServletRequest request) {
+        Canonical canonical = canonical();
+        if (canonical.baseUri == null) {
             return null;
         }
-        try {
-            return URI.create(baseUrl.trim());
-        } catch (IllegalArgumentException ignored) {
-            return null;
-        }
-    }
-
-    private String resolveRequestScheme(HttpServletRequest request) {
-        String forwardedProtoFromHeader = forwardedPairValue(request, "proto");
-        if (forwardedProtoFromHeader != null && !forwardedProtoFromHeader.isBlank()) {
-            return forwardedProtoFromHeader.toLowerCase(Locale.US);
-        }
-
-        String forwardedProto = firstHeaderToken(request.getHeader("X-Forwarded-Proto"));
-        if (forwardedProto != null && !forwardedProto.isBlank()) {
-            return forwardedProto.toLowerCase(Locale.US);
-        }
-
-        if ("on".equalsIgnoreCase(firstHeaderToken(request.getHeader("X-Forwarded-Ssl")))
-                || "on".equalsIgnoreCase(firstHeaderToken(request.getHeader("Front-End-Https")))) {
-            return "https";
-        }
 
+        String forwarded = request.getHeader("Forwarded");
+        long forwardedProto = HeaderTokens.forwardedPair(forwarded, "proto");
+        long forwardedHostPair = HeaderTokens.forwardedPair(forwarded, "host");
+        String forwardedHostHeader = request.getHeader("X-Forwarded-Host");
+        long forwardedHostToken = HeaderTokens.firstToken(forwardedHostHeader);
+        String hostHeader = request.getHeader("Host");
+        long hostToken = HeaderTokens.firstToken(hostHeader);
+        String forwardedProtoHeader = request.getHeader("X-Forwarded-Proto");
+        long forwardedProtoToken = HeaderTokens.firstToken(forwardedProtoHeader);
+        String forwardedSslHeader = request.getHeader("X-Forwarded-Ssl");
+        long forwardedSslToken = HeaderTokens.firstToken(forwardedSslHeader);
+        String frontEndHttpsHeader = request.getHeader("Front-End-Https");
+        long frontEndHttpsToken = HeaderTokens.firstToken(frontEndHttpsHeader);
         String cfVisitorScheme = cfVisitorScheme(request.getHeader("CF-Visitor"));
-        if (cfVisitorScheme != null) {
-            return cfVisitorScheme;
-        }
-
-        if (request.isSecure()) {
-            return "https";
-        }
-
-        return request.getScheme() != null ? request.getScheme().toLowerCase(Locale.US) : "https";
-    }
-
-    private String resolveRequestHost(HttpServletRequest request) {
-        String forwardedHost = forwardedPairValue(request, "host");
-        if (forwardedHost == null) {
-            forwardedHost = firstHeaderToken(request.getHeader("X-Forwarded-Host"));
-        }
-        String hostHeader = firstHeaderToken(request.getHeader("Host"));
-        String candidate = forwardedHost != null
-                ? forwardedHost
-                : (hostHeader != null ? hostHeader : request.getServerName());
-        if (candidate == null || candidate.isBlank()) {
+        String forwardedPortHeader = request.getHeader("X-Forwarded-Port");
+        long forwardedPortToken = HeaderTokens.firstToken(forwardedPortHeader);
+        boolean secure = request.isSecure();
+
+        // Scheme: Forwarded proto, X-Forwarded-Proto, SSL flags, CF-Visitor, then the connection.
+        String schemeSource;
+        long scheme;
+        if (HeaderTokens.hasText(forwarded, forwardedProto)) {
+            schemeSource = forwarded;
+            scheme = forwardedProto;
+        } else if (HeaderTokens.hasText(forwardedProtoHeader, forwardedProtoToken)) {
+            schemeSource = forwardedProtoHeader;
+            scheme = forwardedProtoToken;
+        } else if (HeaderTokens.regionEqualsIgnoreCase(forwardedSslHeader, forwardedSslToken, "on")
+                || HeaderTokens.regionEqualsIgnoreCase(frontEndHttpsHeader, frontEndHttpsToken, "on")) {
+            schemeSource = "https";
+            scheme = HeaderTokens.whole(schemeSource);
+        } else if (cfVisitorScheme != null) {
+            schemeSource = cfVisitorScheme;
+            scheme = HeaderTokens.whole(schemeSource);
+        } else if (secure) {
+            schemeSource = "https";
+            scheme = HeaderTokens.whole(schemeSource);
+        } else {
+            schemeSource = request.getScheme() != null ? request.getScheme() : "https";
+            scheme = HeaderTokens.whole(schemeSource);
+        }
+        boolean http = HeaderTokens.regionEqualsIgnoreCase(schemeSource, scheme, "http");
+
+        // Host: Forwarded host, else X-Forwarded-Host, else Host, else the server name.
+        String proxyHostSource = forwardedHostPair != HeaderTokens.NONE ? forwarded : forwardedHostHeader;
+        long proxyHost = forwardedHostPair != HeaderTokens.NONE ? forwardedHostPair : forwardedHostToken;
+        String hostSource;
+        long hostCandidate;
+        if (proxyHost != HeaderTokens.NONE) {
+            hostSource = proxyHostSource;
+            hostCandidate = proxyHost;
+        } else if (hostToken != HeaderTokens.NONE) {
+            hostSource = hostHeader;
+            hostCandidate = hostToken;
+        } else {
+            hostSource = request.getServerName();
+            hostCandidate = HeaderTokens.whole(hostSource);
+        }
+        long host = HeaderTokens.host(hostSource, hostCandidate);
+        if (host == HeaderTokens.NONE) {
             return null;
         }
 
-        candidate = candidate.trim();
-        if (candidate.startsWith("[") && candidate.contains("]")) {
-            int end = candidate.indexOf(']');
-            return candidate.substring(0, end + 1);
-        }
-
-        int colonIndex = candidate.lastIndexOf(':');
-        if (colonIndex > 0 && candidate.indexOf(':') == colonIndex) {
-            return candidate.substring(0, colonIndex);
-        }
-        return candidate;
-    }
-
-    private int resolveRequestPort(HttpServletRequest request, String requestScheme) {
-        String forwardedPort = firstHeaderToken(request.getHeader("X-Forwarded-Port"));
-        if (forwardedPort != null) {
-            try {
-                return Integer.parseInt(forwardedPort);
-            } catch (NumberFormatException ignored) {
-                // Fallback below.
+        // Port: X-Forwarded-Port, a port on the proxy host, a port on Host, then the connector.
+        long port = forwardedPortToken == HeaderTokens.NONE
+                ? HeaderTokens.NO_PORT
+                : HeaderTokens.parsePort(forwardedPortHeader, HeaderTokens.start(forwardedPortToken),
+                        HeaderTokens.end(forwardedPortToken));
+        if (port == HeaderTokens.NO_PORT) {
+            port = HeaderTokens.explicitPort(proxyHostSource, proxyHost);
+            if (port == HeaderTokens.NO_PORT && !HeaderTokens.hasText(proxyHostSource, proxyHost)) {
+                port = HeaderTokens.explicitPort(hostHeader, hostToken);
+                if (port == HeaderTokens.NO_PORT && !HeaderTokens.hasText(hostHeader, hostToken)) {
+                    port = request.getServerPort();
+                }
             }
         }
+        int requestPort = normalizePort(port == HeaderTokens.NO_PORT ? -1 : port, http);
 
-        String forwardedHost = forwardedPairValue(request, "host");
-        if (forwardedHost == null) {
-            forwardedHost = firstHeaderToken(request.getHeader("X-Forwarded-Host"));
+        int flags = 0;
+        if (HeaderTokens.regionEqualsIgnoreCase(schemeSource, scheme, canonical.scheme)) {
+            flags |= SAME_SCHEME;
         }
-        Integer explicitForwardedPort = extractExplicitPort(forwardedHost);
-        if (explicitForwardedPort != null) {
-            return explicitForwardedPort;
+        if (forwardedProto != HeaderTokens.NONE
+                || HeaderTokens.hasText(forwardedProtoHeader, forwardedProtoToken)
+                || HeaderTokens.hasText(forwardedSslHeader, forwardedSslToken)
+                || HeaderTokens.hasText(frontEndHttpsHeader, frontEndHttpsToken)
+                || cfVisitorScheme != null
+                || secure) {
+            flags |= EXPLICIT_SCHEME;
         }
-        if (forwardedHost != null && !forwardedHost.isBlank()) {
-            return normalizePort(-1, requestScheme);
+        if (HeaderTokens.hasText(forwardedPortHeader, forwardedPortToken)
+                || HeaderTokens.explicitPort(forwarded, forwardedHostPair) != HeaderTokens.NO_PORT
+                || HeaderTokens.explicitPort(forwardedHostHeader, forwardedHostToken) != HeaderTokens.NO_PORT
+                || HeaderTokens.explicitPort(hostHeader, hostToken) != HeaderTokens.NO_PORT) {
+            flags |= EXPLICIT_PORT;
         }
 
-        String hostHeader = firstHeaderToken(request.getHeader("Host"));
-        Integer explicitHostPort = extractExplicitPort(hostHeader);
-        if (explicitHostPort != null) {
-            return explicitHostPort;
-        }
-        if (hostHeader != null && !hostHeader.isBlank()) {
-            return normalizePort(-1, requestScheme);
+        if (!canonical.redirects(hostSource, host, requestPort, flags)) {
+            return null;
         }
-
-        return normalizePort(request.getServerPort(), requestScheme);
-    }
-
-    private boolean hasExplicitSchemeSignal(HttpServletRequest request) {
-        return forwardedPairValue(request, "proto") != null
-                || hasText(firstHeaderToken(request.getHeader("X-Forwarded-Proto")))
-                || hasText(firstHeaderToken(request.getHeader("X-Forwarded-Ssl")))
-                || hasText(firstHeaderToken(request.getHeader("Front-End-Https")))
-                || cfVisitorScheme(request.getHeader("CF-Visitor")) != null
-                || request.isSecure();
+        return UriComponentsBuilder
+                .fromUri(canonical.baseUri)
+                .replacePath(request.getRequestURI())
+                .replaceQuery(request.getQueryString())
+                .build(true)
+                .toUriString();
     }
 
-    private boolean hasExplicitPortSignal(HttpServletRequest request) {
-        return hasText(firstHeaderToken(request.getHeader("X-Forwarded-Port")))
-                || extractExplicitPort(forwardedPairValue(request, "host")) != null
-                || extractExplicitPort(firstHeaderToken(request.getHeader("X-Forwarded-Host"))) != null
-                || extractExplicitPort(firstHeaderToken(request.getHeader("Host"))) != null;
+    private Canonical canonical() {
+        String baseUrl = appProperties.getPublicBaseUrl();
+        boolean enforceScheme = appProperties.isEnforceCanonicalSchemeRedirect();
+        Canonical current = canonical;
+        if (current == null || !Objects.equals(current.baseUrl, baseUrl) || current.enforceScheme != enforceScheme) {
+            current = new Canonical(baseUrl, enforceScheme);
+            canonical = current;
+        }
+        return current;
     }
 
-    private Integer extractExplicitPort(String hostHeader) {
-        if (hostHeader == null || hostHeader.isBlank()) {
+    private static String cfVisitorScheme(String cfVisitorHeader) {
+        if (cfVisitorHeader == null || cfVisitorHeader.isBlank()) {
             return null;
         }
-
-        String host = hostHeader.trim();
-        if (host.startsWith("[") && host.contains("]")) {
-            int end = host.indexOf(']');
-            if (host.length() > end + 2 && host.charAt(end + 1) == ':') {
-                try {
-                    return Integer.parseInt(host.substring(end + 2));
-                } catch (NumberFormatException ignored) {
-                    return null;
-                }
-            }
-            return null;
+        if (HeaderTokens.containsAsciiIgnoreCase(cfVisitorHeader, "\"scheme\":\"https\"")) {
+            return "https";
         }
-
-        int colonIndex = host.lastIndexOf(':');
-        if (colonIndex > 0 && host.indexOf(':') == colonIndex) {
-            try {
-                return Integer.parseInt(host.substring(colonIndex + 1));
-            } catch (NumberFormatException ignored) {
-                return null;
-            }
+        if (HeaderTokens.containsAsciiIgnoreCase(cfVisitorHeader, "\"scheme\":\"http\"")) {
+            return "http";
         }
         return null;
     }
 
-    private String forwardedPairValue(HttpServletRequest request, String key) {
-        String forwarded = request.getHeader("Forwarded");
-        if (forwarded == null || forwarded.isBlank()) {
-            return null;
+    private static int normalizePort(long port, boolean http) {
+        if (port > 0) {
+            return (int) port;
         }
+        return http ? 80 : 443;
+    }
 
-        String firstEntry = firstHeaderToken(forwarded);
-        String[] parts = firstEntry.split(";");
-        for (String part : parts) {
-            int separator = part.indexOf('=');
-            if (separator <= 0) {
-                continue;
-            }
-            String candidateKey = part.substring(0, separator).trim();
-            if (!candidateKey.equalsIgnoreCase(key)) {
-                continue;
+    /**
+     * The parsed public base URL and the decisions taken against it. Replaced as a whole when
+     * the configuration changes, which also drops the decision cache.
+     */
+    private static final class Canonical {
+        private final String baseUrl;
+        private final boolean enforceScheme;
+        private final URI baseUri;
+        private final String scheme;
+        private final String host;
+        private final int port;
+        // Direct-mapped; a racing write only costs a recomputation.
+        private final Decision[] decisions = new Decision[DECISION_SLOTS];
+
+        Canonical(String baseUrl, boolean enforceScheme) {
+            this.baseUrl = baseUrl;
+            this.enforceScheme = enforceScheme;
+            URI uri = parse(baseUrl);
+            boolean usable = uri != null && uri.getHost() != null && uri.getScheme() != null;
+            this.baseUri = usable ? uri : null;
+            this.scheme = usable ? uri.getScheme() : null;
+            this.host = usable ? uri.getHost() : null;
+            this.port = usable ? normalizePort(uri.getPort(), "http".equalsIgnoreCase(uri.getScheme())) : 0;
+        }
+
+        private static URI parse(String baseUrl) {
+            if (baseUrl == null || baseUrl.isBlank()) {
+                return null;
             }
-            String value = part.substring(separator + 1).trim();
-            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
-                value = value.substring(1, value.length() - 1);
+            try {
+                return URI.create(baseUrl.trim());
+            } catch (IllegalArgumentException ignored) {
+                return null;
             }
-            return value;
         }
-        return null;
-    }
 
-    private String cfVisitorScheme(String cfVisitorHeader) {
-        if (cfVisitorHeader == null || cfVisitorHeader.isBlank()) {
-            return null;
+        boolean redirects(String hostSource, long hostRange, int requestPort, int flags) {
+            int start = HeaderTokens.start(hostRange);
+            int length = HeaderTokens.end(hostRange) - start;
+            int hash = (hashOf(hostSource, start, length) * 31 + requestPort) * 31 + flags;
+            int slot = (hash ^ (hash >>> 16)) & (DECISION_SLOTS - 1);
+            Decision cached = decisions[slot];
+            if (cached != null && cached.port() == requestPort && cached.flags() == flags
+                    && cached.host().length() == length && cached.host().regionMatches(0, hostSource, start, length)) {
+                return cached.redirect();
+            }
+            String requestHost = hostSource.substring(start, start + length);
+            boolean redirect = decide(requestHost, requestPort, flags);
+            decisions[slot] = new Decision(requestHost, requestPort, flags, redirect);
+            return redirect;
         }
 
-        String normalized = cfVisitorHeader.trim().toLowerCase(Locale.US);
-        if (normalized.contains("\"scheme\":\"https\"")) {
-            return "https";
-        }
-        if (normalized.contains("\"scheme\":\"http\"")) {
-            return "http";
-        }
-        return null;
-    }
+        private boolean decide(String requestHost, int requestPort, int flags) {
+            if (isInternalHost(requestHost)) {
+                return false;
+            }
+            boolean sameScheme = (flags & SAME_SCHEME) != 0;
+            boolean sameHost = host.equalsIgnoreCase(requestHost);
+            boolean samePort = port == requestPort;
 
-    private int normalizePort(int port, String scheme) {
-        if (port > 0) {
-            return port;
+            if (sameHost && !enforceScheme) {
+                return false;
+            }
+            // Some reverse proxies preserve Host but do not forward the external scheme/port.
+            // In that case redirecting to the same canonical URL causes an infinite loop.
+            if (sameHost && (!sameScheme || !samePort)
+                    && (flags & EXPLICIT_SCHEME) == 0 && (flags & EXPLICIT_PORT) == 0) {
+                return false;
+            }
+            return !(sameScheme && sameHost && samePort);
         }
-        return "http".equalsIgnoreCase(scheme) ? 80 : 443;
-    }
 
-    private String firstHeaderToken(String rawHeader) {
-        if (rawHeader == null || rawHeader.isBlank()) {
-            return null;
+        private static int hashOf(String value, int start, int length) {
+            int hash = 0;
+            for (int i = start; i < start + length; i++) {
+                hash = 31 * hash + value.charAt(i);
+            }
+            return hash;
         }
-        int commaIndex = rawHeader.indexOf(',');
-        return commaIndex >= 0 ? rawHeader.substring(0, commaIndex).trim() : rawHeader.trim();
     }
 
-    private boolean hasText(String value) {
-        return value != null && !value.isBlank();
+    private record Decision(String host, int port, int flags, boolean redirect) {
     }
 
-    private boolean isInternalHost(String host) {
+    private static boolean isInternalHost(String host) {
         String normalized = host.trim().toLowerCase(Locale.US);
         if (LOCAL_HOSTS.contains(normalized) || normalized.endsWith(".local") || !normalized.contains(".")) {
             return true;
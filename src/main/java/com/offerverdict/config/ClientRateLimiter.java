@@ -0,0 +1,122 @@
+package com.offerverdict.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by client address, one limiter per endpoint class.
+ *
+ * Buckets live in striped access-ordered maps so idle clients are evicted LRU-first once
+ * a stripe is full; the stripe lock only covers lookup. Each bucket packs its refill
+ * timestamp and remaining milli-tokens into one {@link AtomicLong}, so taking a token is
+ * a CAS loop with no lock.
+ */
+public class ClientRateLimiter {
+
+    private static final int STRIPES = 64;
+    private static final long MILLI = 1000;
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+
+    private final String name;
+    private final long capacityMilliTokens;
+    private final double milliTokensPerMilli;
+    private final LongSupplier clock;
+    private final long epochMillis;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final AtomicLong allowed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    public ClientRateLimiter(String name, int burst, double refillPerMinute, int maxTrackedClients,
+            LongSupplier clock) {
+        this.name = name;
+        this.capacityMilliTokens = Math.min(TOKEN_MASK, Math.max(1, burst) * MILLI);
+        this.milliTokensPerMilli = Math.max(0.001, refillPerMinute) * MILLI / 60_000d;
+        this.clock = clock;
+        this.epochMillis = clock.getAsLong();
+        int perStripe = Math.max(4, maxTrackedClients / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Takes one token for the client. Returns 0 when allowed, otherwise the seconds to wait.
+     */
+    public long tryAcquire(String clientKey) {
+        return tryAcquire(clientKey, 1);
+    }
+
+    /**
+     * Takes {@code permits} tokens at once, or none. A request for more than the burst needs
+     * a full bucket. Returns 0 when allowed, otherwise the seconds to wait.
+     */
+    public long tryAcquire(String clientKey, int permits) {
+        long cost = Math.min(capacityMilliTokens, Math.max(1, permits) * MILLI);
+        String key = clientKey == null ? "" : clientKey;
+        AtomicLong state = stripes[(key.hashCode() & 0x7fffffff) % STRIPES].bucket(key);
+        long now = Math.max(0, clock.getAsLong() - epochMillis);
+        while (true) {
+            long current = state.get();
+            long last = current < 0 ? now : current >>> TOKEN_BITS;
+            long tokens = current < 0 ? capacityMilliTokens : current & TOKEN_MASK;
+            long refill = (long) (Math.max(0, now - last) * milliTokensPerMilli);
+            if (refill > 0) {
+                // Only move the timestamp when time actually turned into tokens, so frequent
+                // callers cannot starve the refill by rounding it down to zero each time.
+                tokens = Math.min(capacityMilliTokens, tokens + refill);
+                last = now;
+            }
+            if (tokens < cost) {
+                rejected.incrementAndGet();
+                long missing = cost - tokens;
+                return Math.max(1, (long) Math.ceil(missing / milliTokensPerMilli / 1000d));
+            }
+            if (state.compareAndSet(current, (last << TOKEN_BITS) | (tokens - cost))) {
+                allowed.incrementAndGet();
+                return 0;
+            }
+        }
+    }
+
+    public RateLimitStats stats() {
+        int tracked = 0;
+        for (Stripe stripe : stripes) {
+            tracked += stripe.size();
+        }
+        return new RateLimitStats(name, allowed.get(), rejected.get(), evicted.get(), tracked);
+    }
+
+    private final class Stripe {
+        private final LinkedHashMap<String, AtomicLong> buckets;
+
+        Stripe(int maxEntries) {
+            this.buckets = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, AtomicLong> eldest) {
+                    if (size() > maxEntries) {
+                        evicted.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized AtomicLong bucket(String key) {
+            // -1 marks a fresh bucket that starts full.
+            return buckets.computeIfAbsent(key, ignored -> new AtomicLong(-1));
+        }
+
+        synchronized int size() {
+            return buckets.size();
+        }
+    }
+
+    public record RateLimitStats(String name, long allowed, long rejected, long evicted, int trackedClients) {
+    }
+}
@@ -0,0 +1,225 @@
+package com.offerverdict.config;
+
+/**
+ * Allocation-free reads of proxy headers such as {@code Forwarded}, {@code X-Forwarded-Host}
+ * and {@code Host}.
+ *
+ * A token is a packed {@code start << 32 | end} range into the header string, or
+ * {@link #NONE}. Callers compare ranges in place with {@link String#regionMatches}, so the
+ * canonical-host check does not split, trim or lowercase header values on every request.
+ * Trimming, quoting and host/port splitting follow the substring-based rules the filter
+ * used before, including their edge cases.
+ */
+final class HeaderTokens {
+
+    static final long NONE = -1L;
+    /** {@link #explicitPort} and {@link #parsePort} result when there is no usable port. */
+    static final long NO_PORT = Long.MIN_VALUE;
+
+    private HeaderTokens() {
+    }
+
+    static long range(int start, int end) {
+        return ((long) start << 32) | (end & 0xFFFFFFFFL);
+    }
+
+    static int start(long range) {
+        return (int) (range >>> 32);
+    }
+
+    static int end(long range) {
+        return (int) range;
+    }
+
+    static long whole(String value) {
+        return value == null ? NONE : range(0, value.length());
+    }
+
+    /**
+     * The first comma-separated entry, trimmed; {@link #NONE} when the header is missing or blank.
+     */
+    static long firstToken(String header) {
+        if (header == null || header.isBlank()) {
+            return NONE;
+        }
+        int comma = header.indexOf(',');
+        return trim(header, 0, comma >= 0 ? comma : header.length());
+    }
+
+    /**
+     * The value of {@code key} in the first entry of an RFC 7239 {@code Forwarded} header,
+     * trimmed and unquoted; {@link #NONE} when absent. An empty value is a present, empty range.
+     */
+    static long forwardedPair(String forwarded, String key) {
+        long entry = firstToken(forwarded);
+        if (entry == NONE) {
+            return NONE;
+        }
+        int entryEnd = end(entry);
+        int partStart = start(entry);
+        while (partStart <= entryEnd) {
+            int semicolon = indexOf(forwarded, ';', partStart, entryEnd);
+            int partEnd = semicolon < 0 ? entryEnd : semicolon;
+            int equals = indexOf(forwarded, '=', partStart, partEnd);
+            if (equals > partStart) {
+                long name = trim(forwarded, partStart, equals);
+                if (regionEqualsIgnoreCase(forwarded, name, key)) {
+                    long value = trim(forwarded, equals + 1, partEnd);
+                    int valueStart = start(value);
+                    int valueEnd = end(value);
+                    if (valueEnd - valueStart >= 2 && forwarded.charAt(valueStart) == '"'
+                            && forwarded.charAt(valueEnd - 1) == '"') {
+                        return range(valueStart + 1, valueEnd - 1);
+                    }
+                    return value;
+                }
+            }
+            partStart = partEnd + 1;
+        }
+        return NONE;
+    }
+
+    /**
+     * The host part of a {@code host[:port]} or {@code [v6]:port} token; {@link #NONE} when blank.
+     */
+    static long host(String value, long token) {
+        if (!hasText(value, token)) {
+            return NONE;
+        }
+        long trimmed = trim(value, start(token), end(token));
+        int start = start(trimmed);
+        int end = end(trimmed);
+        if (start == end) {
+            return trimmed;
+        }
+        if (value.charAt(start) == '[') {
+            int close = indexOf(value, ']', start, end);
+            if (close >= 0) {
+                return range(start, close + 1);
+            }
+        }
+        int colon = indexOf(value, ':', start, end);
+        if (colon > start && lastIndexOf(value, ':', start, end) == colon) {
+            return range(start, colon);
+        }
+        return trimmed;
+    }
+
+    /**
+     * The port written after the host in {@code token}, or {@link #NO_PORT}.
+     */
+    static long explicitPort(String value, long token) {
+        if (!hasText(value, token)) {
+            return NO_PORT;
+        }
+        long trimmed = trim(value, start(token), end(token));
+        int start = start(trimmed);
+        int end = end(trimmed);
+        if (start < end && value.charAt(start) == '[') {
+            int close = indexOf(value, ']', start, end);
+            if (close >= 0) {
+                return end > close + 2 && value.charAt(close + 1) == ':'
+                        ? parsePort(value, close + 2, end)
+                        : NO_PORT;
+            }
+        }
+        int colon = indexOf(value, ':', start, end);
+        if (colon > start && lastIndexOf(value, ':', start, end) == colon) {
+            return parsePort(value, colon + 1, end);
+        }
+        return NO_PORT;
+    }
+
+    /**
+     * Parses {@code [start, end)} exactly like {@link Integer#parseInt(String)}, returning
+     * {@link #NO_PORT} where that would throw.
+     */
+    static long parsePort(String value, int start, int end) {
+        if (start >= end) {
+            return NO_PORT;
+        }
+        boolean negative = false;
+        int i = start;
+        char first = value.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+            if (i == end) {
+                return NO_PORT;
+            }
+        }
+        long limit = negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE;
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = Character.digit(value.charAt(i), 10);
+            if (digit < 0) {
+                return NO_PORT;
+            }
+            result = result * 10 + digit;
+            if (result > limit) {
+                return NO_PORT;
+            }
+        }
+        return negative ? -result : result;
+    }
+
+    static boolean hasText(String value, long range) {
+        if (value == null || range == NONE) {
+            return false;
+        }
+        for (int i = start(range); i < end(range); i++) {
+            if (!Character.isWhitespace(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean regionEqualsIgnoreCase(String value, long range, String expected) {
+        return value != null && range != NONE
+                && end(range) - start(range) == expected.length()
+                && value.regionMatches(true, start(range), expected, 0, expected.length());
+    }
+
+    /**
+     * Whether {@code value} contains {@code lowerAsciiNeedle}, matching ASCII letters in either case.
+     */
+    static boolean containsAsciiIgnoreCase(String value, String lowerAsciiNeedle) {
+        int last = value.length() - lowerAsciiNeedle.length();
+        outer:
+        for (int i = 0; i <= last; i++) {
+            for (int j = 0; j < lowerAsciiNeedle.length(); j++) {
+                char c = value.charAt(i + j);
+                if (c >= 'A' && c <= 'Z') {
+                    c = (char) (c + ('a' - 'A'));
+                }
+                if (c != lowerAsciiNeedle.charAt(j)) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /** Same as {@link String#trim()} on the range. */
+    private static long trim(String value, int start, int end) {
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return range(start, end);
+    }
+
+    private static int indexOf(String value, char c, int start, int end) {
+        int found = value.indexOf(c, start);
+        return found >= 0 && found < end ? found : -1;
+    }
+
+    private static int lastIndexOf(String value, char c, int start, int end) {
+        int found = value.lastIndexOf(c, end - 1);
+        return found >= start ? found : -1;
+    }
+}
@@ -0,0 +1,111 @@
+package com.offerverdict.config;
+
+import com.offerverdict.service.LeadCsvWriter;
+import com.offerverdict.service.LeadDedupeWindow;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Exposes the counters that components already keep (lead writer, dedupe window, rate
+ * limiters) as meters, and registers view render timing.
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final AppMetrics metrics;
+
+    public MetricsConfig(AppMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ViewRenderMetricsInterceptor(metrics));
+    }
+
+    @Bean
+    public MeterBinder leadWriterMetrics(LeadCsvWriter leadCsvWriter) {
+        return registry -> {
+            Gauge.builder("offerverdict.lead.writer.queue.depth", leadCsvWriter, writer -> writer.stats().queueDepth())
+                    .register(registry);
+            leadRows(registry, leadCsvWriter, "enqueued", LeadCsvWriter.LeadWriterStats::enqueuedRows);
+            leadRows(registry, leadCsvWriter, "dropped", LeadCsvWriter.LeadWriterStats::droppedRows);
+            leadRows(registry, leadCsvWriter, "written", LeadCsvWriter.LeadWriterStats::writtenRows);
+            leadRows(registry, leadCsvWriter, "failed", LeadCsvWriter.LeadWriterStats::failedRows);
+            FunctionTimer.builder("offerverdict.lead.writer.fsync", leadCsvWriter,
+                            writer -> writer.stats().fsyncCount(),
+                            writer -> {
+                                LeadCsvWriter.LeadWriterStats stats = writer.stats();
+                                return (double) stats.averageFsyncNanos() * stats.fsyncCount();
+                            },
+                            TimeUnit.NANOSECONDS)
+                    .register(registry);
+            Gauge.builder("offerverdict.lead.writer.fsync.max", leadCsvWriter,
+                            writer -> writer.stats().maxFsyncNanos() / 1_000_000_000d)
+                    .baseUnit("seconds")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder leadDedupeMetrics(LeadDedupeWindow leadDedupeWindow) {
+        return registry -> {
+            Gauge.builder("offerverdict.lead.dedupe.size", leadDedupeWindow, LeadDedupeWindow::size)
+                    .register(registry);
+            FunctionCounter.builder("offerverdict.lead.dedupe.overflow", leadDedupeWindow,
+                            LeadDedupeWindow::overflowCount)
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder rateLimitMetrics(RateLimitFilter rateLimitFilter) {
+        return registry -> {
+            for (ClientRateLimiter.RateLimitStats initial : rateLimitFilter.stats()) {
+                String limiter = initial.name();
+                FunctionCounter.builder("offerverdict.ratelimit.requests", rateLimitFilter,
+                                filter -> limiterStats(filter, limiter).allowed())
+                        .tags("limiter", limiter, "result", "allowed")
+                        .register(registry);
+                FunctionCounter.builder("offerverdict.ratelimit.requests", rateLimitFilter,
+                                filter -> limiterStats(filter, limiter).rejected())
+                        .tags("limiter", limiter, "result", "rejected")
+                        .register(registry);
+                FunctionCounter.builder("offerverdict.ratelimit.evicted", rateLimitFilter,
+                                filter -> limiterStats(filter, limiter).evicted())
+                        .tag("limiter", limiter)
+                        .register(registry);
+                Gauge.builder("offerverdict.ratelimit.clients", rateLimitFilter,
+                                filter -> limiterStats(filter, limiter).trackedClients())
+                        .tag("limiter", limiter)
+                        .register(registry);
+            }
+        };
+    }
+
+    private static void leadRows(MeterRegistry registry, LeadCsvWriter writer,
+            String state, ToDoubleFunction<LeadCsvWriter.LeadWriterStats> value) {
+        FunctionCounter.builder("offerverdict.lead.writer.rows", writer, w -> value.applyAsDouble(w.stats()))
+                .tag("state", state)
+                .register(registry);
+    }
+
+    private static ClientRateLimiter.RateLimitStats limiterStats(RateLimitFilter filter, String limiter) {
+        for (ClientRateLimiter.RateLimitStats stats : filter.stats()) {
+            if (stats.name().equals(limiter)) {
+                return stats;
+            }
+        }
+        throw new IllegalStateException("Unknown rate limiter " + limiter);
+    }
+}
@@ -0,0 +1,115 @@
+package com.offerverdict.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Per-client rate limiting for the endpoints that do real work. Uploads that may hit OCR
+ * get their own small budget so a scraper cannot tie up the OCR workers, while pasted-text
+ * analysis and JSON APIs share a larger one. Bulk parses additionally pay one token per item
+ * from a separate budget, charged by the controller once the batch has been read.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final AppProperties appProperties;
+    private final ClientRateLimiter ocrLimiter;
+    private final ClientRateLimiter apiLimiter;
+    private final ClientRateLimiter leadLimiter;
+    private final ClientRateLimiter batchLimiter;
+
+    public RateLimitFilter(AppProperties appProperties) {
+        this.appProperties = appProperties;
+        int maxClients = appProperties.getRateLimitMaxTrackedClients();
+        this.ocrLimiter = new ClientRateLimiter("ocr", appProperties.getRateLimitOcrBurst(),
+                appProperties.getRateLimitOcrPerMinute(), maxClients, System::currentTimeMillis);
+        this.apiLimiter = new ClientRateLimiter("api", appProperties.getRateLimitApiBurst(),
+                appProperties.getRateLimitApiPerMinute(), maxClients, System::currentTimeMillis);
+        this.leadLimiter = new ClientRateLimiter("lead", appProperties.getRateLimitLeadBurst(),
+                appProperties.getRateLimitLeadPerMinute(), maxClients, System::currentTimeMillis);
+        this.batchLimiter = new ClientRateLimiter("batch", appProperties.getRateLimitBatchBurst(),
+                appProperties.getRateLimitBatchPerMinute(), maxClients, System::currentTimeMillis);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !appProperties.isRateLimitEnabled() || limiterFor(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ClientRateLimiter limiter = limiterFor(request);
+        // The peer address, never X-Forwarded-For: behind a proxy, server.forward-headers-strategy
+        // rewrites it from the trusted hops, while a client-supplied header would buy fresh buckets.
+        long retryAfterSeconds = limiter == null ? 0 : limiter.tryAcquire(request.getRemoteAddr());
+        if (retryAfterSeconds == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setCharacterEncoding("UTF-8");
+        if (request.getRequestURI().startsWith("/api/")) {
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"status\":\"error\",\"message\":\"Too many requests\"}");
+        } else {
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write("Too many requests. Please wait " + retryAfterSeconds
+                    + " seconds and try again.");
+        }
+    }
+
+    /**
+     * Charges a bulk parse one token per item against the client's batch budget. Returns 0 when
+     * allowed, otherwise the seconds to wait.
+     */
+    public long tryAcquireBatchItems(HttpServletRequest request, int items) {
+        if (!appProperties.isRateLimitEnabled()) {
+            return 0;
+        }
+        return batchLimiter.tryAcquire(request.getRemoteAddr(), items);
+    }
+
+    public List<ClientRateLimiter.RateLimitStats> stats() {
+        return List.of(ocrLimiter.stats(), apiLimiter.stats(), leadLimiter.stats(), batchLimiter.stats());
+    }
+
+    private ClientRateLimiter limiterFor(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path == null) {
+            return null;
+        }
+        if (path.startsWith("/api/leads/")) {
+            return leadLimiter;
+        }
+        if (path.startsWith("/api/")) {
+            return apiLimiter;
+        }
+        if ("POST".equalsIgnoreCase(request.getMethod())
+                && (path.equals("/offer-risk-draft") || path.equals("/offer-risk-report"))) {
+            return isMultipart(request) ? ocrLimiter : apiLimiter;
+        }
+        return null;
+    }
+
+    private boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("multipart/");
+    }
+}
@@ -0,0 +1,141 @@
+package com.offerverdict.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.util.StageTrace;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Traces page and API requests stage by stage when {@code app.requestTraceEnabled} is set.
+ *
+ * The container's response buffer is raised to {@value #TRACE_BUFFER_BYTES} bytes so that for
+ * most pages the {@code Server-Timing} header can still include view rendering, which finishes
+ * after the body is written. Larger, flushed or async responses stream as usual and go out
+ * without the header. Requests slower than {@code app.requestTraceSlowMillis} are also logged
+ * as one JSON line.
+ *
+ * Runs after {@link RateLimitFilter}, so rejected uploads are never read here.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 35)
+public class RequestTraceFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RequestTraceFilter.class);
+    private static final String SERVER_TIMING = "Server-Timing";
+    static final int TRACE_BUFFER_BYTES = 64 * 1024;
+    private static final List<String> UNTRACED_PREFIXES = List.of(
+            "/css/", "/js/", "/images/", "/actuator/", "/favicon");
+
+    private final AppProperties appProperties;
+    private final ObjectMapper objectMapper;
+
+    public RequestTraceFilter(AppProperties appProperties, ObjectMapper objectMapper) {
+        this.appProperties = appProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!appProperties.isRequestTraceEnabled()) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        if (path == null) {
+            return true;
+        }
+        for (String prefix : UNTRACED_PREFIXES) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StageTrace trace = StageTrace.begin(appProperties.isRequestTraceAllocations());
+        if (!response.isCommitted() && response.getBufferSize() < TRACE_BUFFER_BYTES) {
+            response.setBufferSize(TRACE_BUFFER_BYTES);
+        }
+        try {
+            if (isMultipart(request)) {
+                // Parse the upload here so its cost shows up as its own stage; Spring reuses the parts.
+                try (StageTrace.Span ignored = StageTrace.span("multipart")) {
+                    request.getParts();
+                } catch (IllegalStateException | ServletException | IOException e) {
+                    // Oversized or malformed uploads fail again in the multipart resolver,
+                    // which turns them into the usual error response.
+                }
+            }
+            filterChain.doFilter(request, response);
+        } finally {
+            trace.end();
+            if (!request.isAsyncStarted()) {
+                if (!response.isCommitted()) {
+                    response.setHeader(SERVER_TIMING, trace.serverTimingHeader());
+                }
+                logIfSlow(request, response.getStatus(), trace);
+            }
+        }
+    }
+
+    private void logIfSlow(HttpServletRequest request, int status, StageTrace trace) {
+        long thresholdMillis = appProperties.getRequestTraceSlowMillis();
+        long totalNanos = trace.totalNanos();
+        if (thresholdMillis <= 0 || totalNanos < thresholdMillis * 1_000_000L) {
+            return;
+        }
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("event", "slow_request");
+        line.put("method", request.getMethod());
+        line.put("path", request.getRequestURI());
+        line.put("status", status);
+        line.put("totalMs", round(totalNanos / 1_000_000d));
+        line.put("allocatedBytes", trace.totalAllocatedBytes());
+        List<Map<String, Object>> stages = new ArrayList<>();
+        for (StageTrace.Stage stage : trace.stages()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", stage.name());
+            entry.put("ms", round(stage.millis()));
+            entry.put("allocatedBytes", stage.allocatedBytes());
+            stages.add(entry);
+        }
+        line.put("stages", stages);
+        if (trace.droppedStages() > 0) {
+            line.put("droppedStages", trace.droppedStages());
+        }
+        try {
+            logger.warn(objectMapper.writeValueAsString(line));
+        } catch (JsonProcessingException e) {
+            logger.warn("Slow request {} {} took {} ms", request.getMethod(), request.getRequestURI(),
+                    round(totalNanos / 1_000_000d));
+        }
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000d) / 1000d;
+    }
+
+    private static boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return "POST".equalsIgnoreCase(request.getMethod())
+                && contentType != null
+                && contentType.toLowerCase(Locale.ROOT).startsWith("multipart/");
+    }
+}
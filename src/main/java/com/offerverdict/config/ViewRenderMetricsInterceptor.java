@@ -0,0 +1,55 @@
+package com.offerverdict.config;
+
+import com.offerverdict.util.StageTrace;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Times Thymeleaf rendering: {@code postHandle} runs after the controller and before the
+ * view renders, {@code afterCompletion} after the response body is written. The render is
+ * also recorded as a {@link StageTrace} stage when the request is being traced.
+ */
+class ViewRenderMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String RENDER_STARTED = ViewRenderMetricsInterceptor.class.getName() + ".started";
+    private static final String VIEW_NAME = ViewRenderMetricsInterceptor.class.getName() + ".view";
+    private static final String TRACE_SPAN = ViewRenderMetricsInterceptor.class.getName() + ".span";
+
+    private final AppMetrics metrics;
+
+    ViewRenderMetricsInterceptor(AppMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+            ModelAndView modelAndView) {
+        if (modelAndView == null || !modelAndView.isReference()) {
+            return;
+        }
+        String viewName = modelAndView.getViewName();
+        if (viewName == null || viewName.startsWith("redirect:") || viewName.startsWith("forward:")) {
+            return;
+        }
+        request.setAttribute(VIEW_NAME, viewName);
+        request.setAttribute(RENDER_STARTED, System.nanoTime());
+        if (StageTrace.active()) {
+            request.setAttribute(TRACE_SPAN, StageTrace.span("render"));
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        if (request.getAttribute(TRACE_SPAN) instanceof StageTrace.Span span) {
+            span.close();
+        }
+        if (request.getAttribute(RENDER_STARTED) instanceof Long started
+                && request.getAttribute(VIEW_NAME) instanceof String viewName) {
+            metrics.recordSince(AppMetrics.VIEW_RENDER, started, "view", viewName,
+                    "outcome", ex == null ? "ok" : "error");
+        }
+    }
+}
@@ -4,12 +4,14 @@ import com.offerverdict.config.AppProperties;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.exception.ResourceNotFoundException;
 import com.offerverdict.service.ContentEnrichmentService;
+import com.offerverdict.service.FormViewModels;
 import com.offerverdict.service.RoleGuideService;
 import com.offerverdict.model.CityCostEntry;
 import com.offerverdict.model.ComparisonResult;
 import com.offerverdict.model.HouseholdType;
 import com.offerverdict.model.HousingType;
 import com.offerverdict.model.JobInfo;
+import com.offerverdict.model.SimulationForm;
 import com.offerverdict.service.ComparisonService;
 import com.offerverdict.seo.SeoUrlPolicy;
 
@@ -34,7 +36,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Locale;
 import java.util.Optional;
-import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
@@ -63,19 +64,22 @@ public class ComparisonController {
     private final ObjectMapper objectMapper;
     private final ContentEnrichmentService contentEnrichmentService;
     private final RoleGuideService roleGuideService;
+    private final FormViewModels formViewModels;
 
     public ComparisonController(DataRepository repository,
             ComparisonService comparisonService,
             AppProperties appProperties,
             ObjectMapper objectMapper,
             ContentEnrichmentService contentEnrichmentService,
-            RoleGuideService roleGuideService) {
+            RoleGuideService roleGuideService,
+            FormViewModels formViewModels) {
         this.repository = repository;
         this.comparisonService = comparisonService;
         this.appProperties = appProperties;
         this.objectMapper = objectMapper;
         this.contentEnrichmentService = contentEnrichmentService;
         this.roleGuideService = roleGuideService;
+        this.formViewModels = formViewModels;
     }
 
     @GetMapping("/favicon.ico")
@@ -201,18 +205,14 @@ public class ComparisonController {
                 "Compare two job offers after tax, rent, and living costs. Use OfferVerdict to decide whether a move or raise actually improves your monthly cash flow.");
         model.addAttribute("canonicalUrl", comparisonService.buildCanonicalUrl("/"));
         model.addAttribute("shouldIndex", false);
-        model.addAttribute("jobsByCategory", groupJobsByCategory());
-        model.addAttribute("citiesByState", groupCitiesByState());
+        FormViewModels.Snapshot viewModels = formViewModels.current();
+        model.addAttribute("jobsByCategoryJson", viewModels.jobsByCategoryJson());
+        model.addAttribute("citiesByStateJson", viewModels.citiesByStateJson());
         model.addAttribute("featuredRoleGuides", roleGuideService.featuredGuides());
 
         return "index";
     }
 
-    private Map<String, List<CityCostEntry>> groupCitiesByState() {
-        return repository.getCities().stream()
-                .collect(Collectors.groupingBy(CityCostEntry::getState, TreeMap::new, Collectors.toList()));
-    }
-
     @GetMapping("/{job}-salary-{cityA}-vs-{cityB}")
     public Object compare(@PathVariable("job") String job,
             @PathVariable("cityA") String cityA,
@@ -936,45 +936,61 @@ public class ComparisonController {
             @RequestParam(name = "equityMultiplier", required = false, defaultValue = "1.0") double equityMultiplier,
             @RequestParam(name = "commuteTime", required = false, defaultValue = "0") double commuteTime) {
 
-        CityCostEntry cityEntryA = repository.getCity(cityASlug);
-        CityCostEntry cityEntryB = repository.getCity(cityBSlug);
-
-        HouseholdType householdType = hasDependents ? HouseholdType.FAMILY : HouseholdType.SINGLE;
-        HousingType housingType = isHomeOwner ? HousingType.OWN : HousingType.RENT;
-
-        // Logical mapping of "Boosts" and "Leaks"
-        Double fourOhOneK = (isPremiumBenefits || isTaxOptimized) ? 0.08 : 0.04;
-        Double insurance = isPremiumBenefits ? 100.0 : 400.0;
-
-        // Combine Boolean debt with Granular Leaks
-        // FIXED: Separate "Other Leaks" from "Student Loan".
-        // Student Loan is a shared reality (exists in both).
-        // Other Leaks (Simulation Lab slider) is strictly an OFFER-side simulation
-        // (e.g. lifestyle creep).
-        double sharedDebtMonthly = (hasStudentLoan ? 800.0 : 0.0);
-        double offerLeaksMonthly = otherLeaks;
+        return comparisonService.simulate(new SimulationForm(cityASlug, cityBSlug, currentSalary, offerSalary,
+                isPremiumBenefits, isHomeOwner, hasStudentLoan, hasDependents, sideHustle, otherLeaks, isRemote,
+                isTaxOptimized, isCarOwner, signingBonus, equityAnnual, equityMultiplier, commuteTime), null);
+    }
 
-        double totalBoostMonthly = sideHustle;
+    /**
+     * Simulation lab update that sends only the fields changed since the run identified by
+     * {@code token}. Answers 410 when the token has expired, so the client resends the full
+     * form to {@code /api/calculate}.
+     */
+    @GetMapping("/api/calculate/delta")
+    @ResponseBody
+    public ResponseEntity<ComparisonResult> calculateDeltaApi(
+            @RequestParam("token") String token,
+            @RequestParam(name = "cityASlug", required = false) String cityASlug,
+            @RequestParam(name = "cityBSlug", required = false) String cityBSlug,
+            @RequestParam(name = "currentSalary", required = false) Double currentSalary,
+            @RequestParam(name = "offerSalary", required = false) Double offerSalary,
+            @RequestParam(name = "isPremiumBenefits", required = false) Boolean isPremiumBenefits,
+            @RequestParam(name = "isHomeOwner", required = false) Boolean isHomeOwner,
+            @RequestParam(name = "hasStudentLoan", required = false) Boolean hasStudentLoan,
+            @RequestParam(name = "hasDependents", required = false) Boolean hasDependents,
+            @RequestParam(name = "sideHustle", required = false) Double sideHustle,
+            @RequestParam(name = "otherLeaks", required = false) Double otherLeaks,
+            @RequestParam(name = "isRemote", required = false) Boolean isRemote,
+            @RequestParam(name = "isTaxOptimized", required = false) Boolean isTaxOptimized,
+            @RequestParam(name = "isCarOwner", required = false) Boolean isCarOwner,
+            @RequestParam(name = "signingBonus", required = false) Double signingBonus,
+            @RequestParam(name = "equityAnnual", required = false) Double equityAnnual,
+            @RequestParam(name = "equityMultiplier", required = false) Double equityMultiplier,
+            @RequestParam(name = "commuteTime", required = false) Double commuteTime) {
 
-        return comparisonService.compare(
-                cityEntryA.getSlug(),
-                cityEntryB.getSlug(),
-                currentSalary,
-                offerSalary,
-                householdType,
-                housingType,
-                hasDependents,
-                fourOhOneK,
-                insurance,
-                sharedDebtMonthly, // Shared Debt (Both)
-                offerLeaksMonthly, // Offer Leaks (City B only)
-                totalBoostMonthly,
-                isRemote,
-                isCarOwner,
-                signingBonus,
-                equityAnnual,
-                equityMultiplier,
-                commuteTime);
+        SimulationForm previous = comparisonService.simulationForm(token);
+        if (previous == null) {
+            return ResponseEntity.status(HttpStatus.GONE).build();
+        }
+        SimulationForm form = new SimulationForm(
+                cityASlug != null ? cityASlug : previous.cityASlug(),
+                cityBSlug != null ? cityBSlug : previous.cityBSlug(),
+                currentSalary != null ? currentSalary : previous.currentSalary(),
+                offerSalary != null ? offerSalary : previous.offerSalary(),
+                isPremiumBenefits != null ? isPremiumBenefits : previous.isPremiumBenefits(),
+                isHomeOwner != null ? isHomeOwner : previous.isHomeOwner(),
+                hasStudentLoan != null ? hasStudentLoan : previous.hasStudentLoan(),
+                hasDependents != null ? hasDependents : previous.hasDependents(),
+                sideHustle != null ? sideHustle : previous.sideHustle(),
+                otherLeaks != null ? otherLeaks : previous.otherLeaks(),
+                isRemote != null ? isRemote : previous.isRemote(),
+                isTaxOptimized != null ? isTaxOptimized : previous.isTaxOptimized(),
+                isCarOwner != null ? isCarOwner : previous.isCarOwner(),
+                signingBonus != null ? signingBonus : previous.signingBonus(),
+                equityAnnual != null ? equityAnnual : previous.equityAnnual(),
+                equityMultiplier != null ? equityMultiplier : previous.equityMultiplier(),
+                commuteTime != null ? commuteTime : previous.commuteTime());
+        return ResponseEntity.ok(comparisonService.simulate(form, token));
     }
 
     @GetMapping("/admin/reload-data")
@@ -1010,11 +1026,6 @@ public class ComparisonController {
                 .findFirst();
     }
 
-    private Map<String, List<JobInfo>> groupJobsByCategory() {
-        return repository.getJobs().stream()
-                .collect(Collectors.groupingBy(JobInfo::getCategory, TreeMap::new, Collectors.toList()));
-    }
-
     /**
      * Decision Gap Framework: Generate comparison title that defers judgment
      * Enhanced with Option 1: "Before You Leave..." framing for urgency + loss
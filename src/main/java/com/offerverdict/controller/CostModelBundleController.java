@@ -0,0 +1,63 @@
+package com.offerverdict.controller;
+
+import com.offerverdict.model.CostModelBundle;
+import com.offerverdict.service.CostModelBundleService;
+import com.offerverdict.util.SlugNormalizer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the compiled cost model for a city pair so the simulation lab can evaluate slider
+ * moves locally. The unversioned URL redirects to the current version; a versioned URL never
+ * changes and is cached for a year, and a stale version redirects to the current one.
+ * Versioned responses carry the version as a strong ETag, so a revalidating client gets a 304.
+ *
+ * The dashboard does not evaluate bundles yet; it still posts to the calculate endpoints.
+ * {@code CostModelReferenceEvaluator} in the test sources is the spec for that client.
+ */
+@RestController
+@RequestMapping("/api/model-bundle")
+public class CostModelBundleController {
+
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    private final CostModelBundleService bundleService;
+
+    public CostModelBundleController(CostModelBundleService bundleService) {
+        this.bundleService = bundleService;
+    }
+
+    @GetMapping("/{cityA}/{cityB}")
+    public ResponseEntity<CostModelBundle> latest(@PathVariable("cityA") String cityA,
+            @PathVariable("cityB") String cityB) {
+        return redirectTo(bundleService.bundle(cityA, cityB));
+    }
+
+    @GetMapping("/{cityA}/{cityB}/{version}")
+    public ResponseEntity<CostModelBundle> versioned(@PathVariable("cityA") String cityA,
+            @PathVariable("cityB") String cityB,
+            @PathVariable("version") String version) {
+        CostModelBundle bundle = bundleService.bundle(cityA, cityB);
+        if (!bundle.version().equals(version)) {
+            return redirectTo(bundle);
+        }
+        // The ETag lets HttpEntityMethodProcessor answer If-None-Match with 304.
+        return ResponseEntity.ok().eTag(bundle.version()).cacheControl(IMMUTABLE).body(bundle);
+    }
+
+    private static ResponseEntity<CostModelBundle> redirectTo(CostModelBundle bundle) {
+        URI location = URI.create("/api/model-bundle/"
+                + SlugNormalizer.normalize(bundle.cities().get(0).slug()) + "/"
+                + SlugNormalizer.normalize(bundle.cities().get(bundle.cities().size() - 1).slug()) + "/"
+                + bundle.version());
+        return ResponseEntity.status(HttpStatus.FOUND).location(location).cacheControl(CacheControl.noCache()).build();
+    }
+}
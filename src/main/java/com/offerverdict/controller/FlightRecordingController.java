@@ -0,0 +1,62 @@
+package com.offerverdict.controller;
+
+import com.offerverdict.service.FlightRecordingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Operator access to time-boxed JFR recordings of the OCR and parser diagnostic events.
+ * Requests also need the admin token checked by {@code AdminTokenInterceptor}.
+ */
+@RestController
+@RequestMapping("/admin/jfr")
+public class FlightRecordingController {
+
+    private static final long DEFAULT_SECONDS = 60;
+
+    private final FlightRecordingService flightRecordingService;
+    private final boolean adminEnabled;
+
+    public FlightRecordingController(FlightRecordingService flightRecordingService,
+            @Value("${app.jfr.adminEnabled:false}") boolean adminEnabled) {
+        this.flightRecordingService = flightRecordingService;
+        this.adminEnabled = adminEnabled;
+    }
+
+    @PostMapping("/recordings")
+    public ResponseEntity<FlightRecordingService.RecordingInfo> start(
+            @RequestParam(required = false) Long seconds) throws IOException {
+        if (!adminEnabled) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        long requested = seconds == null ? Math.min(DEFAULT_SECONDS, flightRecordingService.maxSeconds()) : seconds;
+        if (requested < 1 || requested > flightRecordingService.maxSeconds()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            FlightRecordingService.RecordingInfo info = flightRecordingService.start(Duration.ofSeconds(requested));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(info);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(flightRecordingService.current().orElse(null));
+        }
+    }
+
+    @GetMapping("/recordings/current")
+    public ResponseEntity<FlightRecordingService.RecordingInfo> current() {
+        if (!adminEnabled) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return flightRecordingService.current()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+}
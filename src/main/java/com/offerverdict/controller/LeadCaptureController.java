@@ -1,29 +1,22 @@
 package com.offerverdict.controller;
 
+import com.offerverdict.config.AppMetrics;
+import com.offerverdict.service.LeadCsvWriter;
+import com.offerverdict.service.LeadDedupeWindow;
+import com.offerverdict.service.LeadEventLog;
+import com.offerverdict.util.ClientIpResolver;
 import jakarta.servlet.http.HttpServletRequest;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.time.Duration;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Pattern;
 
 @RestController
@@ -33,22 +26,21 @@ public class LeadCaptureController {
     private static final Logger logger = LoggerFactory.getLogger(LeadCaptureController.class);
     private static final Pattern BASIC_EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
     private static final String LEAD_CSV_NAME = "leads.csv";
-    private static final String LEAD_EVENT_CSV_NAME = "lead_events.csv";
     private static final String LEAD_CSV_HEADER = "timestamp,email,intent,citySlug,jobSlug,sourcePath,referrer,userAgent,ip";
-    private static final String LEAD_EVENT_CSV_HEADER = "timestamp,eventName,intent,citySlug,jobSlug,sourcePath,referrer,userAgent,ip";
     private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
 
-    @Value("${app.leads.storageDir:./data/leads}")
-    private String leadsStorageDir;
-
-    @Value("${app.leads.backupDir:./data/leads-backup}")
-    private String leadsBackupDir;
-
-    @Value("${app.leads.dedupeMinutes:15}")
-    private int dedupeMinutes;
-
-    private final Object csvWriteLock = new Object();
-    private final Map<String, LocalDateTime> recentLeadKeys = new ConcurrentHashMap<>();
+    private final LeadCsvWriter leadCsvWriter;
+    private final LeadEventLog leadEventLog;
+    private final LeadDedupeWindow leadDedupeWindow;
+    private final AppMetrics metrics;
+
+    public LeadCaptureController(LeadCsvWriter leadCsvWriter, LeadEventLog leadEventLog,
+            LeadDedupeWindow leadDedupeWindow, AppMetrics metrics) {
+        this.leadCsvWriter = leadCsvWriter;
+        this.leadEventLog = leadEventLog;
+        this.leadDedupeWindow = leadDedupeWindow;
+        this.metrics = metrics;
+    }
 
     @PostMapping("/capture")
     public ResponseEntity<Map<String, String>> captureLead(@RequestBody Map<String, String> payload,
@@ -60,7 +52,7 @@ public class LeadCaptureController {
         String sourcePath = sanitize(payload.get("sourcePath"), 400);
         String referrer = sanitize(payload.get("referrer"), 400);
         String userAgent = sanitize(request.getHeader("User-Agent"), 400);
-        String ip = sanitize(resolveClientIp(request), 120);
+        String ip = sanitize(ClientIpResolver.resolve(request), 120);
 
         String honeypot = payload.get("honeypot");
 
@@ -84,47 +76,61 @@ public class LeadCaptureController {
         if (jobSlug.isBlank()) {
             jobSlug = "none";
         }
-        String dedupeKey = buildLeadDedupeKey(email, intent, citySlug, jobSlug);
-
-        if (isDuplicateLead(dedupeKey)) {
+        // Claim the key before writing so concurrent duplicates cannot both get through.
+        if (!leadDedupeWindow.recordIfAbsent(email, intent, citySlug, jobSlug)) {
             safeWriteLeadEvent("lead_submit_duplicate", intent, citySlug, jobSlug, sourcePath, referrer, userAgent, ip);
             return ResponseEntity.ok(Map.of("status", "success", "message", "Lead already captured recently"));
         }
 
+        long writeStarted = System.nanoTime();
+        CompletableFuture<Void> committed;
         try {
-            appendCsvRow(
+            committed = leadCsvWriter.appendDurable(
                     LEAD_CSV_NAME,
                     LEAD_CSV_HEADER,
-                    LocalDateTime.now().format(TIMESTAMP_FORMATTER),
-                    email,
-                    intent,
-                    citySlug,
-                    jobSlug,
-                    sourcePath,
-                    referrer,
-                    userAgent,
-                    ip);
-
-            appendCsvRow(
-                    LEAD_EVENT_CSV_NAME,
-                    LEAD_EVENT_CSV_HEADER,
-                    LocalDateTime.now().format(TIMESTAMP_FORMATTER),
-                    "lead_submit_success",
-                    intent,
-                    citySlug,
-                    jobSlug,
-                    sourcePath,
-                    referrer,
-                    userAgent,
-                    ip);
-            rememberLeadKey(dedupeKey);
-
-            logger.info("New lead captured: email={}, intent={}, city={}, job={}", email, intent, citySlug, jobSlug);
+                    toCsv(
+                            LocalDateTime.now().format(TIMESTAMP_FORMATTER),
+                            email,
+                            intent,
+                            citySlug,
+                            jobSlug,
+                            sourcePath,
+                            referrer,
+                            userAgent,
+                            ip));
         } catch (IOException e) {
             logger.error("Failed to write lead to CSV", e);
-            return ResponseEntity.internalServerError().body(Map.of("status", "error", "message", "Server error"));
+            committed = CompletableFuture.failedFuture(e);
         }
 
+        if (committed.isCompletedExceptionally()) {
+            metrics.recordSince(AppMetrics.LEAD_WRITE, writeStarted, "outcome", "error");
+            leadDedupeWindow.forget(email, intent, citySlug, jobSlug);
+            return ResponseEntity.internalServerError().body(Map.of("status", "error", "message", "Server error"));
+        }
+        // A row still pending will be written, so a retry must still be deduped; the key is
+        // released only if that write fails after all.
+        String dedupeIntent = intent;
+        String dedupeCity = citySlug;
+        String dedupeJob = jobSlug;
+        committed.whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                leadDedupeWindow.forget(email, dedupeIntent, dedupeCity, dedupeJob);
+            }
+        });
+        if (!committed.isDone()) {
+            metrics.recordSince(AppMetrics.LEAD_WRITE, writeStarted, "outcome", "pending");
+            safeWriteLeadEvent("lead_submit_pending", intent, citySlug, jobSlug, sourcePath, referrer, userAgent, ip);
+            logger.warn("Lead accepted but not yet durable: email={}, intent={}", email, intent);
+            return ResponseEntity.accepted().body(Map.of(
+                    "status", "accepted",
+                    "message", "Lead received; saving is delayed",
+                    "warning", "not_yet_durable"));
+        }
+
+        metrics.recordSince(AppMetrics.LEAD_WRITE, writeStarted, "outcome", "ok");
+        safeWriteLeadEvent("lead_submit_success", intent, citySlug, jobSlug, sourcePath, referrer, userAgent, ip);
+        logger.info("New lead captured: email={}, intent={}, city={}, job={}", email, intent, citySlug, jobSlug);
         return ResponseEntity.ok(Map.of("status", "success", "message", "Lead captured"));
     }
 
@@ -142,13 +148,11 @@ public class LeadCaptureController {
         String sourcePath = sanitize(payload.get("sourcePath"), 400);
         String referrer = sanitize(payload.get("referrer"), 400);
         String userAgent = sanitize(request.getHeader("User-Agent"), 400);
-        String ip = sanitize(resolveClientIp(request), 120);
+        String ip = sanitize(ClientIpResolver.resolve(request), 120);
 
         try {
-            appendCsvRow(
-                    LEAD_EVENT_CSV_NAME,
-                    LEAD_EVENT_CSV_HEADER,
-                    LocalDateTime.now().format(TIMESTAMP_FORMATTER),
+            leadEventLog.append(new LeadEventLog.LeadEvent(
+                    System.currentTimeMillis(),
                     eventName,
                     intent,
                     citySlug,
@@ -156,9 +160,9 @@ public class LeadCaptureController {
                     sourcePath,
                     referrer,
                     userAgent,
-                    ip);
+                    ip));
         } catch (IOException e) {
-            logger.error("Failed to write lead event to CSV", e);
+            logger.error("Failed to write lead event", e);
             return ResponseEntity.internalServerError().body(Map.of("status", "error", "message", "Server error"));
         }
 
@@ -168,10 +172,8 @@ public class LeadCaptureController {
     private void safeWriteLeadEvent(String eventName, String intent, String citySlug, String jobSlug,
             String sourcePath, String referrer, String userAgent, String ip) {
         try {
-            appendCsvRow(
-                    LEAD_EVENT_CSV_NAME,
-                    LEAD_EVENT_CSV_HEADER,
-                    LocalDateTime.now().format(TIMESTAMP_FORMATTER),
+            leadEventLog.append(new LeadEventLog.LeadEvent(
+                    System.currentTimeMillis(),
                     sanitize(eventName, 80),
                     sanitize(intent, 80),
                     sanitize(citySlug, 80),
@@ -179,55 +181,12 @@ public class LeadCaptureController {
                     sanitize(sourcePath, 400),
                     sanitize(referrer, 400),
                     sanitize(userAgent, 400),
-                    sanitize(ip, 120));
+                    sanitize(ip, 120)));
         } catch (IOException e) {
             logger.warn("Failed to write fallback lead event {}", eventName, e);
         }
     }
 
-    private void appendCsvRow(String fileName, String header, String... columns) throws IOException {
-        Path dirPath = Paths.get(leadsStorageDir).toAbsolutePath().normalize();
-        Path backupDirPath = Paths.get(leadsBackupDir).toAbsolutePath().normalize();
-        LocalDate today = LocalDate.now();
-        String dailyName = withDateSuffix(fileName, today);
-        String csvRow = toCsv(columns);
-
-        synchronized (csvWriteLock) {
-            Files.createDirectories(dirPath);
-            Files.createDirectories(backupDirPath);
-
-            writeCsvLine(dirPath.resolve(fileName), header, csvRow);
-            writeCsvLine(dirPath.resolve(dailyName), header, csvRow);
-            writeCsvLine(backupDirPath.resolve(dailyName), header, csvRow);
-        }
-    }
-
-    private void writeCsvLine(Path filePath, String header, String csvRow) throws IOException {
-        boolean shouldWriteHeader = !Files.exists(filePath) || Files.size(filePath) == 0;
-        StringBuilder payload = new StringBuilder(256);
-        if (shouldWriteHeader) {
-            payload.append(header).append(System.lineSeparator());
-        }
-        payload.append(csvRow).append(System.lineSeparator());
-
-        try (FileChannel channel = FileChannel.open(
-                filePath,
-                StandardOpenOption.CREATE,
-                StandardOpenOption.WRITE,
-                StandardOpenOption.APPEND)) {
-            channel.write(ByteBuffer.wrap(payload.toString().getBytes(StandardCharsets.UTF_8)));
-            channel.force(true);
-        }
-    }
-
-    private String withDateSuffix(String fileName, LocalDate date) {
-        int dotIndex = fileName.lastIndexOf('.');
-        if (dotIndex <= 0) {
-            return fileName + "-" + date;
-        }
-        return fileName.substring(0, dotIndex) + "-" + date + fileName.substring(dotIndex);
-    }
-
     private String toCsv(String... values) {
         return Arrays.stream(values).map(this::escapeCsv).reduce((a, b) -> a + "," + b).orElse("");
     }
@@ -251,51 +210,4 @@ public class LeadCaptureController {
         }
         return cleaned;
     }
-
-    private String resolveClientIp(HttpServletRequest request) {
-        String forwardedFor = request.getHeader("X-Forwarded-For");
-        if (forwardedFor != null && !forwardedFor.isBlank()) {
-            return forwardedFor.split(",")[0].trim();
-        }
-        return request.getRemoteAddr();
-    }
-
-    private String buildLeadDedupeKey(String email, String intent, String citySlug, String jobSlug) {
-        String payload = String.join("|", sanitize(email, 320), sanitize(intent, 80), sanitize(citySlug, 80),
-                sanitize(jobSlug, 80));
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(payload.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hex = new StringBuilder(hash.length * 2);
-            for (byte b : hash) {
-                hex.append(String.format("%02x", b));
-            }
-            return hex.toString();
-        } catch (NoSuchAlgorithmException e) {
-            return payload;
-        }
-    }
-
-    private boolean isDuplicateLead(String dedupeKey) {
-        int windowMinutes = Math.max(1, dedupeMinutes);
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime previous = recentLeadKeys.get(dedupeKey);
-        pruneDedupeCache(now, windowMinutes);
-        if (previous == null) {
-            return false;
-        }
-        return Duration.between(previous, now).toMinutes() < windowMinutes;
-    }
-
-    private void rememberLeadKey(String dedupeKey) {
-        recentLeadKeys.put(dedupeKey, LocalDateTime.now());
-    }
-
-    private void pruneDedupeCache(LocalDateTime now, int windowMinutes) {
-        if (recentLeadKeys.size() <= 10_000) {
-            return;
-        }
-        LocalDateTime threshold = now.minusMinutes(windowMinutes * 2L);
-        recentLeadKeys.entrySet().removeIf(entry -> entry.getValue().isBefore(threshold));
-    }
 }
@@ -0,0 +1,75 @@
+package com.offerverdict.controller;
+
+import com.offerverdict.service.LeadEventLog;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Operator access to the binary lead event log: CSV export and per-day counts.
+ */
+@RestController
+@RequestMapping("/admin/lead-events")
+public class LeadEventLogController {
+
+    private static final int DEFAULT_RANGE_DAYS = 7;
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final LeadEventLog leadEventLog;
+    private final boolean adminEnabled;
+
+    public LeadEventLogController(LeadEventLog leadEventLog,
+            @Value("${app.leads.eventLog.adminEnabled:false}") boolean adminEnabled) {
+        this.leadEventLog = leadEventLog;
+        this.adminEnabled = adminEnabled;
+    }
+
+    @GetMapping("/export.csv")
+    public void exportCsv(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletResponse response) throws IOException {
+        if (!adminEnabled) {
+            response.sendError(HttpStatus.FORBIDDEN.value(), "Lead event export disabled");
+            return;
+        }
+        LocalDate end = to == null ? LocalDate.now() : to;
+        LocalDate start = clampStart(from, end);
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"lead_events-" + start + "-to-" + end + ".csv\"");
+        leadEventLog.exportCsv(start, end, response.getWriter());
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<List<LeadEventLog.EventCount>> summary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to)
+            throws IOException {
+        if (!adminEnabled) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        LocalDate end = to == null ? LocalDate.now() : to;
+        return ResponseEntity.ok(leadEventLog.countByDay(clampStart(from, end), end));
+    }
+
+    private LocalDate clampStart(LocalDate from, LocalDate end) {
+        LocalDate earliest = end.minusDays(MAX_RANGE_DAYS - 1);
+        if (from == null) {
+            return end.minusDays(DEFAULT_RANGE_DAYS - 1);
+        }
+        return from.isBefore(earliest) ? earliest : from;
+    }
+}
@@ -0,0 +1,95 @@
+package com.offerverdict.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.RateLimitFilter;
+import com.offerverdict.exception.BadRequestException;
+import com.offerverdict.service.OfferBatchParseService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk screening of pasted job posts: a JSON or NDJSON batch in, one NDJSON result line per
+ * item out, streamed in input order. Each item costs one token of the client's batch rate-limit
+ * budget.
+ */
+@RestController
+@RequestMapping("/api/offer-text")
+public class OfferBatchParseController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final OfferBatchParseService batchParseService;
+    private final ObjectMapper objectMapper;
+    private final RateLimitFilter rateLimitFilter;
+
+    public OfferBatchParseController(OfferBatchParseService batchParseService, ObjectMapper objectMapper,
+            RateLimitFilter rateLimitFilter) {
+        this.batchParseService = batchParseService;
+        this.objectMapper = objectMapper;
+        this.rateLimitFilter = rateLimitFilter;
+    }
+
+    @PostMapping(value = "/parse-batch", consumes = { MediaType.APPLICATION_JSON_VALUE, NDJSON })
+    public void parseBatch(
+            @RequestParam(name = "analysisMode", defaultValue = "job_post") String analysisMode,
+            @RequestParam(name = "assess", defaultValue = "false") boolean assess,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        if (request.getContentLengthLong() > batchParseService.maxBytes()) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Batch body is larger than " + batchParseService.maxBytes() + " bytes");
+            return;
+        }
+        List<OfferBatchParseService.Item> items;
+        try {
+            items = batchParseService.readItems(request.getInputStream(), isNdjson(request));
+        } catch (OfferBatchParseService.BatchTooLargeException e) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+            return;
+        } catch (BadRequestException e) {
+            writeError(response, HttpStatus.BAD_REQUEST, e.getMessage());
+            return;
+        }
+        long retryAfterSeconds = rateLimitFilter.tryAcquireBatchItems(request, items.size());
+        if (retryAfterSeconds > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            writeError(response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests");
+            return;
+        }
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding("UTF-8");
+        OutputStream out = response.getOutputStream();
+        batchParseService.run(items, analysisMode, assess, result -> {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+            out.flush();
+        });
+    }
+
+    private boolean isNdjson(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith(NDJSON);
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), Map.of("status", "error", "message", message));
+    }
+}
@@ -1,13 +1,11 @@
 package com.offerverdict.controller;
 
-import com.offerverdict.data.DataRepository;
-import com.offerverdict.model.CityCostEntry;
-import com.offerverdict.model.JobInfo;
 import com.offerverdict.model.OfferDocumentExtractResult;
 import com.offerverdict.model.OfferRiskDraft;
 import com.offerverdict.model.OfferRiskReport;
 import com.offerverdict.model.OfferTextParseResult;
 import com.offerverdict.service.ComparisonService;
+import com.offerverdict.service.FormViewModels;
 import com.offerverdict.service.OfferDocumentExtractService;
 import com.offerverdict.service.OfferRiskService;
 import com.offerverdict.service.OfferTextParserService;
@@ -18,29 +16,20 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.Comparator;
-import java.util.List;
-
 @Controller
 public class OfferRiskController {
-    private static final List<String> HEALTHCARE_ROLE_SLUGS = List.of(
-            "registered-nurse",
-            "physical-therapist",
-            "pharmacist",
-            "medical-resident");
-
-    private final DataRepository repository;
+    private final FormViewModels formViewModels;
     private final OfferRiskService offerRiskService;
     private final ComparisonService comparisonService;
     private final OfferTextParserService offerTextParserService;
     private final OfferDocumentExtractService offerDocumentExtractService;
 
-    public OfferRiskController(DataRepository repository,
+    public OfferRiskController(FormViewModels formViewModels,
             OfferRiskService offerRiskService,
             ComparisonService comparisonService,
             OfferTextParserService offerTextParserService,
             OfferDocumentExtractService offerDocumentExtractService) {
-        this.repository = repository;
+        this.formViewModels = formViewModels;
         this.offerRiskService = offerRiskService;
         this.comparisonService = comparisonService;
         this.offerTextParserService = offerTextParserService;
@@ -94,7 +83,8 @@ public class OfferRiskController {
             @RequestParam(name = "sourceText", defaultValue = "") String sourceText,
             @RequestParam(name = "sourceFile", required = false) MultipartFile sourceFile,
             Model model) {
-        OfferDocumentExtractResult extractedDocument = offerDocumentExtractService.extract(sourceText, sourceFile);
+        OfferDocumentExtractResult extractedDocument = offerDocumentExtractService.extract(sourceText, sourceFile,
+                analysisMode);
         OfferTextParseResult parseResult = offerTextParserService.parse(extractedDocument.getSourceText(), analysisMode);
         parseResult.setSourceLabel(extractedDocument.getSourceLabel());
         parseResult.setParseWarning(mergeWarnings(parseResult.getParseWarning(), extractedDocument.getWarning()));
@@ -187,14 +177,7 @@ public class OfferRiskController {
             String documentSourceLabel,
             String documentParseWarning,
             NurseOfferIssueController.IssueContext issueContext) {
-        OfferRiskReport report = offerRiskService.assess(draft.getAnalysisMode(), draft.getRoleSlug(),
-                draft.getCurrentCitySlug(), draft.getOfferCitySlug(), draft.getUnitType(), draft.getShiftGuarantee(),
-                draft.getFloatRisk(), draft.getCancelRisk(), draft.getCurrentHourlyRate(), draft.getOfferHourlyRate(),
-                draft.getWeeklyHours(), draft.getOvertimeHours(), draft.getNightDiffPercent(), draft.getNightHours(),
-                draft.getWeekendDiffPercent(), draft.getWeekendHours(), draft.getCurrentMonthlyInsurance(),
-                draft.getOfferMonthlyInsurance(), draft.getSignOnBonus(), draft.getRelocationStipend(),
-                draft.getMovingCost(), draft.getContractMonths(), draft.getPlannedStayMonths(),
-                draft.getRepaymentStyle(), draft.getSourceText());
+        OfferRiskReport report = offerRiskService.assess(draft);
 
         model.addAttribute("report", report);
         model.addAttribute("title",
@@ -204,8 +187,7 @@ public class OfferRiskController {
                         + " with local cash, schedule risk, incentives, and next-step questions for the listing or offer.");
         model.addAttribute("canonicalUrl", comparisonService.buildCanonicalUrl("/offer-risk-report"));
         model.addAttribute("shouldIndex", false);
-        model.addAttribute("cities", sortedCities());
-        model.addAttribute("roles", healthcareRoles());
+        addFormOptions(model);
         addIssueContext(model, issueContext);
         OfferTextParseResult documentParse = buildDocumentParse(draft.getSourceText(), draft.getAnalysisMode(),
                 documentSourceLabel, documentParseWarning);
@@ -318,8 +300,7 @@ public class OfferRiskController {
         model.addAttribute("metaDescription", variant.metaDescription());
         model.addAttribute("canonicalUrl", comparisonService.buildCanonicalUrl(variant.canonicalPath()));
         model.addAttribute("shouldIndex", true);
-        model.addAttribute("cities", sortedCities());
-        model.addAttribute("roles", healthcareRoles());
+        addFormOptions(model);
         model.addAttribute("pageHeading", variant.pageHeading());
         model.addAttribute("pageLead", variant.pageLead());
         model.addAttribute("variantPath", variant.canonicalPath());
@@ -339,18 +320,10 @@ public class OfferRiskController {
         model.addAttribute("issueSlug", issueContext == null ? "" : issueContext.slug());
     }
 
-    private List<CityCostEntry> sortedCities() {
-        return repository.getCities().stream()
-                .sorted(Comparator.comparingInt(CityCostEntry::getPriority)
-                        .thenComparing(CityCostEntry::getCity))
-                .toList();
-    }
-
-    private List<JobInfo> healthcareRoles() {
-        return HEALTHCARE_ROLE_SLUGS.stream()
-                .map(repository::findJobLoosely)
-                .flatMap(java.util.Optional::stream)
-                .toList();
+    private void addFormOptions(Model model) {
+        FormViewModels.Snapshot viewModels = formViewModels.current();
+        model.addAttribute("cityOptions", viewModels.cityOptions());
+        model.addAttribute("roleOptions", viewModels.roleOptions());
     }
 
     private ToolVariant variantFor(String canonicalPath) {
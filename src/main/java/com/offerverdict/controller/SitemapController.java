@@ -1,14 +1,39 @@
 package com.offerverdict.controller;
 
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.config.AppProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Serves the sitemap from a snapshot that is built once per base URL / chunk size.
+ * When the indexable paths fit in one chunk, /sitemap.xml is the urlset itself;
+ * otherwise it becomes a sitemap index pointing at /sitemap-{n}.xml chunks.
+ */
 @Controller
 public class SitemapController {
     private static final List<String> CORE_INDEXABLE_PATHS = List.of(
@@ -20,10 +45,20 @@ public class SitemapController {
             "/about");
     private static final List<String> V2_INDEXABLE_PATHS = indexablePaths();
 
+    // sitemaps.org caps a single urlset at 50,000 entries.
+    private static final int MAX_URLS_PER_CHUNK = 50_000;
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
+    private static final String SITEMAP_NS = "http://www.sitemaps.org/schemas/sitemap/0.9";
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(1, TimeUnit.HOURS).cachePublic();
+
     private final AppProperties appProperties;
+    private final AppMetrics metrics;
+    private volatile SitemapSnapshot snapshot;
 
-    public SitemapController(AppProperties appProperties) {
+    @Autowired
+    public SitemapController(AppProperties appProperties, AppMetrics metrics) {
         this.appProperties = appProperties;
+        this.metrics = metrics;
     }
 
     private static List<String> indexablePaths() {
@@ -33,29 +68,218 @@ public class SitemapController {
     }
 
     @GetMapping(value = "/sitemap.xml", produces = MediaType.APPLICATION_XML_VALUE)
-    @ResponseBody
-    public String sitemap() {
-        StringBuilder xml = new StringBuilder();
-        xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-        xml.append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+    public ResponseEntity<byte[]> sitemapXml(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SitemapSnapshot current = currentSnapshot();
+        return serve(current.root(), current.lastModified(), acceptEncoding);
+    }
+
+    @GetMapping(value = "/sitemap-{page:\\d+}.xml", produces = MediaType.APPLICATION_XML_VALUE)
+    public ResponseEntity<byte[]> sitemapChunkXml(
+            @PathVariable int page,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        SitemapSnapshot current = currentSnapshot();
+        if (page < 1 || page > current.chunks().size()) {
+            return ResponseEntity.notFound().build();
+        }
+        return serve(current.chunks().get(page - 1), current.lastModified(), acceptEncoding);
+    }
+
+    String sitemap() {
+        return new String(currentSnapshot().root().plain(), StandardCharsets.UTF_8);
+    }
+
+    String sitemapChunk(int page) {
+        return new String(currentSnapshot().chunks().get(page - 1).plain(), StandardCharsets.UTF_8);
+    }
+
+    int chunkCount() {
+        return currentSnapshot().chunks().size();
+    }
+
+    private ResponseEntity<byte[]> serve(SitemapDocument document, Instant lastModified, String acceptEncoding) {
+        // ETag + Last-Modified let HttpEntityMethodProcessor answer conditional GETs with 304.
+        // Each encoding is a different representation, so it gets its own strong ETag.
+        boolean gzip = acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_XML)
+                .eTag(gzip ? document.gzipEtag() : document.etag())
+                .lastModified(lastModified)
+                .cacheControl(CACHE_CONTROL)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(document.gzipped());
+        }
+        return response.body(document.plain());
+    }
 
-        for (String path : V2_INDEXABLE_PATHS) {
-            addUrl(xml, path, "/".equals(path) ? "1.0" : "0.9");
+    private SitemapSnapshot currentSnapshot() {
+        String baseUrl = normalizedBaseUrl();
+        int chunkSize = effectiveChunkSize();
+        SitemapSnapshot current = snapshot;
+        if (current != null && current.matches(baseUrl, chunkSize)) {
+            metrics.cacheLookup("sitemap", true);
+            return current;
         }
+        metrics.cacheLookup("sitemap", false);
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || !current.matches(baseUrl, chunkSize)) {
+                current = buildSnapshot(baseUrl, chunkSize);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
 
+    private SitemapSnapshot buildSnapshot(String baseUrl, int chunkSize) {
+        Instant lastModified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        List<SitemapDocument> chunks = new ArrayList<>();
+        for (int from = 0; from < V2_INDEXABLE_PATHS.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, V2_INDEXABLE_PATHS.size());
+            chunks.add(document(urlset(baseUrl, V2_INDEXABLE_PATHS.subList(from, to))));
+        }
+        if (chunks.isEmpty()) {
+            chunks.add(document(urlset(baseUrl, List.of())));
+        }
+        SitemapDocument root = chunks.size() == 1
+                ? chunks.get(0)
+                : document(sitemapIndex(baseUrl, chunks.size(), lastModified));
+        return new SitemapSnapshot(baseUrl, chunkSize, List.copyOf(chunks), root, lastModified);
+    }
+
+    private String urlset(String baseUrl, List<String> paths) {
+        StringBuilder xml = new StringBuilder(XML_HEADER.length() + paths.size() * 160);
+        xml.append(XML_HEADER);
+        xml.append("<urlset xmlns=\"").append(SITEMAP_NS).append("\">\n");
+        for (String path : paths) {
+            addUrl(xml, baseUrl, path, "/".equals(path) ? "1.0" : "0.9");
+        }
         xml.append("</urlset>");
         return xml.toString();
     }
 
-    private void addUrl(StringBuilder xml, String path, String priority) {
-        String baseUrl = appProperties.getPublicBaseUrl();
-        if (baseUrl.endsWith("/")) {
-            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+    private String sitemapIndex(String baseUrl, int chunkCount, Instant lastModified) {
+        String lastmod = DateTimeFormatter.ISO_LOCAL_DATE.format(lastModified.atOffset(ZoneOffset.UTC));
+        StringBuilder xml = new StringBuilder(XML_HEADER.length() + chunkCount * 120);
+        xml.append(XML_HEADER);
+        xml.append("<sitemapindex xmlns=\"").append(SITEMAP_NS).append("\">\n");
+        for (int page = 1; page <= chunkCount; page++) {
+            xml.append("  <sitemap>\n");
+            xml.append("    <loc>").append(escapeXml(baseUrl)).append("/sitemap-").append(page).append(".xml</loc>\n");
+            xml.append("    <lastmod>").append(lastmod).append("</lastmod>\n");
+            xml.append("  </sitemap>\n");
         }
+        xml.append("</sitemapindex>");
+        return xml.toString();
+    }
+
+    private void addUrl(StringBuilder xml, String baseUrl, String path, String priority) {
         xml.append("  <url>\n");
-        xml.append("    <loc>").append(baseUrl).append(path).append("</loc>\n");
+        xml.append("    <loc>").append(escapeXml(baseUrl)).append(escapeXml(path)).append("</loc>\n");
         xml.append("    <changefreq>weekly</changefreq>\n");
         xml.append("    <priority>").append(priority).append("</priority>\n");
         xml.append("  </url>\n");
     }
+
+    private String normalizedBaseUrl() {
+        String baseUrl = appProperties.getPublicBaseUrl() == null ? "" : appProperties.getPublicBaseUrl().trim();
+        while (baseUrl.endsWith("/")) {
+            baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
+        }
+        return baseUrl;
+    }
+
+    private int effectiveChunkSize() {
+        int configured = appProperties.getSitemapChunkSize();
+        if (configured <= 0) {
+            return MAX_URLS_PER_CHUNK;
+        }
+        return Math.min(configured, MAX_URLS_PER_CHUNK);
+    }
+
+    /**
+     * Whether {@code Accept-Encoding} allows gzip. A {@code gzip} entry decides when there is
+     * one, otherwise a {@code *} entry does; its q-value must be a number above zero.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzip = -1;
+        double wildcard = -1;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (coding.equals("gzip")) {
+                gzip = Math.max(gzip, qValue(parts));
+            } else if (coding.equals("*")) {
+                wildcard = Math.max(wildcard, qValue(parts));
+            }
+        }
+        return (gzip >= 0 ? gzip : wildcard) > 0;
+    }
+
+    /**
+     * The {@code q} parameter among {@code parts[1..]}, 1 when absent, 0 when it is not a number.
+     */
+    private static double qValue(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            int equals = parameter.indexOf('=');
+            if (equals > 0 && parameter.substring(0, equals).trim().equalsIgnoreCase("q")) {
+                try {
+                    double q = Double.parseDouble(parameter.substring(equals + 1).trim());
+                    return Double.isNaN(q) ? 0 : q;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static String escapeXml(String value) {
+        if (value.indexOf('&') < 0 && value.indexOf('<') < 0 && value.indexOf('>') < 0) {
+            return value;
+        }
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static SitemapDocument document(String xml) {
+        byte[] plain = xml.getBytes(StandardCharsets.UTF_8);
+        return new SitemapDocument(plain, gzip(plain), etag(plain));
+    }
+
+    private static byte[] gzip(byte[] plain) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(256, plain.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(plain);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String etag(byte[] plain) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(plain);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private record SitemapDocument(byte[] plain, byte[] gzipped, String etag) {
+        String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+    }
+
+    private record SitemapSnapshot(String baseUrl, int chunkSize, List<SitemapDocument> chunks,
+            SitemapDocument root, Instant lastModified) {
+        boolean matches(String otherBaseUrl, int otherChunkSize) {
+            return chunkSize == otherChunkSize && baseUrl.equals(otherBaseUrl);
+        }
+    }
 }
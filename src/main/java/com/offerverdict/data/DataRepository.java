@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.offerverdict.exception.ResourceNotFoundException;
 import com.offerverdict.model.AuthoritativeMetrics;
 import com.offerverdict.model.CityCostEntry;
+import com.offerverdict.model.CityCostProfile;
 import com.offerverdict.model.JobInfo;
 import com.offerverdict.model.StateTax;
 import com.offerverdict.model.TaxData;
@@ -16,10 +17,12 @@ import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 @Component
@@ -34,8 +37,12 @@ public class DataRepository {
     private List<JobInfo> jobs = Collections.emptyList();
     private Map<String, CityCostEntry> cityBySlug = Collections.emptyMap();
     private Map<String, JobInfo> jobBySlug = Collections.emptyMap();
+    private Map<CityCostEntry, CityCostProfile> costProfiles = Collections.emptyMap();
+    private Map<CityCostEntry, CityCostProfile> defaultCostProfiles = Collections.emptyMap();
     private AuthoritativeMetrics authoritativeMetrics;
     private Map<String, Map<String, Map<String, Double>>> jobMarketData = Collections.emptyMap();
+    private volatile long version;
+    private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
 
     public DataRepository(ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
@@ -77,9 +84,36 @@ public class DataRepository {
                     .collect(Collectors.toMap(c -> SlugNormalizer.normalize(c.getSlug()), c -> c));
             this.jobBySlug = jobs.stream()
                     .collect(Collectors.toMap(j -> SlugNormalizer.normalize(j.getSlug()), j -> j));
+            this.costProfiles = costProfiles(authoritativeMetrics);
+            this.defaultCostProfiles = costProfiles(null);
+            version++;
         } catch (IOException e) {
             throw new IllegalStateException("Failed to load JSON data", e);
         }
+        reloadListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Runs {@code listener} at the end of every successful {@link #reload()}, still under the
+     * reload lock, so data derived from the new tables is rebuilt before the next reload starts.
+     */
+    public void addReloadListener(Runnable listener) {
+        reloadListeners.add(listener);
+    }
+
+    private Map<CityCostEntry, CityCostProfile> costProfiles(AuthoritativeMetrics metrics) {
+        Map<CityCostEntry, CityCostProfile> profiles = new IdentityHashMap<>();
+        for (CityCostEntry city : cities) {
+            profiles.put(city, CityCostProfile.of(city, taxData, metrics));
+        }
+        return Collections.unmodifiableMap(profiles);
+    }
+
+    /**
+     * Incremented by every successful {@link #reload()}, so caches of derived results can tell stale data.
+     */
+    public long getVersion() {
+        return version;
     }
 
     public record MarketBenchmarkSelection(Map<String, Double> values,
@@ -279,4 +313,16 @@ public class DataRepository {
     public AuthoritativeMetrics getAuthoritativeMetrics() {
         return authoritativeMetrics;
     }
+
+    /**
+     * The profile built at load for one of {@link #getCities()}, resolved against the loaded
+     * authoritative metrics or, for {@code null} metrics, against the tax data alone. Returns
+     * null for any other city instance or metrics.
+     */
+    public CityCostProfile getCostProfile(CityCostEntry city, AuthoritativeMetrics metrics) {
+        if (metrics == null) {
+            return defaultCostProfiles.get(city);
+        }
+        return metrics == authoritativeMetrics ? costProfiles.get(city) : null;
+    }
 }
@@ -0,0 +1,120 @@
+package com.offerverdict.model;
+
+import java.util.Map;
+
+/**
+ * The city-dependent inputs of a single-city analysis, resolved once per city when the data
+ * is loaded so an analysis is plain arithmetic on these fields.
+ *
+ * Monthly components are per single-person household; the analysis applies the household
+ * multiplier, the commute surcharge and the transit discount. When the city has no detailed
+ * breakdown, {@code colIndexFactor} scales the baseline living cost instead. A {@code *Fallback}
+ * flag means the lookup failed while building the profile and the value is the analysis default.
+ */
+public record CityCostProfile(double rent,
+                              double ownHousingMonthly,
+                              double houseDownPayment,
+                              boolean detailed,
+                              double groceries,
+                              double transport,
+                              double utilities,
+                              double misc,
+                              double colIndexFactor,
+                              double localTaxRate,
+                              boolean localTaxFallback,
+                              double carInsuranceAnnual,
+                              boolean carInsuranceFallback) {
+
+    public static final double DEFAULT_RENT = 2000.0;
+    public static final double DEFAULT_CAR_INSURANCE_ANNUAL = 1500.0;
+
+    /**
+     * Resolves a profile for {@code city} against the tax data and, when not null, the
+     * authoritative metrics, using the same rules as {@code FinancialEngine}.
+     */
+    public static CityCostProfile of(CityCostEntry city, TaxData taxData, AuthoritativeMetrics metrics) {
+        Map<String, Double> details = city.getDetails();
+        boolean detailed = details != null && !details.isEmpty();
+
+        double localTaxRate;
+        boolean localTaxFallback = false;
+        try {
+            localTaxRate = localTaxRate(city.getSlug(), taxData, metrics);
+        } catch (RuntimeException e) {
+            localTaxRate = 0.0;
+            localTaxFallback = true;
+        }
+
+        double carInsuranceAnnual;
+        boolean carInsuranceFallback = false;
+        try {
+            carInsuranceAnnual = carInsuranceMonthly(city.getState(), taxData, metrics) * 12;
+        } catch (RuntimeException e) {
+            carInsuranceAnnual = DEFAULT_CAR_INSURANCE_ANNUAL;
+            carInsuranceFallback = true;
+        }
+
+        return new CityCostProfile(
+                city.getAvgRent() > 0 ? city.getAvgRent() : DEFAULT_RENT,
+                (city.getAvgHousePrice() * 0.015) / 12.0,
+                city.getAvgHousePrice() * 0.20,
+                detailed,
+                detailed ? detail(details, "groceries") : 0.0,
+                detailed ? detail(details, "transport") : 0.0,
+                detailed ? detail(details, "utilities") : 0.0,
+                detailed ? detail(details, "misc") : 0.0,
+                city.getColIndex() / 100.0,
+                localTaxRate,
+                localTaxFallback,
+                carInsuranceAnnual,
+                carInsuranceFallback);
+    }
+
+    /**
+     * Local income tax as a fraction of gross pay: the central NYC rate first, then the
+     * metrics' NYC entry, then the first metrics city whose name appears in the slug.
+     */
+    public static double localTaxRate(String citySlug, TaxData taxData, AuthoritativeMetrics metrics) {
+        String lowerSlug = citySlug.toLowerCase();
+
+        Map<String, Double> localTaxes = taxData.getLocalTaxes();
+        if (localTaxes != null && lowerSlug.contains("new-york") && localTaxes.containsKey("nyc")) {
+            return localTaxes.get("nyc");
+        }
+
+        if (metrics == null || metrics.getLocalIncomeTaxes() == null) {
+            return 0;
+        }
+        if (lowerSlug.contains("new-york") && metrics.getLocalIncomeTaxes().containsKey("NYC")) {
+            return metrics.getLocalIncomeTaxes().get("NYC");
+        }
+        for (Map.Entry<String, Double> entry : metrics.getLocalIncomeTaxes().entrySet()) {
+            // Match "Philadelphia" in "philadelphia-pa"
+            if (lowerSlug.contains(entry.getKey().toLowerCase())) {
+                return entry.getValue();
+            }
+        }
+        return 0;
+    }
+
+    public static double carInsuranceMonthly(String state, TaxData taxData, AuthoritativeMetrics metrics) {
+        double defaultMonthly = 175.0;
+        if (taxData.getDefaults() != null) {
+            defaultMonthly = taxData.getDefaults().getDefaultCarInsuranceMonthly();
+        }
+
+        if (metrics == null || metrics.getStateCarInsuranceMonthly() == null) {
+            return defaultMonthly;
+        }
+        Double monthly = metrics.getStateCarInsuranceMonthly().get(state.toUpperCase());
+        if (monthly == null) {
+            monthly = metrics.getStateCarInsuranceMonthly().getOrDefault("default", defaultMonthly);
+        }
+        return monthly;
+    }
+
+    private static double detail(Map<String, Double> details, String key) {
+        Double value = details.get(key);
+        return value != null ? value : 0.0;
+    }
+}
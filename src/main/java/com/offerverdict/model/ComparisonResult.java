@@ -30,6 +30,7 @@ public class ComparisonResult {
     private String wealthBufferMsg; // e.g. "This move adds $450k to your 10-year wealth."
     private double investmentA;
     private double investmentB;
+    private String simulationToken; // Opaque; lets /api/calculate/delta send only changed fields
 
     public String getWealthBufferMsg() {
         return wealthBufferMsg;
@@ -223,4 +224,12 @@ public class ComparisonResult {
     public void setBenchmarkContext(String benchmarkContext) {
         this.benchmarkContext = benchmarkContext;
     }
+
+    public String getSimulationToken() {
+        return simulationToken;
+    }
+
+    public void setSimulationToken(String simulationToken) {
+        this.simulationToken = simulationToken;
+    }
 }
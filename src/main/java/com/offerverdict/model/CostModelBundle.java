@@ -0,0 +1,54 @@
+package com.offerverdict.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything a single-city analysis reads for a pair of cities, compiled for a client-side
+ * evaluator: bracket tables with the filing-status fallbacks already applied, FICA and
+ * pre-tax defaults, each city's {@link CityCostProfile}, and the tunable constants.
+ *
+ * {@code version} is a digest of the rest of the bundle, so a bundle fetched by version never
+ * changes. {@code schemaVersion} changes when the shape or the formulas the evaluator must
+ * apply change.
+ */
+public record CostModelBundle(int schemaVersion,
+                              String version,
+                              Constants constants,
+                              Tax tax,
+                              List<City> cities) {
+
+    /**
+     * Analysis constants: the {@code AppProperties} decision-model values and the fixed
+     * multipliers {@code SingleCityAnalysisService} applies.
+     */
+    public record Constants(double baselineLivingCost,
+                            double commuteCostPerMinute,
+                            double carAffordabilityTarget,
+                            double familyCostMultiplier,
+                            double transitTransportFactor,
+                            double parentsHousingMonthly) {
+    }
+
+    /**
+     * Federal and FICA parameters, pre-tax defaults, and state brackets keyed by upper-case
+     * state code. A state without brackets has empty lists and no state tax.
+     */
+    public record Tax(double standardDeductionSingle,
+                      double standardDeductionMarried,
+                      List<TaxBracket> federalSingle,
+                      List<TaxBracket> federalMarried,
+                      Fica fica,
+                      double default401kRate,
+                      double max401kContribution,
+                      double defaultAnnualInsurance,
+                      double rsuSupplementalRate,
+                      Map<String, StateBrackets> states) {
+    }
+
+    public record StateBrackets(List<TaxBracket> single, List<TaxBracket> married) {
+    }
+
+    public record City(String slug, String name, String taxState, CityCostProfile costs) {
+    }
+}
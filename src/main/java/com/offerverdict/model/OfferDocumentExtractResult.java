@@ -5,6 +5,8 @@ public class OfferDocumentExtractResult {
     private String sourceLabel;
     private String warning;
     private boolean fromFile;
+    private int ocrPagesProcessed;
+    private int ocrPagesSkipped;
 
     public String getSourceText() {
         return sourceText;
@@ -37,4 +39,20 @@ public class OfferDocumentExtractResult {
     public void setFromFile(boolean fromFile) {
         this.fromFile = fromFile;
     }
+
+    public int getOcrPagesProcessed() {
+        return ocrPagesProcessed;
+    }
+
+    public void setOcrPagesProcessed(int ocrPagesProcessed) {
+        this.ocrPagesProcessed = ocrPagesProcessed;
+    }
+
+    public int getOcrPagesSkipped() {
+        return ocrPagesSkipped;
+    }
+
+    public void setOcrPagesSkipped(int ocrPagesSkipped) {
+        this.ocrPagesSkipped = ocrPagesSkipped;
+    }
 }
@@ -89,6 +89,36 @@ public class OfferRiskDraft {
         return draft;
     }
 
+    public OfferRiskDraft copy() {
+        OfferRiskDraft copy = new OfferRiskDraft();
+        copy.analysisMode = analysisMode;
+        copy.sourceText = sourceText;
+        copy.roleSlug = roleSlug;
+        copy.currentCitySlug = currentCitySlug;
+        copy.offerCitySlug = offerCitySlug;
+        copy.unitType = unitType;
+        copy.shiftGuarantee = shiftGuarantee;
+        copy.floatRisk = floatRisk;
+        copy.cancelRisk = cancelRisk;
+        copy.currentHourlyRate = currentHourlyRate;
+        copy.offerHourlyRate = offerHourlyRate;
+        copy.weeklyHours = weeklyHours;
+        copy.overtimeHours = overtimeHours;
+        copy.nightDiffPercent = nightDiffPercent;
+        copy.nightHours = nightHours;
+        copy.weekendDiffPercent = weekendDiffPercent;
+        copy.weekendHours = weekendHours;
+        copy.currentMonthlyInsurance = currentMonthlyInsurance;
+        copy.offerMonthlyInsurance = offerMonthlyInsurance;
+        copy.signOnBonus = signOnBonus;
+        copy.relocationStipend = relocationStipend;
+        copy.movingCost = movingCost;
+        copy.contractMonths = contractMonths;
+        copy.plannedStayMonths = plannedStayMonths;
+        copy.repaymentStyle = repaymentStyle;
+        return copy;
+    }
+
     private static String normalizeMode(String analysisMode) {
         return "job_post".equalsIgnoreCase(analysisMode) ? "job_post" : "offer_review";
     }
@@ -14,6 +14,23 @@ public class OfferTextParseResult {
     private List<String> missingCriticalFields = new ArrayList<>();
     private List<String> evidenceSnippets = new ArrayList<>();
 
+    /**
+     * Copies the result and its draft, so the copy can be relabelled without touching the original.
+     */
+    public OfferTextParseResult copy() {
+        OfferTextParseResult copy = new OfferTextParseResult();
+        copy.analysisMode = analysisMode;
+        copy.draft = draft == null ? null : draft.copy();
+        copy.parsed = parsed;
+        copy.summary = summary;
+        copy.sourceLabel = sourceLabel;
+        copy.parseWarning = parseWarning;
+        copy.extractedFields = new ArrayList<>(extractedFields);
+        copy.missingCriticalFields = new ArrayList<>(missingCriticalFields);
+        copy.evidenceSnippets = new ArrayList<>(evidenceSnippets);
+        return copy;
+    }
+
     public OfferRiskDraft getDraft() {
         return draft;
     }
@@ -0,0 +1,24 @@
+package com.offerverdict.model;
+
+/**
+ * The simulation lab form as sent to {@code /api/calculate}: both cities and salaries, the
+ * lab toggles and the offer-side sliders.
+ */
+public record SimulationForm(String cityASlug,
+                             String cityBSlug,
+                             double currentSalary,
+                             double offerSalary,
+                             boolean isPremiumBenefits,
+                             boolean isHomeOwner,
+                             boolean hasStudentLoan,
+                             boolean hasDependents,
+                             double sideHustle,
+                             double otherLeaks,
+                             boolean isRemote,
+                             boolean isTaxOptimized,
+                             boolean isCarOwner,
+                             double signingBonus,
+                             double equityAnnual,
+                             double equityMultiplier,
+                             double commuteTime) {
+}
@@ -1,5 +1,6 @@
 package com.offerverdict.service;
 
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.config.AppProperties;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.AuthoritativeMetrics;
@@ -10,12 +11,16 @@ import com.offerverdict.model.HouseholdType;
 import com.offerverdict.model.HousingType;
 import com.offerverdict.model.JobInfo;
 import com.offerverdict.model.LifestyleMetrics;
+import com.offerverdict.model.SimulationForm;
 import com.offerverdict.model.Verdict;
 import com.offerverdict.model.LinkDTO;
 import com.offerverdict.util.SlugNormalizer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.text.NumberFormat;
+import java.time.Duration;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
@@ -29,19 +34,39 @@ public class ComparisonService {
     private final FinancialEngine financialEngine;
     private final VerdictAdviser verdictAdviser;
     private final SingleCityAnalysisService singleCityAnalysisService;
+    private final AppMetrics appMetrics;
+    private final SimulationSessions simulationSessions;
 
+    @Autowired
     public ComparisonService(DataRepository repository,
             TaxCalculatorService taxCalculatorService,
             AppProperties appProperties,
             FinancialEngine financialEngine,
             VerdictAdviser verdictAdviser,
-            SingleCityAnalysisService singleCityAnalysisService) {
+            SingleCityAnalysisService singleCityAnalysisService,
+            AppMetrics appMetrics,
+            @Value("${app.simulation.maxSessions:10000}") int maxSimulationSessions,
+            @Value("${app.simulation.sessionTtlSeconds:600}") long simulationSessionTtlSeconds) {
         this.repository = repository;
         this.taxCalculatorService = taxCalculatorService;
         this.appProperties = appProperties;
         this.financialEngine = financialEngine;
         this.verdictAdviser = verdictAdviser;
         this.singleCityAnalysisService = singleCityAnalysisService;
+        this.appMetrics = appMetrics;
+        this.simulationSessions = new SimulationSessions(maxSimulationSessions,
+                Duration.ofSeconds(Math.max(0, simulationSessionTtlSeconds)).toNanos(), System::nanoTime);
+    }
+
+    public ComparisonService(DataRepository repository,
+            TaxCalculatorService taxCalculatorService,
+            AppProperties appProperties,
+            FinancialEngine financialEngine,
+            VerdictAdviser verdictAdviser,
+            SingleCityAnalysisService singleCityAnalysisService,
+            AppMetrics appMetrics) {
+        this(repository, taxCalculatorService, appProperties, financialEngine, verdictAdviser,
+                singleCityAnalysisService, appMetrics, 0, 0);
     }
 
     public ComparisonResult compare(String cityASlug,
@@ -69,6 +94,7 @@ public class ComparisonService {
             double offerSideLeaks,
             double sideHustle, boolean isRemote, boolean isCarOwner,
             double signingBonus, double equityAnnual, double equityMultiplier, double commuteTime) {
+        long started = System.nanoTime();
 
         CityCostEntry cityA = repository.getCity(citySlugA);
         CityCostEntry cityB = repository.getCity(citySlugB);
@@ -89,6 +115,80 @@ public class ComparisonService {
                 isCarOwner,
                 signingBonus, equityAnnual, equityMultiplier, commuteTime);
 
+        ComparisonResult result = buildResult(cityA, cityB, salaryA, salaryB, breakdownA, breakdownB);
+        appMetrics.recordSince(AppMetrics.COMPARISON_COMPUTE, started);
+        return result;
+    }
+
+    /**
+     * Runs the simulation lab form. With the token of a previous run whose current-city
+     * inputs match, the current-city breakdown is reused and only the offer side and the
+     * verdict are recomputed. The result carries a token for the next run, which replaces
+     * the previous one, unless simulation sessions are disabled.
+     */
+    public ComparisonResult simulate(SimulationForm form, String previousToken) {
+        long started = System.nanoTime();
+
+        CityCostEntry cityA = repository.getCity(form.cityASlug());
+        CityCostEntry cityB = repository.getCity(form.cityBSlug());
+        AuthoritativeMetrics metrics = repository.getAuthoritativeMetrics();
+
+        HouseholdType householdType = form.hasDependents() ? HouseholdType.FAMILY : HouseholdType.SINGLE;
+        HousingType housingType = form.isHomeOwner() ? HousingType.OWN : HousingType.RENT;
+
+        // Logical mapping of "Boosts" and "Leaks"
+        Double fourOhOneK = (form.isPremiumBenefits() || form.isTaxOptimized()) ? 0.08 : 0.04;
+        Double insurance = form.isPremiumBenefits() ? 100.0 : 400.0;
+
+        // Student Loan is a shared reality (exists in both). Other Leaks (Simulation Lab
+        // slider) is strictly an OFFER-side simulation (e.g. lifestyle creep).
+        double sharedDebtMonthly = form.hasStudentLoan() ? 800.0 : 0.0;
+
+        SimulationSessions.CurrentSideKey currentKey = new SimulationSessions.CurrentSideKey(
+                SlugNormalizer.normalize(cityA.getSlug()), form.currentSalary(), householdType, housingType,
+                form.hasDependents(), fourOhOneK, insurance, sharedDebtMonthly, repository.getVersion());
+        SimulationSessions.Session previous = simulationSessions.get(previousToken);
+        boolean reuseCurrent = previous != null && previous.currentKey().equals(currentKey);
+        if (previousToken != null) {
+            appMetrics.cacheLookup("simulation_current", reuseCurrent);
+        }
+        ComparisonBreakdown breakdownA = reuseCurrent
+                ? previous.current()
+                : singleCityAnalysisService.analyze(form.currentSalary(), cityA, metrics, householdType,
+                        housingType, form.hasDependents(),
+                        fourOhOneK, insurance, sharedDebtMonthly, 0.0, 0.0, false, true,
+                        0.0, 0.0, 1.0, 0.0);
+
+        ComparisonBreakdown breakdownB = singleCityAnalysisService.analyze(form.offerSalary(), cityB, metrics,
+                householdType, housingType, form.hasDependents(),
+                fourOhOneK, insurance, sharedDebtMonthly, form.otherLeaks(), form.sideHustle(), form.isRemote(),
+                form.isCarOwner(),
+                form.signingBonus(), form.equityAnnual(), form.equityMultiplier(), form.commuteTime());
+
+        ComparisonResult result = buildResult(cityA, cityB, form.currentSalary(), form.offerSalary(),
+                breakdownA, breakdownB);
+        result.setSimulationToken(simulationSessions.put(previousToken, form, currentKey, breakdownA));
+
+        appMetrics.recordSince(AppMetrics.COMPARISON_COMPUTE, started);
+        return result;
+    }
+
+    /**
+     * The form of a live simulation session, for merging the fields a delta request changed.
+     * Null when the token is unknown or expired.
+     */
+    public SimulationForm simulationForm(String token) {
+        SimulationSessions.Session session = simulationSessions.get(token);
+        return session != null ? session.form() : null;
+    }
+
+    /**
+     * Everything past the two breakdowns: verdict, lifestyle metrics, receipts and messages.
+     * Sets the diff fields on the offer breakdown only; the current breakdown may be shared
+     * with a simulation session and is left untouched.
+     */
+    private ComparisonResult buildResult(CityCostEntry cityA, CityCostEntry cityB, double salaryA, double salaryB,
+            ComparisonBreakdown breakdownA, ComparisonBreakdown breakdownB) {
         ComparisonBreakdown current = breakdownA;
         ComparisonBreakdown offer = breakdownB;
 
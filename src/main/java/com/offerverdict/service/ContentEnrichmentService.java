@@ -2,6 +2,9 @@ package com.offerverdict.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
@@ -21,13 +24,16 @@ import java.util.Optional;
  */
 @Service
 public class ContentEnrichmentService {
+    private static final Logger logger = LoggerFactory.getLogger(ContentEnrichmentService.class);
 
     private final ObjectMapper objectMapper;
+    private final AppMetrics metrics;
     private Map<String, CityContext> cityContexts = new HashMap<>();
     private Map<String, JobContext> jobContexts = new HashMap<>();
 
-    public ContentEnrichmentService(ObjectMapper objectMapper) {
+    public ContentEnrichmentService(ObjectMapper objectMapper, AppMetrics metrics) {
         this.objectMapper = objectMapper;
+        this.metrics = metrics;
     }
 
     @PostConstruct
@@ -36,8 +42,9 @@ public class ContentEnrichmentService {
             loadCityContexts();
             loadJobContexts();
         } catch (IOException e) {
-            // Warning: Could not load content enrichment data
             // Non-fatal: site will work without enrichment, just less SEO value
+            metrics.fallback("content_enrichment_unavailable");
+            logger.warn("Could not load content enrichment data; pages will render without it", e);
         }
     }
 
@@ -0,0 +1,170 @@
+package com.offerverdict.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppProperties;
+import com.offerverdict.data.DataRepository;
+import com.offerverdict.model.AuthoritativeMetrics;
+import com.offerverdict.model.CityCostEntry;
+import com.offerverdict.model.CostModelBundle;
+import com.offerverdict.model.FederalTax;
+import com.offerverdict.model.StateTax;
+import com.offerverdict.model.TaxBracket;
+import com.offerverdict.model.TaxData;
+import com.offerverdict.model.TaxDefaults;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles the {@link CostModelBundle} for a city pair, the data the simulation lab needs to
+ * run {@link SingleCityAnalysisService#analyze} in the browser. Costs are resolved against the
+ * loaded authoritative metrics, as {@link ComparisonService} does.
+ *
+ * Bundles and their digests are cached per {@link DataRepository} version; a reload swaps in
+ * an empty cache. Past {@link #MAX_CACHED_BUNDLES} pairs per version, bundles are built per
+ * request without being cached.
+ */
+@Service
+public class CostModelBundleService {
+
+    public static final int SCHEMA_VERSION = 1;
+
+    /** Bundles are a few KB each. */
+    static final int MAX_CACHED_BUNDLES = 4096;
+
+    private final DataRepository repository;
+    private final FinancialEngine financialEngine;
+    private final AppProperties appProperties;
+    private final ObjectMapper objectMapper;
+    private volatile Cache cache = new Cache(-1, Map.of());
+
+    public CostModelBundleService(DataRepository repository,
+            FinancialEngine financialEngine,
+            AppProperties appProperties,
+            ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.financialEngine = financialEngine;
+        this.appProperties = appProperties;
+        this.objectMapper = objectMapper;
+    }
+
+    public CostModelBundle bundle(String citySlugA, String citySlugB) {
+        Map<List<String>, CostModelBundle> bundles = currentCache().bundles();
+        CityCostEntry cityA = repository.getCity(citySlugA);
+        CityCostEntry cityB = repository.getCity(citySlugB);
+        List<String> key = List.of(cityA.getSlug(), cityB.getSlug());
+        CostModelBundle bundle = bundles.get(key);
+        if (bundle != null) {
+            return bundle;
+        }
+        bundle = bundle(List.of(cityA, cityB));
+        if (bundles.size() < MAX_CACHED_BUNDLES) {
+            CostModelBundle raced = bundles.putIfAbsent(key, bundle);
+            if (raced != null) {
+                return raced;
+            }
+        }
+        return bundle;
+    }
+
+    private Cache currentCache() {
+        long version = repository.getVersion();
+        Cache current = cache;
+        if (current.dataVersion() == version) {
+            return current;
+        }
+        synchronized (this) {
+            current = cache;
+            if (current.dataVersion() != version) {
+                current = new Cache(version, new ConcurrentHashMap<>());
+                cache = current;
+            }
+            return current;
+        }
+    }
+
+    CostModelBundle bundle(List<CityCostEntry> requested) {
+        Set<CityCostEntry> entries = new LinkedHashSet<>(requested);
+        AuthoritativeMetrics metrics = repository.getAuthoritativeMetrics();
+        TaxData taxData = repository.getTaxData();
+        Map<String, StateTax> stateTaxMap = repository.stateTaxMap();
+        List<CostModelBundle.City> cities = new ArrayList<>();
+        Map<String, CostModelBundle.StateBrackets> states = new TreeMap<>();
+        for (CityCostEntry city : entries) {
+            String taxState = city.getState().toUpperCase(Locale.US);
+            cities.add(new CostModelBundle.City(city.getSlug(), city.getCity(), taxState,
+                    financialEngine.costProfile(city, metrics)));
+            states.computeIfAbsent(taxState, state -> stateBrackets(stateTaxMap.get(state)));
+        }
+
+        FederalTax federal = taxData.getFederal();
+        TaxDefaults defaults = taxData.getDefaults();
+        CostModelBundle.Tax tax = new CostModelBundle.Tax(
+                federal.getStandardDeductionSingle(),
+                federal.getStandardDeductionMarried(),
+                orEmpty(federal.getBracketsSingle()),
+                orElse(federal.getBracketsMarried(), federal.getBracketsSingle()),
+                taxData.getFica(),
+                TaxCalculatorService.DEFAULT_401K_RATE,
+                defaults != null ? defaults.getMax401kContribution() : TaxCalculatorService.FALLBACK_MAX_401K_CONTRIBUTION,
+                defaults != null ? defaults.getStandardMonthlyInsurance() * 12 : TaxCalculatorService.FALLBACK_ANNUAL_INSURANCE,
+                defaults != null ? defaults.getRsuSupplementalRate() : TaxCalculatorService.FALLBACK_RSU_RATE,
+                states);
+
+        CostModelBundle.Constants constants = new CostModelBundle.Constants(
+                appProperties.getBaselineLivingCost(),
+                appProperties.getCommuteCostPerMinute(),
+                appProperties.getCarAffordabilityTarget(),
+                SingleCityAnalysisService.FAMILY_COST_MULTIPLIER,
+                SingleCityAnalysisService.TRANSIT_TRANSPORT_FACTOR,
+                SingleCityAnalysisService.PARENTS_HOUSING_MONTHLY);
+
+        CostModelBundle unversioned = new CostModelBundle(SCHEMA_VERSION, null, constants, tax, List.copyOf(cities));
+        return new CostModelBundle(SCHEMA_VERSION, fingerprint(unversioned), constants, tax, List.copyOf(cities));
+    }
+
+    private static CostModelBundle.StateBrackets stateBrackets(StateTax stateTax) {
+        if (stateTax == null) {
+            return new CostModelBundle.StateBrackets(List.of(), List.of());
+        }
+        return new CostModelBundle.StateBrackets(orEmpty(stateTax.getBrackets()),
+                orElse(stateTax.getBracketsMarried(), stateTax.getBrackets()));
+    }
+
+    /** Married brackets fall back to single ones when missing, as in {@link TaxCalculatorService}. */
+    private static List<TaxBracket> orElse(List<TaxBracket> brackets, List<TaxBracket> fallback) {
+        return brackets != null && !brackets.isEmpty() ? brackets : orEmpty(fallback);
+    }
+
+    private static List<TaxBracket> orEmpty(List<TaxBracket> brackets) {
+        return brackets != null ? brackets : List.of();
+    }
+
+    private String fingerprint(CostModelBundle bundle) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+                    objectMapper.writeValueAsString(bundle).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cost model bundle is not serializable", e);
+        }
+    }
+
+    /** The bundles built against one data version, replaced as a whole on reload. */
+    private record Cache(long dataVersion, Map<List<String>, CostModelBundle> bundles) {
+    }
+}
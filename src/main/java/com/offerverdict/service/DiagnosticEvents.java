@@ -0,0 +1,123 @@
+package com.offerverdict.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.List;
+
+/**
+ * JDK Flight Recorder events for the OCR and offer-parsing hot paths.
+ *
+ * The events cost a field check while no recording has them enabled, so they stay in
+ * production code; {@link FlightRecordingService} starts recordings that include them.
+ */
+public final class DiagnosticEvents {
+
+    static final List<Class<? extends Event>> ALL = List.of(
+            OcrCandidate.class, ImageDecode.class, PdfPageRender.class, TextNormalize.class, ParserDetector.class);
+
+    private DiagnosticEvents() {
+    }
+
+    @Name("offerverdict.OcrCandidate")
+    @Label("OCR Candidate")
+    @Category({"OfferVerdict", "OCR"})
+    @Description("One Tesseract pass over a preprocessed image candidate")
+    public static class OcrCandidate extends Event {
+        @Label("Page Segmentation Mode")
+        public int psm;
+
+        @Label("Rotation")
+        @Description("Degrees the candidate was rotated before OCR")
+        public double rotation;
+
+        @Label("Variant")
+        @Description("Preprocessing variant: binary, gray or adaptive")
+        public String variant;
+
+        @Label("Base Image")
+        @Description("Which base image the candidate came from: original, paper, rectified or rectified_paper")
+        public String baseImage;
+
+        @Label("Score")
+        public int score;
+
+        @Label("Text Length")
+        public int textLength;
+
+        @Label("Regions")
+        @Description("Text blocks OCR'd separately; 0 means the whole image was read")
+        public int regions;
+
+        @Label("OCR Pixels")
+        public long ocrPixels;
+    }
+
+    @Name("offerverdict.ImageDecode")
+    @Label("Image Decode")
+    @Category({"OfferVerdict", "OCR"})
+    @Description("Decoding an uploaded image, subsampled down to OCR resolution")
+    public static class ImageDecode extends Event {
+        @Label("Format")
+        public String format;
+
+        @Label("Source Width")
+        public int sourceWidth;
+
+        @Label("Source Height")
+        public int sourceHeight;
+
+        @Label("Subsampling")
+        @Description("Only every n-th pixel of every n-th row was decoded")
+        public int subsampling;
+
+        @Label("Width")
+        public int width;
+
+        @Label("Height")
+        public int height;
+    }
+
+    @Name("offerverdict.PdfPageRender")
+    @Label("PDF Page Render")
+    @Category({"OfferVerdict", "OCR"})
+    public static class PdfPageRender extends Event {
+        @Label("Page")
+        public int page;
+
+        @Label("DPI")
+        public int dpi;
+
+        @Label("Width")
+        public int width;
+
+        @Label("Height")
+        public int height;
+    }
+
+    @Name("offerverdict.TextNormalize")
+    @Label("Text Normalize")
+    @Category({"OfferVerdict", "Parser"})
+    public static class TextNormalize extends Event {
+        @Label("Input Length")
+        public int inputLength;
+
+        @Label("Output Length")
+        public int outputLength;
+    }
+
+    @Name("offerverdict.ParserDetector")
+    @Label("Parser Detector")
+    @Category({"OfferVerdict", "Parser"})
+    @Description("One OfferTextParserService detector run over the normalized text")
+    public static class ParserDetector extends Event {
+        @Label("Detector")
+        public String detector;
+
+        @Label("Matched")
+        public boolean matched;
+    }
+}
@@ -2,11 +2,11 @@ package com.offerverdict.service;
 
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.AuthoritativeMetrics;
+import com.offerverdict.model.CityCostEntry;
+import com.offerverdict.model.CityCostProfile;
 import com.offerverdict.model.ComparisonBreakdown;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
-
 @Service
 public class FinancialEngine {
 
@@ -17,53 +17,20 @@ public class FinancialEngine {
     }
 
     public double calculateLocalTax(double grossSalary, String citySlug, AuthoritativeMetrics metrics) {
-        String lowerSlug = citySlug.toLowerCase();
-
-        // 1. Central Configuration (Primary Source)
-        Map<String, Double> localTaxes = repository.getTaxData().getLocalTaxes();
-        if (localTaxes != null) {
-            // New York City specific check
-            if (lowerSlug.contains("new-york") && localTaxes.containsKey("nyc")) {
-                return grossSalary * localTaxes.get("nyc");
-            }
-        }
-
-        // 2. Legacy/Metrics Source (Fallback)
-        if (metrics == null || metrics.getLocalIncomeTaxes() == null)
-            return 0;
-
-        // Explicit Special Cases (Common mismatches) from metrics
-        if (lowerSlug.contains("new-york") && metrics.getLocalIncomeTaxes().containsKey("NYC")) {
-            return grossSalary * metrics.getLocalIncomeTaxes().get("NYC");
-        }
-
-        // Generic Containment Match
-        for (Map.Entry<String, Double> entry : metrics.getLocalIncomeTaxes().entrySet()) {
-            String key = entry.getKey().toLowerCase();
-            // Match "Philadelphia" in "philadelphia-pa"
-            if (lowerSlug.contains(key)) {
-                return grossSalary * entry.getValue();
-            }
-        }
-        return 0;
+        return grossSalary * CityCostProfile.localTaxRate(citySlug, repository.getTaxData(), metrics);
     }
 
     public double calculateCarInsurance(String state, AuthoritativeMetrics metrics) {
-        double defaultMonthly = 175.0;
-
-        // Load default from Central Config
-        if (repository.getTaxData().getDefaults() != null) {
-            defaultMonthly = repository.getTaxData().getDefaults().getDefaultCarInsuranceMonthly();
-        }
-
-        if (metrics == null || metrics.getStateCarInsuranceMonthly() == null)
-            return defaultMonthly * 12;
+        return CityCostProfile.carInsuranceMonthly(state, repository.getTaxData(), metrics) * 12;
+    }
 
-        Double monthly = metrics.getStateCarInsuranceMonthly().get(state.toUpperCase());
-        if (monthly == null) {
-            monthly = metrics.getStateCarInsuranceMonthly().getOrDefault("default", defaultMonthly);
-        }
-        return monthly * 12;
+    /**
+     * The precomputed profile when {@code metrics} is the loaded authoritative data or null,
+     * otherwise one resolved against the given metrics.
+     */
+    public CityCostProfile costProfile(CityCostEntry city, AuthoritativeMetrics metrics) {
+        CityCostProfile profile = repository.getCostProfile(city, metrics);
+        return profile != null ? profile : CityCostProfile.of(city, repository.getTaxData(), metrics);
     }
 
     public double calculateSavingsPotential(ComparisonBreakdown breakdown, double extraBoosts, double extraLeaks) {
@@ -0,0 +1,186 @@
+package com.offerverdict.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Starts time-boxed JDK Flight Recorder recordings that include the application's
+ * {@link DiagnosticEvents}, one at a time, written as {@code .jfr} files under
+ * {@code app.jfr.dir}. Only the newest {@code app.jfr.maxFiles} recordings are kept. A recording can be requested at startup with
+ * {@code app.jfr.startupRecordingSeconds} or on demand through the admin endpoint.
+ */
+@Service
+public class FlightRecordingService {
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecordingService.class);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Path outputDir;
+    private final String settings;
+    private final long maxSeconds;
+    private final int maxFiles;
+    private final long startupRecordingSeconds;
+
+    // Guarded by this.
+    private Recording current;
+    private Path currentFile;
+
+    @Autowired
+    public FlightRecordingService(
+            @Value("${app.jfr.dir:./data/jfr}") String outputDir,
+            @Value("${app.jfr.settings:default}") String settings,
+            @Value("${app.jfr.maxSeconds:600}") long maxSeconds,
+            @Value("${app.jfr.maxFiles:5}") int maxFiles,
+            @Value("${app.jfr.startupRecordingSeconds:0}") long startupRecordingSeconds) {
+        this(Paths.get(outputDir), settings, maxSeconds, maxFiles, startupRecordingSeconds);
+    }
+
+    FlightRecordingService(Path outputDir, String settings, long maxSeconds, int maxFiles,
+            long startupRecordingSeconds) {
+        this.outputDir = outputDir.toAbsolutePath().normalize();
+        this.settings = settings;
+        this.maxSeconds = Math.max(1, maxSeconds);
+        this.maxFiles = Math.max(1, maxFiles);
+        this.startupRecordingSeconds = startupRecordingSeconds;
+    }
+
+    public record RecordingInfo(long id, String file, String state, long durationSeconds) {
+    }
+
+    @PostConstruct
+    public void startupRecording() {
+        if (startupRecordingSeconds <= 0) {
+            return;
+        }
+        try {
+            RecordingInfo info = start(Duration.ofSeconds(startupRecordingSeconds));
+            logger.info("Startup flight recording {} writing to {}", info.id(), info.file());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not start startup flight recording", e);
+        }
+    }
+
+    public long maxSeconds() {
+        return maxSeconds;
+    }
+
+    /**
+     * Starts a recording that stops by itself after {@code duration}, capped at
+     * {@code app.jfr.maxSeconds}. Older recordings beyond {@code app.jfr.maxFiles} are deleted.
+     *
+     * @throws IllegalStateException if another recording is still running
+     */
+    public synchronized RecordingInfo start(Duration duration) throws IOException {
+        if (isRunning()) {
+            throw new IllegalStateException("A flight recording is already running: " + currentFile);
+        }
+        long seconds = Math.min(maxSeconds, Math.max(1, duration.toSeconds()));
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (ParseException e) {
+            throw new IOException("Unreadable JFR settings " + settings, e);
+        }
+
+        Files.createDirectories(outputDir);
+        pruneOldRecordings(maxFiles - 1);
+        Recording recording = new Recording(configuration);
+        Path file = outputDir.resolve("offerverdict-" + LocalDateTime.now().format(FILE_TIMESTAMP)
+                + "-" + recording.getId() + ".jfr");
+        try {
+            recording.setName("offerverdict-diagnostics");
+            for (Class<? extends Event> eventType : DiagnosticEvents.ALL) {
+                recording.enable(eventType).withThreshold(Duration.ZERO);
+            }
+            recording.setToDisk(true);
+            recording.setDestination(file);
+            recording.setDuration(Duration.ofSeconds(seconds));
+            recording.start();
+        } catch (IOException | RuntimeException e) {
+            recording.close();
+            throw e;
+        }
+        if (current != null) {
+            current.close();
+        }
+        current = recording;
+        currentFile = file;
+        return info(recording, file);
+    }
+
+    /**
+     * The running recording, or the last one started if it has already finished.
+     */
+    public synchronized Optional<RecordingInfo> current() {
+        return current == null ? Optional.empty() : Optional.of(info(current, currentFile));
+    }
+
+    /**
+     * Stops the running recording early; its file is written as if the duration had elapsed.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        if (isRunning()) {
+            current.stop();
+        }
+    }
+
+    private void pruneOldRecordings(int keep) throws IOException {
+        List<Path> recordings;
+        try (Stream<Path> files = Files.list(outputDir)) {
+            recordings = files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith("offerverdict-") && name.endsWith(".jfr");
+                    })
+                    .sorted(Comparator.comparing(FlightRecordingService::lastModified).reversed())
+                    .toList();
+        }
+        for (Path stale : recordings.subList(Math.min(keep, recordings.size()), recordings.size())) {
+            Files.deleteIfExists(stale);
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private boolean isRunning() {
+        if (current == null) {
+            return false;
+        }
+        RecordingState state = current.getState();
+        return state == RecordingState.NEW || state == RecordingState.DELAYED || state == RecordingState.RUNNING;
+    }
+
+    private static RecordingInfo info(Recording recording, Path file) {
+        Duration duration = recording.getDuration();
+        return new RecordingInfo(recording.getId(), file.toString(), recording.getState().name(),
+                duration == null ? 0 : duration.toSeconds());
+    }
+}
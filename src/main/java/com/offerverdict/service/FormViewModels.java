@@ -0,0 +1,178 @@
+package com.offerverdict.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.data.DataRepository;
+import com.offerverdict.model.CityCostEntry;
+import com.offerverdict.model.JobInfo;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The grouped and sorted job and city lists the form pages render, built once per
+ * {@link DataRepository} version instead of on every request.
+ *
+ * A snapshot holds them only in the form the templates use: the autocomplete data of the
+ * comparison form as script-safe JSON and the role and city {@code <select>} options of the
+ * offer risk tool as escaped HTML, where picking the selected option is a single string splice.
+ */
+@Service
+public class FormViewModels {
+
+    private static final List<String> HEALTHCARE_ROLE_SLUGS = List.of(
+            "registered-nurse",
+            "physical-therapist",
+            "pharmacist",
+            "medical-resident");
+
+    private final DataRepository repository;
+    private final ObjectMapper objectMapper;
+    private volatile Snapshot snapshot;
+
+    public FormViewModels(DataRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    public Snapshot current() {
+        Snapshot current = snapshot;
+        long version = repository.getVersion();
+        if (current != null && current.version() == version) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || current.version() != version) {
+                current = build(version);
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot build(long version) {
+        List<CityCostEntry> cities = repository.getCities();
+        Map<String, List<JobInfo>> jobsByCategory = group(repository.getJobs(), JobInfo::getCategory);
+        Map<String, List<CityCostEntry>> citiesByState = group(cities, CityCostEntry::getState);
+        List<CityCostEntry> sortedCities = cities.stream()
+                .sorted(Comparator.comparingInt(CityCostEntry::getPriority)
+                        .thenComparing(CityCostEntry::getCity))
+                .toList();
+        List<JobInfo> healthcareRoles = HEALTHCARE_ROLE_SLUGS.stream()
+                .map(repository::findJobLoosely)
+                .flatMap(Optional::stream)
+                .toList();
+        return new Snapshot(version,
+                scriptJson(jobsByCategory),
+                scriptJson(citiesByState),
+                OptionBlock.of(healthcareRoles, JobInfo::getSlug, JobInfo::getTitle),
+                OptionBlock.of(sortedCities, CityCostEntry::getSlug, city -> city.getCity() + ", " + city.getState()));
+    }
+
+    private static <T> Map<String, List<T>> group(List<T> items, Function<T, String> key) {
+        return items.stream().collect(Collectors.groupingBy(key, TreeMap::new, Collectors.toList()));
+    }
+
+    /**
+     * JSON that can be inlined unescaped into a {@code <script>} block: the characters that could
+     * close the block or start markup are written as unicode escapes, which only ever occur
+     * inside JSON string literals.
+     */
+    private String scriptJson(Object value) {
+        try {
+            String json = objectMapper.writeValueAsString(value);
+            StringBuilder out = new StringBuilder(json.length() + 16);
+            for (int i = 0; i < json.length(); i++) {
+                char c = json.charAt(i);
+                switch (c) {
+                    case '<' -> out.append("\\u003C");
+                    case '>' -> out.append("\\u003E");
+                    case '&' -> out.append("\\u0026");
+                    case '\u2028' -> out.append("\\u2028");
+                    case '\u2029' -> out.append("\\u2029");
+                    default -> out.append(c);
+                }
+            }
+            return out.toString();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Form view model is not serializable", e);
+        }
+    }
+
+    static String escapeHtml(String text) {
+        StringBuilder out = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * One data version's view models, shared by all requests rendered against that version.
+     */
+    public record Snapshot(long version,
+                           String jobsByCategoryJson,
+                           String citiesByStateJson,
+                           OptionBlock roleOptions,
+                           OptionBlock cityOptions) {
+    }
+
+    /**
+     * The {@code <option>} elements of a {@code <select>}, rendered once without a selection.
+     */
+    public static final class OptionBlock {
+        private static final String SELECTED = " selected=\"selected\"";
+
+        private final String html;
+        private final Map<String, Integer> selectedOffsets;
+
+        private OptionBlock(String html, Map<String, Integer> selectedOffsets) {
+            this.html = html;
+            this.selectedOffsets = selectedOffsets;
+        }
+
+        static <T> OptionBlock of(List<T> items, Function<T, String> value, Function<T, String> label) {
+            StringBuilder html = new StringBuilder(items.size() * 64);
+            Map<String, Integer> offsets = new HashMap<>();
+            for (T item : items) {
+                String slug = value.apply(item);
+                html.append("<option value=\"").append(escapeHtml(slug)).append('"');
+                offsets.putIfAbsent(slug, html.length());
+                html.append('>').append(escapeHtml(label.apply(item))).append("</option>");
+            }
+            return new OptionBlock(html.toString(), Map.copyOf(offsets));
+        }
+
+        /**
+         * The options with {@code selectedValue} marked selected; with no match the browser
+         * selects the first option, as it would for the template loop.
+         */
+        public String html(String selectedValue) {
+            Integer offset = selectedValue == null ? null : selectedOffsets.get(selectedValue);
+            if (offset == null) {
+                return html;
+            }
+            return new StringBuilder(html.length() + SELECTED.length())
+                    .append(html, 0, offset)
+                    .append(SELECTED)
+                    .append(html, offset, html.length())
+                    .toString();
+        }
+    }
+}
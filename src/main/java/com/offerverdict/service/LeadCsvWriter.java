@@ -0,0 +1,380 @@
+package com.offerverdict.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Append-only CSV writer for captured leads. Funnel events go to {@link LeadEventLog}.
+ *
+ * Rows go through a bounded queue to a single background thread that keeps the
+ * rolling, daily and backup-daily channels open and group-commits them: after an fsync,
+ * rows keep collecting until {@code fsyncIntervalMillis} has passed or {@code maxBatchSize}
+ * rows are waiting, and one fsync then covers them all. A row arriving after a quiet spell
+ * is fsynced right away. A row is acknowledged after its fsync, or handed back still pending
+ * when the writer is slower than the caller is willing to wait.
+ */
+@Service
+public class LeadCsvWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeadCsvWriter.class);
+    private static final long DURABLE_WRITE_TIMEOUT_MILLIS = 5_000;
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+    private static final long IDLE_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final Path storageDir;
+    private final Path backupDir;
+    private final long durableTimeoutMillis;
+    private final int maxBatchSize;
+    private final long fsyncIntervalNanos;
+    private final BlockingQueue<CsvRow> queue;
+
+    // Only touched by the writer thread.
+    private final Map<Path, FileChannel> openChannels = new HashMap<>();
+    private LocalDate channelDate;
+    private long lastFsyncNanos;
+    private int unsyncedRows;
+
+    private final AtomicLong enqueuedRows = new AtomicLong();
+    private final AtomicLong droppedRows = new AtomicLong();
+    private final AtomicLong writtenRows = new AtomicLong();
+    private final AtomicLong failedRows = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong lastBatchSize = new AtomicLong();
+    private final AtomicLong largestBatchSize = new AtomicLong();
+    private final AtomicLong fsyncCount = new AtomicLong();
+    private final AtomicLong fsyncNanosTotal = new AtomicLong();
+    private final AtomicLong lastFsyncLatencyNanos = new AtomicLong();
+    private final AtomicLong maxFsyncLatencyNanos = new AtomicLong();
+
+    private volatile boolean accepting;
+    private volatile boolean stopRequested;
+    private Thread writerThread;
+
+    @Autowired
+    public LeadCsvWriter(
+            @Value("${app.leads.storageDir:./data/leads}") String storageDir,
+            @Value("${app.leads.backupDir:./data/leads-backup}") String backupDir,
+            @Value("${app.leads.writer.queueCapacity:10000}") int queueCapacity,
+            @Value("${app.leads.writer.maxBatchSize:256}") int maxBatchSize,
+            @Value("${app.leads.writer.fsyncIntervalMillis:200}") long fsyncIntervalMillis,
+            @Value("${app.leads.writer.durableTimeoutMillis:5000}") long durableTimeoutMillis) {
+        this.storageDir = Paths.get(storageDir).toAbsolutePath().normalize();
+        this.backupDir = Paths.get(backupDir).toAbsolutePath().normalize();
+        this.durableTimeoutMillis = Math.max(0, durableTimeoutMillis);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, fsyncIntervalMillis));
+        this.lastFsyncNanos = System.nanoTime() - fsyncIntervalNanos;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+    }
+
+    public LeadCsvWriter(String storageDir, String backupDir, int queueCapacity, int maxBatchSize,
+            long fsyncIntervalMillis) {
+        this(storageDir, backupDir, queueCapacity, maxBatchSize, fsyncIntervalMillis, DURABLE_WRITE_TIMEOUT_MILLIS);
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (writerThread != null) {
+            return;
+        }
+        accepting = true;
+        writerThread = new Thread(this::runWriter, "lead-csv-writer");
+        writerThread.start();
+    }
+
+    /**
+     * Stops accepting rows, drains everything already queued, fsyncs and closes the channels.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (writerThread == null) {
+            return;
+        }
+        accepting = false;
+        stopRequested = true;
+        try {
+            writerThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writerThread.isAlive()) {
+            logger.error("Lead CSV writer did not finish within {} ms; {} rows still queued",
+                    SHUTDOWN_TIMEOUT_MILLIS, queue.size());
+        }
+        writerThread = null;
+    }
+
+    /**
+     * Queues a row and waits until it has been fsynced to all three files, or until the durable
+     * write timeout passes; waiting for queue space and for the fsync share that one timeout. Returns the row's commit: complete when the row is durable, still
+     * pending when the writer is behind. A pending row stays queued and will be written; the
+     * commit completes exceptionally if that write later fails.
+     *
+     * @throws IOException when the row was not queued or its write failed, so it will not be written
+     */
+    public CompletableFuture<Void> appendDurable(String fileName, String header, String csvRow) throws IOException {
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+        CsvRow row = new CsvRow(fileName, header, csvRow, committed);
+        boolean queued = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durableTimeoutMillis);
+        try {
+            if (!accepting || !queue.offer(row, durableTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                droppedRows.incrementAndGet();
+                throw new IOException("Lead CSV writer queue unavailable");
+            }
+            queued = true;
+            enqueuedRows.incrementAndGet();
+            committed.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!queued) {
+                throw new IOException("Interrupted while writing " + fileName, e);
+            }
+        } catch (TimeoutException e) {
+            logger.warn("{} row not fsynced within {} ms; it stays queued", fileName, durableTimeoutMillis);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to write " + fileName, cause);
+        }
+        return committed;
+    }
+
+    public LeadWriterStats stats() {
+        long syncs = fsyncCount.get();
+        return new LeadWriterStats(
+                queue.size(),
+                enqueuedRows.get(),
+                droppedRows.get(),
+                writtenRows.get(),
+                failedRows.get(),
+                batches.get(),
+                lastBatchSize.get(),
+                largestBatchSize.get(),
+                syncs,
+                syncs == 0 ? 0 : fsyncNanosTotal.get() / syncs,
+                lastFsyncLatencyNanos.get(),
+                maxFsyncLatencyNanos.get());
+    }
+
+    private void runWriter() {
+        List<CsvRow> batch = new ArrayList<>(maxBatchSize);
+        List<CompletableFuture<Void>> pendingCommits = new ArrayList<>();
+        while (true) {
+            // Never interrupt this thread: an interrupt during FileChannel I/O closes the channel.
+            // The bounded poll doubles as the fsync timer and the shutdown check.
+            if (!stopRequested) {
+                try {
+                    CsvRow first = queue.poll(pollNanos(), TimeUnit.NANOSECONDS);
+                    if (first != null) {
+                        batch.add(first);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    stopRequested = true;
+                }
+            }
+            queue.drainTo(batch, maxBatchSize - batch.size());
+
+            if (batch.isEmpty()) {
+                syncIfNeeded(pendingCommits, stopRequested);
+                if (stopRequested && queue.isEmpty()) {
+                    break;
+                }
+                continue;
+            }
+
+            writeBatch(batch, pendingCommits);
+            syncIfNeeded(pendingCommits, stopRequested);
+            batch.clear();
+        }
+        closeChannels();
+    }
+
+    /** How long to wait for the next row: until the group commit is due while rows are unsynced. */
+    private long pollNanos() {
+        if (unsyncedRows == 0) {
+            return IDLE_POLL_NANOS;
+        }
+        return Math.max(0, Math.min(IDLE_POLL_NANOS, lastFsyncNanos + fsyncIntervalNanos - System.nanoTime()));
+    }
+
+    private void writeBatch(List<CsvRow> batch, List<CompletableFuture<Void>> pendingCommits) {
+        LocalDate today = LocalDate.now();
+        rotateIfNeeded(today);
+        for (CsvRow row : batch) {
+            try {
+                byte[] line = (row.csvRow() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+                String dailyName = withDateSuffix(row.fileName(), today);
+                writeLine(storageDir.resolve(row.fileName()), row.header(), line);
+                writeLine(storageDir.resolve(dailyName), row.header(), line);
+                writeLine(backupDir.resolve(dailyName), row.header(), line);
+                writtenRows.incrementAndGet();
+                unsyncedRows++;
+                pendingCommits.add(row.committed());
+            } catch (IOException e) {
+                failedRows.incrementAndGet();
+                logger.error("Failed to append row to {}", row.fileName(), e);
+                row.committed().completeExceptionally(e);
+            }
+        }
+        batches.incrementAndGet();
+        lastBatchSize.set(batch.size());
+        largestBatchSize.accumulateAndGet(batch.size(), Math::max);
+    }
+
+    private void syncIfNeeded(List<CompletableFuture<Void>> pendingCommits, boolean force) {
+        if (unsyncedRows == 0) {
+            completeAll(pendingCommits, null);
+            return;
+        }
+        long now = System.nanoTime();
+        if (!force && unsyncedRows < maxBatchSize && now - lastFsyncNanos < fsyncIntervalNanos) {
+            return;
+        }
+        IOException failure = null;
+        long started = System.nanoTime();
+        for (FileChannel channel : openChannels.values()) {
+            try {
+                channel.force(true);
+            } catch (IOException e) {
+                failure = e;
+                logger.error("Failed to fsync lead CSV channel", e);
+            }
+        }
+        long elapsed = System.nanoTime() - started;
+        fsyncCount.incrementAndGet();
+        fsyncNanosTotal.addAndGet(elapsed);
+        lastFsyncLatencyNanos.set(elapsed);
+        maxFsyncLatencyNanos.accumulateAndGet(elapsed, Math::max);
+        lastFsyncNanos = System.nanoTime();
+        unsyncedRows = 0;
+        completeAll(pendingCommits, failure);
+    }
+
+    private void completeAll(List<CompletableFuture<Void>> pendingCommits, IOException failure) {
+        for (CompletableFuture<Void> commit : pendingCommits) {
+            if (failure == null) {
+                commit.complete(null);
+            } else {
+                commit.completeExceptionally(failure);
+            }
+        }
+        pendingCommits.clear();
+    }
+
+    private void writeLine(Path filePath, String header, byte[] line) throws IOException {
+        FileChannel channel = openChannels.get(filePath);
+        if (channel == null) {
+            Files.createDirectories(filePath.getParent());
+            channel = FileChannel.open(filePath,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            openChannels.put(filePath, channel);
+            if (channel.size() == 0) {
+                writeFully(channel, (header + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        writeFully(channel, line);
+    }
+
+    private void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void rotateIfNeeded(LocalDate today) {
+        if (today.equals(channelDate)) {
+            return;
+        }
+        // Rolling files stay open; only yesterday's daily files are fsynced and closed.
+        if (channelDate != null) {
+            String staleSuffix = "-" + channelDate;
+            Iterator<Map.Entry<Path, FileChannel>> iterator = openChannels.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Path, FileChannel> entry = iterator.next();
+                if (entry.getKey().getFileName().toString().contains(staleSuffix)) {
+                    closeQuietly(entry.getValue(), true);
+                    iterator.remove();
+                }
+            }
+        }
+        channelDate = today;
+    }
+
+    private void closeChannels() {
+        for (FileChannel channel : openChannels.values()) {
+            closeQuietly(channel, true);
+        }
+        openChannels.clear();
+    }
+
+    private void closeQuietly(FileChannel channel, boolean sync) {
+        try {
+            if (sync) {
+                channel.force(true);
+            }
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close lead CSV channel", e);
+        }
+    }
+
+    static String withDateSuffix(String fileName, LocalDate date) {
+        int dotIndex = fileName.lastIndexOf('.');
+        if (dotIndex <= 0) {
+            return fileName + "-" + date;
+        }
+        return fileName.substring(0, dotIndex) + "-" + date + fileName.substring(dotIndex);
+    }
+
+    private record CsvRow(String fileName, String header, String csvRow, CompletableFuture<Void> committed) {
+    }
+
+    public record LeadWriterStats(
+            int queueDepth,
+            long enqueuedRows,
+            long droppedRows,
+            long writtenRows,
+            long failedRows,
+            long batches,
+            long lastBatchSize,
+            long largestBatchSize,
+            long fsyncCount,
+            long averageFsyncNanos,
+            long lastFsyncNanos,
+            long maxFsyncNanos) {
+    }
+}
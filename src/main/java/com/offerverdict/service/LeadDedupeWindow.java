@@ -0,0 +1,203 @@
+package com.offerverdict.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding-window "seen recently" set for lead submissions.
+ *
+ * Keys are reduced to a seeded 128-bit hash held in primitive arrays. Time is cut into
+ * {@value #BUCKETS} ring buckets, each an open-addressed table; when the ring wraps onto
+ * a bucket from an older window it is wiped in one pass, so expiry never scans live
+ * entries. Memory is fixed at construction, and a bucket that fills up stops
+ * remembering new keys (counted in {@link #overflowCount()}) instead of growing.
+ * Keys expire between {@code window} and {@code window + window / (BUCKETS - 1)} after insertion.
+ */
+@Component
+public class LeadDedupeWindow {
+
+    static final int BUCKETS = 16;
+    private static final long MIX_1 = 0x9E3779B97F4A7C15L;
+    private static final long MIX_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final long windowMillis;
+    private final long spanMillis;
+    private final int slotMask;
+    private final int maxEntriesPerBucket;
+    private final long seed1;
+    private final long seed2;
+    private final LongSupplier clock;
+
+    // Guarded by this. Slot is empty when both halves are zero.
+    private final long[][] highs = new long[BUCKETS][];
+    private final long[][] lows = new long[BUCKETS][];
+    private final long[] bucketEpochs = new long[BUCKETS];
+    private final int[] bucketSizes = new int[BUCKETS];
+    private long overflowCount;
+
+    @Autowired
+    public LeadDedupeWindow(
+            @Value("${app.leads.dedupeMinutes:15}") int dedupeMinutes,
+            @Value("${app.leads.dedupeCapacity:100000}") int capacity) {
+        this(Math.max(1, dedupeMinutes) * 60_000L, capacity, System::currentTimeMillis);
+    }
+
+    LeadDedupeWindow(long windowMillis, int capacity, LongSupplier clock) {
+        this.windowMillis = Math.max(1, windowMillis);
+        this.spanMillis = Math.max(1, (this.windowMillis + BUCKETS - 2) / (BUCKETS - 1));
+        int perBucket = Math.max(16, Math.max(1, capacity) / BUCKETS);
+        int slots = Integer.highestOneBit(perBucket * 4 / 3 + 1) << 1;
+        this.slotMask = slots - 1;
+        this.maxEntriesPerBucket = slots * 3 / 4;
+        this.clock = clock;
+        SecureRandom random = new SecureRandom();
+        this.seed1 = random.nextLong();
+        this.seed2 = random.nextLong();
+        for (int i = 0; i < BUCKETS; i++) {
+            highs[i] = new long[slots];
+            lows[i] = new long[slots];
+            bucketEpochs[i] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Records the key and returns true, or returns false when it was already seen within the window.
+     */
+    public boolean recordIfAbsent(String... parts) {
+        long high = hash(seed1, MIX_1, parts);
+        long low = hash(seed2, MIX_2, parts);
+        if (high == 0 && low == 0) {
+            low = 1;
+        }
+        long epoch = clock.getAsLong() / spanMillis;
+        long oldestLiveEpoch = epoch - (BUCKETS - 1);
+        synchronized (this) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                long bucketEpoch = bucketEpochs[bucket];
+                if (bucketEpoch >= oldestLiveEpoch && bucketEpoch <= epoch && find(bucket, high, low) >= 0) {
+                    return false;
+                }
+            }
+            int bucket = (int) Math.floorMod(epoch, (long) BUCKETS);
+            if (bucketEpochs[bucket] != epoch) {
+                Arrays.fill(highs[bucket], 0L);
+                Arrays.fill(lows[bucket], 0L);
+                bucketSizes[bucket] = 0;
+                bucketEpochs[bucket] = epoch;
+            }
+            if (bucketSizes[bucket] >= maxEntriesPerBucket) {
+                overflowCount++;
+                return true;
+            }
+            insert(bucket, high, low);
+            return true;
+        }
+    }
+
+    /**
+     * Drops a key recorded by {@link #recordIfAbsent}, e.g. when the lead could not be persisted.
+     */
+    public void forget(String... parts) {
+        long high = hash(seed1, MIX_1, parts);
+        long low = hash(seed2, MIX_2, parts);
+        if (high == 0 && low == 0) {
+            low = 1;
+        }
+        synchronized (this) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                int slot = find(bucket, high, low);
+                if (slot >= 0) {
+                    remove(bucket, slot);
+                }
+            }
+        }
+    }
+
+    public synchronized int size() {
+        long oldestLiveEpoch = clock.getAsLong() / spanMillis - (BUCKETS - 1);
+        int total = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            if (bucketEpochs[bucket] >= oldestLiveEpoch) {
+                total += bucketSizes[bucket];
+            }
+        }
+        return total;
+    }
+
+    public synchronized long overflowCount() {
+        return overflowCount;
+    }
+
+    private int find(int bucket, long high, long low) {
+        long[] bucketHighs = highs[bucket];
+        long[] bucketLows = lows[bucket];
+        int slot = (int) low & slotMask;
+        while (bucketHighs[slot] != 0 || bucketLows[slot] != 0) {
+            if (bucketHighs[slot] == high && bucketLows[slot] == low) {
+                return slot;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        return -1;
+    }
+
+    private void insert(int bucket, long high, long low) {
+        long[] bucketHighs = highs[bucket];
+        long[] bucketLows = lows[bucket];
+        int slot = (int) low & slotMask;
+        while (bucketHighs[slot] != 0 || bucketLows[slot] != 0) {
+            slot = (slot + 1) & slotMask;
+        }
+        bucketHighs[slot] = high;
+        bucketLows[slot] = low;
+        bucketSizes[bucket]++;
+    }
+
+    // Backward-shift deletion keeps linear probing chains intact without tombstones.
+    private void remove(int bucket, int slot) {
+        long[] bucketHighs = highs[bucket];
+        long[] bucketLows = lows[bucket];
+        int hole = slot;
+        int next = (hole + 1) & slotMask;
+        while (bucketHighs[next] != 0 || bucketLows[next] != 0) {
+            int home = (int) bucketLows[next] & slotMask;
+            if (((next - home) & slotMask) >= ((next - hole) & slotMask)) {
+                bucketHighs[hole] = bucketHighs[next];
+                bucketLows[hole] = bucketLows[next];
+                hole = next;
+            }
+            next = (next + 1) & slotMask;
+        }
+        bucketHighs[hole] = 0;
+        bucketLows[hole] = 0;
+        bucketSizes[bucket]--;
+    }
+
+    private static long hash(long seed, long multiplier, String... parts) {
+        long h = seed;
+        for (String part : parts) {
+            String value = part == null ? "" : part;
+            for (int i = 0; i < value.length(); i++) {
+                h = (h ^ value.charAt(i)) * multiplier;
+                h = Long.rotateLeft(h, 29);
+            }
+            // Field separator so ("ab", "c") and ("a", "bc") differ.
+            h = Long.rotateLeft((h ^ 0x1F) * multiplier, 31);
+        }
+        return fmix64(h);
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
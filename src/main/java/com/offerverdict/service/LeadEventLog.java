@@ -0,0 +1,498 @@
+package com.offerverdict.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compact, append-only log for lead funnel events.
+ *
+ * Each segment file starts with a magic header followed by records:
+ * <pre>
+ *   'D' varint id, varint length, utf-8 bytes          dictionary entry
+ *   'E' varint length, body                             event
+ *       body = int64 epochMillis, 7 varint dictionary ids
+ *              (event, intent, city, job, sourcePath, referrer, userAgent),
+ *              varint length + utf-8 ip
+ * </pre>
+ * The dictionary is scoped to its segment, so every segment can be read on its own.
+ * Segments roll over by day, by size, or when the dictionary gets too large;
+ * sealed segments are copied to the backup directory.
+ */
+@Service
+public class LeadEventLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeadEventLog.class);
+    private static final byte[] MAGIC = {'O', 'V', 'E', 'L', 1};
+    private static final byte DICTIONARY_RECORD = 'D';
+    private static final byte EVENT_RECORD = 'E';
+    private static final String SEGMENT_PREFIX = "lead-events-";
+    private static final String SEGMENT_SUFFIX = ".bin";
+    private static final int MAX_DICTIONARY_ENTRIES = 100_000;
+    private static final int MAX_STRING_BYTES = 4096;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+    private static final DateTimeFormatter TIMESTAMP_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    public static final String CSV_HEADER = "timestamp,eventName,intent,citySlug,jobSlug,sourcePath,referrer,userAgent,ip";
+
+    private final Path logDir;
+    private final Path backupDir;
+    private final long maxSegmentBytes;
+    private final long flushIntervalMillis;
+    private final ZoneId zone;
+
+    // Guarded by this.
+    private final ByteBuffer pending = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final ByteBuffer scratch = ByteBuffer.allocate(WRITE_BUFFER_BYTES);
+    private FileChannel segment;
+    private Path segmentPath;
+    private LocalDate segmentDate;
+    private long segmentBytes;
+    private boolean closed;
+
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public LeadEventLog(
+            @Value("${app.leads.eventLog.dir:./data/leads/events}") String logDir,
+            @Value("${app.leads.backupDir:./data/leads-backup}") String backupDir,
+            @Value("${app.leads.eventLog.maxSegmentMegabytes:64}") long maxSegmentMegabytes,
+            @Value("${app.leads.writer.fsyncIntervalMillis:200}") long flushIntervalMillis) {
+        this(Paths.get(logDir), Paths.get(backupDir).resolve("events"), maxSegmentMegabytes * 1024 * 1024,
+                flushIntervalMillis, ZoneId.systemDefault());
+    }
+
+    LeadEventLog(Path logDir, Path backupDir, long maxSegmentBytes, long flushIntervalMillis, ZoneId zone) {
+        this.logDir = logDir.toAbsolutePath().normalize();
+        this.backupDir = backupDir.toAbsolutePath().normalize();
+        this.maxSegmentBytes = Math.max(WRITE_BUFFER_BYTES, maxSegmentBytes);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.zone = zone;
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (flusher != null) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "lead-event-log-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = flusher;
+            flusher = null;
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+        synchronized (this) {
+            try {
+                writePending();
+                if (segment != null) {
+                    sealSegment();
+                }
+            } catch (IOException e) {
+                logger.error("Failed to close lead event log", e);
+            }
+            closed = true;
+        }
+    }
+
+    /**
+     * Appends an event to the in-memory buffer. The buffer reaches the segment when it fills
+     * up or before any read, and is fsynced on the flush interval.
+     */
+    public synchronized void append(LeadEvent event) throws IOException {
+        if (closed) {
+            throw new IOException("Lead event log is closed");
+        }
+        LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(event.epochMillis()), zone);
+        if (segment == null || !day.equals(segmentDate) || segmentBytes + pending.position() >= maxSegmentBytes
+                || dictionary.size() >= MAX_DICTIONARY_ENTRIES) {
+            rollSegment(day);
+        }
+
+        scratch.clear();
+        int eventId = dictionaryId(event.eventName());
+        int intentId = dictionaryId(event.intent());
+        int cityId = dictionaryId(event.citySlug());
+        int jobId = dictionaryId(event.jobSlug());
+        int sourceId = dictionaryId(event.sourcePath());
+        int referrerId = dictionaryId(event.referrer());
+        int userAgentId = dictionaryId(event.userAgent());
+
+        scratch.putLong(event.epochMillis());
+        putVarint(scratch, eventId);
+        putVarint(scratch, intentId);
+        putVarint(scratch, cityId);
+        putVarint(scratch, jobId);
+        putVarint(scratch, sourceId);
+        putVarint(scratch, referrerId);
+        putVarint(scratch, userAgentId);
+        putString(scratch, event.ip());
+        scratch.flip();
+
+        ensurePending(1 + 5 + scratch.remaining());
+        pending.put(EVENT_RECORD);
+        putVarint(pending, scratch.remaining());
+        pending.put(scratch);
+    }
+
+    /**
+     * Writes the buffer to the current segment and fsyncs it. Only the write, a copy into the
+     * page cache that keeps records in order across segment rolls, holds the monitor; the
+     * fsync runs outside it so appends never wait on the disk.
+     */
+    public void flush() throws IOException {
+        FileChannel written;
+        synchronized (this) {
+            written = writePending();
+        }
+        if (written == null) {
+            return;
+        }
+        try {
+            written.force(false);
+        } catch (ClosedChannelException e) {
+            // Sealed by a concurrent roll or close, which forced it first.
+        }
+    }
+
+    /**
+     * Moves the buffered records into the current segment without an fsync, returning the
+     * segment written to, or null when there was nothing to write.
+     */
+    private FileChannel writePending() throws IOException {
+        if (segment == null || pending.position() == 0) {
+            return null;
+        }
+        pending.flip();
+        while (pending.hasRemaining()) {
+            segmentBytes += segment.write(pending);
+        }
+        pending.clear();
+        return segment;
+    }
+
+    /**
+     * Streams every event between {@code from} and {@code to} (inclusive, local days) as CSV.
+     */
+    public void exportCsv(LocalDate from, LocalDate to, Writer out) throws IOException {
+        out.write(CSV_HEADER);
+        out.write('\n');
+        scan(from, to, event -> {
+            out.write(toCsvRow(event));
+            out.write('\n');
+        });
+        out.flush();
+    }
+
+    /**
+     * Counts events by day, event name and intent.
+     */
+    public List<EventCount> countByDay(LocalDate from, LocalDate to) throws IOException {
+        Map<CountKey, long[]> counts = new HashMap<>();
+        scan(from, to, event -> {
+            LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(event.epochMillis()), zone);
+            counts.computeIfAbsent(new CountKey(day, event.eventName(), event.intent()), ignored -> new long[1])[0]++;
+        });
+        List<EventCount> result = new ArrayList<>(counts.size());
+        counts.forEach((key, count) -> result.add(new EventCount(key.day(), key.eventName(), key.intent(), count[0])));
+        result.sort(Comparator.comparing(EventCount::day)
+                .thenComparing(EventCount::eventName)
+                .thenComparing(EventCount::intent));
+        return result;
+    }
+
+    void scan(LocalDate from, LocalDate to, EventVisitor visitor) throws IOException {
+        flush();
+        for (Path path : segmentsBetween(from, to)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < MAGIC.length) {
+                    continue;
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                readSegment(path, buffer, from, to, visitor);
+            }
+        }
+    }
+
+    private void readSegment(Path path, ByteBuffer buffer, LocalDate from, LocalDate to,
+            EventVisitor visitor) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            logger.warn("Skipping lead event segment with unknown header: {}", path);
+            return;
+        }
+        List<String> strings = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            int recordStart = buffer.position();
+            try {
+                byte type = buffer.get();
+                if (type == DICTIONARY_RECORD) {
+                    int id = getVarint(buffer);
+                    String value = getString(buffer);
+                    if (id != strings.size()) {
+                        throw new IllegalStateException("dictionary id out of order");
+                    }
+                    strings.add(value);
+                } else if (type == EVENT_RECORD) {
+                    int length = getVarint(buffer);
+                    int bodyEnd = buffer.position() + length;
+                    if (length < 8 || bodyEnd > buffer.limit()) {
+                        throw new IllegalStateException("truncated event");
+                    }
+                    long epochMillis = buffer.getLong();
+                    LeadEvent event = new LeadEvent(
+                            epochMillis,
+                            strings.get(getVarint(buffer)),
+                            strings.get(getVarint(buffer)),
+                            strings.get(getVarint(buffer)),
+                            strings.get(getVarint(buffer)),
+                            strings.get(getVarint(buffer)),
+                            strings.get(getVarint(buffer)),
+                            strings.get(getVarint(buffer)),
+                            getString(buffer));
+                    buffer.position(bodyEnd);
+                    LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+                    if (!day.isBefore(from) && !day.isAfter(to)) {
+                        visitor.visit(event);
+                    }
+                } else {
+                    throw new IllegalStateException("unknown record type " + type);
+                }
+            } catch (RuntimeException e) {
+                // A crash mid-append leaves a partial tail; everything before it is still valid.
+                logger.warn("Stopped reading {} at offset {}: {}", path, recordStart, e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private List<Path> segmentsBetween(LocalDate from, LocalDate to) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(logDir)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(logDir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                LocalDate day = segmentDay(path);
+                // Events are bucketed by local day when written, so the file name is a safe filter.
+                if (day == null || !day.isBefore(from) && !day.isAfter(to)) {
+                    segments.add(path);
+                }
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    private LocalDate segmentDay(Path path) {
+        String name = path.getFileName().toString();
+        int start = SEGMENT_PREFIX.length();
+        if (name.length() < start + 10) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(name.substring(start, start + 10));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void rollSegment(LocalDate day) throws IOException {
+        writePending();
+        if (segment != null) {
+            sealSegment();
+        }
+        Files.createDirectories(logDir);
+        int sequence = 0;
+        Path candidate;
+        do {
+            candidate = logDir.resolve(String.format("%s%s-%03d%s", SEGMENT_PREFIX, day, sequence++, SEGMENT_SUFFIX));
+        } while (Files.exists(candidate));
+        segment = FileChannel.open(candidate, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentPath = candidate;
+        segmentDate = day;
+        segmentBytes = 0;
+        dictionary.clear();
+        pending.put(MAGIC);
+    }
+
+    private void sealSegment() throws IOException {
+        segment.force(true);
+        segment.close();
+        segment = null;
+        try {
+            Files.createDirectories(backupDir);
+            Files.copy(segmentPath, backupDir.resolve(segmentPath.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            logger.warn("Failed to back up lead event segment {}", segmentPath, e);
+        }
+    }
+
+    private int dictionaryId(String value) throws IOException {
+        String key = value == null ? "" : value;
+        Integer existing = dictionary.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int id = dictionary.size();
+        byte[] bytes = truncatedUtf8(key);
+        ensurePending(1 + 5 + 5 + bytes.length);
+        pending.put(DICTIONARY_RECORD);
+        putVarint(pending, id);
+        putVarint(pending, bytes.length);
+        pending.put(bytes);
+        // Only once its 'D' record is buffered: if writing the buffer out failed, a mapped id
+        // would let later 'E' records point at a value the segment never defines.
+        dictionary.put(key, id);
+        return id;
+    }
+
+    private void ensurePending(int bytes) throws IOException {
+        if (pending.remaining() < bytes) {
+            // The flusher fsyncs this on its next run.
+            writePending();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            logger.error("Failed to flush lead event log", e);
+        }
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = truncatedUtf8(value == null ? "" : value);
+        putVarint(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = getVarint(buffer);
+        if (length < 0 || length > MAX_STRING_BYTES || length > buffer.remaining()) {
+            throw new IllegalStateException("bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] truncatedUtf8(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= MAX_STRING_BYTES ? bytes : Arrays.copyOf(bytes, MAX_STRING_BYTES);
+    }
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("malformed varint");
+    }
+
+    private String toCsvRow(LeadEvent event) {
+        LocalDateTime timestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(event.epochMillis()), zone);
+        return String.join(",",
+                escapeCsv(timestamp.format(TIMESTAMP_FORMATTER)),
+                escapeCsv(event.eventName()),
+                escapeCsv(event.intent()),
+                escapeCsv(event.citySlug()),
+                escapeCsv(event.jobSlug()),
+                escapeCsv(event.sourcePath()),
+                escapeCsv(event.referrer()),
+                escapeCsv(event.userAgent()),
+                escapeCsv(event.ip()));
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.contains(",") && !value.contains("\"")) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    public record LeadEvent(
+            long epochMillis,
+            String eventName,
+            String intent,
+            String citySlug,
+            String jobSlug,
+            String sourcePath,
+            String referrer,
+            String userAgent,
+            String ip) {
+    }
+
+    public record EventCount(LocalDate day, String eventName, String intent, long count) {
+    }
+
+    private record CountKey(LocalDate day, String eventName, String intent) {
+    }
+
+    @FunctionalInterface
+    interface EventVisitor {
+        void visit(LeadEvent event) throws IOException;
+    }
+}
@@ -0,0 +1,89 @@
+package com.offerverdict.service;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Annual net income sampled at fixed gross salary steps for one state, filing status and
+ * set of pre-tax defaults, so high-volume callers can read net pay without running the tax
+ * waterfall.
+ *
+ * Net pay is piecewise linear in gross salary: brackets, the Social Security cap, the
+ * additional Medicare threshold and the 401k limit only change its slope. Reads on a grid
+ * point are exact, and so are reads in any cell without such an edge. In a cell that holds
+ * an edge the linear read is off by at most {@code step * rateChange / 4}, where
+ * {@code rateChange} is how much the combined marginal rate moves inside the cell. With the
+ * shipped tax tables and the default $500 step that stays under
+ * {@link #MAX_INTERPOLATION_ERROR} dollars a year; {@code NetPayGridTest} checks it for
+ * every state and both filing statuses. The grid starts at {@link #DEFAULT_MIN_GROSS} because
+ * below it the zero floor on net pay and the insurance deduction bend the curve far more
+ * sharply; callers compute those salaries exactly.
+ */
+public final class NetPayGrid {
+
+    public static final double DEFAULT_STEP = 500.0;
+    public static final double DEFAULT_MIN_GROSS = 10_000.0;
+    public static final double DEFAULT_MAX_GROSS = 1_000_000.0;
+    /** Worst-case annual error of an interpolated read at {@link #DEFAULT_STEP}. */
+    public static final double MAX_INTERPOLATION_ERROR = 25.0;
+
+    private final double minGross;
+    private final double step;
+    private final double maxGross;
+    private final double[] net;
+
+    private NetPayGrid(double minGross, double step, double maxGross, double[] net) {
+        this.minGross = minGross;
+        this.step = step;
+        this.maxGross = maxGross;
+        this.net = net;
+    }
+
+    /**
+     * Samples {@code exactNet} at {@code minGross, minGross + step, ...} up to and including
+     * {@code maxGross}.
+     */
+    public static NetPayGrid build(DoubleUnaryOperator exactNet, double minGross, double step, double maxGross) {
+        if (!(minGross >= 0) || !(step > 0) || !(maxGross - minGross >= step)) {
+            throw new IllegalArgumentException("grid needs minGross >= 0, a positive step and at least one cell");
+        }
+        int points = (int) Math.floor((maxGross - minGross) / step) + 1;
+        double[] net = new double[points];
+        for (int i = 0; i < points; i++) {
+            net[i] = exactNet.applyAsDouble(minGross + i * step);
+        }
+        return new NetPayGrid(minGross, step, minGross + (points - 1) * step, net);
+    }
+
+    public double minGross() {
+        return minGross;
+    }
+
+    public double step() {
+        return step;
+    }
+
+    public double maxGross() {
+        return maxGross;
+    }
+
+    public boolean covers(double grossIncome) {
+        return grossIncome >= minGross && grossIncome <= maxGross;
+    }
+
+    /**
+     * Net income at {@code grossIncome}, exact on grid points and linearly interpolated
+     * between them. Only valid where {@link #covers(double)} holds.
+     */
+    public double netIncome(double grossIncome) {
+        if (!covers(grossIncome)) {
+            throw new IllegalArgumentException("gross income outside grid: " + grossIncome);
+        }
+        double position = (grossIncome - minGross) / step;
+        int index = (int) position;
+        double fraction = position - index;
+        if (fraction == 0 || index >= net.length - 1) {
+            return net[Math.min(index, net.length - 1)];
+        }
+        return net[index] + (net[index + 1] - net[index]) * fraction;
+    }
+}
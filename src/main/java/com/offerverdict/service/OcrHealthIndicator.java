@@ -0,0 +1,36 @@
+package com.offerverdict.service;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Reports the OCR warm-up as the {@code ocr} health component. It is part of the readiness
+ * group, so {@code /actuator/health/readiness} stays {@code OUT_OF_SERVICE} until the first
+ * upload would no longer pay for tessdata extraction and native library loading.
+ *
+ * A failed warm-up stays {@code UP} with {@code warmup=failed}: pasted text and PDFs with a
+ * text layer still work, and only uploads that need OCR are turned away.
+ */
+@Component
+public class OcrHealthIndicator implements HealthIndicator {
+
+    private final OfferDocumentOcrService ocrService;
+
+    public OcrHealthIndicator(OfferDocumentOcrService ocrService) {
+        this.ocrService = ocrService;
+    }
+
+    @Override
+    public Health health() {
+        OfferDocumentOcrService.Warmup warmup = ocrService.warmup();
+        Health.Builder builder = switch (warmup) {
+            case READY, DISABLED -> Health.up();
+            case WARMING -> Health.outOfService();
+            case FAILED -> Health.up().withDetail("error", ocrService.warmupFailure());
+        };
+        return builder.withDetail("warmup", warmup.name().toLowerCase(Locale.ROOT)).build();
+    }
+}
@@ -0,0 +1,217 @@
+package com.offerverdict.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
+import com.offerverdict.exception.BadRequestException;
+import com.offerverdict.model.OfferRiskReport;
+import com.offerverdict.model.OfferTextParseResult;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parses many pasted job posts or offers in one request, optionally assessing each draft.
+ *
+ * Items run on a shared fixed pool with a bounded queue; when the queue is full the
+ * request thread parses the item itself, so load sheds back onto callers instead of
+ * piling up. Each batch keeps at most {@code 2 * threads} items in flight and hands
+ * results to the sink in input order as soon as the head of the window completes. An
+ * item that throws becomes an {@code error} result and the batch carries on.
+ */
+@Service
+public class OfferBatchParseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OfferBatchParseService.class);
+
+    public record Item(String id, String text) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ItemResult(int index,
+            String id,
+            String status,
+            OfferTextParseResult parse,
+            OfferRiskReport report,
+            String message) {
+    }
+
+    @FunctionalInterface
+    public interface ResultSink {
+        void accept(ItemResult result) throws IOException;
+    }
+
+    /**
+     * The batch exceeds the configured item or byte limit.
+     */
+    public static class BatchTooLargeException extends RuntimeException {
+        public BatchTooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    private final OfferTextParserService parser;
+    private final OfferRiskService riskService;
+    private final ObjectMapper objectMapper;
+    private final AppMetrics metrics;
+    private final int maxItems;
+    private final long maxBytes;
+    private final int window;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public OfferBatchParseService(OfferTextParserService parser,
+            OfferRiskService riskService,
+            ObjectMapper objectMapper,
+            AppMetrics metrics,
+            @Value("${app.bulkParse.threads:0}") int threads,
+            @Value("${app.bulkParse.maxItems:500}") int maxItems,
+            @Value("${app.bulkParse.maxBytes:2097152}") long maxBytes) {
+        this.parser = parser;
+        this.riskService = riskService;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.maxItems = Math.max(1, maxItems);
+        this.maxBytes = Math.max(1, Math.min(Integer.MAX_VALUE - 1, maxBytes));
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.window = poolSize * 2;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(poolSize * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "offer-batch-parse-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Reads a batch body: either a JSON array, a JSON object with an {@code items} array, or
+     * NDJSON with one item per line. An item is a string or an object with {@code text} and
+     * an optional {@code id}.
+     */
+    public List<Item> readItems(InputStream body, boolean ndjson) throws IOException {
+        byte[] bytes = body.readNBytes((int) maxBytes + 1);
+        if (bytes.length > maxBytes) {
+            throw new BatchTooLargeException("Batch body is larger than " + maxBytes + " bytes");
+        }
+        List<Item> items = new ArrayList<>();
+        try {
+            if (ndjson) {
+                for (String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+                    if (!line.isBlank()) {
+                        addItem(items, objectMapper.readTree(line));
+                    }
+                }
+            } else {
+                JsonNode root = objectMapper.readTree(bytes);
+                JsonNode array = root != null && root.isObject() ? root.path("items") : root;
+                if (array == null || !array.isArray()) {
+                    throw new BadRequestException("Expected a JSON array of items or an object with an items array");
+                }
+                for (JsonNode node : array) {
+                    addItem(items, node);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Malformed batch JSON: " + e.getOriginalMessage());
+        }
+        if (items.isEmpty()) {
+            throw new BadRequestException("Batch has no items");
+        }
+        return items;
+    }
+
+    private void addItem(List<Item> items, JsonNode node) {
+        if (items.size() >= maxItems) {
+            throw new BatchTooLargeException("Batch has more than " + maxItems + " items");
+        }
+        if (node.isTextual()) {
+            items.add(new Item(null, node.asText()));
+        } else if (node.isObject() && node.path("text").isTextual()) {
+            JsonNode id = node.get("id");
+            items.add(new Item(id == null || id.isNull() ? null : id.asText(), node.get("text").asText()));
+        } else {
+            throw new BadRequestException("Item " + items.size() + " needs a text field");
+        }
+    }
+
+    /**
+     * Parses every item in {@code analysisMode} and passes the results to {@code sink} in input order.
+     */
+    public void run(List<Item> items, String analysisMode, boolean assess, ResultSink sink) throws IOException {
+        long started = System.nanoTime();
+        Deque<Future<ItemResult>> inFlight = new ArrayDeque<>();
+        try {
+            for (int index = 0; index < items.size(); index++) {
+                if (inFlight.size() >= window) {
+                    sink.accept(await(inFlight.removeFirst()));
+                }
+                int itemIndex = index;
+                Item item = items.get(index);
+                inFlight.addLast(executor.submit(() -> process(itemIndex, item, analysisMode, assess)));
+            }
+            while (!inFlight.isEmpty()) {
+                sink.accept(await(inFlight.removeFirst()));
+            }
+        } finally {
+            // The client went away or the thread was interrupted; drop work nobody will read.
+            inFlight.forEach(future -> future.cancel(false));
+            metrics.recordSince(AppMetrics.PARSE_BATCH, started, "assess", String.valueOf(assess));
+        }
+    }
+
+    private ItemResult process(int index, Item item, String analysisMode, boolean assess) {
+        try {
+            OfferTextParseResult parse = parser.parse(item.text(), analysisMode);
+            OfferRiskReport report = assess && parse.isParsed() ? riskService.assess(parse.getDraft()) : null;
+            return new ItemResult(index, item.id(), "ok", parse, report, null);
+        } catch (RuntimeException e) {
+            logger.warn("Batch item {} failed", index, e);
+            metrics.fallback("batch_parse_item_error");
+            return new ItemResult(index, item.id(), "error", null, null, "Could not parse this item");
+        }
+    }
+
+    private ItemResult await(Future<ItemResult> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for batch results", e);
+        } catch (ExecutionException e) {
+            // process() catches everything it can; this is an Error escaping a worker.
+            throw new IllegalStateException("Batch worker failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -1,25 +1,88 @@
 package com.offerverdict.service;
 
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.model.OfferDocumentExtractResult;
+import com.offerverdict.model.OfferTextParseResult;
+import com.offerverdict.util.Deadline;
+import com.offerverdict.util.StageTrace;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Locale;
+import java.util.function.ToIntFunction;
 
 @Service
 public class OfferDocumentExtractService {
+    private static final long DEFAULT_IMAGE_OCR_BUDGET_MILLIS = 20_000;
+    private static final long DEFAULT_PDF_OCR_BUDGET_MILLIS = 30_000;
+    private static final String PDF_OCR_TIMEOUT_WARNING =
+            "OCR on this scan hit its time limit, so later pages were not read. Review the extracted terms and add anything missing before running the report.";
+    private static final String IMAGE_OCR_TIMEOUT_WARNING =
+            "OCR on this image hit its time limit, so this is the best reading we got. Review the extracted terms and add anything missing before running the report.";
+
     private final OfferDocumentOcrService offerDocumentOcrService;
+    private final OfferTextParserService offerTextParserService;
+    private final AppMetrics metrics;
+    private final Duration imageOcrBudget;
+    private final Duration pdfOcrBudget;
 
-    public OfferDocumentExtractService(OfferDocumentOcrService offerDocumentOcrService) {
+    @Autowired
+    public OfferDocumentExtractService(OfferDocumentOcrService offerDocumentOcrService,
+            OfferTextParserService offerTextParserService,
+            AppMetrics metrics,
+            @Value("${app.ocr.earlyStop:true}") boolean earlyStop,
+            @Value("${app.ocr.imageBudgetMillis:20000}") long imageOcrBudgetMillis,
+            @Value("${app.ocr.pdfBudgetMillis:30000}") long pdfOcrBudgetMillis) {
         this.offerDocumentOcrService = offerDocumentOcrService;
+        this.offerTextParserService = earlyStop ? offerTextParserService : null;
+        this.metrics = metrics;
+        this.imageOcrBudget = Duration.ofMillis(imageOcrBudgetMillis);
+        this.pdfOcrBudget = Duration.ofMillis(pdfOcrBudgetMillis);
+    }
+
+    public OfferDocumentExtractService(OfferDocumentOcrService offerDocumentOcrService, AppMetrics metrics) {
+        this(offerDocumentOcrService, null, metrics, false,
+                DEFAULT_IMAGE_OCR_BUDGET_MILLIS, DEFAULT_PDF_OCR_BUDGET_MILLIS);
     }
 
     public OfferDocumentExtractResult extract(String sourceText, MultipartFile sourceFile) {
+        return extract(sourceText, sourceFile, null);
+    }
+
+    /**
+     * Extracts text for parsing in {@code analysisMode}. OCR then stops as soon as the text read
+     * so far gives the parser every critical field, instead of running every page and candidate.
+     * OCR also stops when the path's time budget, counted from this call, runs out.
+     */
+    public OfferDocumentExtractResult extract(String sourceText, MultipartFile sourceFile, String analysisMode) {
+        try (StageTrace.Span ignored = StageTrace.span("extract")) {
+            return extractDocument(sourceText, sourceFile, missingFields(analysisMode));
+        }
+    }
+
+    private ToIntFunction<String> missingFields(String analysisMode) {
+        if (offerTextParserService == null || analysisMode == null) {
+            return null;
+        }
+        return text -> {
+            // Partial pages and rejected candidates are never parsed again, so keep them out of the cache.
+            OfferTextParseResult parse = offerTextParserService.parseUncached(text, analysisMode);
+            // Nothing parsed means nothing is known yet, not that nothing is missing.
+            return parse.isParsed() ? parse.getMissingCriticalFields().size() : Integer.MAX_VALUE;
+        };
+    }
+
+    private OfferDocumentExtractResult extractDocument(String sourceText, MultipartFile sourceFile,
+            ToIntFunction<String> missingFields) {
+        long started = System.nanoTime();
         OfferDocumentExtractResult result = new OfferDocumentExtractResult();
         String pastedText = sourceText == null ? "" : sourceText.trim();
 
@@ -27,7 +90,7 @@ public class OfferDocumentExtractService {
             result.setSourceText(pastedText);
             result.setSourceLabel(pastedText.isBlank() ? "No document uploaded yet" : "Pasted offer text");
             result.setFromFile(false);
-            return result;
+            return timed(result, started, "pasted", pastedText.isBlank() ? "no_text" : "ok");
         }
 
         String filename = safeFilename(sourceFile.getOriginalFilename());
@@ -35,59 +98,127 @@ public class OfferDocumentExtractService {
         result.setFromFile(true);
         result.setSourceLabel("Uploaded file: " + filename);
 
+        String path = "unsupported";
         try {
             if (isPdf(extension, sourceFile.getContentType())) {
+                path = "pdf_text";
                 byte[] pdfBytes = sourceFile.getBytes();
-                String extractedText = extractPdfText(pdfBytes);
+                String extractedText;
+                try (StageTrace.Span ignored = StageTrace.span(path)) {
+                    extractedText = extractPdfText(pdfBytes);
+                }
                 if (hasUsefulText(extractedText)) {
                     result.setSourceText(extractedText);
                     result.setSourceLabel("Uploaded PDF: " + filename);
-                    return result;
+                    return timed(result, started, path, "ok");
                 }
 
-                String ocrText = offerDocumentOcrService.extractPdfText(pdfBytes);
-                if (hasUsefulText(ocrText)) {
-                    result.setSourceText(ocrText);
-                    result.setSourceLabel("Uploaded PDF OCR: " + filename);
-                    result.setWarning("No selectable text was found in the PDF, so we ran OCR on the pages. Review the extracted terms before running the report.");
-                    return result;
+                path = "pdf_ocr";
+                if (!offerDocumentOcrService.available()) {
+                    return ocrUnavailable(result, pastedText, "Uploaded PDF: " + filename, started, path);
+                }
+                OfferDocumentOcrService.OcrText ocr;
+                try (StageTrace.Span ignored = StageTrace.span(path)) {
+                    ocr = offerDocumentOcrService.extractPdfText(pdfBytes, missingFields,
+                            Deadline.since(started, pdfOcrBudget));
+                }
+                result.setOcrPagesProcessed(ocr.processed());
+                result.setOcrPagesSkipped(ocr.skipped());
+                countTimeout(ocr, path);
+                if (hasUsefulText(ocr.text())) {
+                    result.setSourceText(ocr.text());
+                    result.setSourceLabel("Uploaded PDF OCR: " + filename + pagesNote(ocr));
+                    result.setWarning(ocr.timedOut()
+                            ? PDF_OCR_TIMEOUT_WARNING
+                            : "No selectable text was found in the PDF, so we ran OCR on the pages. Review the extracted terms before running the report.");
+                    return timed(result, started, path, "ok");
                 }
 
                 result.setSourceText(pastedText);
                 result.setSourceLabel("Uploaded PDF: " + filename);
+                if (ocr.timedOut()) {
+                    // The budget ran out, possibly while waiting for another upload's OCR.
+                    result.setWarning(PDF_OCR_TIMEOUT_WARNING);
+                    return timed(result, started, path, "timeout");
+                }
                 result.setWarning("We could not pull enough text from that PDF. Paste the terms manually if the scan is faint.");
-                return result;
+                return timed(result, started, path, "no_text");
             }
 
             if (isPlainText(extension, sourceFile.getContentType())) {
+                path = "text_file";
                 result.setSourceText(new String(sourceFile.getBytes(), StandardCharsets.UTF_8));
                 result.setSourceLabel("Uploaded text file: " + filename);
-                return result;
+                return timed(result, started, path, "ok");
             }
 
             if (isImage(extension, sourceFile.getContentType())) {
-                String ocrText = offerDocumentOcrService.extractImageText(sourceFile.getBytes());
-                if (hasUsefulText(ocrText)) {
-                    result.setSourceText(ocrText);
+                path = "image_ocr";
+                if (!offerDocumentOcrService.available()) {
+                    return ocrUnavailable(result, pastedText, "Uploaded image: " + filename, started, path);
+                }
+                OfferDocumentOcrService.OcrText ocr;
+                try (StageTrace.Span ignored = StageTrace.span(path)) {
+                    ocr = offerDocumentOcrService.extractImageText(sourceFile.getBytes(), missingFields,
+                            Deadline.since(started, imageOcrBudget));
+                }
+                result.setOcrPagesProcessed(ocr.processed());
+                result.setOcrPagesSkipped(ocr.skipped());
+                countTimeout(ocr, path);
+                if (hasUsefulText(ocr.text())) {
+                    result.setSourceText(ocr.text());
                     result.setSourceLabel("Uploaded image OCR: " + filename);
-                    result.setWarning("OCR can miss fine print or dense tables. Review the extracted terms before running the report.");
-                    return result;
+                    result.setWarning(ocr.timedOut()
+                            ? IMAGE_OCR_TIMEOUT_WARNING
+                            : "OCR can miss fine print or dense tables. Review the extracted terms before running the report.");
+                    return timed(result, started, path, "ok");
                 }
 
                 result.setSourceText(pastedText);
-                result.setWarning("We could not read enough text from that image. Try a clearer PNG/JPG or paste the terms manually.");
                 result.setSourceLabel("Uploaded image: " + filename);
-                return result;
+                if (ocr.timedOut()) {
+                    result.setWarning(IMAGE_OCR_TIMEOUT_WARNING);
+                    return timed(result, started, path, "timeout");
+                }
+                result.setWarning("We could not read enough text from that image. Try a clearer PNG/JPG or paste the terms manually.");
+                return timed(result, started, path, "no_text");
             }
 
             result.setSourceText(pastedText);
             result.setWarning("That file type is not supported yet. Upload a PDF or text file, or paste the offer text.");
-            return result;
+            return timed(result, started, path, "unsupported");
         } catch (IOException ex) {
             result.setSourceText(pastedText);
             result.setWarning("We could not read that file. Try a text-based PDF or paste the offer text.");
-            return result;
+            return timed(result, started, path, "error");
+        }
+    }
+
+    private OfferDocumentExtractResult timed(OfferDocumentExtractResult result, long started, String path,
+            String outcome) {
+        metrics.recordSince(AppMetrics.DOCUMENT_EXTRACT, started, "path", path, "outcome", outcome);
+        return result;
+    }
+
+    private OfferDocumentExtractResult ocrUnavailable(OfferDocumentExtractResult result, String pastedText,
+            String sourceLabel, long started, String path) {
+        result.setSourceText(pastedText);
+        result.setSourceLabel(sourceLabel);
+        result.setWarning("Reading scanned documents is unavailable right now. Paste the offer text instead.");
+        return timed(result, started, path, "ocr_unavailable");
+    }
+
+    private void countTimeout(OfferDocumentOcrService.OcrText ocr, String path) {
+        if (ocr.timedOut()) {
+            metrics.ocrTimeout(path);
+        }
+    }
+
+    private String pagesNote(OfferDocumentOcrService.OcrText ocr) {
+        if (ocr.skipped() <= 0) {
+            return "";
         }
+        return " (read " + ocr.processed() + " of " + ocr.total() + " pages)";
     }
 
     private String extractPdfText(byte[] bytes) throws IOException {
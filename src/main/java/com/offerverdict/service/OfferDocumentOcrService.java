@@ -1,19 +1,33 @@
 package com.offerverdict.service;
 
+import com.offerverdict.config.AppMetrics;
+import com.offerverdict.util.Deadline;
+import com.offerverdict.util.StageTrace;
+import jakarta.annotation.PostConstruct;
 import net.sourceforge.tess4j.ITessAPI;
 import net.sourceforge.tess4j.Tesseract;
 import net.sourceforge.tess4j.TesseractException;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.rendering.ImageType;
 import org.apache.pdfbox.rendering.PDFRenderer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
+import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import java.awt.AlphaComposite;
 import java.awt.Color;
+import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.geom.AffineTransform;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.image.ConvolveOp;
 import java.awt.image.BufferedImage;
@@ -25,16 +39,29 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
 
 @Service
 public class OfferDocumentOcrService {
     private static final String LANGUAGE = "eng";
     private static final int MIN_RENDER_WIDTH = 1800;
+    // 160MB as TYPE_INT_RGB; only reached by extreme aspect ratios, see decodeSubsampling.
+    private static final long MAX_DECODE_PIXELS = 40_000_000L;
     private static final int PDF_RENDER_DPI = 220;
     private static final int MAX_PDF_OCR_PAGES = 6;
+    private static final int STALLED_PAGE_LIMIT = 2;
     private static final double[] IMAGE_OCR_ROTATIONS = new double[] {
             0.0, -4.0, 4.0,
             88.5, 90.0, 91.5,
@@ -48,69 +75,375 @@ public class OfferDocumentOcrService {
             ITessAPI.TessPageSegMode.PSM_SINGLE_COLUMN
     };
 
+    private static final Logger logger = LoggerFactory.getLogger(OfferDocumentOcrService.class);
+
+    /**
+     * Progress of the startup warm-up; uploads are only routed here once it is {@code READY}.
+     */
+    public enum Warmup {
+        DISABLED, WARMING, READY, FAILED
+    }
+
     private final Object tessdataLock = new Object();
-    private final Object ocrLock = new Object();
+    private final ReentrantLock ocrLock = new ReentrantLock();
+    private final AppMetrics metrics;
+    private final boolean warmupEnabled;
     private Path tessdataDirectory;
+    private volatile Warmup warmup;
+    private volatile String warmupFailure;
+
+    @Autowired
+    public OfferDocumentOcrService(AppMetrics metrics, @Value("${app.ocr.warmup:true}") boolean warmupEnabled) {
+        this.metrics = metrics;
+        this.warmupEnabled = warmupEnabled;
+        this.warmup = warmupEnabled ? Warmup.WARMING : Warmup.DISABLED;
+    }
+
+    public OfferDocumentOcrService(AppMetrics metrics) {
+        this(metrics, false);
+    }
+
+    /**
+     * Starts the warm-up on a background thread so it overlaps the rest of context startup.
+     */
+    @PostConstruct
+    public void startWarmup() {
+        if (!warmupEnabled) {
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "ocr-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Pays the first-request costs up front: copies tessdata out of the jar, loads the native
+     * Tesseract library and runs one small OCR pass so the model file is in the page cache.
+     */
+    void warmUp() {
+        long started = System.nanoTime();
+        try {
+            ensureTessdataDirectory();
+            BufferedImage sample = new BufferedImage(640, 120, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = sample.createGraphics();
+            try {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, sample.getWidth(), sample.getHeight());
+                graphics.setColor(Color.BLACK);
+                graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 40));
+                graphics.drawString("RN OFFER $60/HR", 24, 76);
+            } finally {
+                graphics.dispose();
+            }
+            String text = runOcr(sample, Deadline.none());
+            warmup = Warmup.READY;
+            logger.info("OCR warm-up finished in {} ms (read \"{}\")",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), text.strip());
+        } catch (IOException | RuntimeException | LinkageError e) {
+            warmupFailure = e.toString();
+            warmup = Warmup.FAILED;
+            logger.warn("OCR warm-up failed; uploads will fall back to pasted text", e);
+        }
+    }
+
+    public Warmup warmup() {
+        return warmup;
+    }
+
+    public String warmupFailure() {
+        return warmupFailure;
+    }
+
+    /**
+     * False once the warm-up has failed, e.g. because the native library is missing from the
+     * runtime image; OCR would then only fail again on every upload.
+     */
+    public boolean available() {
+        return warmup != Warmup.FAILED;
+    }
+
+    /**
+     * OCR output plus how many OCR passes (image candidates or PDF pages) actually ran out of
+     * how many were available, and whether the deadline cut the run short.
+     */
+    public record OcrText(String text, int processed, int total, boolean timedOut) {
+        public int skipped() {
+            return total - processed;
+        }
+    }
 
     public String extractImageText(byte[] bytes) throws IOException {
-        BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+        return extractImageText(bytes, null, Deadline.none()).text();
+    }
+
+    /**
+     * Runs OCR on an uploaded image. With {@code missingFields}, every new best candidate is
+     * checked and the remaining candidates are skipped once it reports nothing missing. Past
+     * the deadline, candidate generation and OCR stop and the best text so far is returned;
+     * at least one candidate is always read unless the deadline passes while waiting for
+     * another upload's OCR.
+     */
+    public OcrText extractImageText(byte[] bytes, ToIntFunction<String> missingFields, Deadline deadline)
+            throws IOException {
+        BufferedImage image;
+        try (StageTrace.Span ignored = StageTrace.span("decode")) {
+            image = decodeForOcr(bytes);
+        }
         if (image == null) {
-            return "";
+            return new OcrText("", 0, 0, false);
         }
-        return runBestOcr(buildImageCandidates(image));
+        List<ImageCandidate> candidates = StageTrace.traced("candidates", () -> buildImageCandidates(image, deadline));
+        OcrText result;
+        try (StageTrace.Span ignored = StageTrace.span("tesseract")) {
+            result = runBestOcr(candidates, missingFields, deadline);
+        }
+        metrics.recordOcrCandidates("image", result.processed());
+        return result;
     }
 
     public String extractPdfText(byte[] bytes) throws IOException {
+        return extractPdfText(bytes, null, Deadline.none()).text();
+    }
+
+    /**
+     * Runs OCR page by page. With {@code missingFields}, the text so far is checked after each
+     * page; the rest of the document is skipped once nothing is missing, or once
+     * {@link #STALLED_PAGE_LIMIT} pages in a row filled in no further field. {@code total} is
+     * the document's page count, so pages past {@link #MAX_PDF_OCR_PAGES} count as skipped.
+     * Past the deadline no further page is started.
+     */
+    public OcrText extractPdfText(byte[] bytes, ToIntFunction<String> missingFields, Deadline deadline)
+            throws IOException {
         try (PDDocument document = PDDocument.load(new ByteArrayInputStream(bytes))) {
             PDFRenderer renderer = new PDFRenderer(document);
             StringBuilder text = new StringBuilder();
             int pageCount = Math.min(document.getNumberOfPages(), MAX_PDF_OCR_PAGES);
+            int processed = 0;
+            int fewestMissing = Integer.MAX_VALUE;
+            int stalledPages = 0;
+            boolean timedOut = false;
             for (int pageIndex = 0; pageIndex < pageCount; pageIndex++) {
-                BufferedImage rendered = renderer.renderImageWithDPI(pageIndex, PDF_RENDER_DPI, ImageType.RGB);
-                String pageText = runOcr(prepareBinaryCandidate(rendered));
+                if (pageIndex > 0 && deadline.expired()) {
+                    timedOut = true;
+                    break;
+                }
+                BufferedImage rendered;
+                DiagnosticEvents.PdfPageRender event = new DiagnosticEvents.PdfPageRender();
+                event.begin();
+                try (StageTrace.Span ignored = StageTrace.span("render_page")) {
+                    rendered = renderer.renderImageWithDPI(pageIndex, PDF_RENDER_DPI, ImageType.RGB);
+                }
+                event.end();
+                if (event.shouldCommit()) {
+                    event.page = pageIndex + 1;
+                    event.dpi = PDF_RENDER_DPI;
+                    event.width = rendered.getWidth();
+                    event.height = rendered.getHeight();
+                    event.commit();
+                }
+                String pageText;
+                try (StageTrace.Span ignored = StageTrace.span("tesseract")) {
+                    pageText = runOcr(prepareBinaryCandidate(rendered), deadline);
+                }
+                if (pageText == null) {
+                    timedOut = true;
+                    break;
+                }
+                processed++;
                 if (!pageText.isBlank()) {
                     if (text.length() > 0) {
                         text.append("\n\n");
                     }
                     text.append(pageText.trim());
                 }
+                if (missingFields != null && pageIndex + 1 < pageCount) {
+                    int missing = missingFields.applyAsInt(text.toString());
+                    if (missing == 0) {
+                        break;
+                    }
+                    // Pages before anything parses (cover sheets, blank scans) don't count as stalled.
+                    if (missing < fewestMissing) {
+                        fewestMissing = missing;
+                        stalledPages = 0;
+                    } else if (fewestMissing != Integer.MAX_VALUE && ++stalledPages >= STALLED_PAGE_LIMIT) {
+                        break;
+                    }
+                }
             }
-            return text.toString().trim();
+            metrics.recordOcrCandidates("pdf", processed);
+            return new OcrText(text.toString().trim(), processed, document.getNumberOfPages(), timedOut);
         }
     }
 
-    private String runBestOcr(List<BufferedImage> candidates) throws IOException {
-        synchronized (ocrLock) {
+    /**
+     * Reads the image header first and decodes only every n-th pixel of every n-th row, so a
+     * 48MP phone photo arrives at OCR resolution instead of as a full-size raster that the
+     * candidate pipeline then copies several times. Returns null when no reader recognizes
+     * the bytes, like {@link ImageIO#read}.
+     */
+    BufferedImage decodeForOcr(byte[] bytes) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            DiagnosticEvents.ImageDecode event = new DiagnosticEvents.ImageDecode();
+            event.begin();
             try {
-                String bestText = "";
-                int bestScore = -1;
-                for (int pageSegMode : IMAGE_PAGE_SEGMENTATION_MODES) {
-                    Tesseract tesseract = createTesseract(pageSegMode);
-                    for (BufferedImage candidate : candidates) {
-                        String text = normalizeOcrText(tesseract.doOCR(candidate));
-                        int score = scoreOcrText(text);
-                        if (score > bestScore) {
-                            bestScore = score;
-                            bestText = text;
-                        }
-                    }
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                int subsampling = decodeSubsampling(sourceWidth, sourceHeight);
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                BufferedImage image = reader.read(0, param);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.format = reader.getFormatName();
+                    event.sourceWidth = sourceWidth;
+                    event.sourceHeight = sourceHeight;
+                    event.subsampling = subsampling;
+                    event.width = image.getWidth();
+                    event.height = image.getHeight();
+                    event.commit();
                 }
-                return bestText;
-            } catch (TesseractException ex) {
-                throw new IOException("OCR failed", ex);
+                return image;
+            } finally {
+                reader.dispose();
             }
         }
     }
 
-    private String runOcr(BufferedImage image) throws IOException {
-        synchronized (ocrLock) {
-            try {
-                Tesseract tesseract = createTesseract(ITessAPI.TessPageSegMode.PSM_AUTO);
-                return normalizeOcrText(tesseract.doOCR(image));
-            } catch (TesseractException ex) {
-                throw new IOException("OCR failed", ex);
+    /**
+     * The largest step that keeps the shorter side at {@link #MIN_RENDER_WIDTH} or more, so
+     * any rotation candidate stays at OCR resolution, raised further when the result would
+     * still exceed {@link #MAX_DECODE_PIXELS}.
+     */
+    static int decodeSubsampling(int width, int height) {
+        int forOcr = Math.max(1, Math.min(width, height) / MIN_RENDER_WIDTH);
+        int forHeap = (int) Math.ceil(Math.sqrt((double) width * height / MAX_DECODE_PIXELS));
+        return Math.max(forOcr, forHeap);
+    }
+
+    private OcrText runBestOcr(List<ImageCandidate> candidates, ToIntFunction<String> missingFields,
+            Deadline deadline) throws IOException {
+        int total = candidates.size() * IMAGE_PAGE_SEGMENTATION_MODES.length;
+        String bestText = "";
+        int bestScore = -1;
+        int processed = 0;
+        // Text blocks are found on first use and shared by the page segmentation passes, so
+        // candidates cut off by an early stop or the deadline are never scanned.
+        List<List<Rectangle>> regionsByCandidate = new ArrayList<>(Collections.nCopies(candidates.size(), null));
+        for (int pageSegMode : IMAGE_PAGE_SEGMENTATION_MODES) {
+            Tesseract tesseract = createTesseract(pageSegMode);
+            for (int i = 0; i < candidates.size(); i++) {
+                if (processed > 0 && deadline.expired()) {
+                    return new OcrText(bestText, processed, total, true);
+                }
+                ImageCandidate candidate = candidates.get(i);
+                List<Rectangle> regions = regionsByCandidate.get(i);
+                if (regions == null) {
+                    regions = TextBlockDetector.detect(candidate.image());
+                    regionsByCandidate.set(i, regions);
+                }
+                DiagnosticEvents.OcrCandidate event = new DiagnosticEvents.OcrCandidate();
+                event.begin();
+                String text = ocrLocked(tesseract, candidate.image(), regions, deadline);
+                if (text == null) {
+                    return new OcrText(bestText, processed, total, true);
+                }
+                text = normalizeOcrText(text);
+                int score = scoreOcrText(text);
+                processed++;
+                event.end();
+                if (event.shouldCommit()) {
+                    event.psm = pageSegMode;
+                    event.rotation = candidate.rotation();
+                    event.variant = candidate.variant();
+                    event.baseImage = candidate.baseImage();
+                    event.score = score;
+                    event.textLength = text.length();
+                    event.regions = regions.size();
+                    event.ocrPixels = ocrPixels(candidate.image(), regions);
+                    event.commit();
+                }
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestText = text;
+                    // Parsed outside the engine lock, so other uploads can OCR meanwhile.
+                    if (missingFields != null && processed < total
+                            && missingFields.applyAsInt(text) == 0) {
+                        return new OcrText(bestText, processed, total, false);
+                    }
+                }
             }
         }
+        return new OcrText(bestText, processed, total, false);
+    }
+
+    /**
+     * OCRs one image, or returns null when the deadline passes while another upload holds the engine.
+     */
+    private String runOcr(BufferedImage image, Deadline deadline) throws IOException {
+        String text = ocrLocked(createTesseract(ITessAPI.TessPageSegMode.PSM_AUTO), image,
+                TextBlockDetector.detect(image), deadline);
+        return text == null ? null : normalizeOcrText(text);
+    }
+
+    /**
+     * Holds the engine lock for one Tesseract call only. Returns null when the deadline passes
+     * while waiting for it.
+     */
+    private String ocrLocked(Tesseract tesseract, BufferedImage image, List<Rectangle> regions, Deadline deadline)
+            throws IOException {
+        if (!lockOcr(deadline)) {
+            return null;
+        }
+        try {
+            return doOcr(tesseract, image, regions);
+        } catch (TesseractException ex) {
+            throw new IOException("OCR failed", ex);
+        } finally {
+            ocrLock.unlock();
+        }
+    }
+
+    /**
+     * OCRs only the detected text blocks when there are any, in one engine initialization;
+     * tess4j appends each region's text in list order, which is reading order.
+     */
+    private String doOcr(Tesseract tesseract, BufferedImage image, List<Rectangle> regions)
+            throws TesseractException {
+        if (regions.isEmpty()) {
+            return tesseract.doOCR(image);
+        }
+        return tesseract.doOCR(List.of(new IIOImage(image, null, null)), null, List.of(regions));
+    }
+
+    private static long ocrPixels(BufferedImage image, List<Rectangle> regions) {
+        if (regions.isEmpty()) {
+            return (long) image.getWidth() * image.getHeight();
+        }
+        long pixels = 0;
+        for (Rectangle region : regions) {
+            pixels += (long) region.width * region.height;
+        }
+        return pixels;
+    }
+
+    /**
+     * Tesseract runs one call at a time; waiting for the engine counts against the deadline.
+     */
+    private boolean lockOcr(Deadline deadline) throws IOException {
+        try {
+            return ocrLock.tryLock(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for OCR", e);
+        }
     }
 
     private Tesseract createTesseract(int pageSegMode) throws IOException {
@@ -124,37 +457,52 @@ public class OfferDocumentOcrService {
         return tesseract;
     }
 
-    private List<BufferedImage> buildImageCandidates(BufferedImage source) {
+    /**
+     * A preprocessed image plus how it was produced, so diagnostics can tell candidates apart.
+     */
+    private record ImageCandidate(BufferedImage image, String baseImage, double rotation, String variant) {
+    }
+
+    /**
+     * Builds the preprocessing and rotation variants to OCR, most likely first. Past the
+     * deadline the rectified variants are skipped and the list is cut short, keeping at least
+     * the upright original.
+     */
+    private List<ImageCandidate> buildImageCandidates(BufferedImage source, Deadline deadline) {
         BufferedImage normalized = copyToRgb(source);
-        List<BufferedImage> baseImages = new ArrayList<>();
-        baseImages.add(normalized);
+        Map<String, BufferedImage> baseImages = new LinkedHashMap<>();
+        baseImages.put("original", normalized);
 
         BufferedImage paperCropped = cropToPaperBounds(normalized);
         if (paperCropped != normalized) {
-            baseImages.add(paperCropped);
+            baseImages.put("paper", paperCropped);
         }
 
-        BufferedImage rectified = rectifyDocument(normalized);
+        BufferedImage rectified = rectifyDocument(normalized, deadline);
         if (rectified != null) {
-            baseImages.add(rectified);
+            baseImages.put("rectified", rectified);
         }
 
         if (paperCropped != normalized) {
-            BufferedImage rectifiedPaper = rectifyDocument(paperCropped);
+            BufferedImage rectifiedPaper = rectifyDocument(paperCropped, deadline);
             if (rectifiedPaper != null) {
-                baseImages.add(rectifiedPaper);
+                baseImages.put("rectified_paper", rectifiedPaper);
             }
         }
 
-        List<BufferedImage> candidates = new ArrayList<>();
-        for (BufferedImage baseImage : baseImages) {
-            BufferedImage croppedBase = cropToInkBounds(baseImage);
+        List<ImageCandidate> candidates = new ArrayList<>();
+        for (Map.Entry<String, BufferedImage> baseImage : baseImages.entrySet()) {
+            BufferedImage croppedBase = cropToInkBounds(baseImage.getValue());
             for (double rotation : IMAGE_OCR_ROTATIONS) {
+                if (!candidates.isEmpty() && deadline.expired()) {
+                    return candidates;
+                }
                 BufferedImage rotated = Math.abs(rotation) < 0.01 ? croppedBase : rotate(croppedBase, rotation);
                 BufferedImage cropped = cropToInkBounds(rotated);
-                candidates.add(prepareBinaryCandidate(cropped));
-                candidates.add(prepareGrayCandidate(cropped));
-                candidates.add(prepareAdaptiveBinaryCandidate(cropped));
+                String base = baseImage.getKey();
+                candidates.add(new ImageCandidate(prepareBinaryCandidate(cropped), base, rotation, "binary"));
+                candidates.add(new ImageCandidate(prepareGrayCandidate(cropped), base, rotation, "gray"));
+                candidates.add(new ImageCandidate(prepareAdaptiveBinaryCandidate(cropped), base, rotation, "adaptive"));
             }
         }
         return candidates;
@@ -232,7 +580,10 @@ public class OfferDocumentOcrService {
         return binary;
     }
 
-    private BufferedImage rectifyDocument(BufferedImage source) {
+    private BufferedImage rectifyDocument(BufferedImage source, Deadline deadline) {
+        if (deadline.expired()) {
+            return null;
+        }
         BufferedImage gray = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
         Graphics2D graphics = gray.createGraphics();
         try {
@@ -254,6 +605,9 @@ public class OfferDocumentOcrService {
         long spanSum = 0;
 
         for (int y = 0; y < height; y++) {
+            if ((y & 127) == 0 && deadline.expired()) {
+                return null;
+            }
             int left = -1;
             int right = -1;
             for (int x = 0; x < width; x++) {
@@ -315,6 +669,9 @@ public class OfferDocumentOcrService {
         int currentRight = -1;
 
         for (int srcY = top; srcY <= bottom; srcY++) {
+            if (((srcY - top) & 127) == 0 && deadline.expired()) {
+                return null;
+            }
             if (validRows[srcY]) {
                 currentLeft = leftEdges[srcY];
                 currentRight = rightEdges[srcY];
@@ -627,10 +984,27 @@ public class OfferDocumentOcrService {
             Path directory = Path.of(System.getProperty("java.io.tmpdir"), "offerverdict-tessdata");
             Files.createDirectories(directory);
             Path trainedData = directory.resolve(LANGUAGE + ".traineddata");
-            if (Files.notExists(trainedData) || Files.size(trainedData) == 0) {
-                ClassPathResource resource = new ClassPathResource("tessdata/" + LANGUAGE + ".traineddata");
+            ClassPathResource resource = new ClassPathResource("tessdata/" + LANGUAGE + ".traineddata");
+            byte[] bundled;
+            try (InputStream inputStream = resource.getInputStream()) {
+                bundled = sha256(inputStream);
+            }
+            // A size check misses a copy truncated by a crash or left behind by an older build.
+            boolean current = false;
+            if (Files.exists(trainedData)) {
+                try (InputStream inputStream = Files.newInputStream(trainedData)) {
+                    current = Arrays.equals(bundled, sha256(inputStream));
+                }
+            }
+            if (!current) {
+                // Copy then rename, so a concurrent reader never sees a half-written model.
+                Path partial = Files.createTempFile(directory, LANGUAGE, ".partial");
                 try (InputStream inputStream = resource.getInputStream()) {
-                    Files.copy(inputStream, trainedData, StandardCopyOption.REPLACE_EXISTING);
+                    Files.copy(inputStream, partial, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(partial, trainedData, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(partial);
                 }
             }
             tessdataDirectory = directory;
@@ -638,6 +1012,20 @@ public class OfferDocumentOcrService {
         }
     }
 
+    private static byte[] sha256(InputStream inputStream) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        for (int read; (read = inputStream.read(buffer)) >= 0; ) {
+            digest.update(buffer, 0, read);
+        }
+        return digest.digest();
+    }
+
     private String normalizeOcrText(String text) {
         if (text == null) {
             return "";
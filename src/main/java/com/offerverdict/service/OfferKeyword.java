@@ -0,0 +1,76 @@
+package com.offerverdict.service;
+
+import com.offerverdict.util.PhraseMatcher;
+
+import java.util.List;
+
+/**
+ * Labels the parser looks for next to an amount or a number of months, such as the
+ * {@code sign-on} in {@code $10k sign-on}. Each constant is one lowercase phrase, and the
+ * detectors try them in the order they list them.
+ *
+ * All phrases are compiled into a single {@link PhraseMatcher} that {@link OfferTextTokens}
+ * steps through while it lexes, so every label is located in the same pass as the numbers.
+ */
+enum OfferKeyword {
+    SIGN_ON("sign-on"),
+    SIGN_ON_SPACED("sign on"),
+    SOB("sob"),
+    BONUS("bonus"),
+    RETENTION_BONUS("retention bonus"),
+    COMMENCEMENT_BONUS("commencement bonus"),
+
+    RELO("relo"),
+    RELOCATION("relocation"),
+    RELOCATION_ASSISTANCE("relocation assistance"),
+    RELOCATION_STIPEND("relocation stipend"),
+    MOVING_REIMBURSEMENT("moving reimbursement"),
+
+    MOVING_COST("moving cost"),
+    MOVING_COSTS("moving costs"),
+    MOVING_EXPENSE("moving expense"),
+    MOVE_COST("move cost"),
+    MOVE_ESTIMATE("move estimate"),
+
+    COMMITMENT("commitment"),
+    CONTRACT("contract"),
+    EMPLOYMENT_TERM("employment term"),
+    REPAYMENT_PERIOD("repayment period"),
+    SERVICE_PERIOD("service period"),
+
+    PLAN_TO_STAY("plan to stay"),
+    PLANNING_TO_STAY("planning to stay"),
+    EXPECTED_STAY("expected stay"),
+    STAY_FOR("stay for"),
+    LEAVE_AFTER("leave after"),
+
+    INSURANCE_PREMIUM("insurance premium"),
+    HEALTH_INSURANCE("health insurance"),
+    MEDICAL_PREMIUM("medical premium"),
+    EMPLOYEE_PREMIUM("employee premium"),
+    BENEFITS_PREMIUM("benefits premium"),
+
+    CURRENT_INSURANCE("current insurance"),
+    CURRENT_PREMIUM("current premium"),
+    MY_INSURANCE("my insurance"),
+    EXISTING_INSURANCE("existing insurance");
+
+    static final PhraseMatcher<OfferKeyword> MATCHER =
+            PhraseMatcher.compile(OfferKeyword.class, keyword -> List.of(keyword.phrase));
+
+    private static final OfferKeyword[] VALUES = values();
+
+    private final String phrase;
+
+    OfferKeyword(String phrase) {
+        this.phrase = phrase;
+    }
+
+    String phrase() {
+        return phrase;
+    }
+
+    static OfferKeyword ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
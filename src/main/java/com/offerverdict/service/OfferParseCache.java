@@ -0,0 +1,87 @@
+package com.offerverdict.service;
+
+import com.offerverdict.config.AppMetrics;
+import com.offerverdict.model.OfferTextParseResult;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU of parse results keyed by (SHA-256 of the normalized text, analysis mode,
+ * data version), so the offer-risk report step reuses the parse its draft step already did.
+ *
+ * Entries are never handed out: every lookup returns a {@link OfferTextParseResult#copy()}
+ * carrying the caller's raw source text, because controllers relabel the result they get.
+ * Stored results drop their source text, so the cache holds a digest rather than the letter.
+ * A data reload changes the version, and entries built on older data age out unused.
+ */
+final class OfferParseCache {
+
+    record Key(String textHash, String analysisMode, long dataVersion) {
+    }
+
+    private final int maxEntries;
+    private final AppMetrics metrics;
+    // Guarded by this.
+    private final LinkedHashMap<Key, OfferTextParseResult> entries;
+
+    OfferParseCache(int maxEntries, AppMetrics metrics) {
+        this.maxEntries = Math.max(0, maxEntries);
+        this.metrics = metrics;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, OfferTextParseResult> eldest) {
+                return size() > OfferParseCache.this.maxEntries;
+            }
+        };
+    }
+
+    boolean enabled() {
+        return maxEntries > 0;
+    }
+
+    static Key key(String normalizedText, String analysisMode, long dataVersion) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(normalizedText.getBytes(StandardCharsets.UTF_8));
+            return new Key(HexFormat.of().formatHex(digest), analysisMode, dataVersion);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * Returns a copy of the cached result for {@code key}, parsing on a miss. Concurrent misses
+     * for the same key may both parse; the results are equal, so the last one simply wins.
+     */
+    OfferTextParseResult get(Key key, String sourceText, Supplier<OfferTextParseResult> parse) {
+        OfferTextParseResult cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+        metrics.cacheLookup("parse", cached != null);
+        if (cached == null) {
+            cached = parse.get().copy();
+            if (cached.getDraft() != null) {
+                cached.getDraft().setSourceText(null);
+            }
+            synchronized (this) {
+                entries.put(key, cached);
+            }
+        }
+        OfferTextParseResult result = cached.copy();
+        if (result.getDraft() != null) {
+            result.getDraft().setSourceText(sourceText);
+        }
+        return result;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+}
@@ -1,12 +1,15 @@
 package com.offerverdict.service;
 
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.CityCostEntry;
 import com.offerverdict.model.ComparisonBreakdown;
 import com.offerverdict.model.HouseholdType;
 import com.offerverdict.model.HousingType;
 import com.offerverdict.model.JobInfo;
+import com.offerverdict.model.OfferRiskDraft;
 import com.offerverdict.model.OfferRiskReport;
+import com.offerverdict.util.StageTrace;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -22,10 +25,23 @@ public class OfferRiskService {
 
     private final DataRepository repository;
     private final SingleCityAnalysisService analysisService;
+    private final AppMetrics metrics;
 
-    public OfferRiskService(DataRepository repository, SingleCityAnalysisService analysisService) {
+    public OfferRiskService(DataRepository repository, SingleCityAnalysisService analysisService, AppMetrics metrics) {
         this.repository = repository;
         this.analysisService = analysisService;
+        this.metrics = metrics;
+    }
+
+    public OfferRiskReport assess(OfferRiskDraft draft) {
+        return assess(draft.getAnalysisMode(), draft.getRoleSlug(), draft.getCurrentCitySlug(),
+                draft.getOfferCitySlug(), draft.getUnitType(), draft.getShiftGuarantee(), draft.getFloatRisk(),
+                draft.getCancelRisk(), draft.getCurrentHourlyRate(), draft.getOfferHourlyRate(),
+                draft.getWeeklyHours(), draft.getOvertimeHours(), draft.getNightDiffPercent(), draft.getNightHours(),
+                draft.getWeekendDiffPercent(), draft.getWeekendHours(), draft.getCurrentMonthlyInsurance(),
+                draft.getOfferMonthlyInsurance(), draft.getSignOnBonus(), draft.getRelocationStipend(),
+                draft.getMovingCost(), draft.getContractMonths(), draft.getPlannedStayMonths(),
+                draft.getRepaymentStyle(), draft.getSourceText());
     }
 
     public OfferRiskReport assess(String analysisMode,
@@ -83,95 +99,100 @@ public class OfferRiskService {
             int plannedStayMonths,
             String repaymentStyle,
             String sourceText) {
-        String normalizedMode = normalizedAnalysisMode(analysisMode);
-
-        CityCostEntry currentCity = repository.getCity(currentCitySlug);
-        CityCostEntry offerCity = repository.getCity(offerCitySlug);
-        JobInfo role = repository.findJobLoosely(roleSlug).orElseGet(() -> {
-            JobInfo fallback = new JobInfo();
-            fallback.setSlug("registered-nurse");
-            fallback.setTitle("Healthcare worker");
-            fallback.setCategory("Healthcare");
-            return fallback;
-        });
-
-        double safeWeeklyHours = clamp(weeklyHours, 1, 80);
-        double safeOvertimeHours = clamp(overtimeHours, 0, 40);
-        double safeNightHours = clamp(nightHours, 0, safeWeeklyHours + safeOvertimeHours);
-        double safeWeekendHours = clamp(weekendHours, 0, safeWeeklyHours + safeOvertimeHours);
-        int safeContractMonths = Math.max(0, contractMonths);
-        int safePlannedStayMonths = Math.max(0, plannedStayMonths);
-        double safeCurrentMonthlyInsurance = Math.max(0, currentMonthlyInsurance);
-        double safeOfferMonthlyInsurance = Math.max(0, offerMonthlyInsurance);
-
-        double currentAnnualPay = annualBasePay(currentHourlyRate, safeWeeklyHours);
-        double baseAnnualPay = annualBasePay(offerHourlyRate, safeWeeklyHours);
-        double overtimeAnnualPay = Math.max(0, offerHourlyRate) * 1.5 * safeOvertimeHours * 52.0;
-        double differentialAnnualPay = Math.max(0, offerHourlyRate)
-                * ((Math.max(0, nightDiffPercent) / 100.0) * safeNightHours
-                        + (Math.max(0, weekendDiffPercent) / 100.0) * safeWeekendHours)
-                * 52.0;
-        double offerAnnualPay = baseAnnualPay + overtimeAnnualPay + differentialAnnualPay;
-
-        ComparisonBreakdown currentBreakdown = analyzeAnnualPay(currentAnnualPay, currentCity,
-                safeCurrentMonthlyInsurance);
-        ComparisonBreakdown offerBreakdown = analyzeAnnualPay(offerAnnualPay, offerCity,
-                safeOfferMonthlyInsurance);
-
-        double netUpfrontValue = (Math.max(0, signOnBonus) + Math.max(0, relocationStipend)) * (1.0 - BONUS_TAX_RATE)
-                - Math.max(0, movingCost);
-        double relocationGap = Math.max(0, Math.max(0, movingCost)
-                - (Math.max(0, relocationStipend) * (1.0 - BONUS_TAX_RATE)));
-        double repaymentExposure = repaymentExposure(signOnBonus, relocationStipend, safeContractMonths,
-                safePlannedStayMonths, repaymentStyle);
-        double monthlyDelta = offerBreakdown.getResidual() - currentBreakdown.getResidual();
-        double breakEvenMonths = breakEvenMonths(netUpfrontValue, repaymentExposure, monthlyDelta);
-
-        OfferRiskReport report = new OfferRiskReport();
-        report.setAnalysisMode(normalizedMode);
-        report.setAnalysisModeLabel("job_post".equals(normalizedMode) ? "Job Post Screen" : "Offer Review");
-        report.setRoleLabel(role.getTitle());
-        report.setCurrentCityName(currentCity.getCity() + ", " + currentCity.getState());
-        report.setOfferCityName(offerCity.getCity() + ", " + offerCity.getState());
-        report.setCurrentAnnualPay(currentAnnualPay);
-        report.setOfferAnnualPay(offerAnnualPay);
-        report.setBaseAnnualPay(baseAnnualPay);
-        report.setOvertimeAnnualPay(overtimeAnnualPay);
-        report.setDifferentialAnnualPay(differentialAnnualPay);
-        report.setCurrentMonthlyResidual(currentBreakdown.getResidual());
-        report.setOfferMonthlyResidual(offerBreakdown.getResidual());
-        report.setMonthlyResidualDelta(monthlyDelta);
-        report.setCurrentMonthlyInsurance(safeCurrentMonthlyInsurance);
-        report.setOfferMonthlyInsurance(safeOfferMonthlyInsurance);
-        report.setMonthlyInsuranceDelta(safeOfferMonthlyInsurance - safeCurrentMonthlyInsurance);
-        report.setSignOnBonus(Math.max(0, signOnBonus));
-        report.setRelocationStipend(Math.max(0, relocationStipend));
-        report.setMovingCost(Math.max(0, movingCost));
-        report.setEstimatedBonusTaxRate(BONUS_TAX_RATE);
-        report.setEstimatedNetUpfrontValue(netUpfrontValue);
-        report.setRelocationCoverageGap(relocationGap);
-        report.setContractMonths(safeContractMonths);
-        report.setPlannedStayMonths(safePlannedStayMonths);
-        report.setRepaymentStyle(normalizedRepaymentStyle(repaymentStyle));
-        report.setRepaymentExposure(repaymentExposure);
-        report.setBreakEvenMonths(breakEvenMonths);
-        report.setUnitTypeLabel(unitTypeLabel(unitType));
-        report.setShiftGuaranteeLabel(shiftGuaranteeLabel(shiftGuarantee));
-        report.setFloatRiskLabel(floatRiskLabel(floatRisk));
-        report.setCancelRiskLabel(cancelRiskLabel(cancelRisk));
-        report.setNurseScheduleRiskScore(nurseScheduleRiskScore(shiftGuarantee, floatRisk, cancelRisk));
-        LifeFitProfile lifeFitProfile = analyzeLifeFit(sourceText);
-        report.setLifeFitRiskScore(lifeFitProfile.score());
-        report.setLifeFitLabel(lifeFitProfile.label());
-        report.setLifeFitSummary(lifeFitProfile.summary());
-        report.setLifeFitSignals(lifeFitProfile.signals());
-        applyMarketAnchor(report, role.getSlug(), offerCity.getSlug(), offerAnnualPay);
-        applyVerdict(report);
-        report.setRedFlags(redFlags(report));
-        report.setHrQuestions(hrQuestions(report));
-        report.setNegotiationMoves(negotiationMoves(report));
-        applyDecisionSupport(report);
-        return report;
+        long started = System.nanoTime();
+        try (StageTrace.Span ignored = StageTrace.span("assess")) {
+            String normalizedMode = normalizedAnalysisMode(analysisMode);
+
+            CityCostEntry currentCity = repository.getCity(currentCitySlug);
+            CityCostEntry offerCity = repository.getCity(offerCitySlug);
+            JobInfo role = repository.findJobLoosely(roleSlug).orElseGet(() -> {
+                JobInfo fallback = new JobInfo();
+                fallback.setSlug("registered-nurse");
+                fallback.setTitle("Healthcare worker");
+                fallback.setCategory("Healthcare");
+                metrics.fallback("risk_default_role");
+                return fallback;
+            });
+
+            double safeWeeklyHours = clamp(weeklyHours, 1, 80);
+            double safeOvertimeHours = clamp(overtimeHours, 0, 40);
+            double safeNightHours = clamp(nightHours, 0, safeWeeklyHours + safeOvertimeHours);
+            double safeWeekendHours = clamp(weekendHours, 0, safeWeeklyHours + safeOvertimeHours);
+            int safeContractMonths = Math.max(0, contractMonths);
+            int safePlannedStayMonths = Math.max(0, plannedStayMonths);
+            double safeCurrentMonthlyInsurance = Math.max(0, currentMonthlyInsurance);
+            double safeOfferMonthlyInsurance = Math.max(0, offerMonthlyInsurance);
+
+            double currentAnnualPay = annualBasePay(currentHourlyRate, safeWeeklyHours);
+            double baseAnnualPay = annualBasePay(offerHourlyRate, safeWeeklyHours);
+            double overtimeAnnualPay = Math.max(0, offerHourlyRate) * 1.5 * safeOvertimeHours * 52.0;
+            double differentialAnnualPay = Math.max(0, offerHourlyRate)
+                    * ((Math.max(0, nightDiffPercent) / 100.0) * safeNightHours
+                            + (Math.max(0, weekendDiffPercent) / 100.0) * safeWeekendHours)
+                    * 52.0;
+            double offerAnnualPay = baseAnnualPay + overtimeAnnualPay + differentialAnnualPay;
+
+            ComparisonBreakdown currentBreakdown = analyzeAnnualPay(currentAnnualPay, currentCity,
+                    safeCurrentMonthlyInsurance);
+            ComparisonBreakdown offerBreakdown = analyzeAnnualPay(offerAnnualPay, offerCity,
+                    safeOfferMonthlyInsurance);
+
+            double netUpfrontValue = (Math.max(0, signOnBonus) + Math.max(0, relocationStipend)) * (1.0 - BONUS_TAX_RATE)
+                    - Math.max(0, movingCost);
+            double relocationGap = Math.max(0, Math.max(0, movingCost)
+                    - (Math.max(0, relocationStipend) * (1.0 - BONUS_TAX_RATE)));
+            double repaymentExposure = repaymentExposure(signOnBonus, relocationStipend, safeContractMonths,
+                    safePlannedStayMonths, repaymentStyle);
+            double monthlyDelta = offerBreakdown.getResidual() - currentBreakdown.getResidual();
+            double breakEvenMonths = breakEvenMonths(netUpfrontValue, repaymentExposure, monthlyDelta);
+
+            OfferRiskReport report = new OfferRiskReport();
+            report.setAnalysisMode(normalizedMode);
+            report.setAnalysisModeLabel("job_post".equals(normalizedMode) ? "Job Post Screen" : "Offer Review");
+            report.setRoleLabel(role.getTitle());
+            report.setCurrentCityName(currentCity.getCity() + ", " + currentCity.getState());
+            report.setOfferCityName(offerCity.getCity() + ", " + offerCity.getState());
+            report.setCurrentAnnualPay(currentAnnualPay);
+            report.setOfferAnnualPay(offerAnnualPay);
+            report.setBaseAnnualPay(baseAnnualPay);
+            report.setOvertimeAnnualPay(overtimeAnnualPay);
+            report.setDifferentialAnnualPay(differentialAnnualPay);
+            report.setCurrentMonthlyResidual(currentBreakdown.getResidual());
+            report.setOfferMonthlyResidual(offerBreakdown.getResidual());
+            report.setMonthlyResidualDelta(monthlyDelta);
+            report.setCurrentMonthlyInsurance(safeCurrentMonthlyInsurance);
+            report.setOfferMonthlyInsurance(safeOfferMonthlyInsurance);
+            report.setMonthlyInsuranceDelta(safeOfferMonthlyInsurance - safeCurrentMonthlyInsurance);
+            report.setSignOnBonus(Math.max(0, signOnBonus));
+            report.setRelocationStipend(Math.max(0, relocationStipend));
+            report.setMovingCost(Math.max(0, movingCost));
+            report.setEstimatedBonusTaxRate(BONUS_TAX_RATE);
+            report.setEstimatedNetUpfrontValue(netUpfrontValue);
+            report.setRelocationCoverageGap(relocationGap);
+            report.setContractMonths(safeContractMonths);
+            report.setPlannedStayMonths(safePlannedStayMonths);
+            report.setRepaymentStyle(normalizedRepaymentStyle(repaymentStyle));
+            report.setRepaymentExposure(repaymentExposure);
+            report.setBreakEvenMonths(breakEvenMonths);
+            report.setUnitTypeLabel(unitTypeLabel(unitType));
+            report.setShiftGuaranteeLabel(shiftGuaranteeLabel(shiftGuarantee));
+            report.setFloatRiskLabel(floatRiskLabel(floatRisk));
+            report.setCancelRiskLabel(cancelRiskLabel(cancelRisk));
+            report.setNurseScheduleRiskScore(nurseScheduleRiskScore(shiftGuarantee, floatRisk, cancelRisk));
+            LifeFitProfile lifeFitProfile = analyzeLifeFit(sourceText);
+            report.setLifeFitRiskScore(lifeFitProfile.score());
+            report.setLifeFitLabel(lifeFitProfile.label());
+            report.setLifeFitSummary(lifeFitProfile.summary());
+            report.setLifeFitSignals(lifeFitProfile.signals());
+            applyMarketAnchor(report, role.getSlug(), offerCity.getSlug(), offerAnnualPay);
+            applyVerdict(report);
+            report.setRedFlags(redFlags(report));
+            report.setHrQuestions(hrQuestions(report));
+            report.setNegotiationMoves(negotiationMoves(report));
+            applyDecisionSupport(report);
+            metrics.recordSince(AppMetrics.RISK_ASSESS, started, "mode", normalizedMode);
+            return report;
+        }
     }
 
     private ComparisonBreakdown analyzeAnnualPay(double annualPay, CityCostEntry city, double monthlyInsurance) {
@@ -303,43 +324,32 @@ public class OfferRiskService {
         String text = sourceText.toLowerCase(Locale.ROOT);
         int score = 0;
 
-        if (containsAny(text, "away from my family", "away from family", "far from family", "leave my family",
-                "leaving my family", "family would stay", "family will stay", "family is staying",
-                "live apart", "living apart", "separate from family", "separated from family",
-                "without my family", "two homes", "long distance", "partner stays", "spouse stays")) {
+        long matched = OfferSignal.match(text);
+        if (OfferSignal.LIFE_FAMILY_SEPARATION.in(matched)) {
             score += 4;
             signals.add("Family separation is a decision constraint, not a small lifestyle preference.");
         }
-        if (containsAny(text, "away from my kids", "leave my kids", "leaving my kids", "kids stay",
-                "kids", "childcare", "child care", "daycare", "school pickup", "kid pickup", "kids' school",
-                "my children", "single parent")) {
+        if (OfferSignal.LIFE_CHILDCARE.in(matched)) {
             score += 3;
             signals.add("Childcare or kid-schedule pressure can make a higher hourly rate fail in real life.");
         }
-        if (containsAny(text, "partner's job", "partner job", "spouse job", "spouse's job", "partner schedule",
-                "spouse schedule", "my partner", "my spouse")) {
+        if (OfferSignal.LIFE_PARTNER.in(matched)) {
             score += 2;
             signals.add("Partner or spouse constraints need a real weekly plan before the offer is safe to sign.");
         }
-        if (containsAny(text, "long commute", "commute", "traffic", "parking", "drive would be",
-                "drive is", "one hour drive", "two hour drive")) {
+        if (OfferSignal.LIFE_COMMUTE.in(matched)) {
             score += 1;
             signals.add("Commute friction can quietly erase the quality-of-life upside.");
         }
-        if (containsAny(text, "coworkers are good", "coworkers are great", "good coworkers", "great coworkers",
-                "supportive manager", "good manager", "team is good", "like my team", "love my team",
-                "current team")) {
+        if (OfferSignal.LIFE_CURRENT_TEAM.in(matched)) {
             score += 2;
             signals.add("Leaving a proven team is opportunity cost; the new unit must prove support, not just pay.");
         }
-        if (containsAny(text, "toxic", "bullying", "hostile", "unsafe", "lateral violence", "nurses eat their young",
-                "taeum", "mean girl", "cliquey", "dumpster fire", "bad culture", "no breaks", "short staffed",
-                "understaffed", "unsafe ratio", "unsafe ratios", "burnout")) {
+        if (OfferSignal.LIFE_CULTURE.in(matched)) {
             score += 4;
             signals.add("Culture, staffing, or bullying risk changes survivability; it should not be treated as a minor clause.");
         }
-        if (containsAny(text, "night shift", "nights", "rotating", "weekends", "every weekend")
-                && containsAny(text, "family", "kids", "childcare", "daycare", "partner", "spouse", "school")) {
+        if (OfferSignal.LIFE_SCHEDULE_STRAIN.in(matched) && OfferSignal.LIFE_FAMILY_CONTEXT.in(matched)) {
             score += 2;
             signals.add("Schedule strain plus family constraints is a hard-fit issue, not just shift differential math.");
         }
@@ -364,15 +374,6 @@ public class OfferRiskService {
                 signals.stream().limit(4).toList());
     }
 
-    private boolean containsAny(String text, String... patterns) {
-        for (String pattern : patterns) {
-            if (text.contains(pattern)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     private List<String> redFlags(OfferRiskReport report) {
         List<String> flags = new ArrayList<>();
         if (report.getRepaymentExposure() > 0) {
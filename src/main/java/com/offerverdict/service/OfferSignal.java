@@ -0,0 +1,77 @@
+package com.offerverdict.service;
+
+import com.offerverdict.util.PhraseMatcher;
+
+import java.util.List;
+
+/**
+ * Keyword rules read from pasted offer text, each a group of lowercase phrases of which any
+ * one is enough. All groups are compiled into a single {@link PhraseMatcher}, so a report or
+ * a parse scans the text once and then checks bits instead of re-running
+ * {@code contains} per phrase.
+ *
+ * {@code LIFE_*} rules feed {@link OfferRiskService}'s life-fit score and {@code CONCERN_*}
+ * rules feed the parser's concern signals. The groups overlap on purpose; they were tuned
+ * separately and are kept verbatim.
+ */
+enum OfferSignal {
+    LIFE_FAMILY_SEPARATION("away from my family", "away from family", "far from family", "leave my family",
+            "leaving my family", "family would stay", "family will stay", "family is staying",
+            "live apart", "living apart", "separate from family", "separated from family",
+            "without my family", "two homes", "long distance", "partner stays", "spouse stays"),
+    LIFE_CHILDCARE("away from my kids", "leave my kids", "leaving my kids", "kids stay",
+            "kids", "childcare", "child care", "daycare", "school pickup", "kid pickup", "kids' school",
+            "my children", "single parent"),
+    LIFE_PARTNER("partner's job", "partner job", "spouse job", "spouse's job", "partner schedule",
+            "spouse schedule", "my partner", "my spouse"),
+    LIFE_COMMUTE("long commute", "commute", "traffic", "parking", "drive would be",
+            "drive is", "one hour drive", "two hour drive"),
+    LIFE_CURRENT_TEAM("coworkers are good", "coworkers are great", "good coworkers", "great coworkers",
+            "supportive manager", "good manager", "team is good", "like my team", "love my team",
+            "current team"),
+    LIFE_CULTURE("toxic", "bullying", "hostile", "unsafe", "lateral violence", "nurses eat their young",
+            "taeum", "mean girl", "cliquey", "dumpster fire", "bad culture", "no breaks", "short staffed",
+            "understaffed", "unsafe ratio", "unsafe ratios", "burnout"),
+    LIFE_SCHEDULE_STRAIN("night shift", "nights", "rotating", "weekends", "every weekend"),
+    LIFE_FAMILY_CONTEXT("family", "kids", "childcare", "daycare", "partner", "spouse", "school"),
+
+    CONCERN_CULTURE("toxic culture", "bullying", "bully", "hostile culture",
+            "unsafe culture", "lateral violence", "nurses eat their young", "bad culture", "taeum",
+            "mean-girl", "mean girl", "cliquey", "dumpster fire"),
+    CONCERN_LOWER_PAY("pay cut", "lower pay", "less money", "income went down",
+            "income is lower", "take-home is lower", "take home is lower", "net pay is lower",
+            "making less", "pays less", "make less after benefits", "move cost is bigger than the bonus"),
+    CONCERN_STAFFING("short staffed", "short-staffed", "unsafe ratio", "unsafe ratios",
+            "staffing ratio", "patient load", "no breaks", "no lunch", "too many patients",
+            "ratios sound sketchy"),
+    CONCERN_TEAM_POSITIVE("good coworkers", "good co-workers", "like my coworkers",
+            "like my co-workers", "team seems good", "team is good", "coworkers are good",
+            "co-workers are good", "manager seems good", "good manager", "good preceptor",
+            "supportive team", "vibe check", "manager seems normal"),
+    CONCERN_LIFESTYLE("closer to family", "near family", "better commute",
+            "shorter commute", "school schedule", "childcare", "daycare", "kid pickup",
+            "partner", "worse for my schedule", "better for my schedule");
+
+    static final PhraseMatcher<OfferSignal> MATCHER = PhraseMatcher.compile(OfferSignal.class, OfferSignal::phrases);
+
+    private final List<String> phrases;
+
+    OfferSignal(String... phrases) {
+        this.phrases = List.of(phrases);
+    }
+
+    List<String> phrases() {
+        return phrases;
+    }
+
+    /**
+     * Matches every rule against already lowercased text; test the result with {@link #in}.
+     */
+    static long match(String lowerText) {
+        return MATCHER.matchMask(lowerText);
+    }
+
+    boolean in(long matched) {
+        return (matched & (1L << ordinal())) != 0;
+    }
+}
@@ -1,41 +1,40 @@
 package com.offerverdict.service;
 
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.CityCostEntry;
 import com.offerverdict.model.OfferRiskDraft;
 import com.offerverdict.model.OfferTextParseResult;
+import com.offerverdict.util.StageTrace;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Service
 public class OfferTextParserService {
-    private static final String HOURLY_NUMBER_CAPTURE = "(\\d{1,3}(?:,\\d{3})*(?:\\.\\d{1,2})?)";
+    private static final String HOURLY_NUMBER_CAPTURE = OfferTextTokens.HOURLY_NUMBER_CAPTURE;
+    private static final String MONEY_CAPTURE = OfferTextTokens.MONEY_CAPTURE;
     private static final Pattern CURRENT_CONTEXT = Pattern.compile(
             "\\b(current|currently|existing|today|now|my current|i make|i earn|i am|i'm|i’m|making|from|live in|work in|living in|working in|based in)\\b");
     private static final Pattern OFFER_CONTEXT = Pattern.compile(
             "\\b(offer|offered|new role|new job|position|job posting|opportunity|relocat|to|located in|assignment|base rate)\\b");
-    private static final Pattern HOURLY_RATE_PATTERN = Pattern.compile(
-            "\\$?\\s*" + HOURLY_NUMBER_CAPTURE + "\\s*(?:/\\s*(?:hr|hrs|hour)|per\\s*hour|hourly)\\b",
-            Pattern.CASE_INSENSITIVE);
     private static final Pattern LABELED_HOURLY_RATE_PATTERN = Pattern.compile(
             "\\b(?:current\\s+(?:pay|rate)|offer\\s+(?:pay|rate)|rate|base\\s+rate|compensation)\\s*[:=]?\\s*\\$?\\s*"
                     + HOURLY_NUMBER_CAPTURE
                     + "\\b(?!(?:\\.\\d)|\\d|\\s*(?:/\\s*(?:hr|hrs|hour)|per\\s*hour|hourly))",
             Pattern.CASE_INSENSITIVE);
-    private static final Pattern HOURLY_RANGE_PATTERN = Pattern.compile(
-            "\\$?\\s*" + HOURLY_NUMBER_CAPTURE
-                    + "\\s*(?:-|to|–|—)\\s*\\$?\\s*" + HOURLY_NUMBER_CAPTURE
-                    + "\\s*(?:/\\s*(?:hr|hrs|hour)|per\\s*hour|hourly)\\b",
-            Pattern.CASE_INSENSITIVE);
     private static final Pattern PAY_RANGE_MIN_MAX_PATTERN = Pattern.compile(
             "(?:pay\\s*)?(?:ra)?nge\\s*minimum\\s*:?\\s*\\$?\\s*" + HOURLY_NUMBER_CAPTURE
                     + "(?:\\s*(?:/\\s*(?:hr|hrs|hour)|per\\s*hour|hourly))?"
@@ -50,17 +49,12 @@ public class OfferTextParserService {
             "(?:pay\\s*)?(?:ra)?nge[^\\n\\r]{0,20}?max\\w*\\s*:?\\s*\\$?\\s*" + HOURLY_NUMBER_CAPTURE
                     + "(?:\\s*(?:/\\s*(?:hr|hrs|hour)|per\\s*hour|hourly))?",
             Pattern.CASE_INSENSITIVE);
-    private static final Pattern MONEY_TOKEN_PATTERN = Pattern.compile(
-            "\\$\\s*(?:\\d{1,3}(?:,\\d{3})+|\\d+)(?:\\.\\d{1,2})?(?:\\s*[kK])?|\\b\\d+(?:\\.\\d{1,2})?\\s*[kK]\\b");
-    private static final String MONEY_CAPTURE =
-            "(\\$\\s*(?:\\d{1,3}(?:,\\d{3})+|\\d+)(?:\\.\\d{1,2})?(?:\\s*[kK])?|\\b\\d+(?:\\.\\d{1,2})?\\s*[kK]\\b)";
-    private static final Pattern HOURLY_SUFFIX_PATTERN = Pattern.compile(
-            "^\\s*(?:/\\s*(?:hr|hrs|hour)|per\\s*hour|hourly)\\b",
-            Pattern.CASE_INSENSITIVE);
-    private static final Pattern MONTHS_PATTERN = Pattern.compile("\\b(\\d{1,2})\\s*-?\\s*month(?:s)?\\b",
-            Pattern.CASE_INSENSITIVE);
-    private static final Pattern HOURS_PATTERN = Pattern.compile(
-            "\\b(\\d{2})\\s*(?:hours|hrs?|h)\\s*(?:per\\s*week|/\\s*(?:week|wk)|weekly|wk)?\\b",
+    private static final Pattern BONUS_LABEL_MONEY_PATTERN = Pattern.compile(
+            "(?i)\\b(?:sign-?on|sob|retention\\s+bonus|commencement\\s+bonus|bonus)"
+                    + "(?:\\s+bonus|\\s+amount)?(?:\\s+(?:maybe|about|around|approximately))?\\s*[:=]?\\s*"
+                    + MONEY_CAPTURE);
+    private static final Pattern MONEY_BEFORE_RELOCATION_PATTERN = Pattern.compile(MONEY_CAPTURE
+            + "\\s+(?:relo|relocation(?:\\s+(?:stipend|assistance|support))?|moving\\s+reimbursement)",
             Pattern.CASE_INSENSITIVE);
     private static final Pattern THREE_TWELVES_PATTERN = Pattern.compile("\\b(?:3\\s*x\\s*12|three\\s*12)\\b",
             Pattern.CASE_INSENSITIVE);
@@ -82,19 +76,61 @@ public class OfferTextParserService {
             Pattern.CASE_INSENSITIVE);
 
     private final DataRepository repository;
+    private final AppMetrics metrics;
+    private final OfferParseCache parseCache;
 
-    public OfferTextParserService(DataRepository repository) {
+    @Autowired
+    public OfferTextParserService(DataRepository repository,
+            AppMetrics metrics,
+            @Value("${app.parseCacheSize:512}") int parseCacheSize) {
         this.repository = repository;
+        this.metrics = metrics;
+        this.parseCache = new OfferParseCache(parseCacheSize, metrics);
     }
 
+    public OfferTextParserService(DataRepository repository, AppMetrics metrics) {
+        this(repository, metrics, 0);
+    }
+
+    /**
+     * Parses pasted offer text into a draft. Repeated text, after normalization, is served from
+     * the parse cache while the repository data is unchanged; every call gets its own copy.
+     */
     public OfferTextParseResult parse(String sourceText, String analysisMode) {
+        long started = System.nanoTime();
+        try (StageTrace.Span ignored = StageTrace.span("parse")) {
+            String text = StageTrace.traced("normalize", () -> normalizeRecorded(sourceText));
+            Supplier<OfferTextParseResult> parse = () -> {
+                OfferTextParseResult result = parseText(sourceText, text, analysisMode);
+                metrics.recordSince(AppMetrics.PARSE, started, "mode", String.valueOf(result.getAnalysisMode()));
+                return result;
+            };
+            if (!parseCache.enabled()) {
+                return parse.get();
+            }
+            String mode = "job_post".equalsIgnoreCase(analysisMode) ? "job_post" : "offer_review";
+            return parseCache.get(OfferParseCache.key(text, mode, repository.getVersion()), sourceText, parse);
+        }
+    }
+
+    /**
+     * Parses without reading or filling the parse cache and without recording parse metrics,
+     * for throwaway probes such as OCR early-stop checks on partial text.
+     */
+    public OfferTextParseResult parseUncached(String sourceText, String analysisMode) {
+        try (StageTrace.Span ignored = StageTrace.span("parse")) {
+            String text = StageTrace.traced("normalize", () -> normalizeRecorded(sourceText));
+            return parseText(sourceText, text, analysisMode);
+        }
+    }
+
+    private OfferTextParseResult parseText(String sourceText, String text, String analysisMode) {
         OfferRiskDraft draft = OfferRiskDraft.parsedDefaults(sourceText, analysisMode);
         boolean jobPostMode = "job_post".equals(draft.getAnalysisMode());
         OfferTextParseResult result = new OfferTextParseResult();
         result.setAnalysisMode(draft.getAnalysisMode());
         result.setDraft(draft);
 
-        String text = normalize(sourceText);
         if (text.isBlank()) {
             result.setParsed(false);
             result.setSummary(jobPostMode
@@ -104,6 +140,7 @@ public class OfferTextParserService {
         }
 
         String lowerText = text.toLowerCase(Locale.US);
+        OfferTextTokens tokens = StageTrace.traced("tokenize", () -> OfferTextTokens.lex(text, lowerText));
         Set<String> extracted = new LinkedHashSet<>();
         List<String> missing = new ArrayList<>();
 
@@ -114,37 +151,38 @@ public class OfferTextParserService {
         boolean foundPlannedStay = false;
         boolean foundMovingCost = false;
 
-        Optional<String> roleSlug = detectRoleSlug(lowerText);
+        Optional<String> roleSlug = detector("role", () -> detectRoleSlug(lowerText));
         if (roleSlug.isPresent()) {
             draft.setRoleSlug(roleSlug.get());
             extracted.add("Role: " + readableRole(roleSlug.get()));
         }
 
-        Optional<String> unitType = detectUnitType(lowerText);
+        Optional<String> unitType = detector("unit", () -> detectUnitType(lowerText));
         if (unitType.isPresent()) {
             draft.setUnitType(unitType.get());
             extracted.add("Unit: " + readableUnit(unitType.get()));
         }
 
-        Optional<String> shiftGuarantee = detectShiftGuarantee(lowerText);
+        Optional<String> shiftGuarantee = detector("shift_guarantee", () -> detectShiftGuarantee(lowerText));
         if (shiftGuarantee.isPresent()) {
             draft.setShiftGuarantee(shiftGuarantee.get());
             extracted.add("Shift terms: " + readableShiftGuarantee(shiftGuarantee.get()));
         }
 
-        Optional<String> floatRisk = detectFloatRisk(lowerText, draft.getUnitType());
+        Optional<String> floatRisk = detector("float_risk", () -> detectFloatRisk(lowerText, draft.getUnitType()));
         if (floatRisk.isPresent()) {
             draft.setFloatRisk(floatRisk.get());
             extracted.add("Float terms: " + readableFloatRisk(floatRisk.get()));
         }
 
-        Optional<String> cancelRisk = detectCancelRisk(lowerText);
+        Optional<String> cancelRisk = detector("cancel_risk", () -> detectCancelRisk(lowerText));
         if (cancelRisk.isPresent()) {
             draft.setCancelRisk(cancelRisk.get());
             extracted.add("Cancellation terms: " + readableCancelRisk(cancelRisk.get()));
         }
 
-        CityAssignment cityAssignment = detectCities(lowerText);
+        CityAssignment cityAssignment = StageTrace.traced("detect_cities",
+                () -> detector("cities", () -> detectCities(lowerText)));
         if (cityAssignment.currentCitySlug() != null) {
             draft.setCurrentCitySlug(cityAssignment.currentCitySlug());
             extracted.add("Current city: " + cityAssignment.currentCityLabel());
@@ -156,7 +194,8 @@ public class OfferTextParserService {
             foundOfferCity = true;
         }
 
-        HourlyAssignment hourlyAssignment = detectHourlyRates(text, lowerText, jobPostMode);
+        HourlyAssignment hourlyAssignment = StageTrace.traced("detect_hourly",
+                () -> detector("hourly", () -> detectHourlyRates(tokens, jobPostMode)));
         if (hourlyAssignment.currentRate() != null) {
             draft.setCurrentHourlyRate(hourlyAssignment.currentRate());
             extracted.add("Current hourly rate: $" + dollars(hourlyAssignment.currentRate()) + "/hr");
@@ -173,31 +212,32 @@ public class OfferTextParserService {
             foundOfferRate = true;
         }
 
-        Double weeklyHours = detectWeeklyHours(text);
+        Double weeklyHours = detector("weekly_hours", () -> detectWeeklyHours(tokens));
         if (weeklyHours != null) {
             draft.setWeeklyHours(weeklyHours);
             extracted.add("Scheduled hours: " + dollars(weeklyHours) + "/week");
         }
 
-        Double nightDiffPercent = detectPercentOrDollarDiff(text, draft.getOfferHourlyRate(), NIGHT_PERCENT_PATTERN,
-                NIGHT_DOLLAR_PATTERN);
+        Double nightDiffPercent = detector("night_diff", () -> detectPercentOrDollarDiff(text,
+                draft.getOfferHourlyRate(), NIGHT_PERCENT_PATTERN, NIGHT_DOLLAR_PATTERN));
         if (nightDiffPercent != null) {
             draft.setNightDiffPercent(nightDiffPercent);
             extracted.add("Night differential: " + dollars(nightDiffPercent) + "%");
         }
 
-        Double weekendDiffPercent = detectPercentOrDollarDiff(text, draft.getOfferHourlyRate(), WEEKEND_PERCENT_PATTERN,
-                WEEKEND_DOLLAR_PATTERN);
+        Double weekendDiffPercent = detector("weekend_diff", () -> detectPercentOrDollarDiff(text,
+                draft.getOfferHourlyRate(), WEEKEND_PERCENT_PATTERN, WEEKEND_DOLLAR_PATTERN));
         if (weekendDiffPercent != null) {
             draft.setWeekendDiffPercent(weekendDiffPercent);
             extracted.add("Weekend differential: " + dollars(weekendDiffPercent) + "%");
         }
 
-        Double signOnBonus = findMoneyNearKeywords(text,
-                "sign-on", "sign on", "sob", "bonus", "retention bonus", "commencement bonus");
-        if (signOnBonus == null) {
-            signOnBonus = findMoneyAfterBonusLabel(text);
-        }
+        Double signOnBonus = detector("sign_on_bonus", () -> {
+            Double nearKeyword = findMoneyNearKeywords(tokens,
+                    OfferKeyword.SIGN_ON, OfferKeyword.SIGN_ON_SPACED, OfferKeyword.SOB, OfferKeyword.BONUS,
+                    OfferKeyword.RETENTION_BONUS, OfferKeyword.COMMENCEMENT_BONUS);
+            return nearKeyword != null ? nearKeyword : findMoneyAfterBonusLabel(text);
+        });
         if (signOnBonus != null && signOnBonus < 250) {
             result.setParseWarning(mergeWarnings(result.getParseWarning(),
                     "Potential OCR issue: ignored an unusually low sign-on amount. Review the bonus manually."));
@@ -208,60 +248,66 @@ public class OfferTextParserService {
             extracted.add("Sign-on bonus: $" + dollars(signOnBonus));
         }
 
-        Double relocationStipend = findMoneyNearKeywords(text,
-                "relo", "relocation", "relocation assistance", "relocation stipend", "moving reimbursement");
-        if (relocationStipend == null) {
-            relocationStipend = findMoneyBeforeRelocationLabel(text);
-        }
+        Double relocationStipend = detector("relocation", () -> {
+            Double nearKeyword = findMoneyNearKeywords(tokens,
+                    OfferKeyword.RELO, OfferKeyword.RELOCATION, OfferKeyword.RELOCATION_ASSISTANCE,
+                    OfferKeyword.RELOCATION_STIPEND, OfferKeyword.MOVING_REIMBURSEMENT);
+            return nearKeyword != null ? nearKeyword : findMoneyBeforeRelocationLabel(text);
+        });
         if (relocationStipend != null) {
             draft.setRelocationStipend(relocationStipend);
             extracted.add("Relocation support: $" + dollars(relocationStipend));
         }
 
-        Double movingCost = findMoneyNearKeywords(text,
-                "moving cost", "moving costs", "moving expense", "move cost", "move estimate");
+        Double movingCost = detector("moving_cost", () -> findMoneyNearKeywords(tokens,
+                OfferKeyword.MOVING_COST, OfferKeyword.MOVING_COSTS, OfferKeyword.MOVING_EXPENSE,
+                OfferKeyword.MOVE_COST, OfferKeyword.MOVE_ESTIMATE));
         if (movingCost != null) {
             draft.setMovingCost(movingCost);
             extracted.add("Moving cost: $" + dollars(movingCost));
             foundMovingCost = true;
         }
 
-        Integer contractMonths = findMonthsNearKeywords(text,
-                "commitment", "contract", "employment term", "repayment period", "service period");
+        Integer contractMonths = detector("contract_months", () -> findMonthsNearKeywords(tokens,
+                OfferKeyword.COMMITMENT, OfferKeyword.CONTRACT, OfferKeyword.EMPLOYMENT_TERM,
+                OfferKeyword.REPAYMENT_PERIOD, OfferKeyword.SERVICE_PERIOD));
         if (contractMonths != null) {
             draft.setContractMonths(contractMonths);
             extracted.add("Commitment: " + contractMonths + " months");
         }
 
-        Integer plannedStayMonths = findMonthsNearKeywords(text,
-                "plan to stay", "planning to stay", "expected stay", "stay for", "leave after");
+        Integer plannedStayMonths = detector("planned_stay", () -> findMonthsNearKeywords(tokens,
+                OfferKeyword.PLAN_TO_STAY, OfferKeyword.PLANNING_TO_STAY, OfferKeyword.EXPECTED_STAY,
+                OfferKeyword.STAY_FOR, OfferKeyword.LEAVE_AFTER));
         if (plannedStayMonths != null) {
             draft.setPlannedStayMonths(plannedStayMonths);
             extracted.add("Planned stay: " + plannedStayMonths + " months");
             foundPlannedStay = true;
         }
 
-        Optional<String> repaymentStyle = detectRepaymentStyle(lowerText);
+        Optional<String> repaymentStyle = detector("repayment_style", () -> detectRepaymentStyle(lowerText));
         if (repaymentStyle.isPresent()) {
             draft.setRepaymentStyle(repaymentStyle.get());
             extracted.add("Repayment clause: " + readableRepaymentStyle(repaymentStyle.get()));
         }
 
-        Double offerInsurance = findMoneyNearKeywords(text,
-                "insurance premium", "health insurance", "medical premium", "employee premium", "benefits premium");
+        Double offerInsurance = detector("offer_insurance", () -> findMoneyNearKeywords(tokens,
+                OfferKeyword.INSURANCE_PREMIUM, OfferKeyword.HEALTH_INSURANCE, OfferKeyword.MEDICAL_PREMIUM,
+                OfferKeyword.EMPLOYEE_PREMIUM, OfferKeyword.BENEFITS_PREMIUM));
         if (offerInsurance != null) {
             draft.setOfferMonthlyInsurance(offerInsurance);
             extracted.add("Offer insurance premium: $" + dollars(offerInsurance) + "/mo");
         }
 
-        Double currentInsurance = findMoneyNearKeywords(text,
-                "current insurance", "current premium", "my insurance", "existing insurance");
+        Double currentInsurance = detector("current_insurance", () -> findMoneyNearKeywords(tokens,
+                OfferKeyword.CURRENT_INSURANCE, OfferKeyword.CURRENT_PREMIUM, OfferKeyword.MY_INSURANCE,
+                OfferKeyword.EXISTING_INSURANCE));
         if (currentInsurance != null) {
             draft.setCurrentMonthlyInsurance(currentInsurance);
             extracted.add("Current insurance premium: $" + dollars(currentInsurance) + "/mo");
         }
 
-        List<String> concernSignals = detectConcernSignals(lowerText);
+        List<String> concernSignals = detector("concern_signals", () -> detectConcernSignals(lowerText));
         concernSignals.forEach(extracted::add);
 
         if (!foundOfferCity) {
@@ -434,30 +480,20 @@ public class OfferTextParserService {
 
     private List<String> detectConcernSignals(String lowerText) {
         List<String> signals = new ArrayList<>();
-        if (containsAny(lowerText, "toxic culture", "bullying", "bully", "hostile culture",
-                "unsafe culture", "lateral violence", "nurses eat their young", "bad culture", "taeum",
-                "mean-girl", "mean girl", "cliquey", "dumpster fire")) {
+        long matched = OfferSignal.match(lowerText);
+        if (OfferSignal.CONCERN_CULTURE.in(matched)) {
             signals.add("Concern: unit culture / bullying risk");
         }
-        if (containsAny(lowerText, "pay cut", "lower pay", "less money", "income went down",
-                "income is lower", "take-home is lower", "take home is lower", "net pay is lower",
-                "making less", "pays less", "make less after benefits", "move cost is bigger than the bonus")) {
+        if (OfferSignal.CONCERN_LOWER_PAY.in(matched)) {
             signals.add("Concern: lower take-home pay");
         }
-        if (containsAny(lowerText, "short staffed", "short-staffed", "unsafe ratio", "unsafe ratios",
-                "staffing ratio", "patient load", "no breaks", "no lunch", "too many patients",
-                "ratios sound sketchy")) {
+        if (OfferSignal.CONCERN_STAFFING.in(matched)) {
             signals.add("Concern: staffing / survivability risk");
         }
-        if (containsAny(lowerText, "good coworkers", "good co-workers", "like my coworkers",
-                "like my co-workers", "team seems good", "team is good", "coworkers are good",
-                "co-workers are good", "manager seems good", "good manager", "good preceptor",
-                "supportive team", "vibe check", "manager seems normal")) {
+        if (OfferSignal.CONCERN_TEAM_POSITIVE.in(matched)) {
             signals.add("Positive tradeoff: team / support seems strong");
         }
-        if (containsAny(lowerText, "closer to family", "near family", "better commute",
-                "shorter commute", "school schedule", "childcare", "daycare", "kid pickup",
-                "partner", "worse for my schedule", "better for my schedule")) {
+        if (OfferSignal.CONCERN_LIFESTYLE.in(matched)) {
             signals.add("Personal tradeoff: lifestyle or family fit matters");
         }
         return signals;
@@ -821,10 +857,13 @@ public class OfferTextParserService {
         return best;
     }
 
-    private HourlyAssignment detectHourlyRates(String text, String lowerText, boolean jobPostMode) {
-        HourlyRange range = detectHourlyRange(text, lowerText, jobPostMode);
-        List<NumericMention> matches = new ArrayList<>(findNumericMentions(text, HOURLY_RATE_PATTERN));
-        matches.addAll(findNumericMentions(text, LABELED_HOURLY_RATE_PATTERN));
+    private HourlyAssignment detectHourlyRates(OfferTextTokens tokens, boolean jobPostMode) {
+        HourlyRange range = detectHourlyRange(tokens, jobPostMode);
+        List<NumericMention> matches = new ArrayList<>();
+        for (OfferTextTokens.Span rate : tokens.all(OfferTextTokens.Kind.HOURLY_RATE)) {
+            matches.add(new NumericMention(rate.value(), rate.start()));
+        }
+        matches.addAll(findNumericMentions(tokens.text(), LABELED_HOURLY_RATE_PATTERN));
         matches.sort(Comparator.comparingInt(NumericMention::index));
         Double currentRate = null;
         Double offerRate = range != null ? range.selectedRate() : null;
@@ -834,21 +873,20 @@ public class OfferTextParserService {
             if (range != null && range.contains(match.value())) {
                 continue;
             }
-            String beforeRate = lowerText.substring(Math.max(0, match.index() - 32), match.index());
-            if (beforeRate.contains("premium") || beforeRate.contains("differential")
-                    || beforeRate.contains(" diff") || beforeRate.contains("shift premium")) {
+            if (tokens.containsAnyIn(match.index() - 32, match.index(),
+                    "premium", "differential", " diff", "shift premium")) {
                 continue;
             }
-            if (currentRate == null && isCurrentHourlyContext(lowerText, match.index())) {
+            if (currentRate == null && isCurrentHourlyContext(tokens, match.index())) {
                 currentRate = match.value();
                 continue;
             }
-            if (offerRate == null && isOfferHourlyContext(lowerText, match.index())) {
+            if (offerRate == null && isOfferHourlyContext(tokens, match.index())) {
                 offerRate = match.value();
                 continue;
             }
-            int currentScore = contextScore(lowerText, match.index(), CURRENT_CONTEXT);
-            int offerScore = contextScore(lowerText, match.index(), OFFER_CONTEXT);
+            int currentScore = contextScore(tokens, match.index(), CURRENT_CONTEXT);
+            int offerScore = contextScore(tokens, match.index(), OFFER_CONTEXT);
             if (currentRate == null && currentScore > offerScore) {
                 currentRate = match.value();
             } else if (offerRate == null && offerScore >= currentScore && offerScore > 0) {
@@ -874,14 +912,20 @@ public class OfferTextParserService {
                 range != null ? range.selectionWarning() : null);
     }
 
-    private HourlyRange detectHourlyRange(String text, String lowerText, boolean jobPostMode) {
+    private HourlyRange detectHourlyRange(OfferTextTokens tokens, boolean jobPostMode) {
         List<HourlyRange> ranges = new ArrayList<>();
-        HourlyRange separatedRange = detectSeparatedHourlyRange(text, lowerText);
+        HourlyRange separatedRange = detectSeparatedHourlyRange(tokens);
         if (separatedRange != null) {
             ranges.add(separatedRange);
         }
-        ranges.addAll(findHourlyRanges(text, lowerText, HOURLY_RANGE_PATTERN));
-        ranges.addAll(findHourlyRanges(text, lowerText, PAY_RANGE_MIN_MAX_PATTERN));
+        for (OfferTextTokens.Span written : tokens.all(OfferTextTokens.Kind.HOURLY_RANGE)) {
+            ranges.add(scoredRange(tokens, written.value(), written.secondValue(), written.start()));
+        }
+        Matcher minMax = PAY_RANGE_MIN_MAX_PATTERN.matcher(tokens.text());
+        while (minMax.find()) {
+            ranges.add(scoredRange(tokens, OfferTextTokens.parseHourlyNumber(minMax.group(1)),
+                    OfferTextTokens.parseHourlyNumber(minMax.group(2)), minMax.start()));
+        }
         if (ranges.isEmpty()) {
             return null;
         }
@@ -915,47 +959,40 @@ public class OfferTextParserService {
                 chosen.currentScore(), chosen.offerScore(), selectionLabel, selectionWarning);
     }
 
-    private HourlyRange detectSeparatedHourlyRange(String text, String lowerText) {
-        Matcher lowMatcher = PAY_RANGE_LOW_PATTERN.matcher(text);
-        Matcher highMatcher = PAY_RANGE_HIGH_PATTERN.matcher(text);
+    private HourlyRange detectSeparatedHourlyRange(OfferTextTokens tokens) {
+        Matcher lowMatcher = PAY_RANGE_LOW_PATTERN.matcher(tokens.text());
+        Matcher highMatcher = PAY_RANGE_HIGH_PATTERN.matcher(tokens.text());
         if (!lowMatcher.find() || !highMatcher.find()) {
             return null;
         }
 
-        double low = parseHourlyNumber(lowMatcher.group(1));
-        double high = parseHourlyNumber(highMatcher.group(1));
+        double low = OfferTextTokens.parseHourlyNumber(lowMatcher.group(1));
+        double high = OfferTextTokens.parseHourlyNumber(highMatcher.group(1));
         int index = Math.min(lowMatcher.start(), highMatcher.start());
-        String context = snippet(lowerText, index, 90);
-        int currentScore = CURRENT_CONTEXT.matcher(context).find() ? 2 : 0;
-        int offerScore = OFFER_CONTEXT.matcher(context).find() ? 2 : 0;
+        int currentScore = tokens.findsIn(CURRENT_CONTEXT, index - 90, index + 90) ? 2 : 0;
+        int offerScore = tokens.findsIn(OFFER_CONTEXT, index - 90, index + 90) ? 2 : 0;
         return new HourlyRange(Math.min(low, high), Math.max(low, high), Math.min(low, high), index,
                 currentScore, offerScore, null, null);
     }
 
-    private List<HourlyRange> findHourlyRanges(String text, String lowerText, Pattern pattern) {
-        List<HourlyRange> ranges = new ArrayList<>();
-        Matcher matcher = pattern.matcher(text);
-        while (matcher.find()) {
-            double first = parseHourlyNumber(matcher.group(1));
-            double second = parseHourlyNumber(matcher.group(2));
-            double low = Math.min(first, second);
-            double high = Math.max(first, second);
-            String context = snippet(lowerText, matcher.start(), 80);
-            int currentScore = CURRENT_CONTEXT.matcher(context).find() ? 2 : 0;
-            int offerScore = OFFER_CONTEXT.matcher(context).find() ? 2 : 0;
-            ranges.add(new HourlyRange(low, high, low, matcher.start(), currentScore, offerScore, null, null));
-        }
-        return ranges;
-    }
-
-    private Double detectWeeklyHours(String text) {
-        Matcher hoursMatcher = HOURS_PATTERN.matcher(text);
-        while (hoursMatcher.find()) {
-            String context = snippet(text.toLowerCase(Locale.US), hoursMatcher.start(), 45);
-            if (containsAny(context, "shift", "shifts") && !containsAny(context, "per week", "/week", "/wk", "weekly")) {
+    private HourlyRange scoredRange(OfferTextTokens tokens, double first, double second, int index) {
+        double low = Math.min(first, second);
+        double high = Math.max(first, second);
+        int currentScore = tokens.findsIn(CURRENT_CONTEXT, index - 80, index + 80) ? 2 : 0;
+        int offerScore = tokens.findsIn(OFFER_CONTEXT, index - 80, index + 80) ? 2 : 0;
+        return new HourlyRange(low, high, low, index, currentScore, offerScore, null, null);
+    }
+
+    private Double detectWeeklyHours(OfferTextTokens tokens) {
+        String text = tokens.text();
+        for (OfferTextTokens.Span hours : tokens.all(OfferTextTokens.Kind.WEEKLY_HOURS)) {
+            int from = hours.start() - 45;
+            int to = hours.start() + 45;
+            if (tokens.containsAnyIn(from, to, "shift", "shifts")
+                    && !tokens.containsAnyIn(from, to, "per week", "/week", "/wk", "weekly")) {
                 continue;
             }
-            return Double.parseDouble(hoursMatcher.group(1));
+            return hours.value();
         }
 
         Matcher threeTwelves = THREE_TWELVES_PATTERN.matcher(text);
@@ -998,43 +1035,34 @@ public class OfferTextParserService {
         return null;
     }
 
-    private Double findMoneyNearKeywords(String text, String... keywords) {
-        for (String keyword : keywords) {
+    private Double findMoneyNearKeywords(OfferTextTokens tokens, OfferKeyword... keywords) {
+        String text = tokens.text();
+        for (OfferKeyword keyword : keywords) {
             MoneyCandidate best = null;
-            Matcher keywordMatcher = keywordPattern(keyword).matcher(text);
-            while (keywordMatcher.find()) {
-                int keywordStart = keywordMatcher.start();
-                int keywordEnd = keywordMatcher.end();
+            for (OfferTextTokens.Span hit : tokens.keywordHits(keyword)) {
+                int keywordStart = hit.start();
+                int keywordEnd = hit.end();
                 int beforeStart = Math.max(0, keywordStart - 48);
-                Matcher beforeMatcher = MONEY_TOKEN_PATTERN.matcher(text.substring(beforeStart, keywordStart));
-                while (beforeMatcher.find()) {
-                    int absoluteStart = beforeStart + beforeMatcher.start();
-                    int absoluteEnd = beforeStart + beforeMatcher.end();
-                    if (isHourlyMoneyToken(text, absoluteEnd)) {
+                for (OfferTextTokens.Span money : tokens.startingIn(OfferTextTokens.Kind.MONEY, beforeStart, keywordStart)) {
+                    if (money.hourly() || money.end() > keywordStart) {
                         continue;
                     }
-                    String between = text.substring(beforeStart + beforeMatcher.end(), keywordStart);
-                    String beforeTokenContext = moneyLabelContextBefore(text, absoluteStart);
-                    if (between.matches("[^\\n\\r\\d$.,;:/]{0,28}")
-                            && !hasConflictingMoneyLabel(keyword, beforeTokenContext + between)) {
-                        best = closerMoney(best, parseMoneyToken(beforeMatcher.group()),
-                                keywordStart - absoluteEnd);
+                    if (isLabelGap(text, money.end(), keywordStart, 28, "\n\r0123456789$.,;:/")
+                            && !hasConflictingMoneyLabel(keyword.phrase(),
+                                    moneyLabelContextBefore(text, money.start()) + text.substring(money.end(), keywordStart))) {
+                        best = closerMoney(best, money.value(), keywordStart - money.end());
                     }
                 }
 
                 int afterEnd = Math.min(text.length(), keywordEnd + 48);
-                Matcher afterMatcher = MONEY_TOKEN_PATTERN.matcher(text.substring(keywordEnd, afterEnd));
-                while (afterMatcher.find()) {
-                    int absoluteStart = keywordEnd + afterMatcher.start();
-                    int absoluteEnd = keywordEnd + afterMatcher.end();
-                    if (isHourlyMoneyToken(text, absoluteEnd)) {
+                for (OfferTextTokens.Span money : tokens.startingIn(OfferTextTokens.Kind.MONEY, keywordEnd, afterEnd)) {
+                    if (money.hourly()) {
                         continue;
                     }
-                    String between = text.substring(keywordEnd, keywordEnd + afterMatcher.start());
-                    String afterTokenContext = moneyLabelContextAfter(text, absoluteEnd);
-                    if (between.matches("[^\\n\\r.,;]{0,40}?")
-                            && !hasConflictingMoneyLabel(keyword, between + afterTokenContext)) {
-                        best = closerMoney(best, parseMoneyToken(afterMatcher.group()), afterMatcher.start());
+                    if (isLabelGap(text, keywordEnd, money.start(), 40, "\n\r.,;")
+                            && !hasConflictingMoneyLabel(keyword.phrase(),
+                                    text.substring(keywordEnd, money.start()) + moneyLabelContextAfter(text, money.end()))) {
+                        best = closerMoney(best, money.value(), money.start() - keywordEnd);
                     }
                 }
             }
@@ -1045,24 +1073,33 @@ public class OfferTextParserService {
         return null;
     }
 
+    /**
+     * Whether {@code text[from, to)} is at most {@code maxLength} characters and contains
+     * none of {@code forbidden}: the short label gap allowed between a keyword and its amount.
+     */
+    private static boolean isLabelGap(String text, int from, int to, int maxLength, String forbidden) {
+        if (to - from > maxLength) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            if (forbidden.indexOf(text.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private Double findMoneyAfterBonusLabel(String text) {
-        Pattern pattern = Pattern.compile(
-                "(?i)\\b(?:sign-?on|sob|retention\\s+bonus|commencement\\s+bonus|bonus)"
-                        + "(?:\\s+bonus|\\s+amount)?(?:\\s+(?:maybe|about|around|approximately))?\\s*[:=]?\\s*"
-                        + MONEY_CAPTURE);
-        Matcher matcher = pattern.matcher(text);
-        return matcher.find() ? parseMoneyToken(matcher.group(1)) : null;
+        Matcher matcher = BONUS_LABEL_MONEY_PATTERN.matcher(text);
+        return matcher.find() ? OfferTextTokens.parseMoneyToken(matcher.group(1)) : null;
     }
 
     private Double findMoneyBeforeRelocationLabel(String text) {
-        Pattern pattern = Pattern.compile(MONEY_CAPTURE
-                + "\\s+(?:relo|relocation(?:\\s+(?:stipend|assistance|support))?|moving\\s+reimbursement)",
-                Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(text);
+        Matcher matcher = MONEY_BEFORE_RELOCATION_PATTERN.matcher(text);
         while (matcher.find()) {
             String before = moneyLabelContextBefore(text, matcher.start());
             if (!hasConflictingMoneyLabel("relocation", before)) {
-                return parseMoneyToken(matcher.group(1));
+                return OfferTextTokens.parseMoneyToken(matcher.group(1));
             }
         }
         return null;
@@ -1101,16 +1138,6 @@ public class OfferTextParserService {
         return delimiter >= 0 ? after.substring(0, delimiter) : after;
     }
 
-    private Pattern keywordPattern(String keyword) {
-        return Pattern.compile("(?<![A-Za-z0-9])" + Pattern.quote(keyword) + "(?![A-Za-z0-9])",
-                Pattern.CASE_INSENSITIVE);
-    }
-
-    private boolean isHourlyMoneyToken(String text, int tokenEnd) {
-        String suffix = text.substring(tokenEnd, Math.min(text.length(), tokenEnd + 16));
-        return HOURLY_SUFFIX_PATTERN.matcher(suffix).find();
-    }
-
     private MoneyCandidate closerMoney(MoneyCandidate current, double value, int distance) {
         if (current == null || distance < current.distance()
                 || (distance == current.distance() && value > current.value())) {
@@ -1119,23 +1146,23 @@ public class OfferTextParserService {
         return current;
     }
 
-    private Integer findMonthsNearKeywords(String text, String... keywords) {
-        String lowerText = text.toLowerCase(Locale.US);
-        for (String keyword : keywords) {
-            Matcher keywordMatcher = keywordPattern(keyword).matcher(lowerText);
-            while (keywordMatcher.find()) {
-                int keywordStart = keywordMatcher.start();
-                int keywordEnd = keywordMatcher.end();
-                boolean plannedStayKeyword = keyword.contains("stay") || keyword.contains("leave");
-                int beforeStart = Math.max(0, keywordStart - 48);
-                Matcher beforeMatcher = MONTHS_PATTERN.matcher(text.substring(beforeStart, keywordStart));
+    private Integer findMonthsNearKeywords(OfferTextTokens tokens, OfferKeyword... keywords) {
+        int length = tokens.text().length();
+        for (OfferKeyword keyword : keywords) {
+            for (OfferTextTokens.Span hit : tokens.keywordHits(keyword)) {
+                int keywordStart = hit.start();
+                int keywordEnd = hit.end();
+                boolean plannedStayKeyword = keyword.phrase().contains("stay") || keyword.phrase().contains("leave");
                 Integer closestBefore = null;
-                while (beforeMatcher.find()) {
-                    closestBefore = Integer.parseInt(beforeMatcher.group(1));
+                for (OfferTextTokens.Span months : tokens.startingIn(OfferTextTokens.Kind.MONTHS,
+                        Math.max(0, keywordStart - 48), keywordStart)) {
+                    if (months.end() <= keywordStart) {
+                        closestBefore = (int) months.value();
+                    }
                 }
-                Matcher afterMatcher = MONTHS_PATTERN.matcher(text.substring(keywordEnd,
-                        Math.min(text.length(), keywordEnd + 48)));
-                Integer closestAfter = afterMatcher.find() ? Integer.parseInt(afterMatcher.group(1)) : null;
+                List<OfferTextTokens.Span> after = tokens.startingIn(OfferTextTokens.Kind.MONTHS,
+                        keywordEnd, Math.min(length, keywordEnd + 48));
+                Integer closestAfter = after.isEmpty() ? null : (int) after.get(0).value();
                 if (plannedStayKeyword && closestAfter != null) {
                     return closestAfter;
                 }
@@ -1154,45 +1181,38 @@ public class OfferTextParserService {
         List<NumericMention> mentions = new ArrayList<>();
         Matcher matcher = pattern.matcher(text);
         while (matcher.find()) {
-            mentions.add(new NumericMention(parseHourlyNumber(matcher.group(1)), matcher.start()));
+            mentions.add(new NumericMention(OfferTextTokens.parseHourlyNumber(matcher.group(1)), matcher.start()));
         }
         return mentions;
     }
 
-    private int contextScore(String lowerText, int index, Pattern pattern) {
-        int beforeStart = Math.max(0, index - 90);
-        String before = lowerText.substring(beforeStart, index);
-        int afterEnd = Math.min(lowerText.length(), index + 48);
-        String after = lowerText.substring(index, afterEnd);
+    private int contextScore(OfferTextTokens tokens, int index, Pattern pattern) {
         int score = 0;
-        if (pattern.matcher(before).find()) {
+        if (tokens.findsIn(pattern, index - 90, index)) {
             score += 3;
         }
-        if (pattern.matcher(after).find()) {
+        if (tokens.findsIn(pattern, index, index + 48)) {
             score += pattern == CURRENT_CONTEXT ? 2 : 1;
         }
         return score;
     }
 
-    private boolean isCurrentHourlyContext(String lowerText, int index) {
-        String before = lowerText.substring(Math.max(0, index - 80), index);
-        String after = lowerText.substring(index, Math.min(lowerText.length(), index + 32));
-        int currentIndex = lastKeywordIndex(before, "current", "currently", "me now", "now/", "now =",
+    private boolean isCurrentHourlyContext(OfferTextTokens tokens, int index) {
+        int currentIndex = tokens.lastIndexIn(index - 80, index, "current", "currently", "me now", "now/", "now =",
                 "old:", "old job", "old rn job", "existing job", "i make", "i earn", "making");
-        int offerIndex = lastKeywordIndex(before, "offer", "offered", "new thing", "new role", "new job",
+        int offerIndex = tokens.lastIndexIn(index - 80, index, "offer", "offered", "new thing", "new role", "new job",
                 "new rn job", "new:", "base rate", "role", "posting");
         return currentIndex >= 0 && currentIndex >= offerIndex
-                || (after.contains(" now") && offerIndex < 0);
+                || (tokens.indexIn(" now", index, index + 32) >= 0 && offerIndex < 0);
     }
 
-    private boolean isOfferHourlyContext(String lowerText, int index) {
-        String before = lowerText.substring(Math.max(0, index - 80), index);
-        int currentIndex = lastKeywordIndex(before, "current", "currently", "me now", "now/", "old:",
+    private boolean isOfferHourlyContext(OfferTextTokens tokens, int index) {
+        int currentIndex = tokens.lastIndexIn(index - 80, index, "current", "currently", "me now", "now/", "old:",
                 "old job", "old rn job", "existing job", "i make", "i earn", "making");
-        int offerIndex = lastKeywordIndex(before, "offer", "offered", "new thing", "new role", "new job",
+        int offerIndex = tokens.lastIndexIn(index - 80, index, "offer", "offered", "new thing", "new role", "new job",
                 "new rn job", "new:", "base rate", "role", "posting", "nurse job", "opening", "compensation");
         return offerIndex >= 0 && offerIndex > currentIndex
-                || before.contains("from recruiter") && before.contains("new ");
+                || tokens.indexIn("from recruiter", index - 80, index) >= 0 && tokens.indexIn("new ", index - 80, index) >= 0;
     }
 
     private int lastKeywordIndex(String text, String... keywords) {
@@ -1203,28 +1223,6 @@ public class OfferTextParserService {
         return best;
     }
 
-    private List<NumericMention> findMoneyMentions(String text) {
-        List<NumericMention> mentions = new ArrayList<>();
-        Matcher matcher = MONEY_TOKEN_PATTERN.matcher(text);
-        while (matcher.find()) {
-            double value = parseMoneyToken(matcher.group());
-            if (value > 0) {
-                mentions.add(new NumericMention(value, matcher.start()));
-            }
-        }
-        return mentions;
-    }
-
-    private double parseMoneyToken(String token) {
-        String normalized = token.replace("$", "").replace(",", "").trim().toLowerCase(Locale.US);
-        boolean isThousands = normalized.endsWith("k");
-        if (isThousands) {
-            normalized = normalized.substring(0, normalized.length() - 1).trim();
-        }
-        double base = Double.parseDouble(normalized);
-        return isThousands ? base * 1000.0 : base;
-    }
-
     private int findPhrase(String text, String phrase) {
         Matcher matcher = phrasePattern(phrase).matcher(text);
         return matcher.find() ? matcher.start() : -1;
@@ -1251,10 +1249,6 @@ public class OfferTextParserService {
         return false;
     }
 
-    private double parseHourlyNumber(String token) {
-        return Double.parseDouble(token.replace(",", "").trim());
-    }
-
     private boolean containsPhrase(String text, String phrase) {
         return findPhrase(text, phrase) >= 0;
     }
@@ -1355,6 +1349,52 @@ public class OfferTextParserService {
                 || context.contains(" fte");
     }
 
+    /**
+     * Runs one detector, emitting a {@link DiagnosticEvents.ParserDetector} event when a
+     * flight recording has it enabled.
+     */
+    private static <T> T detector(String name, Supplier<T> detector) {
+        DiagnosticEvents.ParserDetector event = new DiagnosticEvents.ParserDetector();
+        event.begin();
+        T found = detector.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.detector = name;
+            event.matched = matched(found);
+            event.commit();
+        }
+        return found;
+    }
+
+    private static boolean matched(Object found) {
+        if (found instanceof Optional<?> optional) {
+            return optional.isPresent();
+        }
+        if (found instanceof Collection<?> collection) {
+            return !collection.isEmpty();
+        }
+        if (found instanceof CityAssignment cities) {
+            return cities.currentCitySlug() != null || cities.offerCitySlug() != null;
+        }
+        if (found instanceof HourlyAssignment hourly) {
+            return hourly.currentRate() != null || hourly.offerRate() != null;
+        }
+        return found != null;
+    }
+
+    private String normalizeRecorded(String sourceText) {
+        DiagnosticEvents.TextNormalize event = new DiagnosticEvents.TextNormalize();
+        event.begin();
+        String normalized = normalize(sourceText);
+        event.end();
+        if (event.shouldCommit()) {
+            event.inputLength = sourceText == null ? 0 : sourceText.length();
+            event.outputLength = normalized.length();
+            event.commit();
+        }
+        return normalized;
+    }
+
     private String normalize(String sourceText) {
         if (sourceText == null) {
             return "";
@@ -0,0 +1,576 @@
+package com.offerverdict.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Typed numeric spans and keyword hits of one normalized offer text, found in a single
+ * forward pass.
+ *
+ * The lexer visits each character once. It steps {@link OfferKeyword#MATCHER} on the ASCII
+ * lowercased character, and where a number can start it runs hand-written matchers for each
+ * grammar that has not already matched past that offset. The grammars are written down as
+ * the {@link Kind} patterns; the matchers follow the patterns' backtracking order, so the spans
+ * are exactly what a separate {@code find()} loop per pattern would return, which
+ * {@code OfferTextTokensTest} checks. Detectors then query spans by offset and read context
+ * through matcher regions and bounded {@code indexOf} calls instead of copying substrings.
+ */
+final class OfferTextTokens {
+
+    static final String HOURLY_NUMBER_CAPTURE = "(\\d{1,3}(?:,\\d{3})*(?:\\.\\d{1,2})?)";
+    static final String MONEY_CAPTURE =
+            "(\\$\\s*(?:\\d{1,3}(?:,\\d{3})+|\\d+)(?:\\.\\d{1,2})?(?:\\s*[kK])?|\\b\\d+(?:\\.\\d{1,2})?\\s*[kK]\\b)";
+
+    private static final String RATE_SUFFIX = "(?:/\\s*(?:hr|hrs|hour)|per\\s*hour|hourly)\\b";
+    private static final String[] RATE_UNITS = {"hr", "hrs", "hour"};
+    private static final String[] WEEKLY_HOUR_UNITS = {"hours", "hrs", "hr", "h"};
+    private static final String[] WEEK_UNITS = {"week", "wk"};
+    private static final String[] WEEK_SUFFIXES = {"weekly", "wk"};
+    /** How far past an amount {@link Span#hourly()} looks for a rate suffix. */
+    private static final int HOURLY_SUFFIX_WINDOW = 16;
+
+    enum Kind {
+        /** {@code $1,500}, {@code $2.5k}, {@code 10k}; {@link Span#hourly()} marks a trailing rate suffix. */
+        MONEY("\\$\\s*(?:\\d{1,3}(?:,\\d{3})+|\\d+)(?:\\.\\d{1,2})?(?:\\s*[kK])?|\\b\\d+(?:\\.\\d{1,2})?\\s*[kK]\\b"),
+        /** {@code $42.50/hr}, {@code 45 per hour}; value is the rate. */
+        HOURLY_RATE("\\$?\\s*" + HOURLY_NUMBER_CAPTURE + "\\s*" + RATE_SUFFIX),
+        /** {@code $40 - $52/hr}; value and second value are the two ends as written. */
+        HOURLY_RANGE("\\$?\\s*" + HOURLY_NUMBER_CAPTURE
+                + "\\s*(?:-|to|–|—)\\s*\\$?\\s*" + HOURLY_NUMBER_CAPTURE + "\\s*" + RATE_SUFFIX),
+        /** {@code 24 months}, {@code 18-month}. */
+        MONTHS("\\b(\\d{1,2})\\s*-?\\s*month(?:s)?\\b"),
+        /** {@code 36 hours/week}, {@code 40 hrs}. */
+        WEEKLY_HOURS("\\b(\\d{2})\\s*(?:hours|hrs?|h)\\s*(?:per\\s*week|/\\s*(?:week|wk)|weekly|wk)?\\b"),
+        /** An {@link OfferKeyword} occurrence, see {@link #keywordHits}. */
+        KEYWORD(null);
+
+        private final Pattern pattern;
+
+        Kind(String regex) {
+            this.pattern = regex == null ? null : Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+        }
+
+        /**
+         * The grammar this kind's spans follow, as the {@code find()} loop they must agree with.
+         */
+        Pattern pattern() {
+            return pattern;
+        }
+    }
+
+    static final Kind[] LEXED = {
+            Kind.MONEY, Kind.HOURLY_RATE, Kind.HOURLY_RANGE, Kind.MONTHS, Kind.WEEKLY_HOURS
+    };
+
+    record Span(Kind kind, int start, int end, double value, double secondValue, boolean hourly) {
+    }
+
+    private final String text;
+    private final String lowerText;
+    private final Map<Kind, List<Span>> spans;
+    private final Map<OfferKeyword, List<Span>> keywordHits;
+
+    private OfferTextTokens(String text, String lowerText, Map<Kind, List<Span>> spans,
+            Map<OfferKeyword, List<Span>> keywordHits) {
+        this.text = text;
+        this.lowerText = lowerText;
+        this.spans = spans;
+        this.keywordHits = keywordHits;
+    }
+
+    static OfferTextTokens lex(String text, String lowerText) {
+        Map<Kind, List<Span>> spans = new EnumMap<>(Kind.class);
+        for (Kind kind : LEXED) {
+            spans.put(kind, new ArrayList<>());
+        }
+        Map<OfferKeyword, List<Span>> keywordHits = new EnumMap<>(OfferKeyword.class);
+        int[] keywordResumeAt = new int[OfferKeyword.values().length];
+        int[] resumeAt = new int[LEXED.length];
+        Lexer lexer = new Lexer(text);
+        int keywordState = OfferKeyword.MATCHER.initialState();
+
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            keywordState = OfferKeyword.MATCHER.next(keywordState, asciiLower(c));
+            long ending = OfferKeyword.MATCHER.endingAt(keywordState);
+            for (long bits = ending; bits != 0; bits &= bits - 1) {
+                OfferKeyword keyword = OfferKeyword.ofOrdinal(Long.numberOfTrailingZeros(bits));
+                int start = i + 1 - keyword.phrase().length();
+                if (start >= keywordResumeAt[keyword.ordinal()] && !lexer.asciiAlnumAt(start - 1)
+                        && !lexer.asciiAlnumAt(i + 1)) {
+                    keywordResumeAt[keyword.ordinal()] = i + 1;
+                    keywordHits.computeIfAbsent(keyword, k -> new ArrayList<>())
+                            .add(new Span(Kind.KEYWORD, start, i + 1, 0, 0, false));
+                }
+            }
+
+            boolean digit = isDigit(c);
+            boolean dollar = c == '$';
+            boolean spaceBeforeDigit = !digit && !dollar && isRegexSpace(c) && digitAfterSpaces(text, i);
+            if (!digit && !dollar && !spaceBeforeDigit) {
+                continue;
+            }
+            for (int k = 0; k < LEXED.length; k++) {
+                if (i < resumeAt[k]) {
+                    continue;
+                }
+                Span span = switch (LEXED[k]) {
+                    case MONEY -> spaceBeforeDigit ? null : lexer.money(i);
+                    case HOURLY_RATE -> lexer.hourlyRate(i);
+                    case HOURLY_RANGE -> lexer.hourlyRange(i);
+                    case MONTHS -> digit ? lexer.months(i) : null;
+                    case WEEKLY_HOURS -> digit ? lexer.weeklyHours(i) : null;
+                    case KEYWORD -> null;
+                };
+                if (span != null) {
+                    resumeAt[k] = Math.max(i + 1, span.end());
+                    spans.get(LEXED[k]).add(span);
+                }
+            }
+        }
+        return new OfferTextTokens(text, lowerText, spans, keywordHits);
+    }
+
+    /**
+     * Anchored matchers for the {@link Kind} grammars. Each returns the span starting exactly
+     * at the given offset, or null. Where a grammar could backtrack into a different match,
+     * the alternatives are tried in the pattern's order; everywhere else the greedy reading
+     * is the only one that can succeed.
+     */
+    private static final class Lexer {
+
+        private final String text;
+        private final int length;
+
+        Lexer(String text) {
+            this.text = text;
+            this.length = text.length();
+        }
+
+        /** {@code \$\s*(?:\d{1,3}(?:,\d{3})+|\d+)(?:\.\d{1,2})?(?:\s*[kK])?} or {@code \b\d+(?:\.\d{1,2})?\s*[kK]\b}. */
+        Span money(int start) {
+            int end;
+            if (text.charAt(start) == '$') {
+                int digits = spaces(start + 1, length);
+                if (!digitAt(digits)) {
+                    return null;
+                }
+                int run = digitsFrom(digits);
+                end = run - digits <= 3 ? thousandsGroups(run) : run;
+                end = decimals(end);
+                int k = spaces(end, length);
+                if (k < length && (text.charAt(k) == 'k' || text.charAt(k) == 'K')) {
+                    end = k + 1;
+                }
+            } else {
+                if (!boundary(start, 0, length)) {
+                    return null;
+                }
+                int run = digitsFrom(start);
+                end = -1;
+                if (run < length && text.charAt(run) == '.' && digitAt(run + 1)) {
+                    if (digitAt(run + 2)) {
+                        end = thousandsSuffix(run + 3);
+                    }
+                    if (end < 0) {
+                        end = thousandsSuffix(run + 2);
+                    }
+                }
+                if (end < 0) {
+                    end = thousandsSuffix(run);
+                }
+                if (end < 0) {
+                    return null;
+                }
+            }
+            int window = Math.min(length, end + HOURLY_SUFFIX_WINDOW);
+            boolean hourly = rateSuffix(spaces(end, window), end, window) >= 0;
+            return new Span(Kind.MONEY, start, end, parseMoneyToken(text.substring(start, end)), 0, hourly);
+        }
+
+        /** {@code \$?\s*} hourly number {@code \s*} rate suffix. */
+        Span hourlyRate(int start) {
+            int number = spaces(text.charAt(start) == '$' ? start + 1 : start, length);
+            int numberEnd = hourlyNumber(number);
+            if (numberEnd < 0) {
+                return null;
+            }
+            int end = rateSuffix(spaces(numberEnd, length), 0, length);
+            if (end < 0) {
+                return null;
+            }
+            return new Span(Kind.HOURLY_RATE, start, end,
+                    parseHourlyNumber(text.substring(number, numberEnd)), 0, true);
+        }
+
+        /** Two hourly numbers joined by {@code -}, {@code to}, an en or an em dash, then a rate suffix. */
+        Span hourlyRange(int start) {
+            int low = spaces(text.charAt(start) == '$' ? start + 1 : start, length);
+            int lowEnd = hourlyNumber(low);
+            if (lowEnd < 0) {
+                return null;
+            }
+            int separator = spaces(lowEnd, length);
+            int afterSeparator;
+            if (separator < length && "-–—".indexOf(text.charAt(separator)) >= 0) {
+                afterSeparator = separator + 1;
+            } else if (literalAt(separator, "to", length)) {
+                afterSeparator = separator + 2;
+            } else {
+                return null;
+            }
+            int high = spaces(afterSeparator, length);
+            if (high < length && text.charAt(high) == '$') {
+                high = spaces(high + 1, length);
+            }
+            int highEnd = hourlyNumber(high);
+            if (highEnd < 0) {
+                return null;
+            }
+            int end = rateSuffix(spaces(highEnd, length), 0, length);
+            if (end < 0) {
+                return null;
+            }
+            return new Span(Kind.HOURLY_RANGE, start, end, parseHourlyNumber(text.substring(low, lowEnd)),
+                    parseHourlyNumber(text.substring(high, highEnd)), true);
+        }
+
+        /** {@code \b(\d{1,2})\s*-?\s*month(?:s)?\b}. */
+        Span months(int start) {
+            int digitsEnd = digitsFrom(start);
+            if (digitsEnd - start > 2 || !boundary(start, 0, length)) {
+                return null;
+            }
+            int word = spaces(digitsEnd, length);
+            if (word < length && text.charAt(word) == '-') {
+                word = spaces(word + 1, length);
+            }
+            if (!literalAt(word, "month", length)) {
+                return null;
+            }
+            int end = word + 5;
+            if (literalAt(end, "s", length) && boundary(end + 1, 0, length)) {
+                end++;
+            } else if (!boundary(end, 0, length)) {
+                return null;
+            }
+            return new Span(Kind.MONTHS, start, end, Integer.parseInt(text, start, digitsEnd, 10), 0, false);
+        }
+
+        /** {@code \b(\d{2})\s*(?:hours|hrs?|h)\s*(?:per\s*week|/\s*(?:week|wk)|weekly|wk)?\b}. */
+        Span weeklyHours(int start) {
+            if (digitsFrom(start) != start + 2 || !boundary(start, 0, length)) {
+                return null;
+            }
+            int unit = spaces(start + 2, length);
+            for (String unitWord : WEEKLY_HOUR_UNITS) {
+                if (!literalAt(unit, unitWord, length)) {
+                    continue;
+                }
+                int unitEnd = unit + unitWord.length();
+                int per = spaces(unitEnd, length);
+                int end = perWeek(per);
+                if (end < 0 && boundary(per, 0, length)) {
+                    end = per;
+                }
+                // Giving back the spaces only helps at the unit itself: between two spaces there is no \b.
+                if (end < 0 && per > unitEnd && boundary(unitEnd, 0, length)) {
+                    end = unitEnd;
+                }
+                if (end >= 0) {
+                    return new Span(Kind.WEEKLY_HOURS, start, end, Integer.parseInt(text, start, start + 2, 10),
+                            0, false);
+                }
+            }
+            return null;
+        }
+
+        /** {@code (?:per\s*week|/\s*(?:week|wk)|weekly|wk)\b} at {@code from}, or -1. */
+        private int perWeek(int from) {
+            if (literalAt(from, "per", length)) {
+                int week = spaces(from + 3, length);
+                return literalAt(week, "week", length) && boundary(week + 4, 0, length) ? week + 4 : -1;
+            }
+            if (from < length && text.charAt(from) == '/') {
+                return unitAt(spaces(from + 1, length), WEEK_UNITS, 0, length);
+            }
+            return unitAt(from, WEEK_SUFFIXES, 0, length);
+        }
+
+        /** {@code (?:/\s*(?:hr|hrs|hour)|per\s*hour|hourly)\b} at {@code from} within {@code [lower, upper)}, or -1. */
+        private int rateSuffix(int from, int lower, int upper) {
+            if (from < upper && text.charAt(from) == '/') {
+                return unitAt(spaces(from + 1, upper), RATE_UNITS, lower, upper);
+            }
+            if (literalAt(from, "per", upper)) {
+                int hour = spaces(from + 3, upper);
+                return literalAt(hour, "hour", upper) && boundary(hour + 4, lower, upper) ? hour + 4 : -1;
+            }
+            return literalAt(from, "hourly", upper) && boundary(from + 6, lower, upper) ? from + 6 : -1;
+        }
+
+        /** End of the first of {@code words} at {@code from} that is followed by a word boundary, or -1. */
+        private int unitAt(int from, String[] words, int lower, int upper) {
+            for (String word : words) {
+                int end = from + word.length();
+                if (literalAt(from, word, upper) && boundary(end, lower, upper)) {
+                    return end;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * End of {@code \d{1,3}(?:,\d{3})*(?:\.\d{1,2})?} at {@code from}, or -1. Every grammar
+         * continues it with a space, separator or suffix, so a fourth leading digit can never match.
+         */
+        private int hourlyNumber(int from) {
+            if (!digitAt(from)) {
+                return -1;
+            }
+            int run = digitsFrom(from);
+            return run - from > 3 ? -1 : decimals(thousandsGroups(run));
+        }
+
+        /** After any number of {@code ,\d{3}} groups starting at {@code from}. */
+        private int thousandsGroups(int from) {
+            int end = from;
+            while (end + 3 < length && text.charAt(end) == ',' && digitAt(end + 1) && digitAt(end + 2)
+                    && digitAt(end + 3)) {
+                end += 4;
+            }
+            return end;
+        }
+
+        /** After {@code (?:\.\d{1,2})?} at {@code from}, taking two digits when there are. */
+        private int decimals(int from) {
+            if (from < length && text.charAt(from) == '.' && digitAt(from + 1)) {
+                return digitAt(from + 2) ? from + 3 : from + 2;
+            }
+            return from;
+        }
+
+        /** End of {@code \s*[kK]\b} at {@code from}, or -1. */
+        private int thousandsSuffix(int from) {
+            int k = spaces(from, length);
+            return k < length && (text.charAt(k) == 'k' || text.charAt(k) == 'K') && boundary(k + 1, 0, length)
+                    ? k + 1 : -1;
+        }
+
+        private int digitsFrom(int from) {
+            int end = from;
+            while (digitAt(end)) {
+                end++;
+            }
+            return end;
+        }
+
+        private boolean digitAt(int index) {
+            return index < length && isDigit(text.charAt(index));
+        }
+
+        boolean asciiAlnumAt(int index) {
+            if (index < 0 || index >= length) {
+                return false;
+            }
+            char c = asciiLower(text.charAt(index));
+            return (c >= 'a' && c <= 'z') || isDigit(c);
+        }
+
+        private int spaces(int from, int upper) {
+            int end = from;
+            while (end < upper && isRegexSpace(text.charAt(end))) {
+                end++;
+            }
+            return end;
+        }
+
+        /** Whether lowercase ASCII {@code word} occurs at {@code from} ignoring ASCII case, ending by {@code upper}. */
+        private boolean literalAt(int from, String word, int upper) {
+            if (from + word.length() > upper) {
+                return false;
+            }
+            for (int i = 0; i < word.length(); i++) {
+                if (asciiLower(text.charAt(from + i)) != word.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Regex {@code \b} at {@code index} for a matcher bounded by {@code [lower, upper)}:
+         * letters, digits and {@code _} are word characters, and so is a non-spacing mark on one.
+         */
+        private boolean boundary(int index, int lower, int upper) {
+            boolean left = index > lower && isWordBefore(index, lower);
+            boolean right = index < upper && isWordAt(index, lower);
+            return left != right;
+        }
+
+        private boolean isWordBefore(int index, int lower) {
+            int ch = Character.codePointBefore(text, index);
+            return isWord(ch) || (Character.getType(ch) == Character.NON_SPACING_MARK
+                    && hasBaseCharacter(index - 1, lower));
+        }
+
+        private boolean isWordAt(int index, int lower) {
+            int ch = Character.codePointAt(text, index);
+            return isWord(ch) || (Character.getType(ch) == Character.NON_SPACING_MARK
+                    && hasBaseCharacter(index, lower));
+        }
+
+        private boolean hasBaseCharacter(int index, int lower) {
+            for (int i = index; i >= lower; i--) {
+                int ch = Character.codePointAt(text, i);
+                if (Character.isLetterOrDigit(ch)) {
+                    return true;
+                }
+                if (Character.getType(ch) != Character.NON_SPACING_MARK) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isWord(int ch) {
+            return ch == '_' || Character.isLetterOrDigit(ch);
+        }
+    }
+
+    String text() {
+        return text;
+    }
+
+    String lowerText() {
+        return lowerText;
+    }
+
+    List<Span> all(Kind kind) {
+        return Collections.unmodifiableList(spans.get(kind));
+    }
+
+    /**
+     * Spans of {@code kind} starting in {@code [from, to)}, in text order.
+     */
+    List<Span> startingIn(Kind kind, int from, int to) {
+        List<Span> list = spans.get(kind);
+        int first = firstStartingAtOrAfter(list, from);
+        int last = firstStartingAtOrAfter(list, to);
+        return first >= last ? List.of() : Collections.unmodifiableList(list.subList(first, last));
+    }
+
+    /**
+     * Occurrences of {@code keyword}, matched case-insensitively and not touching another
+     * letter or digit, in text order.
+     */
+    List<Span> keywordHits(OfferKeyword keyword) {
+        return keywordHits.getOrDefault(keyword, List.of());
+    }
+
+    /**
+     * Whether {@code pattern} finds a match in {@code [from, to)} of the lowercased text, with
+     * the window's edges treated as the ends of the input, like matching a substring.
+     */
+    boolean findsIn(Pattern pattern, int from, int to) {
+        return pattern.matcher(lowerText).region(clamp(from), clamp(to)).find();
+    }
+
+    /**
+     * Whether any needle occurs entirely inside {@code [from, to)} of the lowercased text.
+     */
+    boolean containsAnyIn(int from, int to, String... needles) {
+        for (String needle : needles) {
+            if (indexIn(needle, from, to) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Offset of the first occurrence of {@code needle} inside {@code [from, to)} of the
+     * lowercased text, or -1.
+     */
+    int indexIn(String needle, int from, int to) {
+        int found = lowerText.indexOf(needle, clamp(from));
+        return found >= 0 && found + needle.length() <= clamp(to) ? found : -1;
+    }
+
+    /**
+     * Offset of the last occurrence of any needle inside {@code [from, to)} of the lowercased
+     * text, or -1.
+     */
+    int lastIndexIn(int from, int to, String... needles) {
+        int start = clamp(from);
+        int end = clamp(to);
+        int best = -1;
+        for (String needle : needles) {
+            int found = lowerText.lastIndexOf(needle, end - needle.length());
+            if (found >= start) {
+                best = Math.max(best, found);
+            }
+        }
+        return best;
+    }
+
+    static double parseMoneyToken(String token) {
+        String normalized = token.replace("$", "").replace(",", "").trim().toLowerCase(Locale.US);
+        boolean isThousands = normalized.endsWith("k");
+        if (isThousands) {
+            normalized = normalized.substring(0, normalized.length() - 1).trim();
+        }
+        double base = Double.parseDouble(normalized);
+        return isThousands ? base * 1000.0 : base;
+    }
+
+    static double parseHourlyNumber(String token) {
+        return Double.parseDouble(token.replace(",", "").trim());
+    }
+
+    private int clamp(int offset) {
+        return Math.max(0, Math.min(lowerText.length(), offset));
+    }
+
+    private static int firstStartingAtOrAfter(List<Span> list, int offset) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (list.get(mid).start() < offset) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /** Lowercases ASCII letters only, like a case-insensitive pattern without the Unicode flag. */
+    private static char asciiLower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /** Matches regex {@code \s} without the Unicode flag. */
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean digitAfterSpaces(String text, int index) {
+        int i = index;
+        while (i < text.length() && isRegexSpace(text.charAt(i))) {
+            i++;
+        }
+        return i < text.length() && isDigit(text.charAt(i));
+    }
+}
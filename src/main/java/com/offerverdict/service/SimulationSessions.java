@@ -0,0 +1,99 @@
+package com.offerverdict.service;
+
+import com.offerverdict.model.ComparisonBreakdown;
+import com.offerverdict.model.HouseholdType;
+import com.offerverdict.model.HousingType;
+import com.offerverdict.model.SimulationForm;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived, bounded store of simulation lab computations, keyed by an opaque random token
+ * handed to the client, so a slider move can send only the fields that changed and reuse the
+ * current-city breakdown it did not touch.
+ *
+ * A session remembers the full form (to merge changes into) and the current-city breakdown
+ * with the inputs it was computed from. Sessions expire {@code ttlNanos} after they were
+ * stored; the least recently used go first when the store is full, and a run that continues
+ * a session replaces it, so one slider drag holds one session rather than one per move. Tokens are random rather
+ * than derived from the form, so they cannot be used to recover someone else's salaries.
+ */
+final class SimulationSessions {
+
+    /** Everything the current-city breakdown depends on, including the data version. */
+    record CurrentSideKey(String citySlug, double salary, HouseholdType householdType, HousingType housingType,
+            Boolean isMarried, Double fourOhOneKRate, Double monthlyInsurance, double studentLoanOrChildcare,
+            long dataVersion) {
+    }
+
+    record Session(SimulationForm form, CurrentSideKey currentKey, ComparisonBreakdown current, long expiresAtNanos) {
+    }
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int maxSessions;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    // Guarded by this.
+    private final LinkedHashMap<String, Session> sessions;
+
+    SimulationSessions(int maxSessions, long ttlNanos, LongSupplier clock) {
+        this.maxSessions = Math.max(0, maxSessions);
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+        this.sessions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                return size() > SimulationSessions.this.maxSessions;
+            }
+        };
+    }
+
+    boolean enabled() {
+        return maxSessions > 0 && ttlNanos > 0;
+    }
+
+    /**
+     * The live session for {@code token}, or null when it is unknown or expired.
+     */
+    synchronized Session get(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session != null && clock.getAsLong() - session.expiresAtNanos() >= 0) {
+            sessions.remove(token);
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * Stores a session and returns its new token, or null when sessions are disabled. The
+     * session under {@code supersededToken}, if any, is dropped in the same step.
+     */
+    String put(String supersededToken, SimulationForm form, CurrentSideKey currentKey, ComparisonBreakdown current) {
+        if (!enabled()) {
+            return null;
+        }
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        Session session = new Session(form, currentKey, current, clock.getAsLong() + ttlNanos);
+        synchronized (this) {
+            if (supersededToken != null) {
+                sessions.remove(supersededToken);
+            }
+            sessions.put(token, session);
+        }
+        return token;
+    }
+
+    synchronized int size() {
+        return sessions.size();
+    }
+}
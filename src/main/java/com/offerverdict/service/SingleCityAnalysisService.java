@@ -1,8 +1,10 @@
 package com.offerverdict.service;
 
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.config.AppProperties;
 import com.offerverdict.model.AuthoritativeMetrics;
 import com.offerverdict.model.CityCostEntry;
+import com.offerverdict.model.CityCostProfile;
 import com.offerverdict.model.ComparisonBreakdown;
 import com.offerverdict.model.HouseholdType;
 import com.offerverdict.model.HousingType;
@@ -10,17 +12,24 @@ import org.springframework.stereotype.Service;
 
 @Service
 public class SingleCityAnalysisService {
+    public static final double FAMILY_COST_MULTIPLIER = 1.4;
+    /** Transport cost kept when remote, or when commuting without a car. */
+    public static final double TRANSIT_TRANSPORT_FACTOR = 0.3;
+    public static final double PARENTS_HOUSING_MONTHLY = 300.0;
 
     private final TaxCalculatorService taxCalculatorService;
     private final FinancialEngine financialEngine;
     private final AppProperties appProperties;
+    private final AppMetrics appMetrics;
 
     public SingleCityAnalysisService(TaxCalculatorService taxCalculatorService,
             FinancialEngine financialEngine,
-            AppProperties appProperties) {
+            AppProperties appProperties,
+            AppMetrics appMetrics) {
         this.taxCalculatorService = taxCalculatorService;
         this.financialEngine = financialEngine;
         this.appProperties = appProperties;
+        this.appMetrics = appMetrics;
     }
 
     public ComparisonBreakdown analyze(double salary,
@@ -41,14 +50,11 @@ public class SingleCityAnalysisService {
             double equityMultiplier,
             double commuteTime) {
 
-        // Safety check for metrics
         if (metrics == null) {
-            // Log warning or use fallback if possible (currently just creating empty
-            // structure to avoid NPE)
-            metrics = new AuthoritativeMetrics();
-            // Ideally we should log this: Logger.warn("Metrics are null in
-            // SingleCityAnalysisService");
+            // Without authoritative data the profile falls back to the central tax data and defaults.
+            appMetrics.fallback("analysis_empty_authoritative_metrics");
         }
+        CityCostProfile profile = financialEngine.costProfile(city, metrics);
 
         TaxCalculatorService.TaxResult taxResult = taxCalculatorService.calculateTax(
                 salary,
@@ -67,25 +73,22 @@ public class SingleCityAnalysisService {
             taxResult.setFederalTax(salary * 0.20);
             taxResult.setStateTax(salary * 0.05);
             taxResult.setFicaTax(0.0);
+            appMetrics.fallback("analysis_flat_tax_estimate");
         }
 
         double netAnnual = taxResult.getNetIncome();
 
         // --- NEW AUTHORITATIVE ENRICHMENT ---
-        double localTaxAnnual = 0.0;
-        try {
-            localTaxAnnual = financialEngine.calculateLocalTax(salary, city.getSlug(), metrics);
-        } catch (Exception e) {
-            // Ignore local tax error
-            localTaxAnnual = 0.0;
+        double localTaxAnnual = salary * profile.localTaxRate();
+        if (profile.localTaxFallback()) {
+            appMetrics.fallback("analysis_local_tax_zero");
         }
 
         double insuranceAnnual = 0.0;
         if (isCarOwner) {
-            try {
-                insuranceAnnual = financialEngine.calculateCarInsurance(city.getState(), metrics);
-            } catch (Exception e) {
-                insuranceAnnual = 1500.0; // Fallback
+            insuranceAnnual = profile.carInsuranceAnnual();
+            if (profile.carInsuranceFallback()) {
+                appMetrics.fallback("analysis_default_car_insurance");
             }
         }
 
@@ -98,13 +101,13 @@ public class SingleCityAnalysisService {
 
         // Commute Time-Value Cost
 
-        double householdMultiplier = householdType == HouseholdType.FAMILY ? 1.4 : 1.0;
+        double householdMultiplier = householdType == HouseholdType.FAMILY ? FAMILY_COST_MULTIPLIER : 1.0;
 
         double rent;
         double housingCost = 0.0;
 
         // Use CityCost.json data directly
-        double cityAvgRent = city.getAvgRent() > 0 ? city.getAvgRent() : 2000.0; // Fallback
+        double cityAvgRent = profile.rent();
 
         switch (housingType) {
             case RENT:
@@ -112,22 +115,22 @@ public class SingleCityAnalysisService {
                 break;
             case OWN:
                 rent = 0.0;
-                housingCost = (city.getAvgHousePrice() * 0.015) / 12.0;
+                housingCost = profile.ownHousingMonthly();
                 break;
             case PARENTS:
                 rent = 0.0;
-                housingCost = 300.0;
+                housingCost = PARENTS_HOUSING_MONTHLY;
                 break;
             default:
                 rent = cityAvgRent;
         }
 
-        double livingCost = calculateLivingCost(city, householdType);
+        double livingCost;
         double groceries, transport, utilities, misc;
 
-        if (city.getDetails() != null && !city.getDetails().isEmpty()) {
-            groceries = city.getDetails().getOrDefault("groceries", 0.0) * householdMultiplier;
-            transport = city.getDetails().getOrDefault("transport", 0.0) * householdMultiplier;
+        if (profile.detailed()) {
+            groceries = profile.groceries() * householdMultiplier;
+            transport = profile.transport() * householdMultiplier;
 
             // Add Commute Cost: Assume $0.50 per minute of commute (gas/wear) monthly
             // e.g. 30min * 2 ways * 22 days = 1320 mins -> but this logic is per minute of
@@ -140,27 +143,29 @@ public class SingleCityAnalysisService {
                 transport += (commuteTime * appProperties.getCommuteCostPerMinute());
             }
 
-            utilities = city.getDetails().getOrDefault("utilities", 0.0) * householdMultiplier;
-            misc = city.getDetails().getOrDefault("misc", 0.0) * householdMultiplier;
+            utilities = profile.utilities() * householdMultiplier;
+            misc = profile.misc() * householdMultiplier;
 
             // Remote Work Discount (70% reduction in transport)
             if (isRemote) {
-                transport *= 0.3;
+                transport *= TRANSIT_TRANSPORT_FACTOR;
             } else if (!isCarOwner) {
                 // If not car owner (and not remote), assume public transit is cheaper (70% cost
                 // of car ownership baseline)
                 // This gives a "cash reward" for selling the car
-                transport *= 0.3;
+                transport *= TRANSIT_TRANSPORT_FACTOR;
             }
 
             livingCost = groceries + transport + utilities + misc;
         } else {
+            // Logic absorbed from CostCalculatorService
+            livingCost = appProperties.getBaselineLivingCost() * profile.colIndexFactor() * householdMultiplier;
             groceries = livingCost * 0.30;
             transport = livingCost * 0.15;
             if (isRemote) {
-                transport *= 0.3;
+                transport *= TRANSIT_TRANSPORT_FACTOR;
             } else if (!isCarOwner) {
-                transport *= 0.3;
+                transport *= TRANSIT_TRANSPORT_FACTOR;
             }
             utilities = livingCost * 0.10;
             misc = livingCost - (groceries + transport + utilities);
@@ -177,7 +182,7 @@ public class SingleCityAnalysisService {
                 - (totalHousingCost + livingCost + studentLoanOrChildcare + extraLeaks);
 
         double monthlyResidual = residual;
-        double yearsToBuyHouse = monthlyResidual > 0 ? (city.getAvgHousePrice() * 0.20) / (monthlyResidual * 12)
+        double yearsToBuyHouse = monthlyResidual > 0 ? profile.houseDownPayment() / (monthlyResidual * 12)
                 : 99.0;
         double monthsToBuyTesla = monthlyResidual > 0 ? appProperties.getCarAffordabilityTarget() / monthlyResidual : 99.0;
 
@@ -224,11 +229,4 @@ public class SingleCityAnalysisService {
 
         return breakdown;
     }
-
-    // Logic absorbed from CostCalculatorService
-    private double calculateLivingCost(CityCostEntry city, HouseholdType householdType) {
-        double baselineLivingCost = appProperties.getBaselineLivingCost();
-        double multiplier = householdType == HouseholdType.FAMILY ? 1.4 : 1.0;
-        return baselineLivingCost * (city.getColIndex() / 100.0) * multiplier;
-    }
 }
@@ -8,9 +8,11 @@ import com.offerverdict.model.StateTax;
 import com.offerverdict.model.TaxBracket;
 import com.offerverdict.model.TaxData;
 import com.offerverdict.model.TaxDefaults;
+import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -22,14 +24,28 @@ import java.util.Map;
 @Service
 public class TaxCalculatorService {
 
-    // Hardcoded constants removed in favor of TaxData defaults
+    // Hardcoded constants removed in favor of TaxData defaults; these apply only when it has none
+    public static final double DEFAULT_401K_RATE = 0.05;
+    public static final double FALLBACK_MAX_401K_CONTRIBUTION = 23500.0; // 2025
+    public static final double FALLBACK_ANNUAL_INSURANCE = 1800.0;
+    public static final double FALLBACK_RSU_RATE = 0.22;
 
     private final DataRepository repository;
+    private volatile NetPayGrids netPayGrids;
 
     public TaxCalculatorService(DataRepository repository) {
         this.repository = repository;
     }
 
+    /**
+     * Builds the net-pay grids for the loaded tax tables and rebuilds them on every data reload.
+     */
+    @PostConstruct
+    public void init() {
+        repository.addReloadListener(this::rebuildNetPayGrids);
+        rebuildNetPayGrids();
+    }
+
     /**
      * Calculate net annual income after all taxes
      * Uses 2025 IRS official data
@@ -83,10 +99,10 @@ public class TaxCalculatorService {
         TaxDefaults defaults = taxData.getDefaults();
 
         // Default values from Configuration (with safe fallbacks if config is missing)
-        double default401kRate = 0.05;
-        double max401kContribution = 23500.0; // 2025 fallback
-        double defaultAnnualInsurance = 1800.0;
-        double defaultRsuRate = 0.22;
+        double default401kRate = DEFAULT_401K_RATE;
+        double max401kContribution = FALLBACK_MAX_401K_CONTRIBUTION;
+        double defaultAnnualInsurance = FALLBACK_ANNUAL_INSURANCE;
+        double defaultRsuRate = FALLBACK_RSU_RATE;
 
         if (defaults != null) {
             max401kContribution = defaults.getMax401kContribution();
@@ -180,6 +196,63 @@ public class TaxCalculatorService {
         return result;
     }
 
+    /**
+     * Annual net income from a precomputed {@link NetPayGrid}, for bulk and ranking callers
+     * that can tolerate the grid's interpolation error in exchange for an O(1) read.
+     * Takes the same arguments as {@link #calculateTax} without the student loan and RSU
+     * inputs. Grids exist per state and filing status for the default 401k and insurance;
+     * other inputs, salaries outside the grid, and reads while a reload rebuilds the grids
+     * fall back to the exact calculation.
+     */
+    public double estimateNetIncome(double grossIncome, String stateCode, boolean isMarried,
+            Double preTax401kRate, Double monthlyInsurance) {
+        NetPayGrid grid = preTax401kRate == null && monthlyInsurance == null
+                ? netPayGrid(stateCode, isMarried)
+                : null;
+        if (grid != null && grid.covers(grossIncome)) {
+            return grid.netIncome(grossIncome);
+        }
+        return calculateTax(grossIncome, stateCode, isMarried, preTax401kRate, monthlyInsurance, null, null)
+                .getNetIncome();
+    }
+
+    /**
+     * The default-input grid for this state and filing status, or null when the current data
+     * version has none yet.
+     */
+    NetPayGrid netPayGrid(String stateCode, boolean isMarried) {
+        NetPayGrids grids = netPayGrids;
+        if (grids == null || grids.dataVersion() != repository.getVersion()) {
+            return null;
+        }
+        return grids.byKey().get(new NetPayGridKey(stateCode.toUpperCase(Locale.US), isMarried));
+    }
+
+    /**
+     * Samples every state and filing status against the current tables and publishes them in
+     * one swap, tagged with the data version they were built from.
+     */
+    private void rebuildNetPayGrids() {
+        long version = repository.getVersion();
+        Map<NetPayGridKey, NetPayGrid> byKey = new HashMap<>();
+        for (String state : repository.stateTaxMap().keySet()) {
+            for (boolean married : new boolean[] {false, true}) {
+                byKey.put(new NetPayGridKey(state, married), NetPayGrid.build(
+                        gross -> calculateTax(gross, state, married, null, null, null, null).getNetIncome(),
+                        NetPayGrid.DEFAULT_MIN_GROSS,
+                        NetPayGrid.DEFAULT_STEP,
+                        NetPayGrid.DEFAULT_MAX_GROSS));
+            }
+        }
+        netPayGrids = new NetPayGrids(version, Map.copyOf(byKey));
+    }
+
+    private record NetPayGridKey(String state, boolean married) {
+    }
+
+    private record NetPayGrids(long dataVersion, Map<NetPayGridKey, NetPayGrid> byKey) {
+    }
+
     /**
      * Get detailed tax breakdown for display
      * 
@@ -0,0 +1,253 @@
+package com.offerverdict.service;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the text blocks on a prepared OCR candidate so Tesseract reads only those regions
+ * instead of the whole page.
+ *
+ * Projection profiles: rows with ink form line bands, bands closer than a line height merge
+ * into paragraph blocks, and each block is split into columns at wide blank gaps (a logo
+ * beside the letterhead, a two-column table). Regions come back padded and in reading
+ * order: top to bottom, then left to right within a block. An empty list means OCR the full
+ * image, either because nothing was found or because the blocks would not save enough.
+ */
+final class TextBlockDetector {
+
+    /** Below this many ink pixels a row counts as blank, so scanner specks do not join lines. */
+    private static final int MIN_ROW_INK = 2;
+    /** A region smaller than this is a speck or a rule line, not text. */
+    private static final int MIN_REGION_INK = 24;
+    private static final int MIN_REGION_HEIGHT = 6;
+    /** More regions than this is a noisy photo; per-region overhead would outweigh the savings. */
+    private static final int MAX_REGIONS = 40;
+    /** Regions covering more of the image than this are not worth splitting. */
+    private static final double MAX_COVERAGE = 0.70;
+
+    private TextBlockDetector() {
+    }
+
+    static List<Rectangle> detect(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        if (width < 32 || height < 32) {
+            return List.of();
+        }
+        InkReader ink = new InkReader(image);
+        int[] rowInk = new int[height];
+        for (int y = 0; y < height; y++) {
+            rowInk[y] = ink.countRow(y);
+        }
+
+        List<int[]> lines = bands(rowInk, 0, height, MIN_ROW_INK, 1);
+        // One- and two-pixel bands are rules or specks; they would drag the line height down.
+        lines.removeIf(line -> line[1] - line[0] < 3);
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        int lineHeight = medianHeight(lines);
+        List<int[]> blocks = merge(lines, lineHeight);
+
+        int columnGap = Math.max(3 * lineHeight, width / 25);
+        int padding = Math.max(8, lineHeight / 2);
+        int[] columnInk = new int[width];
+        List<Rectangle> regions = new ArrayList<>();
+        long area = 0;
+        for (int[] block : blocks) {
+            Arrays.fill(columnInk, 0);
+            for (int y = block[0]; y < block[1]; y++) {
+                ink.addRow(y, columnInk);
+            }
+            for (int[] column : bands(columnInk, 0, width, 1, columnGap)) {
+                int inkCount = 0;
+                for (int x = column[0]; x < column[1]; x++) {
+                    inkCount += columnInk[x];
+                }
+                if (inkCount < MIN_REGION_INK || block[1] - block[0] < MIN_REGION_HEIGHT) {
+                    continue;
+                }
+                int x0 = Math.max(0, column[0] - padding);
+                int y0 = Math.max(0, block[0] - padding);
+                int x1 = Math.min(width, column[1] + padding);
+                int y1 = Math.min(height, block[1] + padding);
+                regions.add(new Rectangle(x0, y0, x1 - x0, y1 - y0));
+                area += (long) (x1 - x0) * (y1 - y0);
+            }
+        }
+        if (regions.isEmpty() || regions.size() > MAX_REGIONS || area > MAX_COVERAGE * width * height) {
+            return List.of();
+        }
+        return regions;
+    }
+
+    /**
+     * Runs of positions whose profile value is at least {@code minInk}, joining runs separated
+     * by fewer than {@code minGap} blank positions. Each run is {@code [start, end)}.
+     */
+    private static List<int[]> bands(int[] profile, int from, int to, int minInk, int minGap) {
+        List<int[]> bands = new ArrayList<>();
+        int start = -1;
+        int lastInk = -1;
+        for (int i = from; i < to; i++) {
+            if (profile[i] < minInk) {
+                continue;
+            }
+            if (start >= 0 && i - lastInk - 1 >= minGap) {
+                bands.add(new int[] {start, lastInk + 1});
+                start = -1;
+            }
+            if (start < 0) {
+                start = i;
+            }
+            lastInk = i;
+        }
+        if (start >= 0) {
+            bands.add(new int[] {start, lastInk + 1});
+        }
+        return bands;
+    }
+
+    private static int medianHeight(List<int[]> lines) {
+        int[] heights = new int[lines.size()];
+        for (int i = 0; i < heights.length; i++) {
+            heights[i] = lines.get(i)[1] - lines.get(i)[0];
+        }
+        Arrays.sort(heights);
+        return Math.max(1, heights[heights.length / 2]);
+    }
+
+    /**
+     * Joins line bands into paragraph blocks when the gap between them is at most a line height.
+     */
+    private static List<int[]> merge(List<int[]> lines, int lineHeight) {
+        List<int[]> blocks = new ArrayList<>();
+        int[] current = lines.get(0).clone();
+        for (int i = 1; i < lines.size(); i++) {
+            int[] line = lines.get(i);
+            if (line[0] - current[1] <= lineHeight) {
+                current[1] = line[1];
+            } else {
+                blocks.add(current);
+                current = line.clone();
+            }
+        }
+        blocks.add(current);
+        return blocks;
+    }
+
+    /**
+     * Reads ink (luminance below 128) row by row. The binary and gray candidates built by
+     * {@link OfferDocumentOcrService} are read straight from their byte buffers, since this
+     * runs once per candidate; anything else goes through {@link BufferedImage#getRGB}.
+     */
+    private static final class InkReader {
+        private final BufferedImage image;
+        private final int width;
+        private final byte[] bytes;
+        private final int offset;
+        private final int stride;
+        private final boolean packedBits;
+        private final int[] rgb;
+
+        InkReader(BufferedImage image) {
+            this.image = image;
+            this.width = image.getWidth();
+            Raster raster = image.getRaster();
+            SampleModel model = raster.getSampleModel();
+            boolean direct = raster.getParent() == null && raster.getDataBuffer() instanceof DataBufferByte;
+            if (direct && image.getType() == BufferedImage.TYPE_BYTE_BINARY
+                    && model instanceof MultiPixelPackedSampleModel packed
+                    && packed.getPixelBitStride() == 1 && packed.getDataBitOffset() == 0) {
+                // The default binary palette is 0 = black, 1 = white.
+                this.bytes = ((DataBufferByte) raster.getDataBuffer()).getData();
+                this.offset = raster.getDataBuffer().getOffset();
+                this.stride = packed.getScanlineStride();
+                this.packedBits = true;
+                this.rgb = null;
+            } else if (direct && image.getType() == BufferedImage.TYPE_BYTE_GRAY
+                    && model instanceof ComponentSampleModel component && component.getPixelStride() == 1) {
+                this.bytes = ((DataBufferByte) raster.getDataBuffer()).getData();
+                this.offset = raster.getDataBuffer().getOffset() + component.getBandOffsets()[0];
+                this.stride = component.getScanlineStride();
+                this.packedBits = false;
+                this.rgb = null;
+            } else {
+                this.bytes = null;
+                this.offset = 0;
+                this.stride = 0;
+                this.packedBits = false;
+                this.rgb = new int[width];
+            }
+        }
+
+        int countRow(int y) {
+            int count = 0;
+            if (packedBits) {
+                int start = offset + y * stride;
+                int fullBytes = width >> 3;
+                for (int i = 0; i < fullBytes; i++) {
+                    count += 8 - Integer.bitCount(bytes[start + i] & 0xFF);
+                }
+                int rest = width & 7;
+                if (rest > 0) {
+                    int mask = (0xFF << (8 - rest)) & 0xFF;
+                    count += rest - Integer.bitCount(bytes[start + fullBytes] & mask);
+                }
+            } else if (bytes != null) {
+                int start = offset + y * stride;
+                for (int x = 0; x < width; x++) {
+                    if ((bytes[start + x] & 0xFF) < 128) {
+                        count++;
+                    }
+                }
+            } else {
+                image.getRGB(0, y, width, 1, rgb, 0, width);
+                for (int x = 0; x < width; x++) {
+                    if (isDark(rgb[x])) {
+                        count++;
+                    }
+                }
+            }
+            return count;
+        }
+
+        void addRow(int y, int[] columnInk) {
+            if (packedBits) {
+                int start = offset + y * stride;
+                for (int x = 0; x < width; x++) {
+                    if (((bytes[start + (x >> 3)] >> (7 - (x & 7))) & 1) == 0) {
+                        columnInk[x]++;
+                    }
+                }
+            } else if (bytes != null) {
+                int start = offset + y * stride;
+                for (int x = 0; x < width; x++) {
+                    if ((bytes[start + x] & 0xFF) < 128) {
+                        columnInk[x]++;
+                    }
+                }
+            } else {
+                image.getRGB(0, y, width, 1, rgb, 0, width);
+                for (int x = 0; x < width; x++) {
+                    if (isDark(rgb[x])) {
+                        columnInk[x]++;
+                    }
+                }
+            }
+        }
+
+        private static boolean isDark(int pixel) {
+            int luminance = (((pixel >> 16) & 0xFF) * 299 + ((pixel >> 8) & 0xFF) * 587 + (pixel & 0xFF) * 114) / 1000;
+            return luminance < 128;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.offerverdict.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+public final class ClientIpResolver {
+    private ClientIpResolver() {
+    }
+
+    /**
+     * First X-Forwarded-For hop when present, otherwise the socket peer address.
+     * The header is client-controlled, so this is for logging only; rate limiting and other
+     * access decisions use {@link HttpServletRequest#getRemoteAddr()}.
+     */
+    public static String resolve(HttpServletRequest request) {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            int comma = forwardedFor.indexOf(',');
+            return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,51 @@
+package com.offerverdict.util;
+
+import java.time.Duration;
+
+/**
+ * A point in time by which a request's work should be finished, passed down to the stages
+ * that can stop early and return what they have so far.
+ *
+ * Based on {@link System#nanoTime()}, so wall-clock adjustments do not move it.
+ * {@link #none()} never expires.
+ */
+public final class Deadline {
+
+    private static final Deadline NONE = new Deadline(0);
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline none() {
+        return NONE;
+    }
+
+    /**
+     * A deadline {@code budget} after {@code startNanos} (a {@link System#nanoTime()} reading),
+     * so time already spent in the request counts against it. A zero or negative budget
+     * means no limit.
+     */
+    public static Deadline since(long startNanos, Duration budget) {
+        if (budget == null || budget.isZero() || budget.isNegative()) {
+            return NONE;
+        }
+        return new Deadline(startNanos + budget.toNanos());
+    }
+
+    public boolean expired() {
+        return this != NONE && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * Nanoseconds left, zero once expired, {@link Long#MAX_VALUE} for {@link #none()}.
+     */
+    public long remainingNanos() {
+        if (this == NONE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+}
@@ -0,0 +1,218 @@
+package com.offerverdict.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Finds which of a fixed set of signals occur in a text, in one pass.
+ *
+ * Each signal is a group of literal phrases; a signal matches when any of its phrases is a
+ * substring of the text, exactly like {@code text.contains(phrase)} over the group. The
+ * phrases are compiled into an Aho-Corasick automaton with a dense transition table, so
+ * matching costs one table lookup per character however many phrases there are. Matching
+ * is case-sensitive; callers lowercase the text and write phrases in lowercase.
+ */
+public final class PhraseMatcher<E extends Enum<E>> {
+
+    private static final int ROOT = 0;
+
+    private final Class<E> signalType;
+    private final E[] signals;
+    private final int[] asciiClass = new int[128];
+    private final char[] otherChars;
+    private final int alphabetSize;
+    private final int[] transitions;
+    private final long[] outputs;
+    private final long allSignals;
+
+    private PhraseMatcher(Class<E> signalType, Map<E, ? extends Collection<String>> phrases) {
+        this.signalType = signalType;
+        this.signals = signalType.getEnumConstants();
+        if (signals.length > Long.SIZE) {
+            throw new IllegalArgumentException(signalType.getSimpleName() + " has more than 64 signals");
+        }
+
+        TreeSet<Character> alphabet = new TreeSet<>();
+        List<int[]> trie = new ArrayList<>();
+        List<Long> trieOutputs = new ArrayList<>();
+        long defined = 0;
+        for (Map.Entry<E, ? extends Collection<String>> entry : phrases.entrySet()) {
+            for (String phrase : entry.getValue()) {
+                if (phrase.isEmpty()) {
+                    throw new IllegalArgumentException("Empty phrase for " + entry.getKey());
+                }
+                for (int i = 0; i < phrase.length(); i++) {
+                    alphabet.add(phrase.charAt(i));
+                }
+            }
+            if (!entry.getValue().isEmpty()) {
+                defined |= 1L << entry.getKey().ordinal();
+            }
+        }
+        this.allSignals = defined;
+
+        Arrays.fill(asciiClass, -1);
+        StringBuilder other = new StringBuilder();
+        int size = 0;
+        for (char c : alphabet) {
+            if (c < 128) {
+                asciiClass[c] = size;
+            } else {
+                other.append(c);
+            }
+            size++;
+        }
+        this.otherChars = other.toString().toCharArray();
+        this.alphabetSize = size;
+
+        trie.add(newNode(size));
+        trieOutputs.add(0L);
+        for (Map.Entry<E, ? extends Collection<String>> entry : phrases.entrySet()) {
+            long bit = 1L << entry.getKey().ordinal();
+            for (String phrase : entry.getValue()) {
+                int node = ROOT;
+                for (int i = 0; i < phrase.length(); i++) {
+                    int symbol = symbolOf(phrase.charAt(i));
+                    if (trie.get(node)[symbol] < 0) {
+                        trie.get(node)[symbol] = trie.size();
+                        trie.add(newNode(size));
+                        trieOutputs.add(0L);
+                    }
+                    node = trie.get(node)[symbol];
+                }
+                trieOutputs.set(node, trieOutputs.get(node) | bit);
+            }
+        }
+
+        int nodeCount = trie.size();
+        this.transitions = new int[nodeCount * size];
+        this.outputs = new long[nodeCount];
+        int[] fail = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            outputs[node] = trieOutputs.get(node);
+        }
+
+        // Breadth-first, so every fail target is complete before the nodes that fall back to it.
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int symbol = 0; symbol < size; symbol++) {
+            int child = trie.get(ROOT)[symbol];
+            if (child < 0) {
+                transitions[symbol] = ROOT;
+            } else {
+                transitions[symbol] = child;
+                fail[child] = ROOT;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.remove();
+            outputs[node] |= outputs[fail[node]];
+            for (int symbol = 0; symbol < size; symbol++) {
+                int child = trie.get(node)[symbol];
+                int fallback = transitions[fail[node] * size + symbol];
+                if (child < 0) {
+                    transitions[node * size + symbol] = fallback;
+                } else {
+                    transitions[node * size + symbol] = child;
+                    fail[child] = fallback;
+                    queue.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiles every constant of {@code signalType} with the phrases returned for it.
+     */
+    public static <E extends Enum<E>> PhraseMatcher<E> compile(Class<E> signalType,
+            Function<E, ? extends Collection<String>> phrases) {
+        Map<E, Collection<String>> table = new EnumMap<>(signalType);
+        for (E signal : signalType.getEnumConstants()) {
+            table.put(signal, phrases.apply(signal));
+        }
+        return new PhraseMatcher<>(signalType, table);
+    }
+
+    /**
+     * Returns the matched signals as a bit mask indexed by ordinal.
+     */
+    public long matchMask(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int state = ROOT;
+        long matched = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = next(state, text.charAt(i));
+            long output = outputs[state];
+            if (output != 0) {
+                matched |= output;
+                if (matched == allSignals) {
+                    break;
+                }
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * The state before any character is read. Callers that scan text themselves feed it
+     * through {@link #next} and read {@link #endingAt} after each character.
+     */
+    public int initialState() {
+        return ROOT;
+    }
+
+    /**
+     * The state after reading {@code c}; a character that occurs in no phrase resets it.
+     */
+    public int next(int state, char c) {
+        int symbol = symbolOf(c);
+        return symbol < 0 ? ROOT : transitions[state * alphabetSize + symbol];
+    }
+
+    /**
+     * Signals with a phrase ending at the character that led to {@code state}, as a bit mask.
+     */
+    public long endingAt(int state) {
+        return outputs[state];
+    }
+
+    public EnumSet<E> match(String text) {
+        return toSet(matchMask(text));
+    }
+
+    public EnumSet<E> toSet(long mask) {
+        EnumSet<E> matched = EnumSet.noneOf(signalType);
+        for (E signal : signals) {
+            if ((mask & (1L << signal.ordinal())) != 0) {
+                matched.add(signal);
+            }
+        }
+        return matched;
+    }
+
+    private int symbolOf(char c) {
+        return c < 128 ? asciiClass[c] : otherSymbol(c);
+    }
+
+    private int otherSymbol(char c) {
+        int index = Arrays.binarySearch(otherChars, c);
+        return index < 0 ? -1 : alphabetSize - otherChars.length + index;
+    }
+
+    private static int[] newNode(int alphabetSize) {
+        int[] children = new int[alphabetSize];
+        Arrays.fill(children, -1);
+        return children;
+    }
+}
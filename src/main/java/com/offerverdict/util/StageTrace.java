@@ -0,0 +1,203 @@
+package com.offerverdict.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Per-request stage timings, kept on the request thread.
+ *
+ * A filter calls {@link #begin} and {@link #end}; code in between wraps interesting stages
+ * with {@link #span} (try-with-resources) or {@link #traced}. Spans nest, so a stage opened
+ * inside another is recorded as {@code parent.child}. When no trace is active on the thread,
+ * {@link #span} is a single ThreadLocal read returning a shared no-op.
+ */
+public final class StageTrace {
+
+    /** Server-Timing headers are read by browsers and proxies; keep them bounded. */
+    static final int MAX_STAGES = 64;
+
+    private static final ThreadLocal<StageTrace> CURRENT = new ThreadLocal<>();
+    private static final Span NOOP = () -> {
+    };
+
+    private final boolean trackAllocations;
+    private final long startedNanos;
+    private final long startedAllocatedBytes;
+    private final List<Stage> stages = new ArrayList<>();
+    private final List<OpenSpan> open = new ArrayList<>();
+    private int droppedStages;
+
+    private StageTrace(boolean trackAllocations) {
+        this.trackAllocations = trackAllocations && AllocationCounter.SUPPORTED;
+        this.startedNanos = System.nanoTime();
+        this.startedAllocatedBytes = allocatedBytes();
+    }
+
+    public record Stage(String name, int depth, long nanos, long allocatedBytes) {
+
+        public double millis() {
+            return nanos / 1_000_000d;
+        }
+    }
+
+    /**
+     * A stage in progress. Closing it records the stage; closing twice is harmless.
+     */
+    @FunctionalInterface
+    public interface Span extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Starts tracing the current thread, replacing any trace left over from an earlier request.
+     */
+    public static StageTrace begin(boolean trackAllocations) {
+        StageTrace trace = new StageTrace(trackAllocations);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    public static Span span(String name) {
+        StageTrace trace = CURRENT.get();
+        return trace == null ? NOOP : trace.open(name);
+    }
+
+    public static <T> T traced(String name, Supplier<T> stage) {
+        try (Span ignored = span(name)) {
+            return stage.get();
+        }
+    }
+
+    public static boolean active() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Detaches the trace from the thread and closes any spans still open.
+     */
+    public void end() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+        for (int i = open.size() - 1; i >= 0; i--) {
+            open.get(i).close();
+        }
+    }
+
+    public long totalNanos() {
+        return System.nanoTime() - startedNanos;
+    }
+
+    /**
+     * Bytes allocated by this thread since {@link #begin}, or -1 when not tracked.
+     */
+    public long totalAllocatedBytes() {
+        return trackAllocations ? allocatedBytes() - startedAllocatedBytes : -1;
+    }
+
+    public List<Stage> stages() {
+        List<Stage> recorded = new ArrayList<>(stages.size());
+        for (Stage stage : stages) {
+            if (stage != null) {
+                recorded.add(stage);
+            }
+        }
+        return Collections.unmodifiableList(recorded);
+    }
+
+    public int droppedStages() {
+        return droppedStages;
+    }
+
+    /**
+     * Formats the finished stages plus a {@code total} entry as a Server-Timing header value.
+     */
+    public String serverTimingHeader() {
+        StringBuilder header = new StringBuilder();
+        for (Stage stage : stages()) {
+            appendMetric(header, stage.name(), stage.nanos(), stage.allocatedBytes());
+        }
+        appendMetric(header, "total", totalNanos(), totalAllocatedBytes());
+        return header.toString();
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos, long allocatedBytes) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000d));
+        if (allocatedBytes >= 0) {
+            header.append(";desc=\"alloc ").append(allocatedBytes / 1024).append("KB\"");
+        }
+    }
+
+    private Span open(String name) {
+        if (stages.size() >= MAX_STAGES) {
+            droppedStages++;
+            return NOOP;
+        }
+        String fullName = open.isEmpty() ? name : open.get(open.size() - 1).name + "." + name;
+        OpenSpan span = new OpenSpan(fullName, stages.size(), open.size());
+        stages.add(null);
+        open.add(span);
+        return span;
+    }
+
+    private long allocatedBytes() {
+        return trackAllocations ? AllocationCounter.currentThreadAllocatedBytes() : 0;
+    }
+
+    private final class OpenSpan implements Span {
+        private final String name;
+        private final int slot;
+        private final int depth;
+        private final long startedNanos = System.nanoTime();
+        private final long startedAllocatedBytes = allocatedBytes();
+        private boolean closed;
+
+        private OpenSpan(String name, int slot, int depth) {
+            this.name = name;
+            this.slot = slot;
+            this.depth = depth;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            long nanos = System.nanoTime() - startedNanos;
+            long allocated = trackAllocations ? allocatedBytes() - startedAllocatedBytes : -1;
+            stages.set(slot, new Stage(name, depth, nanos, allocated));
+            open.remove(this);
+        }
+    }
+
+    private static final class AllocationCounter {
+        private static final com.sun.management.ThreadMXBean THREADS = threads();
+        static final boolean SUPPORTED = THREADS != null;
+
+        private static com.sun.management.ThreadMXBean threads() {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean extended
+                    && extended.isThreadAllocatedMemorySupported()) {
+                if (!extended.isThreadAllocatedMemoryEnabled()) {
+                    extended.setThreadAllocatedMemoryEnabled(true);
+                }
+                return extended;
+            }
+            return null;
+        }
+
+        static long currentThreadAllocatedBytes() {
+            return THREADS.getCurrentThreadAllocatedBytes();
+        }
+    }
+}
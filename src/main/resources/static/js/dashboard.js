@@ -67,6 +67,9 @@ function debounce(func, wait) {
     };
 }
 
+// Token and form of the last computed simulation; slider moves send only what changed.
+let lastSimulation = null;
+
 async function runSimulation() {
     const form = document.getElementById('simulationForm');
     const formData = new FormData(form);
@@ -78,20 +81,40 @@ async function runSimulation() {
     setTimeout(() => pulseTargets.forEach(el => el.classList.remove('animate-pulse')), 500);
 
     try {
-        const response = await fetch(`/api/calculate?${params.toString()}`);
+        let response = null;
+        if (lastSimulation) {
+            const changes = changedParams(lastSimulation.params, params);
+            changes.set('token', lastSimulation.token);
+            response = await fetch(`/api/calculate/delta?${changes.toString()}`);
+            // 410: the server no longer has the previous run, so send the whole form.
+            if (response.status === 410) response = null;
+        }
+        if (!response) {
+            response = await fetch(`/api/calculate?${params.toString()}`);
+        }
         if (!response.ok) throw new Error('Simulation failed');
 
         const result = await response.json();
+        lastSimulation = result.simulationToken ? { token: result.simulationToken, params } : null;
 
         updateLayer1_Verdict(result);
         updateLayer2_Evidence(result);
         updateLayer3_Feeling(result);
 
     } catch (error) {
+        lastSimulation = null;
         console.error("Simulation error:", error);
     }
 }
 
+function changedParams(previous, current) {
+    const changes = new URLSearchParams();
+    current.forEach((value, key) => {
+        if (previous.get(key) !== value) changes.set(key, value);
+    });
+    return changes;
+}
+
 function updateLayer1_Verdict(result) {
     const verdictSection = document.querySelector('.verdict-section');
     const stickyBar = document.getElementById('stickyBar');
@@ -0,0 +1,121 @@
+package com.offerverdict.config;
+
+import com.offerverdict.controller.FlightRecordingController;
+import com.offerverdict.controller.LeadEventLogController;
+import com.offerverdict.service.FlightRecordingService;
+import com.offerverdict.service.LeadEventLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class AdminTokenInterceptorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void adminEndpointsAreHiddenWithoutAConfiguredToken() throws IOException {
+        AdminTokenInterceptor interceptor = new AdminTokenInterceptor(new AppProperties());
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request("Bearer anything"), response, new Object()));
+
+        assertEquals(404, response.getStatus());
+    }
+
+    @Test
+    void missingOrWrongTokenIsUnauthorized() throws IOException {
+        AdminTokenInterceptor interceptor = new AdminTokenInterceptor(withToken("s3cret"));
+
+        MockHttpServletResponse missing = new MockHttpServletResponse();
+        MockHttpServletResponse wrong = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(request(null), missing, new Object()));
+        assertFalse(interceptor.preHandle(request("Bearer s3cre"), wrong, new Object()));
+
+        assertEquals(401, missing.getStatus());
+        assertEquals("Bearer", missing.getHeader("WWW-Authenticate"));
+        assertEquals(401, wrong.getStatus());
+        assertTrue(interceptor.preHandle(request("bearer s3cret"), new MockHttpServletResponse(), new Object()));
+    }
+
+    @Test
+    void encodedAndParameterizedPathsStillNeedTheToken() throws Exception {
+        MockMvc mockMvc = mockMvc(withToken("s3cret"));
+
+        for (String path : new String[] {
+                "/admin/lead-events/export.csv",
+                "/admin/%6cead-events/export.csv",
+                "/admin/lead-events;x/export.csv",
+                "/admin/lead-events/summary;jsessionid=1",
+                "/admin/jfr/recordings/current",
+                "/admin/%6Afr/recordings/current",
+                "/admin/jfr;x/recordings/current"}) {
+            mockMvc.perform(get(URI.create(path)))
+                    .andExpect(status().isUnauthorized())
+                    .andExpect(header().string("WWW-Authenticate", "Bearer"));
+        }
+        mockMvc.perform(post(URI.create("/admin/%6Afr/recordings")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post(URI.create("/admin/jfr;x/recordings")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void matchingTokenReachesTheControllers() throws Exception {
+        MockMvc mockMvc = mockMvc(withToken("s3cret"));
+
+        mockMvc.perform(authorized(get(URI.create("/admin/%6cead-events/summary"))))
+                .andExpect(status().isOk());
+        mockMvc.perform(authorized(get(URI.create("/admin/jfr/recordings/current"))))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get(URI.create("/admin/lead-events/summary")).header("Authorization", "Bearer nope"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private MockMvc mockMvc(AppProperties props) {
+        LeadEventLog leadEventLog = new LeadEventLog(tempDir.resolve("events").toString(),
+                tempDir.resolve("backup").toString(), 1, 200);
+        FlightRecordingService recordings = new FlightRecordingService(tempDir.resolve("jfr").toString(),
+                "default", 60, 5, 0);
+        return MockMvcBuilders.standaloneSetup(
+                        new LeadEventLogController(leadEventLog, true),
+                        new FlightRecordingController(recordings, true))
+                .addMappedInterceptors(AdminTokenInterceptor.PROTECTED_PATTERNS.toArray(String[]::new),
+                        new AdminTokenInterceptor(props))
+                .build();
+    }
+
+    private static MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        return request.header("Authorization", "Bearer s3cret");
+    }
+
+    private static AppProperties withToken(String token) {
+        AppProperties props = new AppProperties();
+        props.setAdminToken(token);
+        return props;
+    }
+
+    private static MockHttpServletRequest request(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/admin/lead-events/summary");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        return request;
+    }
+}
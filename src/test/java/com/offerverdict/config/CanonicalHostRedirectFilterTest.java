@@ -180,4 +180,48 @@ class CanonicalHostRedirectFilterTest {
         assertEquals(200, response.getStatus());
         assertNull(response.getHeader("Location"));
     }
+
+    @Test
+    void reusesDecisionsUntilPublicBaseUrlChanges() throws ServletException, IOException {
+        AppProperties props = new AppProperties();
+        props.setPublicBaseUrl("https://livingcostcheck.com");
+        props.setEnforceCanonicalHostRedirect(true);
+        CanonicalHostRedirectFilter filter = new CanonicalHostRedirectFilter(props);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setServerName("127.0.0.1");
+        request.setServerPort(8080);
+        request.setScheme("http");
+        request.addHeader("Forwarded", "for=203.0.113.9;proto=https;host=\"www.livingcostcheck.com\", proto=http");
+
+        assertEquals("https://livingcostcheck.com/", filter.redirectLocation(request));
+        assertEquals("https://livingcostcheck.com/", filter.redirectLocation(request));
+
+        props.setPublicBaseUrl("https://www.livingcostcheck.com");
+        assertNull(filter.redirectLocation(request));
+
+        props.setPublicBaseUrl("not a uri");
+        assertNull(filter.redirectLocation(request));
+    }
+
+    @Test
+    void redirectsExplicitNonCanonicalPortOnCanonicalHost() throws ServletException, IOException {
+        AppProperties props = new AppProperties();
+        props.setPublicBaseUrl("https://livingcostcheck.com");
+        props.setEnforceCanonicalHostRedirect(true);
+        props.setEnforceCanonicalSchemeRedirect(true);
+        CanonicalHostRedirectFilter filter = new CanonicalHostRedirectFilter(props);
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/offer-risk");
+        request.setServerName("livingcostcheck.com");
+        request.setServerPort(8443);
+        request.setScheme("https");
+        request.addHeader("Host", "LivingCostCheck.com:8443");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(301, response.getStatus());
+        assertEquals("https://livingcostcheck.com/offer-risk", response.getHeader("Location"));
+    }
 }
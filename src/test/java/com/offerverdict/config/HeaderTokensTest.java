@@ -0,0 +1,53 @@
+package com.offerverdict.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeaderTokensTest {
+
+    @Test
+    void readsFirstForwardedEntryInPlace() {
+        String forwarded = " For=1.2.3.4 ; Proto = https;host=\" livingcostcheck.com:8443 \" , proto=http";
+
+        assertEquals("https", text(forwarded, HeaderTokens.forwardedPair(forwarded, "proto")));
+        assertEquals(" livingcostcheck.com:8443 ", text(forwarded, HeaderTokens.forwardedPair(forwarded, "HOST")));
+        assertEquals(HeaderTokens.NONE, HeaderTokens.forwardedPair(forwarded, "by"));
+        assertEquals("", text("proto=", HeaderTokens.forwardedPair("proto=", "proto")));
+        assertEquals(HeaderTokens.NONE, HeaderTokens.forwardedPair("=https", ""));
+    }
+
+    @Test
+    void splitsHostAndPortLikeTheHostHeader() {
+        assertHost("livingcostcheck.com", 8443, "livingcostcheck.com:8443");
+        assertHost("[2001:db8::1]", 443, " [2001:db8::1]:443 , other");
+        assertHost("[2001:db8::1]", HeaderTokens.NO_PORT, "[2001:db8::1]");
+        assertHost("x:1:2", HeaderTokens.NO_PORT, "x:1:2");
+        assertHost("livingcostcheck.com", HeaderTokens.NO_PORT, "livingcostcheck.com:abc");
+        assertEquals(HeaderTokens.NONE, HeaderTokens.host(" , x", HeaderTokens.firstToken(" , x")));
+    }
+
+    @Test
+    void parsesPortsLikeIntegerParseInt() {
+        assertEquals(443, HeaderTokens.parsePort("+443", 0, 4));
+        assertEquals(-1, HeaderTokens.parsePort("-1", 0, 2));
+        assertEquals(Integer.MIN_VALUE, HeaderTokens.parsePort("-2147483648", 0, 11));
+        assertEquals(HeaderTokens.NO_PORT, HeaderTokens.parsePort("2147483648", 0, 10));
+        assertEquals(HeaderTokens.NO_PORT, HeaderTokens.parsePort("+", 0, 1));
+        assertEquals(HeaderTokens.NO_PORT, HeaderTokens.parsePort("44 3", 0, 4));
+        assertTrue(HeaderTokens.containsAsciiIgnoreCase("{\"Scheme\":\"HTTPS\"}", "\"scheme\":\"https\""));
+        assertFalse(HeaderTokens.containsAsciiIgnoreCase("{\"scheme\":\"http\"}", "\"scheme\":\"https\""));
+    }
+
+    private static void assertHost(String host, long port, String header) {
+        long token = HeaderTokens.firstToken(header);
+        assertEquals(host, text(header, HeaderTokens.host(header, token)));
+        assertEquals(port, HeaderTokens.explicitPort(header, token));
+    }
+
+    private static String text(String value, long range) {
+        return value.substring(HeaderTokens.start(range), HeaderTokens.end(range));
+    }
+}
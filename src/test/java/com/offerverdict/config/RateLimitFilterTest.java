@@ -0,0 +1,146 @@
+package com.offerverdict.config;
+
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RateLimitFilterTest {
+
+    @Test
+    void uploadsUseTheOcrBudgetAndGet429WithRetryAfter() throws ServletException, IOException {
+        AppProperties props = new AppProperties();
+        props.setRateLimitOcrBurst(2);
+        props.setRateLimitOcrPerMinute(6);
+        RateLimitFilter filter = new RateLimitFilter(props);
+
+        assertEquals(200, upload(filter, "203.0.113.5").getStatus());
+        assertEquals(200, upload(filter, "203.0.113.5").getStatus());
+        MockHttpServletResponse limited = upload(filter, "203.0.113.5");
+
+        assertEquals(429, limited.getStatus());
+        assertEquals("10", limited.getHeader("Retry-After"));
+        // Another client and pasted-text drafts from the same client are unaffected.
+        assertEquals(200, upload(filter, "198.51.100.7").getStatus());
+        assertEquals(200, textDraft(filter, "203.0.113.5").getStatus());
+    }
+
+    @Test
+    void apiRejectionIsJsonAndSpoofedForwardedForGetsNoFreshBucket() throws ServletException, IOException {
+        AppProperties props = new AppProperties();
+        props.setRateLimitApiBurst(1);
+        RateLimitFilter filter = new RateLimitFilter(props);
+
+        assertEquals(200, api(filter, "/api/calculate", "203.0.113.9", "198.51.100.1").getStatus());
+        MockHttpServletResponse limited = api(filter, "/api/simulate-single", "203.0.113.9", "198.51.100.2");
+
+        assertEquals(429, limited.getStatus());
+        assertNotNull(limited.getHeader("Retry-After"));
+        assertTrue(limited.getContentAsString().contains("Too many requests"));
+        assertEquals(1, filter.stats().get(1).rejected());
+        assertEquals(200, api(filter, "/api/calculate", "203.0.113.10", "198.51.100.1").getStatus());
+    }
+
+    @Test
+    void batchItemsAreChargedOneTokenEach() {
+        AppProperties props = new AppProperties();
+        props.setRateLimitBatchBurst(10);
+        props.setRateLimitBatchPerMinute(1);
+        RateLimitFilter filter = new RateLimitFilter(props);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/offer-text/parse-batch");
+        request.setRemoteAddr("203.0.113.9");
+
+        assertEquals(0, filter.tryAcquireBatchItems(request, 7));
+        long retryAfter = filter.tryAcquireBatchItems(request, 4);
+        assertTrue(retryAfter > 0, "retry after " + retryAfter);
+        assertEquals(0, filter.tryAcquireBatchItems(request, 3));
+        assertEquals(1, filter.stats().get(3).rejected());
+        assertEquals(2, filter.stats().get(3).allowed());
+    }
+
+    @Test
+    void unrelatedPagesAreNotLimited() throws ServletException, IOException {
+        AppProperties props = new AppProperties();
+        props.setRateLimitApiBurst(1);
+        RateLimitFilter filter = new RateLimitFilter(props);
+
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/nurse-relocation-offer-checker");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertEquals(200, response.getStatus());
+            assertNull(response.getHeader("Retry-After"));
+        }
+    }
+
+    @Test
+    void bucketsRefillOverTimeAndIdleClientsAreEvicted() {
+        AtomicLong now = new AtomicLong(0);
+        ClientRateLimiter limiter = new ClientRateLimiter("test", 1, 60, 256, now::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(1, limiter.tryAcquire("a"));
+        now.addAndGet(1_000);
+        assertEquals(0, limiter.tryAcquire("a"));
+
+        for (int i = 0; i < 10_000; i++) {
+            limiter.tryAcquire("client-" + i);
+        }
+        ClientRateLimiter.RateLimitStats stats = limiter.stats();
+        assertTrue(stats.trackedClients() <= 256, "tracked " + stats.trackedClients());
+        assertTrue(stats.evicted() > 0);
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() {
+        ClientRateLimiter limiter = new ClientRateLimiter("test", 50, 0.001, 1_000, () -> 0L);
+        AtomicInteger allowed = new AtomicInteger();
+
+        IntStream.range(0, 1_000).parallel().forEach(i -> {
+            if (limiter.tryAcquire("shared") == 0) {
+                allowed.incrementAndGet();
+            }
+        });
+
+        assertEquals(50, allowed.get());
+    }
+
+    private MockHttpServletResponse upload(RateLimitFilter filter, String ip) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/offer-risk-draft");
+        request.setContentType("multipart/form-data; boundary=abc");
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletResponse textDraft(RateLimitFilter filter, String ip) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/offer-risk-draft");
+        request.setContentType("application/x-www-form-urlencoded");
+        request.setRemoteAddr(ip);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletResponse api(RateLimitFilter filter, String path, String ip, String forwardedFor)
+            throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRemoteAddr(ip);
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,57 @@
+package com.offerverdict.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.util.StageTrace;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestTraceFilterTest {
+
+    @Test
+    void bufferedResponsesCarryServerTimingWithoutBeingWrapped() throws ServletException, IOException {
+        RequestTraceFilter filter = new RequestTraceFilter(enabled(), new ObjectMapper());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/offer-risk"), response, (req, res) -> {
+            assertSame(response, res);
+            StageTrace.span("render").close();
+            res.getWriter().write("<html></html>");
+        });
+
+        assertEquals(RequestTraceFilter.TRACE_BUFFER_BYTES, response.getBufferSize());
+        String header = response.getHeader("Server-Timing");
+        assertTrue(header != null && header.startsWith("render;dur="), header);
+        assertEquals("<html></html>", response.getContentAsString());
+    }
+
+    @Test
+    void flushedResponsesStreamWithoutTheHeader() throws ServletException, IOException {
+        RequestTraceFilter filter = new RequestTraceFilter(enabled(), new ObjectMapper());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain streaming = (req, res) -> {
+            res.getWriter().write("{\"index\":0}\n");
+            res.flushBuffer();
+        };
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/offer-text/parse-batch"), response, streaming);
+
+        assertNull(response.getHeader("Server-Timing"));
+        assertEquals("{\"index\":0}\n", response.getContentAsString());
+    }
+
+    private static AppProperties enabled() {
+        AppProperties props = new AppProperties();
+        props.setRequestTraceEnabled(true);
+        return props;
+    }
+}
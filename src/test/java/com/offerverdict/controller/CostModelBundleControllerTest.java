@@ -0,0 +1,55 @@
+package com.offerverdict.controller;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppProperties;
+import com.offerverdict.data.DataRepository;
+import com.offerverdict.service.CostModelBundleService;
+import com.offerverdict.service.FinancialEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CostModelBundleControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    @Test
+    void versionedBundleRevalidatesWithNotModified() throws Exception {
+        DataRepository repository = new DataRepository(objectMapper);
+        repository.reload();
+        CostModelBundleService bundleService = new CostModelBundleService(repository,
+                new FinancialEngine(repository), new AppProperties(), objectMapper);
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new CostModelBundleController(bundleService)).build();
+        String version = bundleService.bundle("austin-tx", "seattle-wa").version();
+        String path = "/api/model-bundle/austin-tx/seattle-wa/" + version;
+        assertTrue(version.matches("[0-9a-f]{16}"), version);
+
+        String location = mockMvc.perform(get("/api/model-bundle/austin-tx/seattle-wa"))
+                .andExpect(status().isFound())
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        assertEquals(path, location);
+
+        String etag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + version + "\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        byte[] body = mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(0, body.length);
+
+        mockMvc.perform(get("/api/model-bundle/austin-tx/seattle-wa/stale"))
+                .andExpect(status().isFound())
+                .andExpect(header().string(HttpHeaders.LOCATION, path));
+    }
+}
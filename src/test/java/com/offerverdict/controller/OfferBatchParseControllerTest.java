@@ -0,0 +1,113 @@
+package com.offerverdict.controller;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
+import com.offerverdict.config.AppProperties;
+import com.offerverdict.config.RateLimitFilter;
+import com.offerverdict.data.DataRepository;
+import com.offerverdict.service.FinancialEngine;
+import com.offerverdict.service.OfferBatchParseService;
+import com.offerverdict.service.OfferRiskService;
+import com.offerverdict.service.OfferTextParserService;
+import com.offerverdict.service.SingleCityAnalysisService;
+import com.offerverdict.service.TaxCalculatorService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OfferBatchParseControllerTest {
+
+    private static final String POST = "Travel ICU RN in Seattle, WA. $62/hr, 36 hours per week.";
+    private static final String PATH = "/api/offer-text/parse-batch";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private OfferBatchParseService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test
+    void ndjsonBatchStreamsOneJsonLinePerItemInOrder() throws Exception {
+        MockMvc mockMvc = mockMvc(10, new AppProperties());
+        String body = "{\"id\":\"a\",\"text\":\"" + POST + "\"}\n\"" + POST.replace("62", "55") + "\"\n";
+
+        MvcResult result = mockMvc.perform(post(PATH).contentType("application/x-ndjson").content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn();
+
+        String ndjson = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(ndjson.endsWith("\n"));
+        String[] lines = ndjson.split("\n");
+        assertEquals(2, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode line = objectMapper.readTree(lines[i]);
+            assertEquals(i, line.get("index").asInt());
+            assertEquals("ok", line.get("status").asText());
+        }
+        assertEquals("a", objectMapper.readTree(lines[0]).get("id").asText());
+    }
+
+    @Test
+    void batchesOverTheItemLimitAre413AndMalformedBodiesAre400() throws Exception {
+        MockMvc mockMvc = mockMvc(2, new AppProperties());
+
+        mockMvc.perform(post(PATH).contentType("application/json").content("[\"a\",\"b\",\"c\"]"))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(content().contentTypeCompatibleWith("application/json"))
+                .andExpect(jsonPath("$.status").value("error"));
+        mockMvc.perform(post(PATH).contentType("application/json").content("{\"items\":"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void itemsAreChargedAgainstTheBatchBudget() throws Exception {
+        AppProperties props = new AppProperties();
+        props.setRateLimitBatchBurst(3);
+        props.setRateLimitBatchPerMinute(1);
+        MockMvc mockMvc = mockMvc(10, props);
+        String twoItems = "[\"" + POST + "\",\"" + POST + "\"]";
+
+        mockMvc.perform(post(PATH).contentType("application/json").content(twoItems))
+                .andExpect(status().isOk());
+        mockMvc.perform(post(PATH).contentType("application/json").content(twoItems))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.message").value("Too many requests"));
+    }
+
+    private MockMvc mockMvc(int maxItems, AppProperties rateLimits) {
+        DataRepository repository = new DataRepository(objectMapper);
+        repository.reload();
+        AppMetrics metrics = new AppMetrics(new SimpleMeterRegistry());
+        AppProperties appProperties = new AppProperties();
+        appProperties.setBaselineLivingCost(1800);
+        SingleCityAnalysisService analysisService = new SingleCityAnalysisService(
+                new TaxCalculatorService(repository), new FinancialEngine(repository), appProperties, metrics);
+        service = new OfferBatchParseService(new OfferTextParserService(repository, metrics),
+                new OfferRiskService(repository, analysisService, metrics), objectMapper, metrics, 2, maxItems, 1 << 20);
+        OfferBatchParseController controller =
+                new OfferBatchParseController(service, objectMapper, new RateLimitFilter(rateLimits));
+        return MockMvcBuilders.standaloneSetup(controller).build();
+    }
+}
@@ -1,9 +1,20 @@
 package com.offerverdict.controller;
 
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.config.AppProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayInputStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class SitemapControllerTest {
@@ -13,7 +24,8 @@ class SitemapControllerTest {
         AppProperties appProperties = new AppProperties();
         appProperties.setPublicBaseUrl("https://livingcostcheck.com/");
 
-        SitemapController controller = new SitemapController(appProperties);
+        SitemapController controller =
+                new SitemapController(appProperties, new AppMetrics(new SimpleMeterRegistry()));
         String xml = controller.sitemap();
 
         assertTrue(xml.contains("/nurse-relocation-offer-checker</loc>"));
@@ -48,13 +60,98 @@ class SitemapControllerTest {
         AppProperties appProperties = new AppProperties();
         appProperties.setPublicBaseUrl("https://livingcostcheck.com/");
 
-        SitemapController controller = new SitemapController(appProperties);
+        SitemapController controller =
+                new SitemapController(appProperties, new AppMetrics(new SimpleMeterRegistry()));
         String xml = controller.sitemap();
 
         assertTrue(xml.contains("<loc>https://livingcostcheck.com/</loc>"));
         assertFalse(xml.contains("https://livingcostcheck.com//"));
     }
 
+    @Test
+    void sitemapSplitsIntoIndexAndChunksAtConfiguredSize() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setPublicBaseUrl("https://livingcostcheck.com/");
+        appProperties.setSitemapChunkSize(50);
+
+        SitemapController controller =
+                new SitemapController(appProperties, new AppMetrics(new SimpleMeterRegistry()));
+        String index = controller.sitemap();
+        int chunks = controller.chunkCount();
+
+        assertTrue(chunks > 1);
+        assertTrue(index.contains("<sitemapindex"));
+        assertFalse(index.contains("<url>"));
+        assertEquals(chunks, countOccurrences(index, "<sitemap>"));
+        assertTrue(index.contains("<loc>https://livingcostcheck.com/sitemap-1.xml</loc>"));
+        assertTrue(index.contains("<loc>https://livingcostcheck.com/sitemap-" + chunks + ".xml</loc>"));
+
+        int totalUrls = 0;
+        for (int page = 1; page <= chunks; page++) {
+            int urls = countOccurrences(controller.sitemapChunk(page), "<url>");
+            assertTrue(urls <= 50);
+            totalUrls += urls;
+        }
+        assertTrue(totalUrls >= 180);
+        assertTrue(controller.sitemapChunk(1).contains("<loc>https://livingcostcheck.com/</loc>"));
+    }
+
+    @Test
+    void sitemapResponsesCarryValidatorsAndGzipWhenAccepted() throws Exception {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setPublicBaseUrl("https://livingcostcheck.com");
+        appProperties.setSitemapChunkSize(5000);
+
+        SitemapController controller =
+                new SitemapController(appProperties, new AppMetrics(new SimpleMeterRegistry()));
+        ResponseEntity<byte[]> plain = controller.sitemapXml(null);
+        ResponseEntity<byte[]> gzipped = controller.sitemapXml("gzip, deflate");
+
+        assertEquals(200, plain.getStatusCode().value());
+        assertNotNull(plain.getHeaders().getETag());
+        assertNotNull(gzipped.getHeaders().getETag());
+        assertTrue(plain.getHeaders().getLastModified() > 0);
+        assertEquals("gzip", gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody()))) {
+            assertArrayEquals(plain.getBody(), in.readAllBytes());
+        }
+        assertEquals(404, controller.sitemapChunkXml(2, null).getStatusCode().value());
+    }
+
+    @Test
+    void gzipAndIdentityResponsesHaveDistinctEtagsAndVaryOnEncoding() {
+        AppProperties appProperties = new AppProperties();
+        appProperties.setPublicBaseUrl("https://livingcostcheck.com");
+
+        SitemapController controller =
+                new SitemapController(appProperties, new AppMetrics(new SimpleMeterRegistry()));
+        ResponseEntity<byte[]> plain = controller.sitemapXml("identity");
+        ResponseEntity<byte[]> gzipped = controller.sitemapXml("gzip");
+
+        String plainEtag = plain.getHeaders().getETag();
+        assertEquals(plainEtag.substring(0, plainEtag.length() - 1) + "-gz\"", gzipped.getHeaders().getETag());
+        assertTrue(plain.getHeaders().getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+        assertTrue(gzipped.getHeaders().getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals(plainEtag, controller.sitemapXml(null).getHeaders().getETag());
+    }
+
+    @Test
+    void gzipIsOnlyServedForAPositiveQValue() {
+        SitemapController controller =
+                new SitemapController(new AppProperties(), new AppMetrics(new SimpleMeterRegistry()));
+
+        for (String refused : new String[] {"gzip;q=0", "gzip; q=0.0", "gzip;q=0.00, identity", "GZIP;Q=0.000",
+                "*;q=0", "gzip;q=0, *;q=1", "gzip;q=oops", "deflate, br"}) {
+            assertNull(controller.sitemapXml(refused).getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING),
+                    refused);
+        }
+        for (String accepted : new String[] {"gzip;q=0.001", "gzip ; q=1.0", "*", "*;q=0.5", "br;q=1, *;q=0.1",
+                "*;q=0, gzip"}) {
+            assertEquals("gzip", controller.sitemapXml(accepted).getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING),
+                    accepted);
+        }
+    }
+
     private int countOccurrences(String text, String needle) {
         int count = 0;
         int index = 0;
@@ -0,0 +1,81 @@
+package com.offerverdict.model;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.data.DataRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CityCostProfileTest {
+
+    @Test
+    void resolvesDetailsLocalTaxAndInsuranceOnce() {
+        TaxData taxData = taxData(Map.of("nyc", 0.03876), 175.0);
+        AuthoritativeMetrics metrics = new AuthoritativeMetrics();
+        metrics.setLocalIncomeTaxes(Map.of("Philadelphia", 0.0375));
+        metrics.setStateCarInsuranceMonthly(Map.of("PA", 160.0, "default", 150.0));
+        CityCostEntry philadelphia = new CityCostEntry("Philadelphia", "pa", "philadelphia-pa", 0, 105, 60000,
+                300000, Map.of("groceries", 420.0, "transport", 130.0));
+
+        CityCostProfile profile = CityCostProfile.of(philadelphia, taxData, metrics);
+
+        assertEquals(CityCostProfile.DEFAULT_RENT, profile.rent());
+        assertEquals(375.0, profile.ownHousingMonthly(), 1e-9);
+        assertEquals(60_000.0, profile.houseDownPayment(), 1e-9);
+        assertTrue(profile.detailed());
+        assertEquals(420.0, profile.groceries());
+        assertEquals(0.0, profile.utilities());
+        assertEquals(0.0375, profile.localTaxRate());
+        assertEquals(160.0 * 12, profile.carInsuranceAnnual());
+
+        CityCostProfile withoutMetrics = CityCostProfile.of(philadelphia, taxData, null);
+        assertEquals(0.0, withoutMetrics.localTaxRate());
+        assertEquals(175.0 * 12, withoutMetrics.carInsuranceAnnual());
+        assertEquals(0.03876, CityCostProfile.localTaxRate("new-york-ny", taxData, null));
+    }
+
+    @Test
+    void recordsFallbacksInsteadOfFailing() {
+        CityCostEntry broken = new CityCostEntry("Nowhere", null, null, 1500, 90, 40000, 200000, null);
+
+        CityCostProfile profile = CityCostProfile.of(broken, taxData(null, 175.0), new AuthoritativeMetrics());
+
+        assertTrue(profile.localTaxFallback());
+        assertEquals(0.0, profile.localTaxRate());
+        assertFalse(profile.carInsuranceFallback());
+        assertFalse(profile.detailed());
+        assertEquals(0.9, profile.colIndexFactor(), 1e-9);
+    }
+
+    @Test
+    void repositoryPrecomputesProfilesForLoadedCities() {
+        DataRepository repository = new DataRepository(new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+        repository.reload();
+        CityCostEntry austin = repository.getCity("austin-tx");
+        AuthoritativeMetrics metrics = repository.getAuthoritativeMetrics();
+
+        assertSame(repository.getCostProfile(austin, metrics), repository.getCostProfile(austin, metrics));
+        assertEquals(CityCostProfile.of(austin, repository.getTaxData(), metrics),
+                repository.getCostProfile(austin, metrics));
+        assertEquals(CityCostProfile.of(austin, repository.getTaxData(), null),
+                repository.getCostProfile(austin, null));
+        assertNull(repository.getCostProfile(austin, new AuthoritativeMetrics()));
+    }
+
+    private static TaxData taxData(Map<String, Double> localTaxes, double defaultCarInsuranceMonthly) {
+        TaxDefaults defaults = new TaxDefaults();
+        defaults.setDefaultCarInsuranceMonthly(defaultCarInsuranceMonthly);
+        TaxData taxData = new TaxData();
+        taxData.setDefaults(defaults);
+        taxData.setLocalTaxes(localTaxes);
+        return taxData;
+    }
+}
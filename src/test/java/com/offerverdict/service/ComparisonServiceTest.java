@@ -2,13 +2,19 @@ package com.offerverdict.service;
 
 import com.offerverdict.OfferVerdictApplication;
 import com.offerverdict.model.HouseholdType;
+import com.offerverdict.model.ComparisonResult;
 import com.offerverdict.model.HousingType;
+import com.offerverdict.model.SimulationForm;
 import com.offerverdict.model.Verdict;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(classes = OfferVerdictApplication.class, webEnvironment = SpringBootTest.WebEnvironment.NONE)
@@ -44,4 +50,31 @@ class ComparisonServiceTest {
 
         assertTrue(result.getMonthlyGainStr().matches("^[+-]\\$[0-9,]+/mo$"));
     }
+
+    @Test
+    void simulateReusesCurrentSideWhenOnlyOfferFieldsChange() {
+        ComparisonResult first = comparisonService.simulate(form(150_000, false), null);
+        assertNotNull(first.getSimulationToken());
+
+        ComparisonResult moved = comparisonService.simulate(form(165_000, false), first.getSimulationToken());
+        ComparisonResult fresh = comparisonService.simulate(form(165_000, false), null);
+
+        assertSame(first.getCurrent(), moved.getCurrent());
+        assertNull(comparisonService.simulationForm(first.getSimulationToken()));
+        assertEquals(fresh.getOffer().getResidual(), moved.getOffer().getResidual());
+        assertEquals(fresh.getDeltaPercent(), moved.getDeltaPercent());
+        assertEquals(fresh.getVerdict(), moved.getVerdict());
+        assertEquals(fresh.getMonthlyGainStr(), moved.getMonthlyGainStr());
+
+        // Student loans apply to both cities, so the current side is recomputed.
+        ComparisonResult shared = comparisonService.simulate(form(165_000, true), moved.getSimulationToken());
+        assertNotSame(moved.getCurrent(), shared.getCurrent());
+        assertEquals(form(165_000, true), comparisonService.simulationForm(shared.getSimulationToken()));
+        assertNull(comparisonService.simulationForm("expired-or-unknown"));
+    }
+
+    private static SimulationForm form(double offerSalary, boolean hasStudentLoan) {
+        return new SimulationForm("austin-tx", "san-francisco-ca", 120_000, offerSalary, false, false,
+                hasStudentLoan, false, 0, 150, false, false, true, 0, 0, 1.0, 20);
+    }
 }
@@ -0,0 +1,149 @@
+package com.offerverdict.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
+import com.offerverdict.config.AppProperties;
+import com.offerverdict.data.DataRepository;
+import com.offerverdict.model.CityCostEntry;
+import com.offerverdict.model.ComparisonBreakdown;
+import com.offerverdict.model.CostModelBundle;
+import com.offerverdict.model.HouseholdType;
+import com.offerverdict.model.HousingType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Golden tests for the client-side cost model: for every city pair sampled and every input
+ * combination the simulation lab can send, {@link CostModelReferenceEvaluator} over the
+ * JSON-serialized bundle must reproduce {@link SingleCityAnalysisService#analyze} exactly.
+ */
+class CostModelBundleGoldenTest {
+
+    private static final double[] SALARIES = {0, 18_000, 62_500, 120_000, 176_543.21, 410_000};
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final DataRepository repository = repository(objectMapper);
+    private final AppProperties appProperties = appProperties();
+    private final FinancialEngine financialEngine = new FinancialEngine(repository);
+    private final SingleCityAnalysisService analysisService = new SingleCityAnalysisService(
+            new TaxCalculatorService(repository), financialEngine, appProperties,
+            new AppMetrics(new SimpleMeterRegistry()));
+    private final CostModelBundleService bundleService = new CostModelBundleService(repository, financialEngine,
+            appProperties, objectMapper);
+
+    @Test
+    void bundleReproducesServerAnalysisForEveryCity() throws Exception {
+        List<CityCostEntry> cities = repository.getCities();
+        for (int i = 0; i < cities.size(); i++) {
+            CityCostEntry cityA = cities.get(i);
+            CityCostEntry cityB = cities.get((i * 7 + 3) % cities.size());
+            CostModelBundle bundle = objectMapper.readValue(
+                    objectMapper.writeValueAsString(bundleService.bundle(cityA.getSlug(), cityB.getSlug())),
+                    CostModelBundle.class);
+            CostModelReferenceEvaluator evaluator = new CostModelReferenceEvaluator(bundle);
+            for (CityCostEntry city : List.of(cityA, cityB)) {
+                assertMatches(evaluator, city, i);
+            }
+        }
+    }
+
+    @Test
+    void bundleReproducesCostOfLivingFallbackForCitiesWithoutDetails() throws Exception {
+        // Every shipped city has a detailed breakdown; this one exercises the colIndex path.
+        CityCostEntry sparse = new CityCostEntry("Sparse", "OR", "sparse-or", 0, 87.5, 50_000, 0, null);
+        CostModelBundle bundle = objectMapper.readValue(
+                objectMapper.writeValueAsString(bundleService.bundle(List.of(sparse))), CostModelBundle.class);
+
+        assertMatches(new CostModelReferenceEvaluator(bundle), sparse, 3);
+    }
+
+    @Test
+    void versionIsStableAndTracksContent() {
+        CostModelBundle first = bundleService.bundle("austin-tx", "seattle-wa");
+
+        assertSame(first, bundleService.bundle("austin-tx", "seattle-wa"));
+        assertSame(first, bundleService.bundle("Austin-TX", "seattle-wa"));
+        assertEquals(16, first.version().length());
+        assertEquals(2, first.cities().size());
+        assertNotEquals(first.version(), bundleService.bundle("seattle-wa", "austin-tx").version());
+
+        // Bundles are cached per data version, so a changed setting shows after the next reload.
+        appProperties.setCommuteCostPerMinute(appProperties.getCommuteCostPerMinute() + 1);
+        assertSame(first, bundleService.bundle("austin-tx", "seattle-wa"));
+        repository.reload();
+        CostModelBundle reloaded = bundleService.bundle("austin-tx", "seattle-wa");
+        assertNotSame(first, reloaded);
+        assertNotEquals(first.version(), reloaded.version());
+    }
+
+    private void assertMatches(CostModelReferenceEvaluator evaluator, CityCostEntry city, int seed) {
+        int combination = 0;
+        for (double salary : SALARIES) {
+            for (HouseholdType household : HouseholdType.values()) {
+                for (HousingType housing : HousingType.values()) {
+                    for (int flags = 0; flags < 8; flags++) {
+                        combination++;
+                        Boolean married = flags % 3 == 0 ? null : (flags & 1) == 1;
+                        Double rate = (flags & 2) == 0 ? null : 4.0 + (seed % 5);
+                        Double insurance = (flags & 4) == 0 ? null : 100.0 + flags * 50;
+                        double loans = (flags & 1) * 800.0;
+                        double leaks = (seed + combination) % 4 * 75.0;
+                        double sideHustle = (flags & 2) * 120.0;
+                        boolean remote = (flags & 4) != 0;
+                        boolean carOwner = (flags & 3) != 0;
+                        double commute = (combination % 5) * 12.5;
+
+                        ComparisonBreakdown expected = analysisService.analyze(salary, city,
+                                repository.getAuthoritativeMetrics(), household, housing, married, rate, insurance,
+                                loans, leaks, sideHustle, remote, carOwner, 5_000, 12_000, 1.5, commute);
+                        CostModelReferenceEvaluator.Result actual = evaluator.analyze(city.getSlug(), salary,
+                                household, housing, married, rate, insurance, loans, leaks, sideHustle, remote,
+                                carOwner, 5_000, 12_000, 1.5, commute);
+
+                        String where = city.getSlug() + " #" + combination;
+                        assertEquals(expected.getNetMonthly(), actual.netMonthly(), where);
+                        assertEquals(expected.getRent(), actual.rent(), where);
+                        assertEquals(expected.getLivingCost(), actual.livingCost(), where);
+                        assertEquals(expected.getResidual(), actual.residual(), where);
+                        assertEquals(expected.getGroceries(), actual.groceries(), where);
+                        assertEquals(expected.getTransport(), actual.transport(), where);
+                        assertEquals(expected.getUtilities(), actual.utilities(), where);
+                        assertEquals(expected.getMisc(), actual.misc(), where);
+                        assertEquals(expected.getLocalTax(), actual.localTax(), where);
+                        assertEquals(expected.getInsurance(), actual.insurance(), where);
+                        assertEquals(expected.getYearsToBuyHouse(), actual.yearsToBuyHouse(), where);
+                        assertEquals(expected.getMonthsToBuyTesla(), actual.monthsToBuyTesla(), where);
+                        assertEquals(expected.getRealHourlyRate(), actual.realHourlyRate(), where);
+                        assertEquals(expected.getTaxResult().getFicaTax(), actual.ficaTax(), where);
+                        assertEquals(expected.getTaxResult().getFederalTax(), actual.federalTax(), where);
+                        assertEquals(expected.getTaxResult().getStateTax(), actual.stateTax(), where);
+                        assertEquals(expected.getTaxResult().getNetIncome(), actual.netIncome(), where);
+                        assertEquals(expected.getTaxResult().getEffectiveTaxRate(), actual.effectiveTaxRate(), where);
+                    }
+                }
+            }
+        }
+    }
+
+    private static DataRepository repository(ObjectMapper objectMapper) {
+        DataRepository repository = new DataRepository(objectMapper);
+        repository.reload();
+        return repository;
+    }
+
+    private static AppProperties appProperties() {
+        AppProperties appProperties = new AppProperties();
+        // Mirrors application.yml; the rest of the decision-model defaults live on AppProperties.
+        appProperties.setBaselineLivingCost(1800);
+        return appProperties;
+    }
+}
@@ -0,0 +1,163 @@
+package com.offerverdict.service;
+
+import com.offerverdict.model.CityCostProfile;
+import com.offerverdict.model.CostModelBundle;
+import com.offerverdict.model.Fica;
+import com.offerverdict.model.HouseholdType;
+import com.offerverdict.model.HousingType;
+import com.offerverdict.model.TaxBracket;
+
+import java.util.List;
+
+/**
+ * Evaluates a single-city analysis from a {@link CostModelBundle} alone, the way the
+ * simulation lab front end does. It is the executable spec for the bundle: every formula and
+ * the order of every floating-point operation match {@link SingleCityAnalysisService#analyze}
+ * and {@link TaxCalculatorService#calculateTax}, so results are bit-identical.
+ */
+final class CostModelReferenceEvaluator {
+
+    record Result(double netMonthly, double rent, double livingCost, double residual, double groceries,
+            double transport, double utilities, double misc, double localTax, double insurance,
+            double yearsToBuyHouse, double monthsToBuyTesla, double realHourlyRate, double ficaTax,
+            double federalTax, double stateTax, double netIncome, double effectiveTaxRate) {
+    }
+
+    private final CostModelBundle bundle;
+
+    CostModelReferenceEvaluator(CostModelBundle bundle) {
+        this.bundle = bundle;
+    }
+
+    Result analyze(String citySlug, double salary, HouseholdType householdType, HousingType housingType,
+            Boolean isMarried, Double fourOhOneKRate, Double monthlyInsurance, double studentLoanOrChildcare,
+            double extraLeaks, double sideHustle, boolean isRemote, boolean isCarOwner, double signingBonus,
+            double equityAnnual, double equityMultiplier, double commuteTime) {
+        CostModelBundle.City city = bundle.cities().stream()
+                .filter(candidate -> candidate.slug().equals(citySlug))
+                .findFirst()
+                .orElseThrow();
+        CityCostProfile costs = city.costs();
+        CostModelBundle.Constants constants = bundle.constants();
+
+        double[] tax = tax(salary, city.taxState(),
+                isMarried != null ? isMarried : (householdType == HouseholdType.FAMILY),
+                fourOhOneKRate != null ? fourOhOneKRate / 100.0 : null,
+                monthlyInsurance,
+                studentLoanOrChildcare > 0 ? studentLoanOrChildcare * 12 : null);
+        double netAnnual = tax[3];
+
+        double localTaxAnnual = salary * costs.localTaxRate();
+        double insuranceAnnual = isCarOwner ? costs.carInsuranceAnnual() : 0.0;
+        double annualEquity = equityAnnual * equityMultiplier;
+        double amortizedSigning = signingBonus / 1.0;
+        double totalAnnualNet = netAnnual - localTaxAnnual - insuranceAnnual + annualEquity + amortizedSigning;
+        double netMonthly = totalAnnualNet / 12.0;
+
+        double householdMultiplier = householdType == HouseholdType.FAMILY ? constants.familyCostMultiplier() : 1.0;
+        double rent = housingType == HousingType.RENT ? costs.rent() : 0.0;
+        double housingCost = switch (housingType) {
+            case OWN -> costs.ownHousingMonthly();
+            case PARENTS -> constants.parentsHousingMonthly();
+            default -> 0.0;
+        };
+        boolean transit = isRemote || !isCarOwner;
+
+        double livingCost;
+        double groceries, transport, utilities, misc;
+        if (costs.detailed()) {
+            groceries = costs.groceries() * householdMultiplier;
+            transport = costs.transport() * householdMultiplier;
+            if (commuteTime > 0) {
+                transport += (commuteTime * constants.commuteCostPerMinute());
+            }
+            utilities = costs.utilities() * householdMultiplier;
+            misc = costs.misc() * householdMultiplier;
+            if (transit) {
+                transport *= constants.transitTransportFactor();
+            }
+            livingCost = groceries + transport + utilities + misc;
+        } else {
+            livingCost = constants.baselineLivingCost() * costs.colIndexFactor() * householdMultiplier;
+            groceries = livingCost * 0.30;
+            transport = livingCost * 0.15;
+            if (transit) {
+                transport *= constants.transitTransportFactor();
+            }
+            utilities = livingCost * 0.10;
+            misc = livingCost - (groceries + transport + utilities);
+        }
+
+        double totalHousingCost = rent + housingCost;
+        double residual = (netMonthly + sideHustle)
+                - (totalHousingCost + livingCost + studentLoanOrChildcare + extraLeaks);
+        double yearsToBuyHouse = residual > 0 ? costs.houseDownPayment() / (residual * 12) : 99.0;
+        double monthsToBuyTesla = residual > 0 ? constants.carAffordabilityTarget() / residual : 99.0;
+        double workHoursMonthly = 2080.0 / 12.0;
+        double commuteHoursMonthly = (commuteTime * 2 * 22) / 60.0;
+        double realHourlyRate = netMonthly / (workHoursMonthly + commuteHoursMonthly);
+
+        return new Result(netMonthly, totalHousingCost, livingCost, residual, groceries, transport, utilities,
+                misc, localTaxAnnual / 12.0, insuranceAnnual / 12.0, yearsToBuyHouse, monthsToBuyTesla,
+                realHourlyRate, tax[0], tax[1], tax[2], netAnnual, tax[4]);
+    }
+
+    /**
+     * The tax waterfall without RSUs: {@code [fica, federal, state, net, effectiveRatePercent]}.
+     */
+    private double[] tax(double grossIncome, String taxState, boolean married, Double preTax401kRate,
+            Double monthlyInsurance, Double studentLoanOrChildcare) {
+        CostModelBundle.Tax tax = bundle.tax();
+        double effective401kRate = preTax401kRate != null ? preTax401kRate : tax.default401kRate();
+        double annualInsurance = monthlyInsurance != null ? monthlyInsurance * 12 : tax.defaultAnnualInsurance();
+        double otherPreTaxDeductions = studentLoanOrChildcare != null ? studentLoanOrChildcare : 0.0;
+        double rsuValue = 0.0;
+
+        double ficaTaxableBase = grossIncome - annualInsurance + rsuValue;
+        double preTax401k = Math.min(grossIncome * effective401kRate, tax.max401kContribution());
+        double taxableIncome = Math.max(0, (grossIncome - annualInsurance) - preTax401k - otherPreTaxDeductions);
+
+        Fica fica = tax.fica();
+        double socialSecurity = Math.min(ficaTaxableBase, fica.getSocialSecurityCap()) * fica.getSocialSecurityRate();
+        double medicare = ficaTaxableBase * fica.getMedicareRate();
+        double threshold = married ? fica.getAdditionalMedicareThresholdMarried()
+                : fica.getAdditionalMedicareThresholdSingle();
+        double additionalMedicare = 0;
+        if (ficaTaxableBase > threshold) {
+            additionalMedicare = (ficaTaxableBase - threshold) * fica.getAdditionalMedicareRate();
+        }
+        double ficaTax = socialSecurity + medicare + additionalMedicare;
+
+        double standardDeduction = married ? tax.standardDeductionMarried() : tax.standardDeductionSingle();
+        double federalTaxable = Math.max(0, taxableIncome - standardDeduction);
+        double federalTax = brackets(federalTaxable, married ? tax.federalMarried() : tax.federalSingle())
+                + rsuValue * tax.rsuSupplementalRate();
+
+        CostModelBundle.StateBrackets state = tax.states().get(taxState);
+        double stateTax = brackets(taxableIncome + rsuValue, married ? state.married() : state.single());
+
+        double totalTax = ficaTax + federalTax + stateTax;
+        double totalGrossIncome = grossIncome + rsuValue;
+        double netIncome = Math.max(0,
+                totalGrossIncome - annualInsurance - preTax401k - otherPreTaxDeductions - totalTax);
+        double effectiveRate = totalGrossIncome > 0 ? ((ficaTax + federalTax + stateTax) / totalGrossIncome) * 100 : 0;
+        return new double[] {ficaTax, federalTax, stateTax, netIncome, effectiveRate};
+    }
+
+    private static double brackets(double taxableIncome, List<TaxBracket> brackets) {
+        double tax = 0;
+        double previousLimit = 0;
+        for (TaxBracket bracket : brackets) {
+            Double cap = bracket.getUpTo();
+            double limit = cap == null ? Double.MAX_VALUE : cap;
+            if (taxableIncome > previousLimit) {
+                tax += (Math.min(taxableIncome, limit) - previousLimit) * bracket.getRate();
+            }
+            if (cap == null || taxableIncome <= cap) {
+                break;
+            }
+            previousLimit = limit;
+        }
+        return tax;
+    }
+}
@@ -0,0 +1,94 @@
+package com.offerverdict.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
+import com.offerverdict.data.DataRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecordingServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void recordsParserEventsAndAllowsOneRecordingAtATime() throws Exception {
+        FlightRecordingService service = new FlightRecordingService(tempDir, "default", 60, 5, 0);
+        OfferTextParserService parser =
+                new OfferTextParserService(repository(), new AppMetrics(new SimpleMeterRegistry()));
+
+        FlightRecordingService.RecordingInfo info = service.start(Duration.ofSeconds(30));
+        assertEquals("RUNNING", info.state());
+        assertThrows(IllegalStateException.class, () -> service.start(Duration.ofSeconds(5)));
+
+        parser.parse("Offer for ICU RN in Seattle, WA at $62/hr with a $10,000 sign-on bonus.", "offer_review");
+        service.stop();
+
+        Path file = Path.of(info.file());
+        assertTrue(Files.size(file) > 0);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Set<String> detectors = events.stream()
+                .filter(event -> event.getEventType().getName().equals("offerverdict.ParserDetector"))
+                .map(event -> event.getString("detector"))
+                .collect(Collectors.toSet());
+        assertTrue(detectors.containsAll(Set.of("role", "unit", "cities", "hourly", "sign_on_bonus")), detectors.toString());
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("offerverdict.TextNormalize")));
+        assertNotEquals("RUNNING", service.current().orElseThrow().state());
+    }
+
+    @Test
+    void capsRequestedDuration() throws Exception {
+        FlightRecordingService service = new FlightRecordingService(tempDir, "default", 5, 5, 0);
+        try {
+            assertEquals(5, service.start(Duration.ofMinutes(10)).durationSeconds());
+        } finally {
+            service.stop();
+        }
+    }
+
+    @Test
+    void keepsOnlyTheNewestRecordingFiles() throws Exception {
+        FlightRecordingService service = new FlightRecordingService(tempDir, "default", 5, 2, 0);
+        Path stale = Files.writeString(tempDir.resolve("offerverdict-20200101-000000-1.jfr"), "");
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(0));
+        Path unrelated = Files.writeString(tempDir.resolve("notes.txt"), "");
+
+        service.start(Duration.ofSeconds(1));
+        service.stop();
+        service.start(Duration.ofSeconds(1));
+        service.stop();
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(2, files.filter(path -> path.toString().endsWith(".jfr")).count());
+        }
+        assertFalse(Files.exists(stale));
+        assertTrue(Files.exists(unrelated));
+    }
+
+    private static DataRepository repository() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        DataRepository repository = new DataRepository(objectMapper);
+        repository.reload();
+        return repository;
+    }
+}
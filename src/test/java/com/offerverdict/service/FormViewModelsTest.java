@@ -0,0 +1,90 @@
+package com.offerverdict.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.data.DataRepository;
+import com.offerverdict.model.CityCostEntry;
+import com.offerverdict.model.JobInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FormViewModelsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private final DataRepository repository = repository(objectMapper);
+    private final FormViewModels formViewModels = new FormViewModels(repository, objectMapper);
+
+    @Test
+    void snapshotIsBuiltOncePerDataVersion() {
+        FormViewModels.Snapshot first = formViewModels.current();
+
+        assertSame(first, formViewModels.current());
+        repository.reload();
+        FormViewModels.Snapshot reloaded = formViewModels.current();
+        assertNotSame(first, reloaded);
+        assertEquals(repository.getVersion(), reloaded.version());
+        assertSame(reloaded, formViewModels.current());
+    }
+
+    @Test
+    void groupsAndSortsLikeThePages() throws Exception {
+        FormViewModels.Snapshot snapshot = formViewModels.current();
+
+        List<String> expectedOrder = repository.getCities().stream()
+                .sorted(Comparator.comparingInt(CityCostEntry::getPriority).thenComparing(CityCostEntry::getCity))
+                .map(CityCostEntry::getSlug)
+                .toList();
+        assertEquals(expectedOrder, optionValues(snapshot.cityOptions().html(null)));
+        assertEquals(List.of("registered-nurse", "physical-therapist", "pharmacist", "medical-resident"),
+                optionValues(snapshot.roleOptions().html(null)));
+
+        Map<String, List<?>> citiesByState = objectMapper.readValue(snapshot.citiesByStateJson(),
+                new TypeReference<LinkedHashMap<String, List<?>>>() { });
+        assertEquals(repository.getCities().size(), citiesByState.values().stream().mapToInt(List::size).sum());
+        assertEquals(List.copyOf(citiesByState.keySet()), citiesByState.keySet().stream().sorted().toList());
+        Map<String, List<?>> jobsByCategory = objectMapper.readValue(snapshot.jobsByCategoryJson(),
+                new TypeReference<LinkedHashMap<String, List<?>>>() { });
+        assertEquals(List.copyOf(jobsByCategory.keySet()), jobsByCategory.keySet().stream().sorted().toList());
+    }
+
+    @Test
+    void optionBlocksEscapeAndMarkTheSelectedValue() {
+        FormViewModels.Snapshot snapshot = formViewModels.current();
+        String cities = snapshot.cityOptions().html("seattle-wa");
+
+        assertTrue(cities.startsWith("<option value=\"" + optionValues(cities).get(0) + "\">"));
+        assertTrue(cities.contains("<option value=\"seattle-wa\" selected=\"selected\">Seattle, WA</option>"), cities);
+        assertEquals(1, cities.split("selected=", -1).length - 1);
+        assertFalse(snapshot.cityOptions().html("nowhere").contains("selected="));
+        assertFalse(snapshot.roleOptions().html(null).contains("selected="));
+
+        JobInfo risky = new JobInfo("<script>&'", "a\"b", "Healthcare");
+        String html = FormViewModels.OptionBlock.of(List.of(risky), JobInfo::getSlug, JobInfo::getTitle).html("a\"b");
+        assertEquals("<option value=\"a&quot;b\" selected=\"selected\">&lt;script&gt;&amp;&#39;</option>", html);
+    }
+
+    private static List<String> optionValues(String html) {
+        return Pattern.compile("<option value=\"([^\"]*)\"").matcher(html).results()
+                .map(match -> match.group(1))
+                .toList();
+    }
+
+    private static DataRepository repository(ObjectMapper objectMapper) {
+        DataRepository repository = new DataRepository(objectMapper);
+        repository.reload();
+        return repository;
+    }
+}
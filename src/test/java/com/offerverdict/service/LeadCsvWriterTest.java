@@ -0,0 +1,154 @@
+package com.offerverdict.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeadCsvWriterTest {
+
+    private static final String HEADER = "timestamp,eventName";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void durableAppendIsVisibleInRollingDailyAndBackupFiles() throws Exception {
+        LeadCsvWriter writer = newWriter(1000);
+        writer.start();
+        try {
+            writer.appendDurable("leads.csv", HEADER, "2026-01-01T00:00:00,lead_submit_success");
+
+            String dailyName = "leads-" + LocalDate.now() + ".csv";
+            for (Path file : List.of(
+                    tempDir.resolve("leads/leads.csv"),
+                    tempDir.resolve("leads/" + dailyName),
+                    tempDir.resolve("backup/" + dailyName))) {
+                List<String> lines = Files.readAllLines(file);
+                assertEquals(List.of(HEADER, "2026-01-01T00:00:00,lead_submit_success"), lines);
+            }
+            assertTrue(writer.stats().fsyncCount() >= 1);
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test
+    void durableAppendThatOutlivesTheWaitIsAcceptedAndStillWritten() throws Exception {
+        // A zero wait means the writer thread cannot have fsynced the row before appendDurable returns.
+        LeadCsvWriter writer = new LeadCsvWriter(
+                tempDir.resolve("leads").toString(),
+                tempDir.resolve("backup").toString(),
+                1000,
+                64,
+                1000,
+                0);
+        writer.start();
+        try {
+            CompletableFuture<Void> committed = writer.appendDurable("leads.csv", HEADER, "2026-01-01T00:00:00,pending");
+
+            committed.get(5, TimeUnit.SECONDS);
+            assertEquals(List.of(HEADER, "2026-01-01T00:00:00,pending"),
+                    Files.readAllLines(tempDir.resolve("leads/leads.csv")));
+            assertEquals(0, writer.stats().droppedRows());
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Test
+    void rowsWithinTheFsyncIntervalShareOneFsync() throws Exception {
+        LeadCsvWriter writer = newWriter(2_000);
+        writer.start();
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        try {
+            // After a quiet spell the first row is fsynced at once; the next ones wait for the interval.
+            writer.appendDurable("leads.csv", HEADER, "t0,first");
+            assertEquals(1, writer.stats().fsyncCount());
+
+            long started = System.nanoTime();
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 1; i <= 5; i++) {
+                String row = "t" + i + ",lead_" + i;
+                writes.add(pool.submit(() -> writer.appendDurable("leads.csv", HEADER, row).get()));
+            }
+            for (Future<?> write : writes) {
+                write.get(10, TimeUnit.SECONDS);
+            }
+
+            assertEquals(2, writer.stats().fsyncCount());
+            assertEquals(6, writer.stats().writtenRows());
+            assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(1_000));
+        } finally {
+            pool.shutdownNow();
+            writer.close();
+        }
+    }
+
+    @Test
+    void concurrentLeadsAreGroupCommittedWithOneHeader() throws Exception {
+        LeadCsvWriter writer = newWriter(10);
+        writer.start();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String row = "t" + i + ",lead_" + i;
+                writes.add(pool.submit(() -> writer.appendDurable("leads.csv", HEADER, row).get()));
+            }
+            for (Future<?> write : writes) {
+                write.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+            writer.close();
+        }
+
+        List<String> lines = Files.readAllLines(tempDir.resolve("leads/leads.csv"));
+        assertEquals(401, lines.size());
+        assertEquals(HEADER, lines.get(0));
+        assertEquals(1, lines.stream().filter(HEADER::equals).count());
+
+        LeadCsvWriter.LeadWriterStats stats = writer.stats();
+        assertEquals(400, stats.writtenRows());
+        assertEquals(0, stats.queueDepth());
+        assertTrue(stats.largestBatchSize() <= 64);
+        assertTrue(stats.fsyncCount() <= stats.batches());
+        assertTrue(stats.fsyncCount() < stats.writtenRows());
+    }
+
+    @Test
+    void rowsAreRejectedAfterClose() {
+        LeadCsvWriter writer = newWriter(1000);
+        writer.start();
+        writer.close();
+
+        assertThrows(IOException.class, () -> writer.appendDurable("leads.csv", HEADER, "late,lead"));
+        LeadCsvWriter.LeadWriterStats stats = writer.stats();
+        assertEquals(1, stats.droppedRows());
+        assertEquals(0, stats.enqueuedRows());
+    }
+
+    private LeadCsvWriter newWriter(long fsyncIntervalMillis) {
+        return new LeadCsvWriter(
+                tempDir.resolve("leads").toString(),
+                tempDir.resolve("backup").toString(),
+                1000,
+                64,
+                fsyncIntervalMillis);
+    }
+}
@@ -0,0 +1,83 @@
+package com.offerverdict.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeadDedupeWindowTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Test
+    void duplicateWithinWindowIsRejectedAndExpiresAfterIt() {
+        AtomicLong now = new AtomicLong(1_000_000L * MINUTE);
+        LeadDedupeWindow window = new LeadDedupeWindow(15 * MINUTE, 1_000, now::get);
+
+        assertTrue(window.recordIfAbsent("nurse@example.com", "offer_review", "seattle-wa", "none"));
+        assertFalse(window.recordIfAbsent("nurse@example.com", "offer_review", "seattle-wa", "none"));
+        assertTrue(window.recordIfAbsent("nurse@example.com", "offer_review", "austin-tx", "none"));
+
+        now.addAndGet(14 * MINUTE);
+        assertFalse(window.recordIfAbsent("nurse@example.com", "offer_review", "seattle-wa", "none"));
+
+        now.addAndGet(3 * MINUTE);
+        assertTrue(window.recordIfAbsent("nurse@example.com", "offer_review", "seattle-wa", "none"));
+    }
+
+    @Test
+    void fieldBoundariesAreSignificant() {
+        LeadDedupeWindow window = new LeadDedupeWindow(15 * MINUTE, 1_000, () -> 0L);
+
+        assertTrue(window.recordIfAbsent("ab", "c"));
+        assertTrue(window.recordIfAbsent("a", "bc"));
+    }
+
+    @Test
+    void forgetAllowsRetryAfterFailedWrite() {
+        LeadDedupeWindow window = new LeadDedupeWindow(15 * MINUTE, 10_000, () -> 0L);
+        for (int i = 0; i < 200; i++) {
+            window.recordIfAbsent("user" + i + "@example.com");
+        }
+
+        window.forget("user42@example.com");
+
+        assertTrue(window.recordIfAbsent("user42@example.com"));
+        for (int i = 0; i < 200; i++) {
+            assertFalse(window.recordIfAbsent("user" + i + "@example.com"), "lost key " + i);
+        }
+    }
+
+    @Test
+    void memoryStaysBoundedUnderFlood() {
+        AtomicLong now = new AtomicLong(0);
+        LeadDedupeWindow window = new LeadDedupeWindow(15 * MINUTE, 1_600, now::get);
+
+        for (int i = 0; i < 100_000; i++) {
+            window.recordIfAbsent("bot" + i + "@example.com");
+            now.addAndGet(50);
+        }
+
+        assertTrue(window.size() <= 1_600 * 2, "size " + window.size());
+        assertTrue(window.overflowCount() > 0);
+    }
+
+    @Test
+    void concurrentIdenticalSubmissionsAdmitExactlyOne() {
+        LeadDedupeWindow window = new LeadDedupeWindow(15 * MINUTE, 10_000, System::currentTimeMillis);
+        AtomicInteger admitted = new AtomicInteger();
+
+        IntStream.range(0, 64).parallel().forEach(i -> {
+            if (window.recordIfAbsent("same@example.com", "offer_review", "seattle-wa", "none")) {
+                admitted.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, admitted.get());
+    }
+}
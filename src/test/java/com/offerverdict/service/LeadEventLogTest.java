@@ -0,0 +1,120 @@
+package com.offerverdict.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeadEventLogTest {
+
+    private static final long DAY_ONE = LocalDate.of(2026, 3, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    private static final long DAY_TWO = LocalDate.of(2026, 3, 2).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    private static final String USER_AGENT = "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4 like Mac OS X) AppleWebKit/605.1.15";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void exportRoundTripsEventsAsLegacyCsv() throws Exception {
+        LeadEventLog log = newLog(64 * 1024);
+        log.append(event(DAY_ONE + 1_000, "lead_form_open", "/icu-rn-float-policy", "1.2.3.4"));
+        log.append(event(DAY_ONE + 2_000, "lead_submit_click", "/a,b \"quoted\"", "5.6.7.8"));
+        log.close();
+
+        StringWriter csv = new StringWriter();
+        log.exportCsv(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 1), csv);
+        List<String> lines = csv.toString().lines().toList();
+
+        assertEquals(3, lines.size());
+        assertEquals(LeadEventLog.CSV_HEADER, lines.get(0));
+        assertEquals("2026-03-01T00:00:01,lead_form_open,offer_review,seattle-wa,registered-nurse,"
+                + "/icu-rn-float-policy,https://google.com," + USER_AGENT + ",1.2.3.4", lines.get(1));
+        assertTrue(lines.get(2).contains(",\"/a,b \"\"quoted\"\"\","));
+    }
+
+    @Test
+    void countsByDayEventAndIntentAcrossDayRollover() throws Exception {
+        LeadEventLog log = newLog(64 * 1024);
+        for (int i = 0; i < 30; i++) {
+            log.append(event(DAY_ONE + i, "lead_form_open", "/p" + (i % 3), "10.0.0." + i));
+        }
+        for (int i = 0; i < 5; i++) {
+            log.append(event(DAY_TWO + i, "lead_submit_success", "/p", "10.0.1." + i));
+        }
+
+        // Reads flush the in-memory buffer, so an open log is queryable.
+        List<LeadEventLog.EventCount> counts = log.countByDay(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 2));
+        log.close();
+
+        assertEquals(List.of(
+                new LeadEventLog.EventCount(LocalDate.of(2026, 3, 1), "lead_form_open", "offer_review", 30),
+                new LeadEventLog.EventCount(LocalDate.of(2026, 3, 2), "lead_submit_success", "offer_review", 5)),
+                counts);
+        assertEquals(1, log.countByDay(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 2)).size());
+        try (Stream<Path> segments = Files.list(tempDir.resolve("events"))) {
+            assertEquals(2, segments.count());
+        }
+        try (Stream<Path> backups = Files.list(tempDir.resolve("backup"))) {
+            assertEquals(2, backups.count());
+        }
+    }
+
+    @Test
+    void repeatedStringsAreStoredOnceAndSegmentsRollBySize() throws Exception {
+        LeadEventLog log = newLog(64 * 1024);
+        for (int i = 0; i < 5_000; i++) {
+            log.append(event(DAY_ONE + i, "lead_form_open", "/icu-rn-float-policy", "192.168.0." + (i % 250)));
+        }
+        log.close();
+
+        long totalBytes;
+        try (Stream<Path> segments = Files.list(tempDir.resolve("events"))) {
+            List<Path> files = segments.toList();
+            assertTrue(files.size() >= 2, "expected size-based rollover");
+            totalBytes = 0;
+            for (Path file : files) {
+                totalBytes += Files.size(file);
+            }
+        }
+        // Roughly 30 bytes per event versus ~200 per CSV row (times three copies).
+        assertTrue(totalBytes < 5_000 * 40L, "binary log too large: " + totalBytes);
+        assertEquals(5_000, log.countByDay(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 1)).get(0).count());
+    }
+
+    @Test
+    void truncatedTailIsIgnored() throws Exception {
+        LeadEventLog log = newLog(64 * 1024);
+        log.append(event(DAY_ONE, "lead_form_open", "/p", "1.1.1.1"));
+        log.append(event(DAY_ONE + 1, "lead_form_open", "/p", "1.1.1.2"));
+        log.close();
+
+        Path segment;
+        try (Stream<Path> segments = Files.list(tempDir.resolve("events"))) {
+            segment = segments.findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(segment);
+        Files.write(segment, Arrays.copyOf(bytes, bytes.length - 3));
+
+        assertEquals(1, log.countByDay(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 1)).get(0).count());
+    }
+
+    private LeadEventLog newLog(long maxSegmentBytes) {
+        return new LeadEventLog(tempDir.resolve("events"), tempDir.resolve("backup"), maxSegmentBytes, 60_000,
+                ZoneOffset.UTC);
+    }
+
+    private LeadEventLog.LeadEvent event(long epochMillis, String eventName, String sourcePath, String ip) {
+        return new LeadEventLog.LeadEvent(epochMillis, eventName, "offer_review", "seattle-wa", "registered-nurse",
+                sourcePath, "https://google.com", USER_AGENT, ip);
+    }
+}
@@ -0,0 +1,104 @@
+package com.offerverdict.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.data.DataRepository;
+import com.offerverdict.model.StateTax;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NetPayGridTest {
+
+    private final DataRepository repository = repository();
+    private final TaxCalculatorService calculator = calculator(repository);
+
+    @Test
+    void interpolatedNetStaysWithinDocumentedBoundForEveryState() {
+        List<String> states = new ArrayList<>();
+        for (StateTax state : repository.getTaxData().getStates()) {
+            states.add(state.getState());
+        }
+        states.add("ZZ");
+
+        double worst = 0;
+        for (String state : states) {
+            for (boolean married : new boolean[] {false, true}) {
+                for (double gross = 0; gross <= 650_000; gross += 61.7) {
+                    double exact = exact(gross, state, married, null, null);
+                    double estimate = calculator.estimateNetIncome(gross, state, married, null, null);
+                    worst = Math.max(worst, Math.abs(estimate - exact));
+                }
+            }
+        }
+        assertTrue(worst <= NetPayGrid.MAX_INTERPOLATION_ERROR, "worst error " + worst);
+    }
+
+    @Test
+    void gridPointsAndSalariesOutsideTheGridAreExact() {
+        for (double gross : new double[] {0, 2_540, 10_000, 10_500, 95_000, 185_000, 1_000_000, 1_250_000.5}) {
+            assertEquals(exact(gross, "ca", true, 0.06, 250.0),
+                    calculator.estimateNetIncome(gross, "ca", true, 0.06, 250.0));
+        }
+    }
+
+    @Test
+    void gridsAreBuiltPerDataVersionAndSwappedOnReload() {
+        NetPayGrid grid = calculator.netPayGrid("tx", false);
+
+        assertNotNull(grid);
+        assertSame(grid, calculator.netPayGrid("TX", false));
+        assertNotSame(grid, calculator.netPayGrid("TX", true));
+        assertNull(calculator.netPayGrid("ZZ", false));
+        repository.reload();
+        NetPayGrid rebuilt = calculator.netPayGrid("TX", false);
+        assertNotNull(rebuilt);
+        assertNotSame(grid, rebuilt);
+    }
+
+    @Test
+    void readsFallBackToExactWhileTheGridsAreStale() {
+        TaxCalculatorService unbuilt = new TaxCalculatorService(repository);
+
+        assertNull(unbuilt.netPayGrid("TX", false));
+        assertEquals(exact(123_456.7, "TX", false, null, null),
+                unbuilt.estimateNetIncome(123_456.7, "TX", false, null, null));
+    }
+
+    @Test
+    void buildSamplesInclusiveRange() {
+        NetPayGrid grid = NetPayGrid.build(gross -> gross * 0.5, 500, 1000, 5000);
+
+        assertEquals(4500, grid.maxGross());
+        assertEquals(2250, grid.netIncome(4500));
+        assertEquals(1000, grid.netIncome(2000));
+        assertThrows(IllegalArgumentException.class, () -> grid.netIncome(4501));
+        assertThrows(IllegalArgumentException.class, () -> grid.netIncome(499));
+    }
+
+    private double exact(double gross, String state, boolean married, Double rate, Double insurance) {
+        return calculator.calculateTax(gross, state, married, rate, insurance, null, null).getNetIncome();
+    }
+
+    private static TaxCalculatorService calculator(DataRepository repository) {
+        TaxCalculatorService calculator = new TaxCalculatorService(repository);
+        calculator.init();
+        return calculator;
+    }
+
+    private static DataRepository repository() {
+        DataRepository repository = new DataRepository(new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+        repository.reload();
+        return repository;
+    }
+}
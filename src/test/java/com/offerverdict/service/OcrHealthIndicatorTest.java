@@ -0,0 +1,52 @@
+package com.offerverdict.service;
+
+import com.offerverdict.config.AppMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OcrHealthIndicatorTest {
+
+    @Test
+    void reportsOutOfServiceUntilWarmupFinishes() {
+        OfferDocumentOcrService warming = new OfferDocumentOcrService(new AppMetrics(new SimpleMeterRegistry()), true);
+
+        Health health = new OcrHealthIndicator(warming).health();
+
+        assertEquals(Status.OUT_OF_SERVICE, health.getStatus());
+        assertEquals("warming", health.getDetails().get("warmup"));
+    }
+
+    @Test
+    void failedWarmupStaysUpWithTheFailureInTheDetails() {
+        OfferDocumentOcrService failed = new OfferDocumentOcrService(new AppMetrics(new SimpleMeterRegistry())) {
+            @Override
+            public Warmup warmup() {
+                return Warmup.FAILED;
+            }
+
+            @Override
+            public String warmupFailure() {
+                return "java.lang.UnsatisfiedLinkError: libtesseract";
+            }
+        };
+
+        Health health = new OcrHealthIndicator(failed).health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("failed", health.getDetails().get("warmup"));
+        assertEquals("java.lang.UnsatisfiedLinkError: libtesseract", health.getDetails().get("error"));
+    }
+
+    @Test
+    void reportsUpWhenWarmupIsDisabled() {
+        OfferDocumentOcrService idle = new OfferDocumentOcrService(new AppMetrics(new SimpleMeterRegistry()));
+        Health health = new OcrHealthIndicator(idle).health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("disabled", health.getDetails().get("warmup"));
+    }
+}
@@ -0,0 +1,122 @@
+package com.offerverdict.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
+import com.offerverdict.config.AppProperties;
+import com.offerverdict.data.DataRepository;
+import com.offerverdict.exception.BadRequestException;
+import com.offerverdict.model.OfferTextParseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OfferBatchParseServiceTest {
+
+    private static final String POST = "Travel ICU RN in Seattle, WA. $62/hr, 36 hours per week, $10,000 sign-on bonus.";
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    private OfferBatchParseService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test
+    void streamsResultsInInputOrderAndIsolatesFailures() throws Exception {
+        service = service(2, 100, 1 << 20);
+        List<OfferBatchParseService.Item> items = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            items.add(new OfferBatchParseService.Item("post-" + i, i == 7 ? "boom" : POST.replace("62", String.valueOf(40 + i))));
+        }
+
+        List<OfferBatchParseService.ItemResult> results = new ArrayList<>();
+        service.run(items, "job_post", true, results::add);
+
+        assertEquals(25, results.size());
+        for (int i = 0; i < 25; i++) {
+            OfferBatchParseService.ItemResult result = results.get(i);
+            assertEquals(i, result.index());
+            assertEquals("post-" + i, result.id());
+            if (i == 7) {
+                assertEquals("error", result.status());
+                assertNull(result.parse());
+            } else {
+                assertEquals("ok", result.status());
+                assertEquals("job_post", result.parse().getAnalysisMode());
+                assertEquals(40 + i, result.parse().getDraft().getOfferHourlyRate());
+                assertNotNull(result.report());
+            }
+        }
+        String line = objectMapper.writeValueAsString(results.get(7));
+        assertTrue(line.contains("\"status\":\"error\"") && !line.contains("\"parse\""), line);
+    }
+
+    @Test
+    void readsJsonAndNdjsonBodies() throws Exception {
+        service = service(1, 100, 1 << 20);
+
+        List<OfferBatchParseService.Item> json = service.readItems(body("{\"items\":[\"first\",{\"id\":7,\"text\":\"second\"}]}"), false);
+        List<OfferBatchParseService.Item> array = service.readItems(body("[\"first\",{\"text\":\"second\"}]"), false);
+        List<OfferBatchParseService.Item> ndjson = service.readItems(body("\"first\"\n\n{\"id\":\"a\",\"text\":\"second\"}\n"), true);
+
+        assertEquals(List.of(new OfferBatchParseService.Item(null, "first"), new OfferBatchParseService.Item("7", "second")), json);
+        assertEquals(List.of("first", "second"), array.stream().map(OfferBatchParseService.Item::text).collect(Collectors.toList()));
+        assertEquals(new OfferBatchParseService.Item("a", "second"), ndjson.get(1));
+        assertThrows(BadRequestException.class, () -> service.readItems(body("{\"items\":[{\"id\":1}]}"), false));
+        assertThrows(BadRequestException.class, () -> service.readItems(body("not json"), true));
+        assertThrows(BadRequestException.class, () -> service.readItems(body("[]"), false));
+    }
+
+    @Test
+    void enforcesItemAndByteLimits() {
+        service = service(1, 2, 64);
+
+        assertThrows(OfferBatchParseService.BatchTooLargeException.class,
+                () -> service.readItems(body("[\"a\",\"b\",\"c\"]"), false));
+        assertThrows(OfferBatchParseService.BatchTooLargeException.class,
+                () -> service.readItems(body("[\"" + "x".repeat(80) + "\"]"), false));
+    }
+
+    private OfferBatchParseService service(int threads, int maxItems, long maxBytes) {
+        DataRepository repository = new DataRepository(objectMapper);
+        repository.reload();
+        AppMetrics metrics = new AppMetrics(new SimpleMeterRegistry());
+        OfferTextParserService parser = new OfferTextParserService(repository, metrics) {
+            @Override
+            public OfferTextParseResult parse(String sourceText, String analysisMode) {
+                if ("boom".equals(sourceText)) {
+                    throw new IllegalStateException("boom");
+                }
+                return super.parse(sourceText, analysisMode);
+            }
+        };
+        AppProperties appProperties = new AppProperties();
+        appProperties.setBaselineLivingCost(1800);
+        SingleCityAnalysisService analysisService = new SingleCityAnalysisService(
+                new TaxCalculatorService(repository), new FinancialEngine(repository), appProperties, metrics);
+        OfferRiskService riskService = new OfferRiskService(repository, analysisService, metrics);
+        return new OfferBatchParseService(parser, riskService, objectMapper, metrics, threads, maxItems, maxBytes);
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
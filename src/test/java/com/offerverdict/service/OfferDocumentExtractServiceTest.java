@@ -1,6 +1,12 @@
 package com.offerverdict.service;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
+import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.OfferDocumentExtractResult;
+import com.offerverdict.util.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
@@ -20,13 +26,78 @@ import java.awt.image.ConvolveOp;
 import java.awt.image.Kernel;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.function.ToIntFunction;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class OfferDocumentExtractServiceTest {
 
     private final OfferDocumentExtractService service =
-            new OfferDocumentExtractService(new OfferDocumentOcrService());
+            new OfferDocumentExtractService(new OfferDocumentOcrService(metrics()), metrics());
+
+    @Test
+    void extract_recordsTimerByPathAndOutcome() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OfferDocumentExtractService measured =
+                new OfferDocumentExtractService(new OfferDocumentOcrService(metrics()), new AppMetrics(registry));
+
+        measured.extract("", new MockMultipartFile("sourceFile", "offer.txt", "text/plain",
+                "ICU RN offer in Seattle WA at $60/hr".getBytes()));
+        measured.extract("", new MockMultipartFile("sourceFile", "offer.docx",
+                "application/octet-stream", new byte[] {1, 2, 3}));
+        measured.extract("", null);
+
+        assertEquals(1, registry.get(AppMetrics.DOCUMENT_EXTRACT)
+                .tags("path", "text_file", "outcome", "ok").timer().count());
+        assertEquals(1, registry.get(AppMetrics.DOCUMENT_EXTRACT)
+                .tags("path", "unsupported", "outcome", "unsupported").timer().count());
+        assertEquals(1, registry.get(AppMetrics.DOCUMENT_EXTRACT)
+                .tags("path", "pasted", "outcome", "no_text").timer().count());
+    }
+
+    @Test
+    void extract_skipsOcrWhenWarmupFailed() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OfferDocumentOcrService unavailable = new OfferDocumentOcrService(metrics()) {
+            @Override
+            public boolean available() {
+                return false;
+            }
+        };
+        OfferDocumentExtractService gated = new OfferDocumentExtractService(unavailable, new AppMetrics(registry));
+
+        OfferDocumentExtractResult result = gated.extract("pasted terms", new MockMultipartFile(
+                "sourceFile", "offer-shot.png", "image/png", pngBytes("ICU RN OFFER SEATTLE WA $60/HR")));
+
+        assertEquals("pasted terms", result.getSourceText());
+        assertTrue(result.getWarning().contains("unavailable"), result.getWarning());
+        assertEquals(0, result.getOcrPagesProcessed());
+        assertEquals(1, registry.get(AppMetrics.DOCUMENT_EXTRACT)
+                .tags("path", "image_ocr", "outcome", "ocr_unavailable").timer().count());
+    }
+
+    @Test
+    void extract_reportsTimeLimitWhenOcrLockWaitUsesTheBudget() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OfferDocumentOcrService busy = new OfferDocumentOcrService(metrics()) {
+            @Override
+            public OcrText extractImageText(byte[] bytes, ToIntFunction<String> missingFields, Deadline deadline) {
+                return new OcrText("", 0, 1, true);
+            }
+        };
+        OfferDocumentExtractService queued = new OfferDocumentExtractService(busy, new AppMetrics(registry));
+
+        OfferDocumentExtractResult result = queued.extract("pasted terms", new MockMultipartFile(
+                "sourceFile", "offer-shot.png", "image/png", new byte[] {1, 2, 3}));
+
+        assertEquals("pasted terms", result.getSourceText());
+        assertTrue(result.getWarning().contains("time limit"), result.getWarning());
+        assertEquals(1, result.getOcrPagesSkipped());
+        assertEquals(1, registry.get(AppMetrics.DOCUMENT_EXTRACT)
+                .tags("path", "image_ocr", "outcome", "timeout").timer().count());
+    }
 
     @Test
     void extract_readsTextFromUploadedImage() throws Exception {
@@ -67,6 +138,58 @@ class OfferDocumentExtractServiceTest {
         assertTrue(result.getSourceText().contains("60"));
     }
 
+    @Test
+    void extract_stopsPdfOcrOncePageOneHasEveryCriticalField() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        DataRepository repository = new DataRepository(objectMapper);
+        repository.reload();
+        AppMetrics metrics = metrics();
+        OfferDocumentExtractService earlyStop = new OfferDocumentExtractService(
+                new OfferDocumentOcrService(metrics), new OfferTextParserService(repository, metrics), metrics, true,
+                20_000, 30_000);
+        MockMultipartFile file = new MockMultipartFile(
+                "sourceFile",
+                "job-post-scan.pdf",
+                "application/pdf",
+                imagePdfBytes(
+                        new String[] {"ICU RN TRAVEL JOB", "SEATTLE WA $60/HR", "36 HOURS PER WEEK"},
+                        new String[] {"EQUAL OPPORTUNITY EMPLOYER", "BENEFITS OVERVIEW"},
+                        new String[] {"APPLY ONLINE", "QUESTIONS CALL RECRUITING"}));
+
+        OfferDocumentExtractResult result = earlyStop.extract("", file, "job_post");
+
+        assertEquals(1, result.getOcrPagesProcessed());
+        assertEquals(2, result.getOcrPagesSkipped());
+        assertTrue(result.getSourceLabel().contains("read 1 of 3 pages"));
+        assertTrue(result.getSourceText().toLowerCase().contains("seattle"));
+        assertFalse(result.getSourceText().toLowerCase().contains("apply online"));
+
+        OfferDocumentExtractResult full = service.extract("", file);
+        assertEquals(3, full.getOcrPagesProcessed());
+        assertEquals(0, full.getOcrPagesSkipped());
+    }
+
+    @Test
+    void extract_returnsBestTextSoFarWhenOcrBudgetRunsOut() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        OfferDocumentExtractService hurried = new OfferDocumentExtractService(
+                new OfferDocumentOcrService(metrics()), null, new AppMetrics(registry), false, 1, 1);
+        MockMultipartFile file = new MockMultipartFile(
+                "sourceFile",
+                "offer-shot.png",
+                "image/png",
+                pngBytes("NEW ICU RN OFFER SEATTLE WA $60/HR", "SIGN ON BONUS $15000"));
+
+        OfferDocumentExtractResult result = hurried.extract("", file);
+
+        assertTrue(result.getWarning().contains("time limit"), result.getWarning());
+        assertTrue(result.getSourceText().toLowerCase().contains("seattle"));
+        assertEquals(1, result.getOcrPagesProcessed());
+        assertTrue(result.getOcrPagesSkipped() > 0, "skipped " + result.getOcrPagesSkipped());
+        assertEquals(1, registry.get(AppMetrics.OCR_TIMEOUTS).tags("path", "image_ocr").counter().count());
+    }
+
     @Test
     void extract_recoversTextFromTiltedImage() throws Exception {
         MockMultipartFile file = new MockMultipartFile(
@@ -139,14 +262,20 @@ class OfferDocumentExtractServiceTest {
     }
 
     private byte[] imagePdfBytes(String... lines) throws IOException {
-        BufferedImage image = ImageIO.read(new java.io.ByteArrayInputStream(pngBytes(lines)));
+        return imagePdfBytes(new String[][] {lines});
+    }
+
+    private byte[] imagePdfBytes(String[]... pages) throws IOException {
         try (PDDocument document = new PDDocument();
              ByteArrayOutputStream output = new ByteArrayOutputStream()) {
-            PDPage page = new PDPage();
-            document.addPage(page);
+            for (String[] lines : pages) {
+                BufferedImage image = ImageIO.read(new java.io.ByteArrayInputStream(pngBytes(lines)));
+                PDPage page = new PDPage();
+                document.addPage(page);
 
-            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
-                content.drawImage(LosslessFactory.createFromImage(document, image), 24, 180, 560, 480);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.drawImage(LosslessFactory.createFromImage(document, image), 24, 180, 560, 480);
+                }
             }
 
             document.save(output);
@@ -154,6 +283,10 @@ class OfferDocumentExtractServiceTest {
         }
     }
 
+    private static AppMetrics metrics() {
+        return new AppMetrics(new SimpleMeterRegistry());
+    }
+
     private byte[] tiltedPngBytes(String... lines) throws IOException {
         BufferedImage base = ImageIO.read(new java.io.ByteArrayInputStream(pngBytes(lines)));
         int width = base.getWidth() + 280;
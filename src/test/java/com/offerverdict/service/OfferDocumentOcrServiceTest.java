@@ -0,0 +1,77 @@
+package com.offerverdict.service;
+
+import com.offerverdict.config.AppMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class OfferDocumentOcrServiceTest {
+
+    private final OfferDocumentOcrService service =
+            new OfferDocumentOcrService(new AppMetrics(new SimpleMeterRegistry()));
+
+    @Test
+    void decodeSubsampling_keepsShorterSideAtOcrResolution() {
+        assertEquals(1, OfferDocumentOcrService.decodeSubsampling(1200, 1600));
+        assertEquals(1, OfferDocumentOcrService.decodeSubsampling(3000, 4000));
+        assertEquals(1, OfferDocumentOcrService.decodeSubsampling(3024, 4032));
+        assertEquals(2, OfferDocumentOcrService.decodeSubsampling(3600, 4800));
+        assertEquals(3, OfferDocumentOcrService.decodeSubsampling(8000, 6000));
+        // A long receipt-style strip is capped by pixel count instead of its short side.
+        assertEquals(3, OfferDocumentOcrService.decodeSubsampling(2000, 160_000));
+    }
+
+    @Test
+    void decodeForOcr_subsamplesLargeUploads() throws IOException {
+        BufferedImage decoded = service.decodeForOcr(png(3700, 4000));
+
+        assertEquals(1850, decoded.getWidth());
+        assertEquals(2000, decoded.getHeight());
+    }
+
+    @Test
+    void decodeForOcr_keepsSmallUploadsAndRejectsUnknownBytes() throws IOException {
+        BufferedImage decoded = service.decodeForOcr(png(900, 1200));
+
+        assertEquals(900, decoded.getWidth());
+        assertEquals(1200, decoded.getHeight());
+        assertNull(service.decodeForOcr(new byte[] {1, 2, 3}));
+        assertEquals("", service.extractImageText(new byte[] {1, 2, 3}));
+    }
+
+    @Test
+    void warmUp_replacesStaleTessdataAndBecomesReady() throws IOException {
+        Path trainedData = Path.of(System.getProperty("java.io.tmpdir"), "offerverdict-tessdata", "eng.traineddata");
+        Files.createDirectories(trainedData.getParent());
+        Files.write(trainedData, new byte[] {1, 2, 3});
+        OfferDocumentOcrService warming = new OfferDocumentOcrService(new AppMetrics(new SimpleMeterRegistry()), true);
+
+        assertEquals(OfferDocumentOcrService.Warmup.WARMING, warming.warmup());
+        warming.warmUp();
+
+        assertEquals(OfferDocumentOcrService.Warmup.READY, warming.warmup());
+        try (InputStream bundled = new ClassPathResource("tessdata/eng.traineddata").getInputStream()) {
+            assertArrayEquals(bundled.readAllBytes(), Files.readAllBytes(trainedData));
+        }
+        assertEquals(OfferDocumentOcrService.Warmup.DISABLED, service.warmup());
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
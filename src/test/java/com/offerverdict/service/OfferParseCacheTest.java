@@ -0,0 +1,90 @@
+package com.offerverdict.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
+import com.offerverdict.data.DataRepository;
+import com.offerverdict.model.OfferTextParseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class OfferParseCacheTest {
+
+    private static final String OFFER =
+            "Offer for ICU RN in Seattle, WA at $62/hr with a $10,000 sign-on bonus. I currently make $45/hr in Austin, TX.";
+
+    @Test
+    void reportStepReusesDraftStepParse() {
+        AppMetrics metrics = new AppMetrics(new SimpleMeterRegistry());
+        DataRepository repository = repository();
+        OfferTextParserService parser = new OfferTextParserService(repository, metrics, 16);
+
+        OfferTextParseResult draftStep = parser.parse(OFFER, "offer_review");
+        draftStep.setSourceLabel("uploaded document");
+        draftStep.getDraft().setOfferHourlyRate(1);
+        draftStep.getExtractedFields().clear();
+        OfferTextParseResult reportStep = parser.parse(OFFER.replace(' ', '\u00A0'), "offer_review");
+
+        assertNotSame(draftStep, reportStep);
+        assertEquals(null, reportStep.getSourceLabel());
+        assertEquals(62, reportStep.getDraft().getOfferHourlyRate());
+        assertEquals(OFFER.replace(' ', '\u00A0'), reportStep.getDraft().getSourceText());
+        assertEquals(new OfferTextParserService(repository, new AppMetrics(new SimpleMeterRegistry()))
+                        .parse(OFFER, "offer_review").getExtractedFields(),
+                reportStep.getExtractedFields());
+        assertEquals(1, lookups(metrics, "hit"));
+        assertEquals(1, lookups(metrics, "miss"));
+
+        parser.parse(OFFER, "job_post");
+        repository.reload();
+        parser.parse(OFFER, "offer_review");
+        assertEquals(3, lookups(metrics, "miss"));
+    }
+
+    @Test
+    void probesBypassTheCache() {
+        AppMetrics metrics = new AppMetrics(new SimpleMeterRegistry());
+        OfferTextParserService parser = new OfferTextParserService(repository(), metrics, 16);
+
+        OfferTextParseResult probe = parser.parseUncached(OFFER, "offer_review");
+        parser.parseUncached(OFFER, "offer_review");
+
+        assertEquals(0, lookups(metrics, "hit") + lookups(metrics, "miss"));
+        assertEquals(parser.parse(OFFER, "offer_review").getExtractedFields(), probe.getExtractedFields());
+        assertEquals(1, lookups(metrics, "miss"));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        OfferParseCache cache = new OfferParseCache(2, new AppMetrics(new SimpleMeterRegistry()));
+        AtomicInteger parses = new AtomicInteger();
+        OfferTextParserService parser =
+                new OfferTextParserService(repository(), new AppMetrics(new SimpleMeterRegistry()));
+        for (String text : new String[] {"a", "b", "a", "c", "a", "b"}) {
+            cache.get(OfferParseCache.key(text, "offer_review", 1), text, () -> {
+                parses.incrementAndGet();
+                return parser.parse(text, "offer_review");
+            });
+        }
+
+        assertEquals(4, parses.get());
+        assertEquals(2, cache.size());
+    }
+
+    private static double lookups(AppMetrics metrics, String result) {
+        return metrics.registry().counter(AppMetrics.CACHE_REQUESTS, "cache", "parse", "result", result).count();
+    }
+
+    private static DataRepository repository() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        DataRepository repository = new DataRepository(objectMapper);
+        repository.reload();
+        return repository;
+    }
+}
@@ -0,0 +1,39 @@
+package com.offerverdict.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OfferSignalTest {
+
+    @Test
+    void compiledRulesAgreeWithPlainContainsOverEveryCorpus() {
+        int matchedInputs = 0;
+        for (ParserCorpora.Input input : ParserCorpora.all()) {
+            String lowerText = input.text().toLowerCase(Locale.ROOT);
+            EnumSet<OfferSignal> expected = EnumSet.noneOf(OfferSignal.class);
+            for (OfferSignal signal : OfferSignal.values()) {
+                if (signal.phrases().stream().anyMatch(lowerText::contains)) {
+                    expected.add(signal);
+                }
+            }
+            assertEquals(expected, OfferSignal.MATCHER.match(lowerText), input.text());
+            if (!expected.isEmpty()) {
+                matchedInputs++;
+            }
+        }
+        assertTrue(matchedInputs > 0, "corpora should exercise at least one rule");
+    }
+
+    @Test
+    void scheduleStrainNeedsFamilyContextToo() {
+        long matched = OfferSignal.match("rotating nights and every weekend, my kids are in school");
+        assertTrue(OfferSignal.LIFE_SCHEDULE_STRAIN.in(matched));
+        assertTrue(OfferSignal.LIFE_FAMILY_CONTEXT.in(matched));
+        assertTrue(OfferSignal.LIFE_CHILDCARE.in(matched));
+    }
+}
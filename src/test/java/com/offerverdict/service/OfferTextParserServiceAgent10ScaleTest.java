@@ -2,10 +2,12 @@ package com.offerverdict.service;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.CityCostEntry;
 import com.offerverdict.model.OfferRiskDraft;
 import com.offerverdict.model.OfferTextParseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -27,7 +29,8 @@ class OfferTextParserServiceAgent10ScaleTest {
     private static final Path FAILURE_REPORT = Path.of("build", "reports", "agent10-parser-failures.txt");
 
     private final DataRepository repository = repository();
-    private final OfferTextParserService parser = new OfferTextParserService(repository);
+    private final OfferTextParserService parser =
+            new OfferTextParserService(repository, new AppMetrics(new SimpleMeterRegistry()));
 
     private static DataRepository repository() {
         ObjectMapper objectMapper = new ObjectMapper()
@@ -45,6 +48,12 @@ class OfferTextParserServiceAgent10ScaleTest {
         assertCasesPass(cases);
     }
 
+    List<ParserCorpora.Input> corpusInputs() {
+        return cases().stream()
+                .map(spec -> new ParserCorpora.Input(spec.input(), "offer_review"))
+                .toList();
+    }
+
     private void assertCasesPass(List<CaseSpec> cases) {
         List<Failure> failures = Collections.synchronizedList(new ArrayList<>());
         IntStream.range(0, cases.size()).parallel().forEach(i -> {
@@ -2,9 +2,11 @@ package com.offerverdict.service;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.OfferRiskDraft;
 import com.offerverdict.model.OfferTextParseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
@@ -18,7 +20,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class OfferTextParserServiceAgent1ScaleTest {
 
-    private final OfferTextParserService parser = new OfferTextParserService(repository());
+    private final OfferTextParserService parser =
+            new OfferTextParserService(repository(), new AppMetrics(new SimpleMeterRegistry()));
 
     private static DataRepository repository() {
         ObjectMapper objectMapper = new ObjectMapper()
@@ -36,6 +39,12 @@ class OfferTextParserServiceAgent1ScaleTest {
         assertCasesPass(cases);
     }
 
+    List<ParserCorpora.Input> corpusInputs() {
+        return agentOneCases().stream()
+                .map(spec -> new ParserCorpora.Input(spec.text(), "offer_review"))
+                .toList();
+    }
+
     private void assertCasesPass(List<CaseSpec> cases) {
         List<String> failures = Collections.synchronizedList(new ArrayList<>());
         IntStream.range(0, cases.size()).parallel().forEach(i -> {
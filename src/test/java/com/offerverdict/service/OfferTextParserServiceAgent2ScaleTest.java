@@ -2,9 +2,11 @@ package com.offerverdict.service;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.OfferRiskDraft;
 import com.offerverdict.model.OfferTextParseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -24,7 +26,8 @@ class OfferTextParserServiceAgent2ScaleTest {
     private static final Path FAILURE_REPORT = Path.of("build", "reports",
             "agent2-parser-scale-failures.txt");
 
-    private final OfferTextParserService parser = new OfferTextParserService(repository());
+    private final OfferTextParserService parser =
+            new OfferTextParserService(repository(), new AppMetrics(new SimpleMeterRegistry()));
 
     private static DataRepository repository() {
         ObjectMapper objectMapper = new ObjectMapper()
@@ -36,15 +39,26 @@ class OfferTextParserServiceAgent2ScaleTest {
 
     @Test
     void parsesOneThousandAgent2AdversarialJobPostInputs() throws IOException {
+        List<CaseSpec> cases = corpus();
+
+        assertEquals(1000, cases.size(), "agent 2 corpus size drifted");
+        assertCasesPass(cases);
+    }
+
+    private List<CaseSpec> corpus() {
         List<CaseSpec> cases = new ArrayList<>();
         cases.addAll(multiCityJobPostCases());
         cases.addAll(ocrLikeNoiseCases());
         cases.addAll(payRangeAndMalformedRangeCases());
         cases.addAll(fteAndPremiumCases());
         cases.addAll(brochureAndRelocationNoiseCases());
+        return cases;
+    }
 
-        assertEquals(1000, cases.size(), "agent 2 corpus size drifted");
-        assertCasesPass(cases);
+    List<ParserCorpora.Input> corpusInputs() {
+        return corpus().stream()
+                .map(spec -> new ParserCorpora.Input(spec.text(), "job_post"))
+                .toList();
     }
 
     private void assertCasesPass(List<CaseSpec> cases) throws IOException {
@@ -2,8 +2,10 @@ package com.offerverdict.service;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.OfferTextParseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -22,7 +24,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class OfferTextParserServiceAgent3ScaleTest {
 
-    private final OfferTextParserService parser = new OfferTextParserService(repository());
+    private final OfferTextParserService parser =
+            new OfferTextParserService(repository(), new AppMetrics(new SimpleMeterRegistry()));
 
     private static DataRepository repository() {
         ObjectMapper objectMapper = new ObjectMapper()
@@ -34,6 +37,13 @@ class OfferTextParserServiceAgent3ScaleTest {
 
     @Test
     void parsesOneThousandLowInformationConcernInputsWithoutPrematureVerdicts() {
+        List<CaseSpec> cases = corpus();
+
+        assertEquals(1000, cases.size(), "agent 3 corpus size drifted");
+        assertCasesPass(cases);
+    }
+
+    private List<CaseSpec> corpus() {
         List<CaseSpec> cases = new ArrayList<>();
         cases.addAll(toxicCultureAndBullyingCases());
         cases.addAll(unsafeRatioAndStaffingCases());
@@ -45,9 +55,13 @@ class OfferTextParserServiceAgent3ScaleTest {
         cases.addAll(partialCityOnlyCases());
         cases.addAll(partialMoneyOnlyCases());
         cases.addAll(realWorldUnsupportedPhraseCases());
+        return cases;
+    }
 
-        assertEquals(1000, cases.size(), "agent 3 corpus size drifted");
-        assertCasesPass(cases);
+    List<ParserCorpora.Input> corpusInputs() {
+        return corpus().stream()
+                .map(spec -> new ParserCorpora.Input(spec.text(), "offer_review"))
+                .toList();
     }
 
     private void assertCasesPass(List<CaseSpec> cases) {
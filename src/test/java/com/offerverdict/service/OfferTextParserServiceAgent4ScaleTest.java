@@ -2,9 +2,11 @@ package com.offerverdict.service;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.OfferRiskDraft;
 import com.offerverdict.model.OfferTextParseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -23,7 +25,8 @@ class OfferTextParserServiceAgent4ScaleTest {
 
     private static final Path FAILURE_REPORT = Path.of("build", "reports", "agent4-money-field-failures.txt");
 
-    private final OfferTextParserService parser = new OfferTextParserService(repository());
+    private final OfferTextParserService parser =
+            new OfferTextParserService(repository(), new AppMetrics(new SimpleMeterRegistry()));
 
     private static DataRepository repository() {
         ObjectMapper objectMapper = new ObjectMapper()
@@ -57,6 +60,12 @@ class OfferTextParserServiceAgent4ScaleTest {
                 + "\n\n" + String.join("\n\n", failures.stream().limit(25).toList()));
     }
 
+    List<ParserCorpora.Input> corpusInputs() {
+        return buildCases().stream()
+                .map(spec -> new ParserCorpora.Input(spec.text(), "offer_review"))
+                .toList();
+    }
+
     private List<CaseSpec> buildCases() {
         List<CaseSpec> cases = new ArrayList<>();
         for (int i = 0; i < 1000; i++) {
@@ -2,9 +2,11 @@ package com.offerverdict.service;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.OfferRiskDraft;
 import com.offerverdict.model.OfferTextParseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -24,7 +26,8 @@ class OfferTextParserServiceAgent5ScaleTest {
 
     private static final Path FAILURE_REPORT = Path.of("build", "reports", "agent5-parser-failures.txt");
 
-    private final OfferTextParserService parser = new OfferTextParserService(repository());
+    private final OfferTextParserService parser =
+            new OfferTextParserService(repository(), new AppMetrics(new SimpleMeterRegistry()));
 
     private static DataRepository repository() {
         ObjectMapper objectMapper = new ObjectMapper()
@@ -36,6 +39,13 @@ class OfferTextParserServiceAgent5ScaleTest {
 
     @Test
     void parsesOneThousandAgent5CityRateAndUnitAmbiguityCases() {
+        List<CaseSpec> cases = corpus();
+
+        assertEquals(1000, cases.size(), "Agent 5 corpus size drifted");
+        assertCasesPass(cases);
+    }
+
+    private List<CaseSpec> corpus() {
         List<CaseSpec> cases = new ArrayList<>();
         cases.addAll(currentThenOfferCases());
         cases.addAll(offerThenCurrentCases());
@@ -43,9 +53,13 @@ class OfferTextParserServiceAgent5ScaleTest {
         cases.addAll(oneCityOnlyCases());
         cases.addAll(multiCityNoiseCases());
         cases.addAll(unitPunctuationCases());
+        return cases;
+    }
 
-        assertEquals(1000, cases.size(), "Agent 5 corpus size drifted");
-        assertCasesPass(cases);
+    List<ParserCorpora.Input> corpusInputs() {
+        return corpus().stream()
+                .map(spec -> new ParserCorpora.Input(spec.input(), "offer_review"))
+                .toList();
     }
 
     private void assertCasesPass(List<CaseSpec> cases) {
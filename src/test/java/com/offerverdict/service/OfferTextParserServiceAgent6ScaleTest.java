@@ -2,9 +2,11 @@ package com.offerverdict.service;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.OfferRiskDraft;
 import com.offerverdict.model.OfferTextParseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -25,7 +27,8 @@ class OfferTextParserServiceAgent6ScaleTest {
 
     private static final Path FAILURE_REPORT = Path.of("build", "reports", "agent6-parser-scale-failures.txt");
 
-    private final OfferTextParserService parser = new OfferTextParserService(repository());
+    private final OfferTextParserService parser =
+            new OfferTextParserService(repository(), new AppMetrics(new SimpleMeterRegistry()));
 
     private static DataRepository repository() {
         ObjectMapper objectMapper = new ObjectMapper()
@@ -37,12 +40,7 @@ class OfferTextParserServiceAgent6ScaleTest {
 
     @Test
     void parsesOneThousandAgent6MessyNurseOfferTexts() throws IOException {
-        List<CaseSpec> cases = new ArrayList<>();
-        cases.addAll(lowPunctuationCases());
-        cases.addAll(separatorRemovedCases());
-        cases.addAll(abbreviationAndMissingCommaCases());
-        cases.addAll(cityRateOrderFlipCases());
-        cases.addAll(offerFirstCurrentLaterCases());
+        List<CaseSpec> cases = corpus();
 
         assertEquals(1000, cases.size(), "agent6 corpus size drifted");
 
@@ -66,6 +64,22 @@ class OfferTextParserServiceAgent6ScaleTest {
         }
     }
 
+    private List<CaseSpec> corpus() {
+        List<CaseSpec> cases = new ArrayList<>();
+        cases.addAll(lowPunctuationCases());
+        cases.addAll(separatorRemovedCases());
+        cases.addAll(abbreviationAndMissingCommaCases());
+        cases.addAll(cityRateOrderFlipCases());
+        cases.addAll(offerFirstCurrentLaterCases());
+        return cases;
+    }
+
+    List<ParserCorpora.Input> corpusInputs() {
+        return corpus().stream()
+                .map(spec -> new ParserCorpora.Input(spec.text(), "offer_review"))
+                .toList();
+    }
+
     private List<CaseSpec> lowPunctuationCases() {
         List<CaseSpec> cases = new ArrayList<>();
         for (int i = 0; i < 200; i++) {
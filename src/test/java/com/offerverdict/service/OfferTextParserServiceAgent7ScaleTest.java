@@ -2,9 +2,11 @@ package com.offerverdict.service;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.OfferRiskDraft;
 import com.offerverdict.model.OfferTextParseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -25,7 +27,8 @@ class OfferTextParserServiceAgent7ScaleTest {
 
     private static final Path FAILURE_REPORT = Path.of("build", "reports", "agent7-parser-failures.txt");
 
-    private final OfferTextParserService parser = new OfferTextParserService(repository());
+    private final OfferTextParserService parser =
+            new OfferTextParserService(repository(), new AppMetrics(new SimpleMeterRegistry()));
 
     private static DataRepository repository() {
         ObjectMapper objectMapper = new ObjectMapper()
@@ -37,6 +40,13 @@ class OfferTextParserServiceAgent7ScaleTest {
 
     @Test
     void parsesOneThousandAgent7AdversarialJobPostAndMoneyCases() {
+        List<CaseSpec> cases = corpus();
+
+        assertEquals(1000, cases.size(), "Agent 7 corpus size drifted");
+        assertCasesPass(cases);
+    }
+
+    private List<CaseSpec> corpus() {
         List<CaseSpec> cases = new ArrayList<>();
         cases.addAll(jobPostRangeCases());
         cases.addAll(ocrNoisyCopiedListingCases());
@@ -46,9 +56,13 @@ class OfferTextParserServiceAgent7ScaleTest {
         cases.addAll(shiftAndWeekendDifferentialCases());
         cases.addAll(signOnRelocationSeparationCases());
         cases.addAll(offerReviewCurrentVsOfferCases());
+        return cases;
+    }
 
-        assertEquals(1000, cases.size(), "Agent 7 corpus size drifted");
-        assertCasesPass(cases);
+    List<ParserCorpora.Input> corpusInputs() {
+        return corpus().stream()
+                .map(spec -> new ParserCorpora.Input(spec.input(), spec.analysisMode()))
+                .toList();
     }
 
     private void assertCasesPass(List<CaseSpec> cases) {
@@ -2,9 +2,11 @@ package com.offerverdict.service;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.OfferRiskDraft;
 import com.offerverdict.model.OfferTextParseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -27,7 +29,8 @@ class OfferTextParserServiceAgent9ScaleTest {
     private static final Path FAILURE_REPORT = Path.of("build", "reports",
             "agent9-parser-money-scale-failures.txt");
 
-    private final OfferTextParserService parser = new OfferTextParserService(repository());
+    private final OfferTextParserService parser =
+            new OfferTextParserService(repository(), new AppMetrics(new SimpleMeterRegistry()));
 
     private static DataRepository repository() {
         ObjectMapper objectMapper = new ObjectMapper()
@@ -39,15 +42,26 @@ class OfferTextParserServiceAgent9ScaleTest {
 
     @Test
     void parsesOneThousandAgent9AdversarialMoneyCases() throws IOException {
+        List<CaseSpec> cases = corpus();
+
+        assertEquals(1000, cases.size(), "agent 9 corpus size drifted");
+        assertCasesPass(cases);
+    }
+
+    private List<CaseSpec> corpus() {
         List<CaseSpec> cases = new ArrayList<>();
         cases.addAll(signOnRetentionCases());
         cases.addAll(relocationMovingReimbursementCases());
         cases.addAll(insuranceParkingTuitionNoiseCases());
         cases.addAll(hourlyFormattingCases());
         cases.addAll(plusSlashSeparatorCrossWiringCases());
+        return cases;
+    }
 
-        assertEquals(1000, cases.size(), "agent 9 corpus size drifted");
-        assertCasesPass(cases);
+    List<ParserCorpora.Input> corpusInputs() {
+        return corpus().stream()
+                .map(spec -> new ParserCorpora.Input(spec.text(), "offer_review"))
+                .toList();
     }
 
     private void assertCasesPass(List<CaseSpec> cases) throws IOException {
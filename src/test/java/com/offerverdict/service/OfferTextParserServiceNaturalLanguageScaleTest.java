@@ -2,9 +2,11 @@ package com.offerverdict.service;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
 import com.offerverdict.data.DataRepository;
 import com.offerverdict.model.OfferRiskDraft;
 import com.offerverdict.model.OfferTextParseResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
@@ -18,7 +20,8 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class OfferTextParserServiceNaturalLanguageScaleTest {
 
-    private final OfferTextParserService parser = new OfferTextParserService(repository());
+    private final OfferTextParserService parser =
+            new OfferTextParserService(repository(), new AppMetrics(new SimpleMeterRegistry()));
 
     private static DataRepository repository() {
         ObjectMapper objectMapper = new ObjectMapper()
@@ -30,11 +33,7 @@ class OfferTextParserServiceNaturalLanguageScaleTest {
 
     @Test
     void parsesFiveHundredNaturalLanguageInputsWithoutCrossWiringCriticalFacts() {
-        List<CaseSpec> cases = new ArrayList<>();
-        cases.addAll(completeOfferCases());
-        cases.addAll(abbreviationCases());
-        cases.addAll(lowInformationConcernCases());
-        cases.addAll(jobPostCases());
+        List<CaseSpec> cases = coreCorpus();
 
         assertEquals(500, cases.size(), "test corpus size drifted");
         assertCasesPass(cases);
@@ -42,32 +41,58 @@ class OfferTextParserServiceNaturalLanguageScaleTest {
 
     @Test
     void parsesFiveHundredMoreDiverseNaturalLanguageInputs() {
+        List<CaseSpec> cases = diverseCorpus();
+
+        assertEquals(500, cases.size(), "diverse corpus size drifted");
+        assertCasesPass(cases);
+    }
+
+    @Test
+    void parsesFiveHundredAdversarialNaturalLanguageInputs() {
+        List<CaseSpec> cases = adversarialCorpus();
+
+        assertEquals(500, cases.size(), "adversarial corpus size drifted");
+        assertCasesPass(cases);
+    }
+
+    @Test
+    void parsesThreeThousandFiveHundredHumanLikeNaturalLanguageInputs() {
+        List<CaseSpec> cases = humanLikeCorpus();
+
+        assertEquals(3500, cases.size(), "human-like corpus size drifted");
+        assertCasesPass(cases);
+    }
+
+    private List<CaseSpec> coreCorpus() {
+        List<CaseSpec> cases = new ArrayList<>();
+        cases.addAll(completeOfferCases());
+        cases.addAll(abbreviationCases());
+        cases.addAll(lowInformationConcernCases());
+        cases.addAll(jobPostCases());
+        return cases;
+    }
+
+    private List<CaseSpec> diverseCorpus() {
         List<CaseSpec> cases = new ArrayList<>();
         cases.addAll(completeConcernCases());
         cases.addAll(messyStructuredNoteCases());
         cases.addAll(moneyFormattingCases());
         cases.addAll(decisionStageJobPostCases());
         cases.addAll(partialDecisionAnxietyCases());
-
-        assertEquals(500, cases.size(), "diverse corpus size drifted");
-        assertCasesPass(cases);
+        return cases;
     }
 
-    @Test
-    void parsesFiveHundredAdversarialNaturalLanguageInputs() {
+    private List<CaseSpec> adversarialCorpus() {
         List<CaseSpec> cases = new ArrayList<>();
         cases.addAll(reversedOrderOfferCases());
         cases.addAll(symbolHeavyMobileNoteCases());
         cases.addAll(shiftPremiumAndBonusSeparationCases());
         cases.addAll(ambiguousMoneyButMissingBasicsCases());
         cases.addAll(jobPostNoiseCases());
-
-        assertEquals(500, cases.size(), "adversarial corpus size drifted");
-        assertCasesPass(cases);
+        return cases;
     }
 
-    @Test
-    void parsesThreeThousandFiveHundredHumanLikeNaturalLanguageInputs() {
+    private List<CaseSpec> humanLikeCorpus() {
         List<CaseSpec> cases = new ArrayList<>();
         cases.addAll(humanDoubtWithCompleteFactsCases());
         cases.addAll(recruiterThreadPasteCases());
@@ -76,9 +101,18 @@ class OfferTextParserServiceNaturalLanguageScaleTest {
         cases.addAll(moneyLabelConfusionCases());
         cases.addAll(relocationLifestyleDecisionCases());
         cases.addAll(casualSlangDecisionCases());
+        return cases;
+    }
 
-        assertEquals(3500, cases.size(), "human-like corpus size drifted");
-        assertCasesPass(cases);
+    List<ParserCorpora.Input> corpusInputs() {
+        List<CaseSpec> cases = new ArrayList<>();
+        cases.addAll(coreCorpus());
+        cases.addAll(diverseCorpus());
+        cases.addAll(adversarialCorpus());
+        cases.addAll(humanLikeCorpus());
+        return cases.stream()
+                .map(spec -> new ParserCorpora.Input(spec.text(), spec.analysisMode()))
+                .toList();
     }
 
     private void assertCasesPass(List<CaseSpec> cases) {
@@ -0,0 +1,103 @@
+package com.offerverdict.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OfferTextTokensTest {
+
+    @Test
+    void singlePassFindsTheSameSpansAsOneFindLoopPerPattern() {
+        for (ParserCorpora.Input input : ParserCorpora.all()) {
+            assertSameSpansAsFindLoops(input.text());
+        }
+    }
+
+    @Test
+    void singlePassAgreesWithTheGrammarsOnAwkwardText() {
+        String[] pieces = {"$", " ", "  ", "\t", "1", "12", "123", "1234", ",", ",000", ".", ".5", ".50", "k", "K",
+                "-", "–", "to", "/", "/ ", "hr", "HRS", "hour", "hourly", "per", "per hour", "month", "months",
+                "-month", "h", "hours", "wk", "week", "weekly", "per week", "x", "_", "é", "\u0301", "\n",
+                "sign-on", "Sign On", "bonus", "relo", "relocation", "contract", "stay for", "sob"};
+        Random random = new Random(37);
+        for (int sample = 0; sample < 20_000; sample++) {
+            StringBuilder text = new StringBuilder();
+            for (int piece = random.nextInt(12); piece >= 0; piece--) {
+                text.append(pieces[random.nextInt(pieces.length)]);
+            }
+            assertSameSpansAsFindLoops(text.toString());
+        }
+    }
+
+    private static void assertSameSpansAsFindLoops(String text) {
+        OfferTextTokens tokens = OfferTextTokens.lex(text, text.toLowerCase(Locale.US));
+        for (OfferTextTokens.Kind kind : OfferTextTokens.LEXED) {
+            List<String> expected = new ArrayList<>();
+            Matcher matcher = kind.pattern().matcher(text);
+            while (matcher.find()) {
+                expected.add(matcher.start() + "-" + matcher.end());
+            }
+            List<String> actual = new ArrayList<>();
+            for (OfferTextTokens.Span span : tokens.all(kind)) {
+                actual.add(span.start() + "-" + span.end());
+            }
+            assertEquals(expected, actual, kind + " in " + text);
+        }
+        for (OfferKeyword keyword : OfferKeyword.values()) {
+            List<String> expected = new ArrayList<>();
+            Matcher matcher = Pattern.compile("(?<![A-Za-z0-9])" + Pattern.quote(keyword.phrase()) + "(?![A-Za-z0-9])",
+                    Pattern.CASE_INSENSITIVE).matcher(text);
+            while (matcher.find()) {
+                expected.add(matcher.start() + "-" + matcher.end());
+            }
+            List<String> actual = new ArrayList<>();
+            for (OfferTextTokens.Span hit : tokens.keywordHits(keyword)) {
+                actual.add(hit.start() + "-" + hit.end());
+            }
+            assertEquals(expected, actual, keyword + " in " + text);
+        }
+    }
+
+    @Test
+    void typesMoneyRatesAndMonths() {
+        String text = "Offer: $42.50/hr, $10k sign-on, 24 month commitment, pay $40 - $52/hr, 36 hours/week";
+        OfferTextTokens tokens = OfferTextTokens.lex(text, text.toLowerCase(Locale.US));
+
+        List<OfferTextTokens.Span> money = tokens.all(OfferTextTokens.Kind.MONEY);
+        assertEquals(42.5, money.get(0).value());
+        assertTrue(money.get(0).hourly());
+        assertEquals(10_000, money.get(1).value());
+        assertFalse(money.get(1).hourly());
+
+        OfferTextTokens.Span range = tokens.all(OfferTextTokens.Kind.HOURLY_RANGE).get(0);
+        assertEquals(40, range.value());
+        assertEquals(52, range.secondValue());
+        assertEquals(24, tokens.all(OfferTextTokens.Kind.MONTHS).get(0).value());
+        assertEquals(36, tokens.all(OfferTextTokens.Kind.WEEKLY_HOURS).get(0).value());
+
+        int signOn = tokens.keywordHits(OfferKeyword.SIGN_ON).get(0).start();
+        assertEquals(1, tokens.startingIn(OfferTextTokens.Kind.MONEY, signOn - 8, signOn).size());
+    }
+
+    @Test
+    void windowQueriesBehaveLikeSubstrings() {
+        String text = "current rate 45/hr, new offer";
+        OfferTextTokens tokens = OfferTextTokens.lex(text, text);
+
+        assertEquals(0, tokens.lastIndexIn(-10, 12, "current"));
+        assertEquals(8, tokens.lastIndexIn(0, 12, "rate", "current"));
+        assertEquals(-1, tokens.lastIndexIn(0, 11, "rate"));
+        assertEquals(-1, tokens.indexIn("offer", 0, text.length() - 1));
+        assertTrue(tokens.containsAnyIn(20, 100, "offer"));
+        assertFalse(tokens.containsAnyIn(0, 7, "current rate"));
+    }
+}
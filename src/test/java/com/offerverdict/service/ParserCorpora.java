@@ -0,0 +1,59 @@
+package com.offerverdict.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Raw parser inputs from the scale-test corpora, without their expectations, so benchmarks
+ * and corpus runners parse exactly what the regression tests do.
+ */
+final class ParserCorpora {
+
+    record Input(String text, String analysisMode) {
+    }
+
+    private static final Map<String, Supplier<List<Input>>> CORPORA = corpora();
+
+    private ParserCorpora() {
+    }
+
+    static List<String> names() {
+        return List.copyOf(CORPORA.keySet());
+    }
+
+    static List<Input> named(String name) {
+        Supplier<List<Input>> corpus = CORPORA.get(name);
+        if (corpus == null) {
+            throw new IllegalArgumentException("Unknown parser corpus: " + name + " (known: " + names() + ")");
+        }
+        return corpus.get();
+    }
+
+    static List<Input> all() {
+        List<Input> inputs = new ArrayList<>();
+        for (Supplier<List<Input>> corpus : CORPORA.values()) {
+            inputs.addAll(corpus.get());
+        }
+        return Collections.unmodifiableList(inputs);
+    }
+
+    private static Map<String, Supplier<List<Input>>> corpora() {
+        Map<String, Supplier<List<Input>>> corpora = new LinkedHashMap<>();
+        corpora.put("agent1", () -> new OfferTextParserServiceAgent1ScaleTest().corpusInputs());
+        corpora.put("agent2", () -> new OfferTextParserServiceAgent2ScaleTest().corpusInputs());
+        corpora.put("agent3", () -> new OfferTextParserServiceAgent3ScaleTest().corpusInputs());
+        corpora.put("agent4", () -> new OfferTextParserServiceAgent4ScaleTest().corpusInputs());
+        corpora.put("agent5", () -> new OfferTextParserServiceAgent5ScaleTest().corpusInputs());
+        corpora.put("agent6", () -> new OfferTextParserServiceAgent6ScaleTest().corpusInputs());
+        corpora.put("agent7", () -> new OfferTextParserServiceAgent7ScaleTest().corpusInputs());
+        corpora.put("agent8", () -> new OfferTextParserServiceAgent8ScaleTest().corpusInputs());
+        corpora.put("agent9", () -> new OfferTextParserServiceAgent9ScaleTest().corpusInputs());
+        corpora.put("agent10", () -> new OfferTextParserServiceAgent10ScaleTest().corpusInputs());
+        corpora.put("naturalLanguage", () -> new OfferTextParserServiceNaturalLanguageScaleTest().corpusInputs());
+        return Collections.unmodifiableMap(corpora);
+    }
+}
@@ -0,0 +1,189 @@
+package com.offerverdict.service;
+
+import com.offerverdict.model.OfferTextParseResult;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Runs parser corpora either once for correctness or in performance mode, where it warms
+ * up, then times every parse on the calling thread and reports throughput, latency
+ * percentiles and allocated bytes per parse. Reports can be saved as a baseline file and
+ * later compared against it.
+ */
+final class ParserCorpusRunner {
+
+    record Report(String corpus, int parses, int failures, double parsesPerSecond,
+            double p50Micros, double p99Micros, long allocatedBytesPerParse) {
+
+        String summary() {
+            return String.format(Locale.ROOT,
+                    "%-16s %7d parses %10.0f parses/s  p50 %8.1fus  p99 %8.1fus  %9d B/parse  %d failures",
+                    corpus, parses, parsesPerSecond, p50Micros, p99Micros, allocatedBytesPerParse, failures);
+        }
+    }
+
+    private final OfferTextParserService parser;
+    private final int warmupPasses;
+    private final int measuredPasses;
+
+    ParserCorpusRunner(OfferTextParserService parser, int warmupPasses, int measuredPasses) {
+        this.parser = parser;
+        this.warmupPasses = Math.max(0, warmupPasses);
+        this.measuredPasses = Math.max(1, measuredPasses);
+    }
+
+    /**
+     * Parses every input once and returns the results in input order.
+     */
+    List<OfferTextParseResult> parseAll(List<ParserCorpora.Input> inputs) {
+        List<OfferTextParseResult> results = new ArrayList<>(inputs.size());
+        for (ParserCorpora.Input input : inputs) {
+            results.add(parser.parse(input.text(), input.analysisMode()));
+        }
+        return results;
+    }
+
+    Report measure(String corpus, List<ParserCorpora.Input> inputs) {
+        if (inputs.isEmpty()) {
+            throw new IllegalArgumentException("Corpus " + corpus + " has no inputs");
+        }
+        for (int pass = 0; pass < warmupPasses; pass++) {
+            runPass(inputs, null);
+        }
+
+        long[] latencies = new long[inputs.size() * measuredPasses];
+        int failures = 0;
+        long allocatedBefore = allocatedBytes();
+        long started = System.nanoTime();
+        for (int pass = 0; pass < measuredPasses; pass++) {
+            failures += runPass(inputs, new LatencySink(latencies, pass * inputs.size()));
+        }
+        long elapsed = System.nanoTime() - started;
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        Arrays.sort(latencies);
+        int parses = latencies.length;
+        return new Report(corpus, parses, failures,
+                parses / (elapsed / 1_000_000_000d),
+                percentile(latencies, 0.50) / 1_000d,
+                percentile(latencies, 0.99) / 1_000d,
+                allocatedBefore < 0 ? -1 : allocated / parses);
+    }
+
+    private int runPass(List<ParserCorpora.Input> inputs, LatencySink sink) {
+        int failures = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            ParserCorpora.Input input = inputs.get(i);
+            long start = System.nanoTime();
+            try {
+                if (parser.parse(input.text(), input.analysisMode()) == null) {
+                    failures++;
+                }
+            } catch (RuntimeException e) {
+                failures++;
+            }
+            if (sink != null) {
+                sink.latencies[sink.offset + i] = System.nanoTime() - start;
+            }
+        }
+        return failures;
+    }
+
+    static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.min(sorted.length - 1, Math.max(0, index))];
+    }
+
+    /**
+     * Returns one message per corpus whose throughput fell more than
+     * {@code maxRegressionPercent} below its baseline. Corpora without a baseline are skipped.
+     */
+    static List<String> regressions(List<Report> reports, Map<String, Double> baseline, double maxRegressionPercent) {
+        List<String> regressions = new ArrayList<>();
+        for (Report report : reports) {
+            Double expected = baseline.get(report.corpus());
+            if (expected == null || expected <= 0) {
+                continue;
+            }
+            double floor = expected * (1 - maxRegressionPercent / 100d);
+            if (report.parsesPerSecond() < floor) {
+                regressions.add(String.format(Locale.ROOT,
+                        "%s: %.0f parses/s is %.1f%% below baseline %.0f (allowed %.1f%%)",
+                        report.corpus(), report.parsesPerSecond(),
+                        (1 - report.parsesPerSecond() / expected) * 100, expected, maxRegressionPercent));
+            }
+        }
+        return regressions;
+    }
+
+    static Map<String, Double> readBaseline(Reader reader) throws IOException {
+        Properties properties = new Properties();
+        properties.load(reader);
+        Map<String, Double> baseline = new LinkedHashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.endsWith(".parsesPerSecond")) {
+                baseline.put(key.substring(0, key.length() - ".parsesPerSecond".length()),
+                        Double.parseDouble(properties.getProperty(key).trim()));
+            }
+        }
+        return baseline;
+    }
+
+    static Map<String, Double> readBaseline(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return Map.of();
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return readBaseline(reader);
+        }
+    }
+
+    /**
+     * Writes reports in the baseline format, so a results file can be committed as the new baseline.
+     */
+    static void writeReports(List<Report> reports, Writer writer) throws IOException {
+        writer.write("# Parser corpus throughput. Regenerate with ./gradlew parserPerf -PparserPerfUpdateBaseline\n");
+        Map<String, Report> sorted = new TreeMap<>();
+        for (Report report : reports) {
+            sorted.put(report.corpus(), report);
+        }
+        for (Report report : sorted.values()) {
+            writer.write(String.format(Locale.ROOT, "%s.parsesPerSecond=%.0f%n", report.corpus(), report.parsesPerSecond()));
+            writer.write(String.format(Locale.ROOT, "%s.p50Micros=%.1f%n", report.corpus(), report.p50Micros()));
+            writer.write(String.format(Locale.ROOT, "%s.p99Micros=%.1f%n", report.corpus(), report.p99Micros()));
+            writer.write(String.format(Locale.ROOT, "%s.allocatedBytesPerParse=%d%n",
+                    report.corpus(), report.allocatedBytesPerParse()));
+        }
+    }
+
+    private static long allocatedBytes() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported()) {
+            if (!threads.isThreadAllocatedMemoryEnabled()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+            }
+            return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private record LatencySink(long[] latencies, int offset) {
+    }
+}
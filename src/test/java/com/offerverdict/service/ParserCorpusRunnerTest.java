@@ -0,0 +1,113 @@
+package com.offerverdict.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.offerverdict.config.AppMetrics;
+import com.offerverdict.data.DataRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ParserCorpusRunnerTest {
+    private static final Logger logger = LoggerFactory.getLogger(ParserCorpusRunnerTest.class);
+
+    private static final Path DEFAULT_BASELINE = Path.of("src/test/resources/perf/parser-throughput-baseline.properties");
+    private static final Path RESULTS = Path.of("build/reports/parser-perf/results.properties");
+
+    @Test
+    void percentilesUseNearestRank() {
+        long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+
+        assertEquals(50, ParserCorpusRunner.percentile(sorted, 0.50));
+        assertEquals(99, ParserCorpusRunner.percentile(sorted, 0.99));
+        assertEquals(7, ParserCorpusRunner.percentile(new long[] {7}, 0.99));
+    }
+
+    @Test
+    void flagsOnlyCorporaBelowTheAllowedRegression() throws Exception {
+        List<ParserCorpusRunner.Report> reports = List.of(
+                new ParserCorpusRunner.Report("agent1", 1000, 0, 7_000, 100, 400, 50_000),
+                new ParserCorpusRunner.Report("agent2", 1000, 0, 9_500, 90, 300, 40_000),
+                new ParserCorpusRunner.Report("agent3", 1000, 0, 1_000, 90, 300, 40_000));
+        StringWriter written = new StringWriter();
+        ParserCorpusRunner.writeReports(List.of(
+                new ParserCorpusRunner.Report("agent1", 1000, 0, 10_000, 80, 200, 45_000),
+                new ParserCorpusRunner.Report("agent2", 1000, 0, 10_000, 80, 200, 45_000)), written);
+
+        Map<String, Double> baseline = ParserCorpusRunner.readBaseline(new StringReader(written.toString()));
+        List<String> regressions = ParserCorpusRunner.regressions(reports, baseline, 20);
+
+        assertEquals(Map.of("agent1", 10_000d, "agent2", 10_000d), baseline);
+        // agent3 has no baseline yet, so it is reported but never fails the gate.
+        assertEquals(1, regressions.size(), regressions.toString());
+        assertTrue(regressions.get(0).startsWith("agent1: 7000 parses/s is 30.0% below baseline 10000"));
+    }
+
+    /**
+     * Throughput gate over every scale-test corpus. Opt-in because it needs a quiet machine:
+     * run {@code ./gradlew parserPerf}, and add {@code -PparserPerfUpdateBaseline} to rewrite
+     * the committed baseline after an intentional change.
+     */
+    @Test
+    void corporaStayWithinThroughputBaseline() throws Exception {
+        assumeTrue(Boolean.getBoolean("parser.perf"), "set -Dparser.perf=true to run the parser throughput gate");
+        Path baselineFile = Path.of(System.getProperty("parser.perf.baseline", DEFAULT_BASELINE.toString()));
+        double maxRegressionPercent = Double.parseDouble(System.getProperty("parser.perf.maxRegressionPercent", "20"));
+        OfferTextParserService parser = new OfferTextParserService(repository(), new AppMetrics(new SimpleMeterRegistry()));
+        ParserCorpusRunner runner = new ParserCorpusRunner(parser,
+                Integer.getInteger("parser.perf.warmupPasses", 2),
+                Integer.getInteger("parser.perf.measuredPasses", 3));
+
+        List<ParserCorpusRunner.Report> reports = new ArrayList<>();
+        for (String corpus : ParserCorpora.names()) {
+            ParserCorpusRunner.Report report = runner.measure(corpus, ParserCorpora.named(corpus));
+            logger.info(report.summary());
+            reports.add(report);
+        }
+        write(reports, RESULTS);
+        if (Boolean.getBoolean("parser.perf.updateBaseline")) {
+            write(reports, baselineFile);
+            return;
+        }
+
+        assertTrue(reports.stream().allMatch(report -> report.failures() == 0), "parser threw on corpus input");
+        List<String> regressions = ParserCorpusRunner.regressions(reports,
+                ParserCorpusRunner.readBaseline(baselineFile), maxRegressionPercent);
+        assertTrue(regressions.isEmpty(), String.join("\n", regressions));
+    }
+
+    private static void write(List<ParserCorpusRunner.Report> reports, Path file) throws Exception {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            ParserCorpusRunner.writeReports(reports, writer);
+        }
+    }
+
+    private static DataRepository repository() {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        DataRepository repository = new DataRepository(objectMapper);
+        repository.reload();
+        return repository;
+    }
+}
@@ -0,0 +1,80 @@
+package com.offerverdict.service;
+
+import com.offerverdict.model.ComparisonBreakdown;
+import com.offerverdict.model.HouseholdType;
+import com.offerverdict.model.HousingType;
+import com.offerverdict.model.SimulationForm;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SimulationSessionsTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimulationSessions sessions = new SimulationSessions(2, 1_000, now::get);
+
+    @Test
+    void returnsSessionsUntilTheyExpire() {
+        ComparisonBreakdown current = new ComparisonBreakdown();
+        String token = sessions.put(null, form(120_000), key(120_000), current);
+
+        now.set(999);
+        assertSame(current, sessions.get(token).current());
+        assertEquals(form(120_000), sessions.get(token).form());
+
+        now.set(1_000);
+        assertNull(sessions.get(token));
+        assertEquals(0, sessions.size());
+        assertNull(sessions.get("unknown"));
+        assertNull(sessions.get(null));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedAndIssuesFreshTokens() {
+        String first = sessions.put(null, form(1), key(1), new ComparisonBreakdown());
+        String second = sessions.put(null, form(2), key(2), new ComparisonBreakdown());
+        sessions.get(first);
+        String third = sessions.put(null, form(2), key(2), new ComparisonBreakdown());
+
+        assertNotEquals(second, third);
+        assertNull(sessions.get(second));
+        assertEquals(form(1), sessions.get(first).form());
+        assertEquals(2, sessions.size());
+    }
+
+    @Test
+    void continuingASessionReplacesIt() {
+        String first = sessions.put(null, form(1), key(1), new ComparisonBreakdown());
+        String next = sessions.put(first, form(2), key(1), new ComparisonBreakdown());
+
+        assertNull(sessions.get(first));
+        assertEquals(form(2), sessions.get(next).form());
+        assertEquals(1, sessions.size());
+        assertNotNull(sessions.put("unknown", form(3), key(1), new ComparisonBreakdown()));
+        assertEquals(2, sessions.size());
+    }
+
+    @Test
+    void disabledStoreIssuesNoTokens() {
+        SimulationSessions disabled = new SimulationSessions(0, 1_000, now::get);
+
+        assertNull(disabled.put(null, form(1), key(1), new ComparisonBreakdown()));
+        assertEquals(0, disabled.size());
+    }
+
+    private static SimulationForm form(double offerSalary) {
+        return new SimulationForm("austin-tx", "seattle-wa", 100_000, offerSalary, false, false, false, false,
+                0, 0, false, false, true, 0, 0, 1.0, 0);
+    }
+
+    private static SimulationSessions.CurrentSideKey key(double salary) {
+        return new SimulationSessions.CurrentSideKey("austin-tx", salary, HouseholdType.SINGLE, HousingType.RENT,
+                false, 0.04, 400.0, 0, 1);
+    }
+}
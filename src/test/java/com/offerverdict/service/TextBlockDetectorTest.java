@@ -0,0 +1,93 @@
+package com.offerverdict.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextBlockDetectorTest {
+
+    @Test
+    void findsParagraphsAndSideLogoInReadingOrder() {
+        BufferedImage page = page(1800, 2400, BufferedImage.TYPE_BYTE_BINARY);
+        Graphics2D graphics = page.createGraphics();
+        try {
+            graphics.setColor(Color.BLACK);
+            graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 40));
+            graphics.drawString("MERCY GENERAL HOSPITAL", 100, 150);
+            graphics.fillRect(1500, 100, 160, 90);
+            graphics.drawString("ICU RN OFFER SEATTLE WA", 100, 700);
+            graphics.drawString("$60/HR 36 HOURS PER WEEK", 100, 760);
+            graphics.drawString("SIGN ON BONUS $15000", 100, 1900);
+        } finally {
+            graphics.dispose();
+        }
+
+        List<Rectangle> regions = TextBlockDetector.detect(page);
+
+        assertEquals(4, regions.size(), regions.toString());
+        assertTrue(regions.get(0).x < 200 && regions.get(1).x > 1400, "letterhead then logo: " + regions);
+        assertTrue(regions.get(2).y > 600 && regions.get(2).y + regions.get(2).height > 760,
+                "two-line paragraph is one block: " + regions.get(2));
+        assertTrue(regions.get(3).y > 1800);
+        long area = regions.stream().mapToLong(region -> (long) region.width * region.height).sum();
+        assertTrue(area < 1800L * 2400 / 5, "area " + area);
+        for (Rectangle region : regions) {
+            assertTrue(new Rectangle(0, 0, 1800, 2400).contains(region), region.toString());
+        }
+    }
+
+    @Test
+    void readsGrayAndRgbCandidatesToo() {
+        for (int type : new int[] {BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_INT_RGB}) {
+            BufferedImage page = page(1800, 1200, type);
+            Graphics2D graphics = page.createGraphics();
+            try {
+                graphics.setColor(Color.DARK_GRAY);
+                graphics.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 40));
+                graphics.drawString("PAY RANGE $45.59 HOURLY", 100, 200);
+            } finally {
+                graphics.dispose();
+            }
+
+            assertEquals(1, TextBlockDetector.detect(page).size());
+        }
+    }
+
+    @Test
+    void fallsBackToTheFullImageWhenSplittingWouldNotHelp() {
+        assertEquals(List.of(), TextBlockDetector.detect(page(1800, 1200, BufferedImage.TYPE_BYTE_BINARY)));
+
+        BufferedImage dense = page(1800, 1200, BufferedImage.TYPE_BYTE_BINARY);
+        Graphics2D graphics = dense.createGraphics();
+        try {
+            graphics.setColor(Color.BLACK);
+            graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 30));
+            for (int y = 40; y < 1200; y += 36) {
+                graphics.drawString("TERMS AND CONDITIONS OF EMPLOYMENT APPLY TO THIS OFFER LETTER AND SCHEDULE", 10, y);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        assertEquals(List.of(), TextBlockDetector.detect(dense));
+    }
+
+    private static BufferedImage page(int width, int height, int type) {
+        BufferedImage page = new BufferedImage(width, height, type);
+        Graphics2D graphics = page.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+        } finally {
+            graphics.dispose();
+        }
+        return page;
+    }
+}
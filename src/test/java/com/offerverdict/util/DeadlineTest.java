@@ -0,0 +1,35 @@
+package com.offerverdict.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadlineTest {
+
+    @Test
+    void countsTheBudgetFromTheGivenStart() {
+        long started = System.nanoTime() - Duration.ofSeconds(5).toNanos();
+
+        assertTrue(Deadline.since(started, Duration.ofSeconds(2)).expired());
+        assertEquals(0, Deadline.since(started, Duration.ofSeconds(2)).remainingNanos());
+
+        Deadline later = Deadline.since(started, Duration.ofMinutes(5));
+        assertFalse(later.expired());
+        assertTrue(later.remainingNanos() > Duration.ofMinutes(4).toNanos());
+    }
+
+    @Test
+    void missingOrNonPositiveBudgetMeansNoLimit() {
+        long now = System.nanoTime();
+        assertSame(Deadline.none(), Deadline.since(now, Duration.ZERO));
+        assertSame(Deadline.none(), Deadline.since(now, Duration.ofMillis(-1)));
+        assertSame(Deadline.none(), Deadline.since(now, null));
+        assertFalse(Deadline.none().expired());
+        assertEquals(Long.MAX_VALUE, Deadline.none().remainingNanos());
+    }
+}
@@ -0,0 +1,69 @@
+package com.offerverdict.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PhraseMatcherTest {
+
+    private enum Signal {
+        HE, SHE, HERS, CAFE, NONE
+    }
+
+    private static final Map<Signal, List<String>> PHRASES = Map.of(
+            Signal.HE, List.of("he"),
+            Signal.SHE, List.of("she"),
+            Signal.HERS, List.of("hers", "his"),
+            Signal.CAFE, List.of("café"),
+            Signal.NONE, List.of());
+
+    private final PhraseMatcher<Signal> matcher = PhraseMatcher.compile(Signal.class, PHRASES::get);
+
+    @Test
+    void findsOverlappingAndSuffixPhrasesInOnePass() {
+        assertEquals(EnumSet.of(Signal.HE, Signal.SHE, Signal.HERS), matcher.match("ushers"));
+        assertEquals(EnumSet.of(Signal.HERS), matcher.match("this"));
+        assertEquals(EnumSet.noneOf(Signal.class), matcher.match("h e s"));
+        assertEquals(EnumSet.noneOf(Signal.class), matcher.match(null));
+    }
+
+    @Test
+    void handlesCharactersOutsideAscii() {
+        assertEquals(EnumSet.of(Signal.CAFE), matcher.match("a café opens"));
+        assertEquals(EnumSet.noneOf(Signal.class), matcher.match("a cafe’s"));
+    }
+
+    @Test
+    void maskBitsFollowOrdinals() {
+        long mask = matcher.matchMask("she");
+        assertEquals((1L << Signal.HE.ordinal()) | (1L << Signal.SHE.ordinal()), mask);
+        assertEquals(EnumSet.of(Signal.HE, Signal.SHE), matcher.toSet(mask));
+    }
+
+    @Test
+    void steppingReportsWherePhrasesEnd() {
+        String text = "ushers";
+        int state = matcher.initialState();
+        List<String> ends = new ArrayList<>();
+        for (int i = 0; i < text.length(); i++) {
+            state = matcher.next(state, text.charAt(i));
+            long ending = matcher.endingAt(state);
+            if (ending != 0) {
+                ends.add(i + ":" + matcher.toSet(ending));
+            }
+        }
+        assertEquals(List.of("3:[HE, SHE]", "5:[HERS]"), ends);
+    }
+
+    @Test
+    void rejectsEmptyPhrases() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PhraseMatcher.compile(Signal.class, signal -> List.of("")));
+    }
+}
@@ -0,0 +1,66 @@
+package com.offerverdict.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StageTraceTest {
+
+    @Test
+    void spansWithoutAnActiveTraceAreSharedNoOps() {
+        assertFalse(StageTrace.active());
+        assertSame(StageTrace.span("parse"), StageTrace.span("assess"));
+        assertEquals("value", StageTrace.traced("normalize", () -> "value"));
+    }
+
+    @Test
+    void nestedSpansAreRecordedInStartOrderWithDottedNames() {
+        StageTrace trace = StageTrace.begin(true);
+        try (StageTrace.Span ignored = StageTrace.span("parse")) {
+            StageTrace.traced("normalize", () -> new byte[64 * 1024]);
+            try (StageTrace.Span inner = StageTrace.span("detect_cities")) {
+                assertTrue(StageTrace.active());
+            }
+        }
+        trace.end();
+
+        List<StageTrace.Stage> stages = trace.stages();
+        assertEquals(List.of("parse", "parse.normalize", "parse.detect_cities"),
+                stages.stream().map(StageTrace.Stage::name).toList());
+        assertEquals(1, stages.get(1).depth());
+        assertTrue(stages.get(0).nanos() >= stages.get(1).nanos());
+        assertTrue(stages.get(1).allocatedBytes() >= 64 * 1024, "allocation " + stages.get(1).allocatedBytes());
+        assertFalse(StageTrace.active());
+    }
+
+    @Test
+    void serverTimingHeaderListsStagesAndTotal() {
+        StageTrace trace = StageTrace.begin(false);
+        StageTrace.Span extract = StageTrace.span("extract");
+        StageTrace.span("image_ocr");
+        // Spans left open (e.g. by an exception) are closed when the trace ends.
+        trace.end();
+        extract.close();
+
+        String header = trace.serverTimingHeader();
+        assertTrue(header.matches("extract;dur=\\d+\\.\\d{3}, extract\\.image_ocr;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}"),
+                header);
+    }
+
+    @Test
+    void stageCountIsBounded() {
+        StageTrace trace = StageTrace.begin(false);
+        for (int i = 0; i < StageTrace.MAX_STAGES + 10; i++) {
+            StageTrace.span("render_page").close();
+        }
+        trace.end();
+
+        assertEquals(StageTrace.MAX_STAGES, trace.stages().size());
+        assertEquals(10, trace.droppedStages());
+    }
+}